@@ -0,0 +1,18 @@
+#!/bin/sh
+# Starts a streaming replica of fraud_detection_db. On first start the data directory is cloned from
+# the primary with pg_basebackup; -R writes the standby configuration so Postgres starts in recovery.
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    mkdir -p "$PGDATA"
+    chown postgres:postgres "$PGDATA"
+    chmod 0700 "$PGDATA"
+    until su-exec postgres pg_basebackup --host="$PRIMARY_HOST" --username=replicator \
+            --pgdata="$PGDATA" --wal-method=stream --write-recovery-conf; do
+        echo "Waiting for the primary to accept replication connections..."
+        rm -rf "${PGDATA:?}"/*
+        sleep 2
+    done
+fi
+
+exec docker-entrypoint.sh postgres
@@ -0,0 +1,249 @@
+package org.fiverty.frauddetection.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Settings for one load test run, parsed from {@code key=value} arguments. Every setting that shapes
+ * the generated traffic is part of the report, so two runs with the same settings and seed send the
+ * same sequence of requests at the same intended times.
+ *
+ * @param baseUrl        the root URL of the instance under test
+ * @param rate           mean arrival rate, in requests per second
+ * @param duration       length of the measured part of the run
+ * @param warmup         length of the unmeasured warm-up before it, at the same rate
+ * @param seed           seed for both the arrival schedule and the request contents
+ * @param customers      size of the synthetic customer population
+ * @param merchants      size of the synthetic merchant population
+ * @param customerSkew   Zipf exponent of customer activity; 0 is uniform
+ * @param merchantSkew   Zipf exponent of merchant popularity; 0 is uniform
+ * @param fraudMix       share of requests carrying each fraud pattern; the rest are clean
+ * @param maxInFlight    requests allowed outstanding before new arrivals are counted as dropped
+ * @param requestTimeout per-request timeout
+ * @param format         wire format of request and response bodies
+ * @param reportDir      directory the run's report is written to
+ * @param baseline       summary of an earlier run to compare against, or null
+ */
+public record LoadTestConfig(URI baseUrl,
+                             double rate,
+                             Duration duration,
+                             Duration warmup,
+                             long seed,
+                             int customers,
+                             int merchants,
+                             double customerSkew,
+                             double merchantSkew,
+                             Map<FraudPattern, Double> fraudMix,
+                             int maxInFlight,
+                             Duration requestTimeout,
+                             WireFormat format,
+                             Path reportDir,
+                             Path baseline) {
+
+    private static final Set<String> OPTIONS = Set.of("baseUrl", "rate", "duration", "warmup", "seed", "customers",
+            "merchants", "customerSkew", "merchantSkew", "fraudMix", "maxInFlight", "requestTimeout", "format",
+            "reportDir", "baseline");
+
+    private static final String USAGE = """
+            Options (key=value):
+              baseUrl=http://localhost:8080   rate=100            duration=PT2M      warmup=PT30S
+              seed=42                         customers=50000     merchants=2000
+              customerSkew=1.1                merchantSkew=1.2
+              fraudMix=location:0.02,ip:0.01,itemCount:0.005,cardName:0.01
+              maxInFlight=2000                requestTimeout=PT10S
+              format=json                     (json, cbor or smile)
+              reportDir=build/load-test-reports baseline=<path to an earlier summary.json>""";
+
+    /**
+     * Parses the command line arguments.
+     *
+     * @param args {@code key=value} pairs; unspecified settings take their defaults
+     * @return the run configuration
+     * @throws IllegalArgumentException if an argument is malformed or out of range
+     */
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got '" + arg + "'\n" + USAGE);
+            }
+            String key = arg.substring(0, separator).trim();
+            if (!OPTIONS.contains(key)) {
+                throw new IllegalArgumentException("Unknown option '" + key + "'\n" + USAGE);
+            }
+            values.put(key, arg.substring(separator + 1).trim());
+        }
+
+        LoadTestConfig config = new LoadTestConfig(
+                URI.create(values.getOrDefault("baseUrl", "http://localhost:8080")),
+                Double.parseDouble(values.getOrDefault("rate", "100")),
+                Duration.parse(values.getOrDefault("duration", "PT2M")),
+                Duration.parse(values.getOrDefault("warmup", "PT30S")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Integer.parseInt(values.getOrDefault("customers", "50000")),
+                Integer.parseInt(values.getOrDefault("merchants", "2000")),
+                Double.parseDouble(values.getOrDefault("customerSkew", "1.1")),
+                Double.parseDouble(values.getOrDefault("merchantSkew", "1.2")),
+                parseFraudMix(values.getOrDefault("fraudMix", "location:0.02,ip:0.01,itemCount:0.005,cardName:0.01")),
+                Integer.parseInt(values.getOrDefault("maxInFlight", "2000")),
+                Duration.parse(values.getOrDefault("requestTimeout", "PT10S")),
+                WireFormat.fromKey(values.getOrDefault("format", "json")),
+                Path.of(values.getOrDefault("reportDir", "build/load-test-reports")),
+                values.containsKey("baseline") ? Path.of(values.get("baseline")) : null);
+        config.validate();
+        return config;
+    }
+
+    private static Map<FraudPattern, Double> parseFraudMix(String value) {
+        Map<FraudPattern, Double> mix = new EnumMap<>(FraudPattern.class);
+        if (value.isBlank()) {
+            return mix;
+        }
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid fraudMix entry '" + entry + "'\n" + USAGE);
+            }
+            mix.put(FraudPattern.fromKey(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+        }
+        return mix;
+    }
+
+    private void validate() {
+        if (rate <= 0 || duration.isNegative() || duration.isZero() || warmup.isNegative()) {
+            throw new IllegalArgumentException("rate and duration must be positive and warmup not negative");
+        }
+        if (customers < 1 || merchants < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("customers, merchants and maxInFlight must be at least 1");
+        }
+        if (customerSkew < 0 || merchantSkew < 0) {
+            throw new IllegalArgumentException("customerSkew and merchantSkew must not be negative");
+        }
+        double fraudShare = fraudMix.values().stream().mapToDouble(Double::doubleValue).sum();
+        if (fraudMix.values().stream().anyMatch(share -> share < 0) || fraudShare > 1.0) {
+            throw new IllegalArgumentException("fraudMix shares must not be negative and must sum to at most 1");
+        }
+    }
+
+    /**
+     * @return the settings in a stable order, for the report
+     */
+    public Map<String, Object> describe() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("baseUrl", baseUrl.toString());
+        settings.put("rate", rate);
+        settings.put("duration", duration.toString());
+        settings.put("warmup", warmup.toString());
+        settings.put("seed", seed);
+        settings.put("customers", customers);
+        settings.put("merchants", merchants);
+        settings.put("customerSkew", customerSkew);
+        settings.put("merchantSkew", merchantSkew);
+        Map<String, Double> mix = new LinkedHashMap<>();
+        fraudMix.forEach((pattern, share) -> mix.put(pattern.key(), share));
+        settings.put("fraudMix", mix);
+        settings.put("maxInFlight", maxInFlight);
+        settings.put("requestTimeout", requestTimeout.toString());
+        settings.put("format", format.key());
+        return settings;
+    }
+
+    /**
+     * Body encodings the service accepts, all carrying the same DTOs.
+     */
+    public enum WireFormat {
+        JSON("application/json"),
+        CBOR("application/cbor"),
+        SMILE("application/x-jackson-smile");
+
+        private final String contentType;
+
+        WireFormat(String contentType) {
+            this.contentType = contentType;
+        }
+
+        /**
+         * @return the name used for this format in arguments and reports
+         */
+        public String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * @return the media type sent as both {@code Content-Type} and {@code Accept}
+         */
+        public String contentType() {
+            return contentType;
+        }
+
+        /**
+         * @return a new mapper writing this format
+         */
+        public ObjectMapper createObjectMapper() {
+            return switch (this) {
+                case JSON -> new ObjectMapper();
+                case CBOR -> new ObjectMapper(new CBORFactory());
+                case SMILE -> new ObjectMapper(new SmileFactory());
+            };
+        }
+
+        static WireFormat fromKey(String key) {
+            for (WireFormat format : values()) {
+                if (format.key().equalsIgnoreCase(key)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown format '" + key + "'; expected one of "
+                    + String.join(", ", Arrays.stream(values()).map(WireFormat::key).toList()));
+        }
+    }
+
+    /**
+     * Fraud patterns the generator can inject, each aimed at one of the service's rules.
+     */
+    public enum FraudPattern {
+        /** Merchant in a different state than the customer. */
+        LOCATION,
+        /** Request from a private-range IP address. */
+        IP,
+        /** Positive amount with no purchased items. */
+        ITEM_COUNT,
+        /** Card in someone else's name. */
+        CARD_NAME;
+
+        /**
+         * @return the name used for this pattern in arguments and reports
+         */
+        public String key() {
+            return switch (this) {
+                case LOCATION -> "location";
+                case IP -> "ip";
+                case ITEM_COUNT -> "itemCount";
+                case CARD_NAME -> "cardName";
+            };
+        }
+
+        static FraudPattern fromKey(String key) {
+            for (FraudPattern pattern : values()) {
+                if (pattern.key().equalsIgnoreCase(key)) {
+                    return pattern;
+                }
+            }
+            throw new IllegalArgumentException("Unknown fraud pattern '" + key + "'; expected one of "
+                    + String.join(", ", Arrays.stream(values()).map(FraudPattern::key).toList()));
+        }
+    }
+}
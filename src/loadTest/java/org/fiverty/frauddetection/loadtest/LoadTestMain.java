@@ -0,0 +1,61 @@
+package org.fiverty.frauddetection.loadtest;
+
+import org.HdrHistogram.HistogramLogWriter;
+import org.fiverty.frauddetection.loadtest.LoadTestRunner.RunResult;
+
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Entry point of the {@code loadTest} Gradle task. Runs one load test against an already running
+ * instance and writes its report to a new directory under the configured report directory, next to an
+ * HdrHistogram interval log ({@code latency.hlog}) of the intended-start latency.
+ */
+public final class LoadTestMain {
+
+    private static final DateTimeFormatter RUN_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneOffset.UTC);
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        Instant startedAt = Instant.now();
+        Path runDir = config.reportDir().resolve(String.format(Locale.ROOT, "%s-rate%s-seed%d",
+                RUN_ID_FORMAT.format(startedAt), formatRate(config.rate()), config.seed()));
+        Files.createDirectories(runDir);
+
+        System.out.printf(Locale.ROOT, "Sending %.1f requests/s to %s for %s after a %s warm-up%n",
+                config.rate(), config.baseUrl(), config.duration(), config.warmup());
+
+        RunResult result;
+        try (PrintStream hlog = new PrintStream(Files.newOutputStream(runDir.resolve("latency.hlog")))) {
+            HistogramLogWriter intervalLog = new HistogramLogWriter(hlog);
+            intervalLog.outputComment("Latency from intended start, in microseconds");
+            intervalLog.outputLogFormatVersion();
+            intervalLog.outputStartTime(startedAt.toEpochMilli());
+            intervalLog.outputLegend();
+            result = new LoadTestRunner(config).run(intervalLog);
+        }
+        new LoadTestReport().write(runDir, config, startedAt, result);
+        System.exit(0);
+    }
+
+    private static String formatRate(double rate) {
+        return rate == Math.rint(rate) ? String.valueOf((long) rate) : String.valueOf(rate);
+    }
+}
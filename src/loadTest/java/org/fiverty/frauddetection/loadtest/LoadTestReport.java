@@ -0,0 +1,157 @@
+package org.fiverty.frauddetection.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.fiverty.frauddetection.loadtest.LoadTestRunner.RunResult;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the results of a run as {@code summary.json}, for tooling and for later runs to compare
+ * against, and {@code report.txt}, for people. When a baseline summary is given, the report lists each
+ * latency percentile next to the baseline's and warns if the two runs used different settings.
+ * Latency percentiles include dropped arrivals at the request timeout; requests still outstanding when
+ * the run ended are not in them and are reported separately.
+ */
+final class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * Writes the summary and the report into the run directory and prints the report.
+     *
+     * @param runDir    the directory to write to
+     * @param config    the run's configuration
+     * @param startedAt when the run started
+     * @param result    the measured results
+     * @throws IOException if a file cannot be written or the baseline cannot be read
+     */
+    void write(Path runDir, LoadTestConfig config, Instant startedAt, RunResult result) throws IOException {
+        Map<String, Object> summary = summarize(config, startedAt, result);
+        objectMapper.writeValue(runDir.resolve("summary.json").toFile(), summary);
+
+        JsonNode current = objectMapper.valueToTree(summary);
+        JsonNode baseline = config.baseline() == null ? null : objectMapper.readTree(config.baseline().toFile());
+        String report = render(current, baseline);
+        Files.writeString(runDir.resolve("report.txt"), report, StandardCharsets.UTF_8);
+
+        PrintStream out = System.out;
+        out.print(report);
+        out.println("Report written to " + runDir.toAbsolutePath());
+    }
+
+    private static Map<String, Object> summarize(LoadTestConfig config, Instant startedAt, RunResult result) {
+        double measuredSeconds = result.measuredNanos() / 1e9;
+        // Dropped arrivals are in the latency histogram but were never sent, so count completions by service time
+        long completed = result.serviceTime().getTotalCount();
+
+        Map<String, Object> requests = new LinkedHashMap<>();
+        requests.put("scheduled", result.scheduled());
+        requests.put("sent", result.sent());
+        requests.put("completed", completed);
+        requests.put("dropped", result.dropped());
+        requests.put("outstanding", result.outstanding());
+        requests.put("byStatus", result.statusCounts());
+        requests.put("errors", result.errorCounts());
+        requests.put("byPattern", result.patternCounts());
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("startedAt", startedAt.toString());
+        summary.put("settings", config.describe());
+        summary.put("requests", requests);
+        summary.put("achievedRatePerSecond", round(completed / measuredSeconds));
+        summary.put("maxDispatchLagMillis", round(result.maxDispatchLagNanos() / 1e6));
+        summary.put("latencyMillis", percentiles(result.latency()));
+        summary.put("serviceTimeMillis", percentiles(result.serviceTime()));
+        return summary;
+    }
+
+    private static Map<String, Double> percentiles(Histogram micros) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            values.put(percentileKey(percentile), round(micros.getValueAtPercentile(percentile) / 1000.0));
+        }
+        values.put("max", round(micros.getMaxValue() / 1000.0));
+        values.put("mean", round(micros.getMean() / 1000.0));
+        return values;
+    }
+
+    private static String percentileKey(double percentile) {
+        return "p" + (percentile == Math.rint(percentile)
+                ? String.valueOf((long) percentile)
+                : String.valueOf(percentile));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+
+    private static String render(JsonNode current, JsonNode baseline) {
+        StringBuilder report = new StringBuilder();
+        report.append("Fraud scoring load test, started ").append(current.get("startedAt").asText()).append('\n');
+        report.append("Settings: ").append(current.get("settings")).append("\n\n");
+
+        JsonNode requests = current.get("requests");
+        report.append(String.format(Locale.ROOT, "Requests: %d scheduled, %d sent, %d completed, %d dropped, %d outstanding%n",
+                requests.get("scheduled").asLong(), requests.get("sent").asLong(),
+                requests.get("completed").asLong(), requests.get("dropped").asLong(),
+                requests.path("outstanding").asLong()));
+        report.append("By status: ").append(requests.get("byStatus")).append('\n');
+        report.append("Errors:    ").append(requests.get("errors")).append('\n');
+        report.append("By fraud pattern: ").append(requests.get("byPattern")).append('\n');
+        report.append(String.format(Locale.ROOT, "Achieved rate: %.1f/s, max dispatch lag: %.3f ms%n%n",
+                current.get("achievedRatePerSecond").asDouble(), current.get("maxDispatchLagMillis").asDouble()));
+
+        if (baseline != null && !baseline.get("settings").equals(current.get("settings"))) {
+            report.append("WARNING: the baseline was run with different settings and is not directly comparable: ")
+                    .append(baseline.get("settings")).append("\n\n");
+        }
+        if (requests.get("dropped").asLong() > 0) {
+            report.append("NOTE: dropped arrivals are counted in the latency percentiles at the request timeout\n\n");
+        }
+        if (requests.path("outstanding").asLong() > 0) {
+            report.append("WARNING: requests were still outstanding when the run ended and are missing from the latency percentiles\n\n");
+        }
+        renderPercentiles(report, "Latency from intended start (ms)", current.get("latencyMillis"),
+                baseline == null ? null : baseline.get("latencyMillis"));
+        renderPercentiles(report, "Service time from send (ms)", current.get("serviceTimeMillis"),
+                baseline == null ? null : baseline.get("serviceTimeMillis"));
+        return report.toString();
+    }
+
+    private static void renderPercentiles(StringBuilder report, String title, JsonNode values, JsonNode baseline) {
+        report.append(title).append('\n');
+        List<String> names = new ArrayList<>();
+        Iterator<String> fields = values.fieldNames();
+        fields.forEachRemaining(names::add);
+        for (String name : names) {
+            double value = values.get(name).asDouble();
+            report.append(String.format(Locale.ROOT, "  %-7s %10.3f", name, value));
+            JsonNode before = baseline == null ? null : baseline.get(name);
+            if (before != null) {
+                double previous = before.asDouble();
+                String change = previous == 0.0
+                        ? "n/a"
+                        : String.format(Locale.ROOT, "%+.1f%%", (value - previous) / previous * 100.0);
+                report.append(String.format(Locale.ROOT, "   baseline %10.3f  %s", previous, change));
+            }
+            report.append('\n');
+        }
+        report.append('\n');
+    }
+}
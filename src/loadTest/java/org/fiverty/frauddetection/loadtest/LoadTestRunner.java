@@ -0,0 +1,208 @@
+package org.fiverty.frauddetection.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.fiverty.frauddetection.loadtest.TrafficGenerator.GeneratedRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the scoring endpoint with an open-model workload: arrivals follow a seeded Poisson process at
+ * the configured rate and are sent when they are due, whether or not earlier requests have completed.
+ * <p>
+ * Latency is measured from each request's intended start time rather than from when it was actually
+ * sent, so time a request spends waiting behind a stalled server or a lagging dispatcher is counted
+ * instead of silently omitted (coordinated omission). An arrival dropped because {@code maxInFlight}
+ * requests are already outstanding is recorded as a failure at the request timeout, the longest a
+ * client would have waited, so drops push the latency percentiles up instead of vanishing from them.
+ * The time from send to response is recorded separately as service time. Only requests scheduled
+ * after the warm-up are recorded.
+ */
+final class LoadTestRunner {
+
+    private static final String SCORE_PATH = "/api/v1/score-transaction";
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final URI scoreUri;
+
+    private final Recorder latencyRecorder = new Recorder(3);
+    private final Recorder serviceTimeRecorder = new Recorder(3);
+    private final Histogram latency = new Histogram(3);
+    private final Histogram serviceTime = new Histogram(3);
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errorCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> patternCounts = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private long maxDispatchLagNanos;
+
+    LoadTestRunner(LoadTestConfig config) {
+        this.config = config;
+        this.scoreUri = config.baseUrl().resolve(SCORE_PATH);
+        this.objectMapper = config.format().createObjectMapper();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.requestTimeout())
+                .build();
+    }
+
+    /**
+     * Result of a run, covering only the measured part after the warm-up.
+     */
+    record RunResult(Histogram latency,
+                     Histogram serviceTime,
+                     long scheduled,
+                     long sent,
+                     long dropped,
+                     long outstanding,
+                     Map<Integer, Long> statusCounts,
+                     Map<String, Long> errorCounts,
+                     Map<String, Long> patternCounts,
+                     long maxDispatchLagNanos,
+                     long measuredNanos) {
+    }
+
+    /**
+     * Runs the warm-up and the measured phase, logging interval histograms to the given writer.
+     *
+     * @param intervalLog writer for one latency histogram per second of the measured phase
+     * @return the measured results
+     * @throws InterruptedException if interrupted while waiting for outstanding requests
+     */
+    RunResult run(HistogramLogWriter intervalLog) throws InterruptedException {
+        TrafficGenerator generator = new TrafficGenerator(config);
+        Random arrivals = new Random(config.seed());
+        Semaphore inFlight = new Semaphore(config.maxInFlight());
+        double meanGapNanos = 1e9 / config.rate();
+
+        long start = System.nanoTime() + START_DELAY_NANOS;
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        long intended = start;
+        long scheduled = 0;
+        long outstanding = 0;
+
+        ScheduledExecutorService intervals = Executors.newSingleThreadScheduledExecutor();
+        intervals.scheduleAtFixedRate(() -> logInterval(intervalLog),
+                measureFrom - System.nanoTime() + TimeUnit.SECONDS.toNanos(1), TimeUnit.SECONDS.toNanos(1),
+                TimeUnit.NANOSECONDS);
+        try {
+            while (true) {
+                intended += (long) (-Math.log(1.0 - arrivals.nextDouble()) * meanGapNanos);
+                if (intended >= end) {
+                    break;
+                }
+                GeneratedRequest generated = generator.next();
+                HttpRequest request = toHttpRequest(generated);
+
+                long now;
+                while ((now = System.nanoTime()) < intended) {
+                    LockSupport.parkNanos(intended - now);
+                }
+                boolean measured = intended >= measureFrom;
+                if (!measured) {
+                    send(request, intended, false, inFlight);
+                    continue;
+                }
+                scheduled++;
+                maxDispatchLagNanos = Math.max(maxDispatchLagNanos, now - intended);
+                patternCounts.computeIfAbsent(generated.pattern() == null ? "clean" : generated.pattern().key(),
+                        key -> new LongAdder()).increment();
+                send(request, intended, true, inFlight);
+            }
+
+            // Let outstanding requests finish or time out before taking the final interval
+            if (!inFlight.tryAcquire(config.maxInFlight(), config.requestTimeout().toMillis() + 5_000,
+                    TimeUnit.MILLISECONDS)) {
+                outstanding = config.maxInFlight() - inFlight.availablePermits();
+            }
+        } finally {
+            intervals.shutdownNow();
+            intervals.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        logInterval(intervalLog);
+
+        return new RunResult(latency, serviceTime, scheduled, sent.sum(), dropped.sum(), outstanding, sortedCounts(statusCounts),
+                sortedCounts(errorCounts), sortedCounts(patternCounts), maxDispatchLagNanos, end - measureFrom);
+    }
+
+    private HttpRequest toHttpRequest(GeneratedRequest generated) {
+        try {
+            return HttpRequest.newBuilder(scoreUri)
+                    .timeout(config.requestTimeout())
+                    .header("Content-Type", config.format().contentType())
+                    .header("Accept", config.format().contentType())
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(generated.request())))
+                    .build();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not serialize a generated request", ex);
+        }
+    }
+
+    private void send(HttpRequest request, long intended, boolean measured, Semaphore inFlight) {
+        if (!inFlight.tryAcquire()) {
+            // The open model never waits for capacity; an arrival with no slot is a failed request
+            if (measured) {
+                dropped.increment();
+                latencyRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(
+                        Math.max(config.requestTimeout().toNanos(), System.nanoTime() - intended)));
+            }
+            return;
+        }
+        long sentAt = System.nanoTime();
+        if (measured) {
+            sent.increment();
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long completed = System.nanoTime();
+            if (measured) {
+                record(response, failure, completed - intended, completed - sentAt);
+            }
+            // Released last, so draining the permits at the end of the run waits for every recording
+            inFlight.release();
+        });
+    }
+
+    private void record(HttpResponse<Void> response, Throwable failure, long latencyNanos, long serviceTimeNanos) {
+        if (failure != null) {
+            Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+            errorCounts.computeIfAbsent(cause.getClass().getSimpleName(), key -> new LongAdder()).increment();
+        } else {
+            statusCounts.computeIfAbsent(response.statusCode(), key -> new LongAdder()).increment();
+        }
+        latencyRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        serviceTimeRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(serviceTimeNanos));
+    }
+
+    private synchronized void logInterval(HistogramLogWriter intervalLog) {
+        Histogram interval = latencyRecorder.getIntervalHistogram();
+        latency.add(interval);
+        serviceTime.add(serviceTimeRecorder.getIntervalHistogram());
+        intervalLog.outputIntervalHistogram(interval);
+    }
+
+    private static <K extends Comparable<K>> Map<K, Long> sortedCounts(Map<K, LongAdder> counts) {
+        Map<K, Long> sorted = new TreeMap<>();
+        counts.forEach((key, count) -> sorted.put(key, count.sum()));
+        return sorted;
+    }
+}
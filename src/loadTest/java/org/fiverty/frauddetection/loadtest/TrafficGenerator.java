@@ -0,0 +1,221 @@
+package org.fiverty.frauddetection.loadtest;
+
+import org.fiverty.frauddetection.loadtest.LoadTestConfig.FraudPattern;
+import org.fiverty.frauddetection.model.dto.TransactionRequestDto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthesizes scoring requests from a fixed population of customers and merchants.
+ * <p>
+ * The population is derived from the seed alone, so it is the same for every run with that seed
+ * whatever the rate or duration. Customers and merchants are picked with Zipf-skewed popularity, and a
+ * clean purchase goes to a merchant in the customer's own state, paid with the customer's card from a
+ * public IP address. A configurable share of requests instead carries exactly one {@link FraudPattern}.
+ * Not thread-safe: requests are generated in order by the load test's dispatcher.
+ */
+final class TrafficGenerator {
+
+    private static final String[][] CITIES = {
+            {"Seattle", "WA"}, {"Spokane", "WA"}, {"Portland", "OR"}, {"Eugene", "OR"},
+            {"San Francisco", "CA"}, {"Los Angeles", "CA"}, {"San Diego", "CA"}, {"Phoenix", "AZ"},
+            {"Tucson", "AZ"}, {"Denver", "CO"}, {"Boulder", "CO"}, {"Austin", "TX"}, {"Dallas", "TX"},
+            {"Houston", "TX"}, {"Chicago", "IL"}, {"Springfield", "IL"}, {"Minneapolis", "MN"},
+            {"Detroit", "MI"}, {"Columbus", "OH"}, {"Cleveland", "OH"}, {"Atlanta", "GA"},
+            {"Savannah", "GA"}, {"Miami", "FL"}, {"Orlando", "FL"}, {"Tampa", "FL"}, {"Charlotte", "NC"},
+            {"Raleigh", "NC"}, {"New York", "NY"}, {"Buffalo", "NY"}, {"Boston", "MA"}, {"Philadelphia", "PA"},
+            {"Pittsburgh", "PA"}
+    };
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William",
+            "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah",
+            "Charles", "Karen", "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Betty", "Mark", "Sandra",
+            "Maria", "Jose", "Wei", "Aisha", "Hiroshi", "Priya", "Olga", "Mateo", "Siobhan", "Kwame"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez",
+            "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore",
+            "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Nguyen", "Kim", "Patel",
+            "O'Brien", "Schmidt", "Kowalski", "Okafor", "Tanaka", "Ivanova", "Rossi", "Haddad"
+    };
+
+    private static final String[] MERCHANT_WORDS = {
+            "Corner", "Summit", "Harbor", "Golden", "Urban", "Pine", "River", "Bright", "Maple", "Coastal",
+            "Prairie", "Metro", "Silver", "Northern", "Sunset", "Blue"
+    };
+
+    private static final String[] MERCHANT_KINDS = {
+            "Grocery", "Electronics", "Books", "Coffee", "Hardware", "Pharmacy", "Outfitters", "Bistro",
+            "Fuel", "Boutique", "Market", "Games"
+    };
+
+    private static final int[] PUBLIC_FIRST_OCTETS = {24, 50, 66, 68, 73, 76, 98, 104, 108, 142, 173, 184, 203};
+
+    private record Customer(String name, String nameOnCard, String cardLast4, String city, String state) {
+    }
+
+    private record Merchant(String name, String city, String state) {
+    }
+
+    /**
+     * A generated request and the fraud pattern it carries, or null for a clean purchase.
+     */
+    record GeneratedRequest(TransactionRequestDto request, FraudPattern pattern) {
+    }
+
+    private final Random random;
+    private final Customer[] customers;
+    private final Merchant[] merchants;
+    private final ZipfSampler customerSampler;
+    private final ZipfSampler merchantSampler;
+    private final Map<String, int[]> merchantsByState = new HashMap<>();
+    private final Map<String, ZipfSampler> merchantSamplerByState = new HashMap<>();
+    private final FraudPattern[] patterns;
+    private final double[] patternCumulative;
+
+    TrafficGenerator(LoadTestConfig config) {
+        Random population = new Random(config.seed());
+        this.random = new Random(config.seed() * 31 + 7);
+
+        merchants = new Merchant[config.merchants()];
+        Map<String, List<Integer>> byState = new HashMap<>();
+        for (int i = 0; i < merchants.length; i++) {
+            String[] location = i < CITIES.length ? CITIES[i] : CITIES[population.nextInt(CITIES.length)];
+            String name = MERCHANT_WORDS[population.nextInt(MERCHANT_WORDS.length)] + " "
+                    + MERCHANT_KINDS[population.nextInt(MERCHANT_KINDS.length)] + " #" + (i + 1);
+            merchants[i] = new Merchant(name, location[0], location[1]);
+            byState.computeIfAbsent(location[1], state -> new ArrayList<>()).add(i);
+        }
+        byState.forEach((state, indexes) -> {
+            merchantsByState.put(state, indexes.stream().mapToInt(Integer::intValue).toArray());
+            merchantSamplerByState.put(state, new ZipfSampler(indexes.size(), config.merchantSkew()));
+        });
+
+        // Customers live where some merchant is, so every customer has local merchants to buy from
+        customers = new Customer[config.customers()];
+        for (int i = 0; i < customers.length; i++) {
+            String first = FIRST_NAMES[population.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[population.nextInt(LAST_NAMES.length)];
+            Merchant home = merchants[population.nextInt(merchants.length)];
+            customers[i] = new Customer(first + " " + last, cardNameVariant(first, last, population),
+                    String.format(Locale.ROOT, "%04d", population.nextInt(10_000)), home.city(), home.state());
+        }
+
+        customerSampler = new ZipfSampler(customers.length, config.customerSkew());
+        merchantSampler = new ZipfSampler(merchants.length, config.merchantSkew());
+
+        patterns = config.fraudMix().keySet().toArray(new FraudPattern[0]);
+        patternCumulative = new double[patterns.length];
+        double total = 0.0;
+        for (int i = 0; i < patterns.length; i++) {
+            total += config.fraudMix().get(patterns[i]);
+            patternCumulative[i] = total;
+        }
+    }
+
+    /**
+     * How the name on a legitimate card commonly differs from the name the customer gives.
+     */
+    private static String cardNameVariant(String first, String last, Random random) {
+        return switch (random.nextInt(10)) {
+            case 0 -> (first + " " + last).toUpperCase(Locale.ROOT);
+            case 1 -> first.charAt(0) + " " + last;
+            case 2 -> last + ", " + first;
+            default -> first + " " + last;
+        };
+    }
+
+    /**
+     * @return the next request in the run's sequence
+     */
+    GeneratedRequest next() {
+        FraudPattern pattern = nextPattern();
+        Customer customer = customers[customerSampler.sample(random)];
+        Merchant merchant = pattern == FraudPattern.LOCATION ? remoteMerchant(customer) : localMerchant(customer);
+
+        String ipAddress = pattern == FraudPattern.IP ? privateIp() : publicIp();
+        String nameOnCard = pattern == FraudPattern.CARD_NAME ? otherCustomer(customer).name() : customer.nameOnCard();
+        BigDecimal amount = amount();
+        int itemCount = pattern == FraudPattern.ITEM_COUNT ? 0 : 1 + (int) Math.min(19, -Math.log(1 - random.nextDouble()) * 2);
+
+        TransactionRequestDto request = TransactionRequestDto.builder()
+                .customerName(customer.name())
+                .ipAddress(ipAddress)
+                .location(new TransactionRequestDto.LocationDto(customer.city(), customer.state()))
+                .paymentDetails(new TransactionRequestDto.PaymentDetailsDto(customer.cardLast4(), nameOnCard, amount))
+                .transactionDetails(new TransactionRequestDto.TransactionDetailsDto(merchant.name(),
+                        new TransactionRequestDto.TransactionDetailsDto.MerchantLocationDto(merchant.city(), merchant.state()),
+                        itemCount))
+                .build();
+        return new GeneratedRequest(request, pattern);
+    }
+
+    private FraudPattern nextPattern() {
+        double draw = random.nextDouble();
+        for (int i = 0; i < patterns.length; i++) {
+            if (draw < patternCumulative[i]) {
+                return patterns[i];
+            }
+        }
+        return null;
+    }
+
+    private Merchant localMerchant(Customer customer) {
+        int[] local = merchantsByState.get(customer.state());
+        return merchants[local[merchantSamplerByState.get(customer.state()).sample(random)]];
+    }
+
+    private Merchant remoteMerchant(Customer customer) {
+        for (int attempt = 0; attempt < 16; attempt++) {
+            Merchant merchant = merchants[merchantSampler.sample(random)];
+            if (!merchant.state().equals(customer.state())) {
+                return merchant;
+            }
+        }
+        for (Merchant merchant : merchants) {
+            if (!merchant.state().equals(customer.state())) {
+                return merchant;
+            }
+        }
+        // Every merchant is in the customer's state; there is no remote merchant to use
+        return localMerchant(customer);
+    }
+
+    private Customer otherCustomer(Customer customer) {
+        for (int attempt = 0; attempt < 16; attempt++) {
+            Customer other = customers[random.nextInt(customers.length)];
+            if (!other.name().equals(customer.name())) {
+                return other;
+            }
+        }
+        return new Customer("Alex Stranger", "Alex Stranger", customer.cardLast4(), customer.city(), customer.state());
+    }
+
+    /**
+     * Log-normal purchase amount with a median of about $35, rounded to cents.
+     */
+    private BigDecimal amount() {
+        double dollars = Math.exp(Math.log(35.0) + random.nextGaussian());
+        return BigDecimal.valueOf(Math.max(0.5, Math.min(5_000.0, dollars))).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private String publicIp() {
+        return PUBLIC_FIRST_OCTETS[random.nextInt(PUBLIC_FIRST_OCTETS.length)] + "." + random.nextInt(256) + "."
+                + random.nextInt(256) + "." + (1 + random.nextInt(254));
+    }
+
+    private String privateIp() {
+        return random.nextBoolean()
+                ? "10." + random.nextInt(256) + "." + random.nextInt(256) + "." + (1 + random.nextInt(254))
+                : "192.168." + random.nextInt(256) + "." + (1 + random.nextInt(254));
+    }
+}
@@ -0,0 +1,39 @@
+package org.fiverty.frauddetection.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples ranks {@code 0..n-1} with probability proportional to {@code 1 / (rank + 1)^exponent}, so a
+ * few customers and merchants carry most of the traffic, as they do in production. The cumulative
+ * distribution is precomputed once and each sample is a binary search over it.
+ */
+final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Zipf population must not be empty");
+        }
+        cumulative = new double[n];
+        double total = 0.0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= total;
+        }
+        cumulative[n - 1] = 1.0;
+    }
+
+    /**
+     * @param random the source of randomness
+     * @return a rank in {@code [0, n)}, lower ranks being more likely
+     */
+    int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return index >= 0 ? index : -index - 1;
+    }
+}
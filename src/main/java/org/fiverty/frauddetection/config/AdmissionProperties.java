@@ -0,0 +1,89 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+import org.fiverty.frauddetection.service.admission.MerchantTier;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adaptive admission control for the scoring endpoint. The concurrency limit moves between
+ * {@code minLimit} and {@code maxLimit} as measured scoring latency changes; requests over the limit
+ * are rejected with 429 instead of queueing.
+ */
+@Data
+@ConfigurationProperties(prefix = "fraud.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 200;
+
+    /**
+     * How far above the long-term latency baseline recent latency may rise before the limit shrinks.
+     */
+    private double latencyTolerance = 1.5;
+
+    /**
+     * Weight of each new limit estimate, between 0 and 1; lower values change the limit more slowly.
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Number of samples averaged by the recent latency estimate.
+     */
+    private int shortWindow = 10;
+
+    /**
+     * Number of samples averaged by the long-term latency baseline.
+     */
+    private int longWindow = 500;
+
+    /**
+     * Value of the Retry-After header on rejected requests.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * Tier of merchants that are not listed under any tier.
+     */
+    private MerchantTier defaultTier = MerchantTier.STANDARD;
+
+    private Map<MerchantTier, Tier> tiers = defaultTiers();
+
+    @Data
+    public static class Tier {
+        /**
+         * Share of the current limit this tier may fill; a tier is shed once in-flight requests
+         * reach its share.
+         */
+        private double share = 1.0;
+
+        /**
+         * Merchant names in this tier, matched case-insensitively.
+         */
+        private List<String> merchants = new ArrayList<>();
+    }
+
+    private static Map<MerchantTier, Tier> defaultTiers() {
+        Map<MerchantTier, Tier> tiers = new EnumMap<>(MerchantTier.class);
+        tiers.put(MerchantTier.PRIORITY, tier(1.0));
+        tiers.put(MerchantTier.STANDARD, tier(0.85));
+        tiers.put(MerchantTier.BULK, tier(0.6));
+        return tiers;
+    }
+
+    private static Tier tier(double share) {
+        Tier tier = new Tier();
+        tier.setShare(share);
+        return tier;
+    }
+}
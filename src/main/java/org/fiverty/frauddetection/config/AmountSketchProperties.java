@@ -0,0 +1,29 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Per-merchant and per-customer purchase amount sketches, used by the AMOUNT_OUTLIER rule.
+ */
+@Data
+@ConfigurationProperties(prefix = "fraud.amount-sketch")
+public class AmountSketchProperties {
+
+    /**
+     * Sketch accuracy. Each sketch holds at most about 3k amounts (4 bytes each), with a rank error of
+     * roughly 1.7 / k.
+     */
+    private int k = 200;
+
+    /**
+     * Merchants tracked; once reached, new merchants are not sketched.
+     */
+    private int maxMerchants = 500_000;
+
+    /**
+     * Customers tracked; once reached, new customers are not sketched. Most customers have few
+     * purchases, so their sketches stay far below the 3k bound.
+     */
+    private int maxCustomers = 2_000_000;
+}
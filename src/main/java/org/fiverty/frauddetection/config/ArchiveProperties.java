@@ -0,0 +1,47 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Background archival of aged transactions and their fraud signals into the partitioned history
+ * tables. The interval between runs is read by the scheduler directly from {@code fraud.archive.interval}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fraud.archive")
+public class ArchiveProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Transactions whose valid_from is older than this are moved to history.
+     */
+    private Duration maxAge = Duration.ofDays(90);
+
+    /**
+     * Transactions moved per batch. Each batch is one statement in its own short transaction.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Pause between batches, leaving the primary's I/O and connections to the scoring path.
+     */
+    private Duration batchPause = Duration.ofMillis(200);
+
+    /**
+     * Upper bound on batches per run; a backlog larger than this is worked off over several runs.
+     */
+    private int maxBatchesPerRun = 500;
+
+    /**
+     * How long a batch waits for a row or partition lock before giving up until the next run.
+     */
+    private Duration lockTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Statement timeout applied to each batch.
+     */
+    private Duration statementTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,79 @@
+package org.fiverty.frauddetection.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits database access between the primary and an optional read replica.
+ * <p>
+ * The application's data source is a {@link LazyConnectionDataSourceProxy} over the primary pool. The
+ * proxy only takes a physical connection when the first statement runs, by which time a
+ * {@code @Transactional(readOnly = true)} transaction has marked the connection read-only, so read-only
+ * work is served from the replica pool and everything else, including Flyway and the scoring path,
+ * from the primary. Without a replica configured, all work goes to the primary.
+ * <p>
+ * Reads from the replica can lag the primary slightly; a transaction that was just scored may not be
+ * visible to a lookup for a moment.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "fraud.datasource.replica", name = "enabled", havingValue = "true")
+    public HikariDataSource replicaDataSource(DataSourceProperties dataSourceProperties,
+                                              ReplicaDataSourceProperties replicaProperties) {
+        if (replicaProperties.getUrl() == null || replicaProperties.getUrl().isBlank()) {
+            throw new IllegalArgumentException("fraud.datasource.replica.url must be set when the replica is enabled");
+        }
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        dataSource.setJdbcUrl(replicaProperties.getUrl());
+        dataSource.setUsername(replicaProperties.getUsername() != null
+                ? replicaProperties.getUsername() : dataSourceProperties.determineUsername());
+        dataSource.setPassword(replicaProperties.getPassword() != null
+                ? replicaProperties.getPassword() : dataSourceProperties.determinePassword());
+        dataSource.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+        dataSource.setMinimumIdle(replicaProperties.getMinimumIdle());
+        dataSource.setConnectionTimeout(replicaProperties.getConnectionTimeout().toMillis());
+        dataSource.setReadOnly(true);
+        // Start even if the replica is down; reads fall back to the primary until it is reachable
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                 ReplicaDataSourceProperties replicaProperties) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        DataSource replica = replicaDataSource.getIfAvailable();
+        if (replica != null) {
+            dataSource.setReadOnlyDataSource(replicaProperties.isFallbackToPrimary()
+                    ? new ReplicaFallbackDataSource(replica, primaryDataSource, replicaProperties.getRetryInterval())
+                    : replica);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,18 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * In-process cache of the dimension tables that merchant, city and name values are stored in.
+ */
+@Data
+@ConfigurationProperties(prefix = "fraud.dictionary")
+public class DictionaryProperties {
+
+    /**
+     * Values cached per dimension; once reached, further values are not cached and are resolved in
+     * the database.
+     */
+    private int maxEntriesPerDimension = 1_000_000;
+}
@@ -0,0 +1,112 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+import org.fiverty.frauddetection.model.FraudSignal;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Tunable thresholds for the fraud rules applied by {@code FraudRuleEvaluator}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fraud.rules")
+public class FraudRuleProperties {
+
+    /**
+     * Signal types whose potential-fraud outcome counts a transaction as flagged in the merchant fraud
+     * rate and the fraud ring density. LOCATION is left out because a cross-state purchase is routine
+     * at national merchants. MERCHANT_RISK and FRAUD_RING are computed from these aggregates and are
+     * never counted.
+     */
+    private Set<FraudSignal.SignalType> feedbackSignalTypes = EnumSet.of(FraudSignal.SignalType.IP_ADDRESS,
+            FraudSignal.SignalType.TRANSACTION, FraudSignal.SignalType.CARD_DETAILS,
+            FraudSignal.SignalType.AMOUNT_OUTLIER, FraudSignal.SignalType.COMPROMISED_IDENTITY);
+
+    private CardDetails cardDetails = new CardDetails();
+
+    private Merchant merchant = new Merchant();
+
+    private FraudRing fraudRing = new FraudRing();
+
+    private AmountOutlier amountOutlier = new AmountOutlier();
+
+    @Data
+    public static class CardDetails {
+        /**
+         * Minimum similarity between the customer's name and the name on the card for the card
+         * details to be treated as matching.
+         */
+        private double nameMatchThreshold = 0.90;
+    }
+
+    @Data
+    public static class Merchant {
+        /**
+         * Decayed transaction volume a merchant needs before its reputation is used.
+         */
+        private double minVolume = 50.0;
+
+        /**
+         * Share of a merchant's transactions flagged by other rules at which the merchant is risky.
+         */
+        private double fraudRateThreshold = 0.30;
+
+        /**
+         * Standard deviations above the merchant's mean amount at which a purchase is an outlier.
+         */
+        private double amountZScoreThreshold = 4.0;
+
+        /**
+         * Distinct cards in the fan-out window that, with a small mean amount, suggest card testing.
+         */
+        private double cardTestingMinDistinctCards = 200.0;
+
+        /**
+         * Mean purchase amount at or below which a high card fan-out suggests card testing.
+         */
+        private double cardTestingMaxMeanAmount = 5.00;
+    }
+
+    @Data
+    public static class FraudRing {
+        /**
+         * Linked customers at which a cluster is treated as a ring on size alone.
+         */
+        private int maxClusterCustomers = 30;
+
+        /**
+         * Linked customers a cluster needs before its fraud density is used.
+         */
+        private int minDensityCustomers = 3;
+
+        /**
+         * Share of a cluster's transactions flagged by other rules at which the cluster is a ring.
+         */
+        private double fraudDensityThreshold = 0.50;
+    }
+
+    @Data
+    public static class AmountOutlier {
+        /**
+         * Earlier purchases a merchant needs before its amount distribution is used.
+         */
+        private long merchantMinSamples = 100;
+
+        /**
+         * Share of the merchant's earlier amounts a purchase must exceed to be an outlier.
+         */
+        private double merchantQuantile = 0.995;
+
+        /**
+         * Earlier purchases a customer needs before their amount distribution is used.
+         */
+        private long customerMinSamples = 20;
+
+        /**
+         * Share of the customer's earlier amounts a purchase must exceed to be an outlier.
+         */
+        private double customerQuantile = 0.99;
+    }
+}
@@ -0,0 +1,47 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * In-process Java Flight Recorder control through the {@code jfr} actuator endpoint. Scoring stage
+ * events are emitted either way; they are only written while a recording is running.
+ */
+@Data
+@ConfigurationProperties(prefix = "fraud.diagnostics.jfr")
+public class JfrProperties {
+
+    /**
+     * Creates the recording endpoint. It is only served once {@code jfr} is also in
+     * {@code management.endpoints.web.exposure.include}.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Starts a recording when the application starts, for continuous profiling.
+     */
+    private boolean startOnStartup = false;
+
+    /**
+     * JFR settings the recording starts from: {@code default} (about 1% overhead) or {@code profile}.
+     */
+    private String settings = "default";
+
+    /**
+     * Oldest data kept in the recording's ring buffer.
+     */
+    private Duration maxAge = Duration.ofHours(1);
+
+    /**
+     * Largest size the recording's ring buffer may reach.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(256);
+
+    /**
+     * Scoring stages faster than this are not recorded.
+     */
+    private Duration stageThreshold = Duration.ofMillis(1);
+}
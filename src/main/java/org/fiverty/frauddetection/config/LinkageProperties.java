@@ -0,0 +1,38 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * In-memory linkage of customers through shared IP addresses and cards, used by the
+ * FRAUD_RING rule.
+ */
+@Data
+@ConfigurationProperties(prefix = "fraud.linkage")
+public class LinkageProperties {
+
+    /**
+     * How long a link between two customers is remembered. Links are forgotten between half this age
+     * and this age after they were last made.
+     */
+    private Duration maxAge = Duration.ofDays(3);
+
+    /**
+     * Customers and identifiers tracked per generation. About 40 bytes each, and two generations are
+     * kept; once full, new identifiers are not linked until the next generation starts.
+     */
+    private int maxNodes = 5_000_000;
+
+    /**
+     * Separate clusters an IP address may join before it is treated as a shared hub (a carrier NAT or a
+     * public network) and stops linking customers.
+     */
+    private int ipHubCap = 25;
+
+    /**
+     * Separate clusters a card (last four digits and name on card) may join before it stops linking.
+     */
+    private int cardHubCap = 10;
+}
@@ -0,0 +1,30 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Limits for the investigator lookup API. Every lookup is a bounded, read-only seek so that
+ * analyst traffic cannot hold connections or scan tables at the expense of transaction scoring.
+ */
+@Data
+@ConfigurationProperties(prefix = "fraud.lookup")
+public class LookupProperties {
+
+    /**
+     * Page size used when the caller does not supply a limit.
+     */
+    private int defaultPageSize = 50;
+
+    /**
+     * Upper bound on the page size a caller may request.
+     */
+    private int maxPageSize = 200;
+
+    /**
+     * Statement timeout applied to every lookup query.
+     */
+    private Duration queryTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,29 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * In-memory merchant reputation, used by the MERCHANT_RISK rule.
+ */
+@Data
+@ConfigurationProperties(prefix = "fraud.merchant-index")
+public class MerchantIndexProperties {
+
+    /**
+     * Half-life of the decaying volume, fraud-flag rate and amount statistics.
+     */
+    private Duration halfLife = Duration.ofHours(24);
+
+    /**
+     * Window over which distinct cards are counted for the card-testing check.
+     */
+    private Duration fanOutWindow = Duration.ofHours(1);
+
+    /**
+     * Merchants tracked; once reached, new merchants are not tracked and read as unknown.
+     */
+    private int maxMerchants = 500_000;
+}
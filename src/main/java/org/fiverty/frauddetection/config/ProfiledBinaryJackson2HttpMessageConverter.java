@@ -0,0 +1,37 @@
+package org.fiverty.frauddetection.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.fiverty.frauddetection.model.dto.TransactionResponseDto;
+import org.fiverty.frauddetection.service.profiling.ScoringStage;
+import org.fiverty.frauddetection.service.profiling.ScoringStageEvent;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Converter for one of Jackson's binary formats (CBOR, Smile), selected by the format of the given
+ * {@link ObjectMapper}. Like {@link ProfiledJackson2HttpMessageConverter}, it records writing a scoring
+ * response as the {@link ScoringStage#SERIALIZATION} stage.
+ */
+class ProfiledBinaryJackson2HttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    ProfiledBinaryJackson2HttpMessageConverter(ObjectMapper objectMapper, MediaType mediaType) {
+        super(objectMapper, mediaType);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (!(object instanceof TransactionResponseDto response)) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        ScoringStageEvent event = new ScoringStageEvent();
+        event.begin();
+        super.writeInternal(object, type, outputMessage);
+        event.complete(ScoringStage.SERIALIZATION, ProfiledJackson2HttpMessageConverter.transactionIdOf(response),
+                null, null);
+    }
+}
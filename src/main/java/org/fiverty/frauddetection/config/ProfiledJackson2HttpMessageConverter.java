@@ -0,0 +1,45 @@
+package org.fiverty.frauddetection.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.fiverty.frauddetection.model.FraudSignal;
+import org.fiverty.frauddetection.model.dto.TransactionResponseDto;
+import org.fiverty.frauddetection.service.profiling.ScoringStage;
+import org.fiverty.frauddetection.service.profiling.ScoringStageEvent;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.UUID;
+
+/**
+ * JSON converter that records writing a scoring response as the {@link ScoringStage#SERIALIZATION}
+ * stage. Other response bodies are written as usual.
+ */
+class ProfiledJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    ProfiledJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (!(object instanceof TransactionResponseDto response)) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        ScoringStageEvent event = new ScoringStageEvent();
+        event.begin();
+        super.writeInternal(object, type, outputMessage);
+        event.complete(ScoringStage.SERIALIZATION, transactionIdOf(response), null, null);
+    }
+
+    // The response does not carry the ID itself, only through its signals
+    static UUID transactionIdOf(TransactionResponseDto response) {
+        if (response.getFraudSignals() == null || response.getFraudSignals().isEmpty()) {
+            return null;
+        }
+        FraudSignal signal = response.getFraudSignals().get(0);
+        return signal.getTransaction() == null ? null : signal.getTransaction().getTransactionId();
+    }
+}
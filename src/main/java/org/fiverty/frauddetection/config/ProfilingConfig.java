@@ -0,0 +1,19 @@
+package org.fiverty.frauddetection.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Replaces Spring Boot's JSON converter with one that records scoring response serialization as a
+ * JFR event. It uses the same auto-configured {@link ObjectMapper}.
+ */
+@Configuration
+public class ProfilingConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new ProfiledJackson2HttpMessageConverter(objectMapper);
+    }
+}
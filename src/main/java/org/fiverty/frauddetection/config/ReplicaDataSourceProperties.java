@@ -0,0 +1,43 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Read replica used for read-only transactions. It has its own connection pool, so reporting and
+ * lookup queries never take connections from the scoring path's primary pool.
+ */
+@Data
+@ConfigurationProperties(prefix = "fraud.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    private boolean enabled = false;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    private int minimumIdle = 2;
+
+    /**
+     * How long to wait for a replica connection before falling back to the primary.
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Whether read-only work may run on the primary while the replica is unavailable. Disable this to
+     * protect the primary from analyst load at the cost of failing those reads instead.
+     */
+    private boolean fallbackToPrimary = true;
+
+    /**
+     * How long to keep using the primary after a replica connection failure before trying the replica again.
+     */
+    private Duration retryInterval = Duration.ofSeconds(30);
+}
@@ -0,0 +1,89 @@
+package org.fiverty.frauddetection.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out replica connections and falls back to the primary when the replica cannot be reached.
+ * After a failure the replica is left alone for {@code retryInterval}, so that a replica outage costs
+ * one connection timeout rather than one per read. A replica pool that is merely exhausted is not a
+ * reason to fall back: the timeout is rethrown, so heavy analyst load stays off the primary.
+ */
+class ReplicaFallbackDataSource extends AbstractDataSource {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaFallbackDataSource.class);
+
+    private final DataSource replica;
+    private final DataSource primary;
+    private final long retryIntervalNanos;
+    private final LongSupplier nanoClock;
+    private volatile long replicaRetryAt;
+    private volatile boolean replicaDown;
+
+    ReplicaFallbackDataSource(DataSource replica, DataSource primary, Duration retryInterval) {
+        this(replica, primary, retryInterval, System::nanoTime);
+    }
+
+    ReplicaFallbackDataSource(DataSource replica, DataSource primary, Duration retryInterval, LongSupplier nanoClock) {
+        this.replica = replica;
+        this.primary = primary;
+        this.retryIntervalNanos = retryInterval.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    private Connection getConnection(ConnectionSource source) throws SQLException {
+        if (replicaDown && nanoClock.getAsLong() - replicaRetryAt < 0) {
+            return source.connect(primary);
+        }
+        try {
+            Connection connection = source.connect(replica);
+            if (replicaDown) {
+                replicaDown = false;
+                logger.info("Read replica is available again");
+            }
+            return connection;
+        } catch (SQLException ex) {
+            if (isPoolExhausted(ex)) {
+                // The replica is up but busy; moving analyst load onto the primary would slow scoring
+                throw ex;
+            }
+            replicaRetryAt = nanoClock.getAsLong() + retryIntervalNanos;
+            if (!replicaDown) {
+                replicaDown = true;
+                logger.warn("Read replica unavailable, sending read-only work to the primary", ex);
+            }
+            return source.connect(primary);
+        }
+    }
+
+    /**
+     * Hikari reports a pool that stayed full for the whole connection timeout as a
+     * {@link SQLTransientConnectionException} without a cause. When the database itself cannot be
+     * reached, the exception carries the last connection failure as its cause.
+     */
+    private static boolean isPoolExhausted(SQLException ex) {
+        return ex instanceof SQLTransientConnectionException && ex.getCause() == null;
+    }
+}
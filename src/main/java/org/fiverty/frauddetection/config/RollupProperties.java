@@ -0,0 +1,18 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Hourly fraud rollups and the analytics API that reads them. The flush interval is read by the
+ * scheduler directly from {@code fraud.rollup.flush-interval}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fraud.rollup")
+public class RollupProperties {
+
+    /**
+     * Most rows one fraud rate query returns; a larger requested limit is capped to this.
+     */
+    private int maxRows = 500;
+}
@@ -0,0 +1,38 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Screening of transactions against local feeds of compromised cards and identities. The refresh
+ * interval is read by the scheduler directly from {@code fraud.screening.refresh-interval}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fraud.screening")
+public class ScreeningProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Compromised card feed: one {@code card_last4,name_on_card} entry per line.
+     */
+    private Path cardFeed = Path.of("data", "feeds", "compromised-cards.csv");
+
+    /**
+     * Compromised identity feed: one {@code customer_name,card_last4} entry per line.
+     */
+    private Path identityFeed = Path.of("data", "feeds", "compromised-identities.csv");
+
+    /**
+     * Directory the Bloom filter and fingerprint files are built in and mapped from.
+     */
+    private Path workDirectory = Path.of("data", "screening");
+
+    /**
+     * Bloom filter bits per feed entry. 10 bits gives about a 1% false positive rate before the exact
+     * check; each entry also takes 8 bytes in the fingerprint file.
+     */
+    private int bitsPerEntry = 10;
+}
@@ -0,0 +1,27 @@
+package org.fiverty.frauddetection.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Binds the shadow evaluation settings. The candidate rules start as a copy of the production rules
+ * under {@code fraud.rules.*}, and {@code fraud.shadow.rules.*} is bound on top of that copy, so a
+ * candidate only lists the thresholds it changes.
+ */
+@Configuration
+public class ShadowConfig {
+
+    @Bean
+    @ConfigurationProperties("fraud.shadow")
+    public ShadowProperties shadowProperties(Environment environment) {
+        ShadowProperties shadowProperties = new ShadowProperties();
+        // Bound separately from the production bean so the candidate never shares its nested objects
+        shadowProperties.setRules(Binder.get(environment)
+                .bind("fraud.rules", FraudRuleProperties.class)
+                .orElseGet(FraudRuleProperties::new));
+        return shadowProperties;
+    }
+}
@@ -0,0 +1,36 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+
+/**
+ * Shadow evaluation of a candidate rule configuration on live traffic. Candidate decisions are only
+ * compared with production and counted; they never change a response. Bound to {@code fraud.shadow.*}
+ * by {@link ShadowConfig}.
+ */
+@Data
+public class ShadowProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Worker threads evaluating the candidate rules.
+     */
+    private int threads = 1;
+
+    /**
+     * Transactions waiting for the workers. When the queue is full, further transactions are dropped
+     * from the shadow comparison instead of waiting.
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * Share of disagreements, between 0 and 1, written to the diff log.
+     */
+    private double diffLogSampleRate = 0.01;
+
+    /**
+     * Candidate rule thresholds under {@code fraud.shadow.rules.*}. Thresholds that are not set take
+     * the production values under {@code fraud.rules.*}.
+     */
+    private FraudRuleProperties rules = new FraudRuleProperties();
+}
@@ -0,0 +1,22 @@
+package org.fiverty.frauddetection.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Warm-start snapshots of in-memory detection state. The write interval is read by the scheduler
+ * directly from {@code fraud.snapshot.interval}.
+ */
+@Data
+@ConfigurationProperties(prefix = "fraud.snapshot")
+public class SnapshotProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Snapshot file. The previous snapshot is kept next to it with a {@code .prev} suffix as a fallback.
+     */
+    private Path path = Path.of("data", "detection-state.snapshot");
+}
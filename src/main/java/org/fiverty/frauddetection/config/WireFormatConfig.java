@@ -0,0 +1,72 @@
+package org.fiverty.frauddetection.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary wire formats for high-volume integrations. A client that sends {@code Content-Type} and
+ * {@code Accept} of {@code application/cbor} or {@code application/x-jackson-smile} is read and answered
+ * in that format instead of JSON, on every endpoint. The payloads are smaller and cheaper to parse
+ * because field names are interned or back-referenced and numbers are written in binary.
+ * <p>
+ * Spring MVC already registers plain CBOR and Smile converters when the Jackson format modules are on
+ * the classpath. Converters are tried in order, so the profiled ones take their places in the list
+ * rather than being appended behind them, where they would never be selected. Both stay after the JSON
+ * converter, so JSON remains the response format for requests that accept any type or send no
+ * {@code Accept} header. Every mapper is built from
+ * Spring Boot's customized builder, so all formats share the same modules and settings. That includes
+ * Blackbird, which replaces Jackson's reflective getter, setter and constructor calls on the DTOs with
+ * generated lambdas.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    public WireFormatConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    /**
+     * Registered with every Jackson mapper Spring Boot builds, including the JSON one.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        replaceOrAdd(converters, MappingJackson2CborHttpMessageConverter.class, new ProfiledBinaryJackson2HttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new CBORFactory()).build(), MediaType.APPLICATION_CBOR));
+        replaceOrAdd(converters, MappingJackson2SmileHttpMessageConverter.class, new ProfiledBinaryJackson2HttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new SmileFactory()).build(), APPLICATION_SMILE));
+    }
+
+    private static void replaceOrAdd(List<HttpMessageConverter<?>> converters,
+                                     Class<? extends HttpMessageConverter<?>> defaultType,
+                                     HttpMessageConverter<?> replacement) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (defaultType.isInstance(converters.get(i))) {
+                converters.set(i, replacement);
+                return;
+            }
+        }
+        converters.add(replacement);
+    }
+}
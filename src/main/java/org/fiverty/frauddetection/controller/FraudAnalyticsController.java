@@ -0,0 +1,44 @@
+package org.fiverty.frauddetection.controller;
+
+import org.fiverty.frauddetection.model.FraudRollupDimension;
+import org.fiverty.frauddetection.model.dto.FraudRateDto;
+import org.fiverty.frauddetection.service.analytics.FraudAnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+
+@RestController
+@RequestMapping("/api/v1/analytics")
+public class FraudAnalyticsController {
+
+    private final FraudAnalyticsService fraudAnalyticsService;
+
+    public FraudAnalyticsController(FraudAnalyticsService fraudAnalyticsService) {
+        this.fraudAnalyticsService = fraudAnalyticsService;
+    }
+
+    /**
+     * Endpoint to read fraud rates from the hourly rollups.
+     *
+     * @param dimension HOUR, MERCHANT, STATE_PAIR or SIGNAL_TYPE
+     * @param from      inclusive lower bound, ISO-8601
+     * @param to        exclusive upper bound, ISO-8601
+     * @param limit     the maximum number of rows
+     * @return fraud rates per dimension value
+     */
+    @GetMapping("/fraud-rates")
+    public ResponseEntity<List<FraudRateDto>> getFraudRates(
+            @RequestParam FraudRollupDimension dimension,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(fraudAnalyticsService.getFraudRates(dimension, from, to, limit));
+    }
+}
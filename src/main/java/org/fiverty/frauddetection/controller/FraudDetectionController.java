@@ -3,6 +3,9 @@ package org.fiverty.frauddetection.controller;
 import org.fiverty.frauddetection.model.dto.TransactionRequestDto;
 import org.fiverty.frauddetection.model.dto.TransactionResponseDto;
 import org.fiverty.frauddetection.service.FraudDetectionService;
+import org.fiverty.frauddetection.service.admission.AdaptiveConcurrencyLimiter;
+import org.fiverty.frauddetection.service.admission.AdmissionPermit;
+import org.fiverty.frauddetection.service.admission.MerchantTierResolver;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -15,20 +18,39 @@ import org.springframework.web.bind.annotation.RestController;
 public class FraudDetectionController {
 
     private final FraudDetectionService fraudDetectionService;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final MerchantTierResolver merchantTierResolver;
 
-    public FraudDetectionController(FraudDetectionService fraudDetectionService) {
+    public FraudDetectionController(FraudDetectionService fraudDetectionService,
+                                    AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                    MerchantTierResolver merchantTierResolver) {
         this.fraudDetectionService = fraudDetectionService;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.merchantTierResolver = merchantTierResolver;
     }
 
     /**
-     * Endpoint to evaluate a transaction and determine potential fraud signals.
+     * Endpoint to evaluate a transaction and determine potential fraud signals. Requests beyond the
+     * adaptive concurrency limit for their merchant's tier are rejected with 429 before any scoring work.
      *
      * @param transaction the transaction to be scored
      * @return a ResponseEntity containing the transaction response DTO
      */
     @PostMapping("/score-transaction")
     public ResponseEntity<TransactionResponseDto> evaluateTransaction(@RequestBody TransactionRequestDto transaction) {
-            return ResponseEntity.ok(fraudDetectionService.scoreTransaction(transaction));
+        try (AdmissionPermit permit = concurrencyLimiter.acquire(merchantTierResolver.resolve(transaction))) {
+            try {
+                TransactionResponseDto response = fraudDetectionService.scoreTransaction(transaction);
+                permit.succeeded();
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException ex) {
+                // An invalid request says nothing about the service's capacity
+                throw ex;
+            } catch (RuntimeException ex) {
+                permit.failed();
+                throw ex;
+            }
+        }
     }
 
 }
\ No newline at end of file
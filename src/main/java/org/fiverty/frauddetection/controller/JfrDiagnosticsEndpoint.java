@@ -0,0 +1,124 @@
+package org.fiverty.frauddetection.controller;
+
+import org.fiverty.frauddetection.model.dto.JfrRecordingStatusDto;
+import org.fiverty.frauddetection.service.profiling.JfrRecordingService;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Actuator endpoint controlling the flight recording at {@code /actuator/jfr}. A recording can hold
+ * request data and JVM details, so it is served with the other actuator endpoints on the management
+ * port rather than the API: it has to be added to {@code management.endpoints.web.exposure.include}
+ * as well as enabled with {@code fraud.diagnostics.jfr.enabled}.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@ConditionalOnProperty(prefix = "fraud.diagnostics.jfr", name = "enabled", havingValue = "true")
+public class JfrDiagnosticsEndpoint {
+
+    private static final String START = "start";
+    private static final String STOP = "stop";
+    private static final String DUMP = "dump";
+
+    private final JfrRecordingService jfrRecordingService;
+
+    public JfrDiagnosticsEndpoint(JfrRecordingService jfrRecordingService) {
+        this.jfrRecordingService = jfrRecordingService;
+    }
+
+    /**
+     * Reads the state of the flight recording.
+     *
+     * @return the recording's state
+     */
+    @ReadOperation
+    public JfrRecordingStatusDto getStatus() {
+        return jfrRecordingService.status();
+    }
+
+    /**
+     * Starts or stops the flight recording. A stopped recording can still be dumped.
+     *
+     * @param action {@code start} or {@code stop}
+     * @return the recording's state, with 409 if it is already in the requested state and 404 for
+     * any other action
+     */
+    @WriteOperation
+    public WebEndpointResponse<JfrRecordingStatusDto> control(@Selector String action) {
+        boolean changed;
+        if (START.equals(action)) {
+            changed = jfrRecordingService.start();
+        } else if (STOP.equals(action)) {
+            changed = jfrRecordingService.stop();
+        } else {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        int status = changed ? WebEndpointResponse.STATUS_OK : HttpStatus.CONFLICT.value();
+        return new WebEndpointResponse<>(jfrRecordingService.status(), status);
+    }
+
+    /**
+     * Downloads the flight recording's data so far as a {@code .jfr} file.
+     *
+     * @param name {@code dump}
+     * @return the recording, or 404 if no recording has been started
+     * @throws IOException if the recording cannot be written
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Selector String name) throws IOException {
+        if (!DUMP.equals(name)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path file = jfrRecordingService.dump();
+        if (file == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new TemporaryFileResource(file), WebEndpointResponse.STATUS_OK);
+    }
+
+    /**
+     * Dump file that is deleted once it has been streamed to the client.
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+        private final Path file;
+
+        private TemporaryFileResource(Path file) {
+            super(file);
+            this.file = file;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            // Forces the stream above to be used instead of copying the file directly
+            return false;
+        }
+    }
+}
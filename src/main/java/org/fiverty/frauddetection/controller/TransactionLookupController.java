@@ -0,0 +1,78 @@
+package org.fiverty.frauddetection.controller;
+
+import org.fiverty.frauddetection.model.FraudSignal;
+import org.fiverty.frauddetection.model.dto.TransactionLookupDto;
+import org.fiverty.frauddetection.model.dto.TransactionPageDto;
+import org.fiverty.frauddetection.service.TransactionLookupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.UUID;
+
+
+@RestController
+@RequestMapping("/api/v1")
+public class TransactionLookupController {
+
+    private final TransactionLookupService transactionLookupService;
+
+    public TransactionLookupController(TransactionLookupService transactionLookupService) {
+        this.transactionLookupService = transactionLookupService;
+    }
+
+    /**
+     * Endpoint to look up a single transaction and its fraud signals.
+     *
+     * @param transactionId the transaction ID
+     * @return the transaction, or 404 if it does not exist
+     */
+    @GetMapping("/transactions/{transactionId}")
+    public ResponseEntity<TransactionLookupDto> getTransaction(@PathVariable UUID transactionId) {
+        return ResponseEntity.of(transactionLookupService.findTransaction(transactionId));
+    }
+
+    /**
+     * Endpoint to page through a customer's transactions, newest first.
+     *
+     * @param customerName the customer name
+     * @param cursor       the nextCursor of the previous page, omitted for the first page
+     * @param limit        the page size
+     * @return a page of transactions
+     */
+    @GetMapping("/customers/{customerName}/transactions")
+    public ResponseEntity<TransactionPageDto> getCustomerTransactions(@PathVariable String customerName,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(transactionLookupService.findCustomerTransactions(customerName, cursor, limit));
+    }
+
+    /**
+     * Endpoint to page through transactions in a time range, newest first, optionally filtered to
+     * transactions with a matching fraud signal.
+     *
+     * @param from           inclusive lower bound, ISO-8601
+     * @param to             exclusive upper bound, ISO-8601
+     * @param potentialFraud only include transactions with a signal carrying this flag
+     * @param signalType     only include transactions with a signal of this type
+     * @param cursor         the nextCursor of the previous page, omitted for the first page
+     * @param limit          the page size
+     * @return a page of transactions
+     */
+    @GetMapping("/transactions")
+    public ResponseEntity<TransactionPageDto> getTransactions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Boolean potentialFraud,
+            @RequestParam(required = false) FraudSignal.SignalType signalType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(transactionLookupService.findTransactions(
+                from, to, potentialFraud, signalType, cursor, limit));
+    }
+}
@@ -1,8 +1,15 @@
 package org.fiverty.frauddetection.controller.exception;
 
+import org.fiverty.frauddetection.model.dto.ValidationErrorDto;
+import org.fiverty.frauddetection.service.admission.AdmissionRejectedException;
+import org.fiverty.frauddetection.service.validation.TransactionValidationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -11,6 +18,29 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(ex.getMessage());
     }
 
+    @ExceptionHandler(TransactionValidationException.class)
+    public ResponseEntity<ValidationErrorDto> handleTransactionValidationException(TransactionValidationException ex) {
+        return ResponseEntity.badRequest().body(ValidationErrorDto.builder()
+                .message("Invalid transaction request")
+                .errors(ex.getErrors().stream()
+                        .map(error -> new ValidationErrorDto.FieldError(error.field(), error.message()))
+                        .toList())
+                .build());
+    }
+
+    @ExceptionHandler({MethodArgumentTypeMismatchException.class, MissingServletRequestParameterException.class})
+    public ResponseEntity<String> handleInvalidRequestParameter(Exception ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<String> handleAdmissionRejected(AdmissionRejectedException ex) {
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleGeneralException(Exception ex) {
         return ResponseEntity.internalServerError().body(ex.getMessage());
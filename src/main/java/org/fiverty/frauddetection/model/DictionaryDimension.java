@@ -0,0 +1,33 @@
+package org.fiverty.frauddetection.model;
+
+/**
+ * Dimension tables that replace repeated free-text transaction values with integer surrogate keys.
+ * PERSON_NAME holds both customer names and names on cards; CITY holds both customer and merchant cities.
+ */
+public enum DictionaryDimension {
+    MERCHANT("dim_merchant", "merchant_id", "merchant_name"),
+    CITY("dim_city", "city_id", "city_name"),
+    PERSON_NAME("dim_person_name", "person_name_id", "person_name");
+
+    private final String table;
+    private final String idColumn;
+    private final String valueColumn;
+
+    DictionaryDimension(String table, String idColumn, String valueColumn) {
+        this.table = table;
+        this.idColumn = idColumn;
+        this.valueColumn = valueColumn;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getIdColumn() {
+        return idColumn;
+    }
+
+    public String getValueColumn() {
+        return valueColumn;
+    }
+}
@@ -0,0 +1,11 @@
+package org.fiverty.frauddetection.model;
+
+/**
+ * Dimensions of the hourly fraud rollups in {@code fraud_rollup}.
+ * <p>
+ * HOUR, MERCHANT and STATE_PAIR count transactions, flagged when any of their signals is a potential fraud.
+ * SIGNAL_TYPE counts individual signals, flagged when that signal is a potential fraud.
+ */
+public enum FraudRollupDimension {
+    HOUR, MERCHANT, STATE_PAIR, SIGNAL_TYPE
+}
@@ -2,6 +2,8 @@ package org.fiverty.frauddetection.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.util.List;
 
@@ -10,7 +12,8 @@ import java.util.List;
 @Table(name = "fraud_signal")
 public class FraudSignal {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fraud_signal_id_generator")
+    @SequenceGenerator(name = "fraud_signal_id_generator", sequenceName = "fraud_signal_signal_id_seq", allocationSize = 50)
     @Column(name = "signal_id")
     private Long signalId;
 
@@ -25,12 +28,16 @@ public class FraudSignal {
     @Column(nullable = false)
     private Boolean potentialFraud;
 
-    @ElementCollection
-//    @CollectionTable(name = "fraud_signal", joinColumns = @JoinColumn(name = "signal_id"))
-    @Column(name = "details")
+    // Graded result for rules that produce one, e.g. name similarity for CARD_DETAILS
+    @Column(name = "score")
+    private Double score;
+
+    // Stored inline as TEXT[] on fraud_signal rather than in a separate collection table
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "details", nullable = false, columnDefinition = "text[]")
     private List<String> details;
 
     public enum SignalType {
-        LOCATION, IP_ADDRESS, TRANSACTION, CARD_DETAILS
+        LOCATION, IP_ADDRESS, TRANSACTION, CARD_DETAILS, MERCHANT_RISK, FRAUD_RING, AMOUNT_OUTLIER, COMPROMISED_IDENTITY
     }
-}
\ No newline at end of file
+}
@@ -6,6 +6,11 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * A scored transaction. The merchant, cities and person names are stored as keys into their dimension
+ * tables (see {@code DimensionDictionary}); the text values are carried alongside for scoring but are
+ * not persisted.
+ */
 @Data
 @Entity
 @Table(name = "transaction_current")
@@ -15,33 +20,48 @@ public class Transaction {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID transactionId;
 
-    @Column(name="customer_name", nullable = false)
+    @Transient
     private String customerName;
 
+    @Column(name="customer_name_id", nullable = false)
+    private Integer customerNameId;
+
     @Column(name="ip_address", nullable = false)
     private String ipAddress;
 
-    @Column(name="customer_city", nullable = false)
+    @Transient
     private String customerCity;
 
+    @Column(name="customer_city_id", nullable = false)
+    private Integer customerCityId;
+
     @Column(name="customer_state", nullable = false, length = 2)
     private String customerState;
 
     @Column(name="card_last4")
     private String cardLast4;
 
-    @Column(name="name_on_card", nullable = false)
+    @Transient
     private String nameOnCard;
 
+    @Column(name="name_on_card_id", nullable = false)
+    private Integer nameOnCardId;
+
     @Column(name="purchase_amount", nullable = false, precision = 19, scale = 2)
     private BigDecimal purchaseAmount;
 
-    @Column(name="merchant_name",nullable = false)
+    @Transient
     private String merchantName;
 
-    @Column(name="merchant_city",nullable = false)
+    @Column(name="merchant_name_id",nullable = false)
+    private Integer merchantNameId;
+
+    @Transient
     private String merchantCity;
 
+    @Column(name="merchant_city_id",nullable = false)
+    private Integer merchantCityId;
+
     @Column(name="merchant_state",nullable = false, length = 2)
     private String merchantState;
 
@@ -0,0 +1,58 @@
+package org.fiverty.frauddetection.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset pagination position over {@code (valid_from, transaction_id)}. Pages are read newest first,
+ * so the next page holds every row strictly before this position.
+ *
+ * @param validFrom     the valid_from of the last row returned
+ * @param transactionId the transaction_id of the last row returned, used to break ties on valid_from
+ */
+public record TransactionCursor(Instant validFrom, UUID transactionId) {
+
+    private static final String INVALID_CURSOR = "Invalid pagination cursor";
+    private static final char SEPARATOR = '_';
+
+    /**
+     * Encodes the cursor as an opaque, URL-safe token. valid_from is written in microseconds,
+     * the precision Postgres stores for TIMESTAMPTZ.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, validFrom);
+        String raw = Long.toString(micros) + SEPARATOR + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token the encoded cursor
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the token is not a valid cursor
+     */
+    public static TransactionCursor decode(String token) throws IllegalArgumentException {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException(INVALID_CURSOR);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 1) {
+                throw new IllegalArgumentException(INVALID_CURSOR);
+            }
+            long micros = Long.parseLong(raw, 0, separator, 10);
+            UUID transactionId = UUID.fromString(raw.substring(separator + 1));
+            return new TransactionCursor(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), transactionId);
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException(INVALID_CURSOR, ex);
+        }
+    }
+}
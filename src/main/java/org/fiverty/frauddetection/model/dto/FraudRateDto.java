@@ -0,0 +1,17 @@
+package org.fiverty.frauddetection.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class FraudRateDto {
+    // Merchant name, "customerState->merchantState", signal type, or the hour bucket for HOUR
+    private String key;
+    private long eventCount;
+    private long flaggedCount;
+    private double fraudRate;
+    private BigDecimal amountTotal;
+}
@@ -0,0 +1,20 @@
+package org.fiverty.frauddetection.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * State of the in-process flight recording. {@code state} is {@code NONE} before the first recording
+ * is started; the other fields are null until then.
+ */
+@Data
+@Builder
+public class JfrRecordingStatusDto {
+    private String state;
+    private String settings;
+    private Instant startTime;
+    private Instant stopTime;
+    private Long sizeBytes;
+}
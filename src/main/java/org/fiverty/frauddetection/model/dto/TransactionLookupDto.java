@@ -0,0 +1,35 @@
+package org.fiverty.frauddetection.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import org.fiverty.frauddetection.model.FraudSignal;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read-only view of a stored transaction and its fraud signals, assembled from a single
+ * projection query rather than from the JPA entities.
+ */
+@Data
+@Builder
+public class TransactionLookupDto {
+    private UUID transactionId;
+    private Instant validFrom;
+    private String customerName;
+    private String ipAddress;
+    private TransactionResponseDto.Location location;
+    private TransactionResponseDto.PaymentDetails paymentDetails;
+    private TransactionResponseDto.TransactionDetails transactionDetails;
+    private List<Signal> fraudSignals;
+
+    @Data
+    @Builder
+    public static class Signal {
+        private FraudSignal.SignalType signalType;
+        private Boolean potentialFraud;
+        private Double score;
+        private List<String> details;
+    }
+}
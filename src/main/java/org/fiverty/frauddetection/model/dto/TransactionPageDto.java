@@ -0,0 +1,16 @@
+package org.fiverty.frauddetection.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated transaction lookup. {@code nextCursor} is null on the last page.
+ */
+@Data
+@Builder
+public class TransactionPageDto {
+    private List<TransactionLookupDto> transactions;
+    private String nextCursor;
+}
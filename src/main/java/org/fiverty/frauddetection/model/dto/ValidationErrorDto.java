@@ -0,0 +1,24 @@
+package org.fiverty.frauddetection.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ValidationErrorDto {
+    private String message;
+    private List<FieldError> errors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FieldError {
+        // JSON path of the field, e.g. "paymentDetails.cardLast4"
+        private String field;
+        private String message;
+    }
+}
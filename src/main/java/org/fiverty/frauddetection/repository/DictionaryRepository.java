@@ -0,0 +1,81 @@
+package org.fiverty.frauddetection.repository;
+
+import org.fiverty.frauddetection.model.DictionaryDimension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class DictionaryRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DictionaryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Finds the ID of a value without creating it.
+     *
+     * @param dimension the dimension table
+     * @param value     the value to look up
+     * @return the value's ID, or null if the value has never been stored
+     */
+    public Integer findId(DictionaryDimension dimension, String value) {
+        List<Integer> ids = jdbcTemplate.queryForList(
+                "SELECT " + dimension.getIdColumn() + " FROM " + dimension.getTable()
+                        + " WHERE " + dimension.getValueColumn() + " = ?", Integer.class, value);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    /**
+     * Returns the ID of a value, inserting it in the current transaction if it is new. When another
+     * transaction inserts the same value concurrently, this waits for it and returns its ID.
+     *
+     * @param dimension the dimension table
+     * @param value     the value to store
+     * @return the value's ID
+     */
+    public int insertIfAbsent(DictionaryDimension dimension, String value) {
+        List<Integer> inserted = jdbcTemplate.queryForList(
+                "INSERT INTO " + dimension.getTable() + " (" + dimension.getValueColumn() + ") VALUES (?)"
+                        + " ON CONFLICT (" + dimension.getValueColumn() + ") DO NOTHING"
+                        + " RETURNING " + dimension.getIdColumn(), Integer.class, value);
+        if (!inserted.isEmpty()) {
+            return inserted.get(0);
+        }
+        Integer existing = findId(dimension, value);
+        if (existing == null) {
+            throw new IllegalStateException("Dictionary value vanished after a conflicting insert in " + dimension.getTable());
+        }
+        return existing;
+    }
+
+    /**
+     * Loads the values of the given IDs in one query.
+     *
+     * @param dimension the dimension table
+     * @param ids       the IDs to load
+     * @return the values by ID; IDs that do not exist are absent
+     */
+    public Map<Integer, String> findValues(DictionaryDimension dimension, Collection<Integer> ids) {
+        Map<Integer, String> values = new HashMap<>();
+        if (ids.isEmpty()) {
+            return values;
+        }
+        String sql = "SELECT " + dimension.getIdColumn() + ", " + dimension.getValueColumn()
+                + " FROM " + dimension.getTable() + " WHERE " + dimension.getIdColumn() + " = ANY (?)";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("integer", ids.toArray()));
+            return statement;
+        }, (RowCallbackHandler) rs -> values.put(rs.getInt(1), rs.getString(2)));
+        return values;
+    }
+}
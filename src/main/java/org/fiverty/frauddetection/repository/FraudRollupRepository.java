@@ -0,0 +1,123 @@
+package org.fiverty.frauddetection.repository;
+
+import org.fiverty.frauddetection.model.FraudRollupDimension;
+import org.fiverty.frauddetection.model.dto.FraudRateDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public class FraudRollupRepository {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO fraud_rollup (dimension, bucket_start, dimension_key, event_count, flagged_count, amount_total)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (dimension, bucket_start, dimension_key) DO UPDATE SET
+                event_count   = fraud_rollup.event_count + EXCLUDED.event_count,
+                flagged_count = fraud_rollup.flagged_count + EXCLUDED.flagged_count,
+                amount_total  = fraud_rollup.amount_total + EXCLUDED.amount_total""";
+
+    private static final String RATES_BY_KEY_SQL = """
+            SELECT dimension_key AS rollup_key, SUM(event_count) AS event_count,
+                   SUM(flagged_count) AS flagged_count, SUM(amount_total) AS amount_total
+            FROM fraud_rollup
+            WHERE dimension = ? AND bucket_start >= ? AND bucket_start < ?
+            GROUP BY dimension_key
+            ORDER BY SUM(flagged_count) DESC, dimension_key
+            LIMIT ?""";
+
+    private static final String RATES_BY_HOUR_SQL = """
+            SELECT bucket_start, event_count, flagged_count, amount_total
+            FROM fraud_rollup
+            WHERE dimension = 'HOUR' AND bucket_start >= ? AND bucket_start < ?
+            ORDER BY bucket_start
+            LIMIT ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FraudRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Increment for one rollup row.
+     *
+     * @param dimension    the rollup dimension
+     * @param bucketStart  the start of the hour bucket
+     * @param key          the dimension value
+     * @param events       transactions (or signals, for SIGNAL_TYPE) to add
+     * @param flagged      flagged transactions (or signals) to add
+     * @param amountCents  purchase amount to add, in cents
+     */
+    public record Delta(FraudRollupDimension dimension, Instant bucketStart, String key,
+                        long events, long flagged, long amountCents) {
+    }
+
+    /**
+     * Adds the deltas to their rollup rows, creating rows that do not exist yet. Callers should pass
+     * deltas in a consistent order so concurrent flushes from several instances lock rows in the same order.
+     *
+     * @param deltas the increments to apply
+     */
+    public void applyDeltas(List<Delta> deltas) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setString(1, delta.dimension().name());
+            ps.setTimestamp(2, Timestamp.from(delta.bucketStart()));
+            ps.setString(3, delta.key());
+            ps.setLong(4, delta.events());
+            ps.setLong(5, delta.flagged());
+            ps.setBigDecimal(6, BigDecimal.valueOf(delta.amountCents(), 2));
+        });
+    }
+
+    /**
+     * Sums the rollups of a dimension over {@code [from, to)}, one row per dimension value,
+     * most flagged first. The cost depends on the number of hours and distinct values, not on
+     * the number of transactions.
+     *
+     * @param dimension the dimension to aggregate
+     * @param from      inclusive lower bound on the bucket start
+     * @param to        exclusive upper bound on the bucket start
+     * @param limit     the maximum number of rows
+     * @return the fraud rates per dimension value
+     */
+    public List<FraudRateDto> findRatesByKey(FraudRollupDimension dimension, Instant from, Instant to, int limit) {
+        return jdbcTemplate.query(RATES_BY_KEY_SQL, rateMapper("rollup_key"),
+                dimension.name(), Timestamp.from(from), Timestamp.from(to), limit);
+    }
+
+    /**
+     * Reads the overall fraud rate for each hour in {@code [from, to)}.
+     *
+     * @param from  inclusive lower bound on the bucket start
+     * @param to    exclusive upper bound on the bucket start
+     * @param limit the maximum number of hours
+     * @return the fraud rates keyed by the ISO-8601 bucket start, oldest first
+     */
+    public List<FraudRateDto> findHourlyRates(Instant from, Instant to, int limit) {
+        return jdbcTemplate.query(RATES_BY_HOUR_SQL, rateMapper(null),
+                Timestamp.from(from), Timestamp.from(to), limit);
+    }
+
+    private static RowMapper<FraudRateDto> rateMapper(String keyColumn) {
+        return (rs, rowNum) -> {
+            long events = rs.getLong("event_count");
+            long flagged = rs.getLong("flagged_count");
+            String key = keyColumn != null
+                    ? rs.getString(keyColumn)
+                    : rs.getTimestamp("bucket_start").toInstant().toString();
+            return FraudRateDto.builder()
+                    .key(key)
+                    .eventCount(events)
+                    .flaggedCount(flagged)
+                    .fraudRate(events == 0 ? 0.0 : (double) flagged / events)
+                    .amountTotal(rs.getBigDecimal("amount_total"))
+                    .build();
+        };
+    }
+}
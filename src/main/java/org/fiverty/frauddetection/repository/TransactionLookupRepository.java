@@ -0,0 +1,259 @@
+package org.fiverty.frauddetection.repository;
+
+import org.fiverty.frauddetection.config.LookupProperties;
+import org.fiverty.frauddetection.model.DictionaryDimension;
+import org.fiverty.frauddetection.model.FraudSignal;
+import org.fiverty.frauddetection.model.TransactionCursor;
+import org.fiverty.frauddetection.model.dto.TransactionLookupDto;
+import org.fiverty.frauddetection.model.dto.TransactionResponseDto;
+import org.fiverty.frauddetection.repository.dictionary.DimensionDictionary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Read path for investigators. Each lookup is a single statement: the page of transactions is
+ * selected by a keyset seek on {@code (valid_from, transaction_id)} and joined to its fraud signals,
+ * so no per-row signal or details queries are issued the way the JPA associations would. Merchant,
+ * city and name keys are resolved through the in-process {@link DimensionDictionary} rather than
+ * joined to the dimension tables.
+ */
+@Repository
+public class TransactionLookupRepository {
+
+    private static final String TRANSACTION_COLUMNS = """
+            t.transaction_id, t.valid_from, t.customer_name_id, t.ip_address, t.customer_city_id, t.customer_state,
+            t.card_last4, t.name_on_card_id, t.purchase_amount, t.merchant_name_id, t.merchant_city_id,
+            t.merchant_state, t.purchased_item_count""";
+
+    private static final String SIGNAL_JOIN = """
+            SELECT page.*, s.signal_type, s.potential_fraud, s.score, s.details
+            FROM page
+            LEFT JOIN fraud_signal s ON s.transaction_id = page.transaction_id
+            ORDER BY page.valid_from DESC, page.transaction_id DESC, s.signal_id""";
+
+    private static final String HISTORY_SIGNAL_JOIN = """
+            SELECT page.*, s.signal_type, s.potential_fraud, s.score, s.details
+            FROM page
+            LEFT JOIN fraud_signal_history s ON s.transaction_id = page.transaction_id AND s.valid_from = page.valid_from
+            ORDER BY s.signal_id""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DimensionDictionary dimensionDictionary;
+
+    public TransactionLookupRepository(DataSource dataSource, LookupProperties lookupProperties,
+                                       DimensionDictionary dimensionDictionary) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setQueryTimeout((int) Math.max(1, lookupProperties.getQueryTimeout().toSeconds()));
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+        this.dimensionDictionary = dimensionDictionary;
+    }
+
+    /**
+     * Finds a single transaction with its fraud signals. A transaction that has been archived is read
+     * from the history tables instead, latest version first.
+     *
+     * @param transactionId the transaction ID
+     * @return the transaction, or null if it does not exist
+     */
+    public TransactionLookupDto findById(UUID transactionId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("transactionId", transactionId);
+        String sql = "WITH page AS (SELECT " + TRANSACTION_COLUMNS
+                + " FROM transaction_current t WHERE t.transaction_id = :transactionId) " + SIGNAL_JOIN;
+        List<TransactionLookupDto> results = query(sql, params);
+        if (results.isEmpty()) {
+            String historySql = "WITH page AS (SELECT " + TRANSACTION_COLUMNS
+                    + " FROM transaction_history t WHERE t.transaction_id = :transactionId"
+                    + " ORDER BY t.valid_from DESC LIMIT 1) " + HISTORY_SIGNAL_JOIN;
+            results = query(historySql, params);
+        }
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    /**
+     * Finds a page of a customer's transactions, newest first.
+     *
+     * @param customerName the customer name
+     * @param cursor       the position to continue after, or null for the first page
+     * @param limit        the maximum number of transactions to return
+     * @return the transactions on the page, in order
+     */
+    public List<TransactionLookupDto> findByCustomer(String customerName, TransactionCursor cursor, int limit) {
+        Integer customerNameId = dimensionDictionary.findId(DictionaryDimension.PERSON_NAME, customerName);
+        if (customerNameId == null) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("customerNameId", customerNameId);
+        StringBuilder where = new StringBuilder("t.customer_name_id = :customerNameId");
+        appendSeek(where, params, cursor);
+        return queryPage(where, params, limit);
+    }
+
+    /**
+     * Finds a page of transactions in {@code [from, to)}, newest first. When a fraud filter is given,
+     * only transactions with at least one signal matching both {@code potentialFraud} and
+     * {@code signalType} (where supplied) are returned.
+     *
+     * @param from           inclusive lower bound on valid_from
+     * @param to             exclusive upper bound on valid_from
+     * @param potentialFraud the potential_fraud value to match, or null for any
+     * @param signalType     the signal type to match, or null for any
+     * @param cursor         the position to continue after, or null for the first page
+     * @param limit          the maximum number of transactions to return
+     * @return the transactions on the page, in order
+     */
+    public List<TransactionLookupDto> findByTimeRange(Instant from, Instant to, Boolean potentialFraud,
+                                                      FraudSignal.SignalType signalType,
+                                                      TransactionCursor cursor, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.from(from))
+                .addValue("to", Timestamp.from(to));
+        StringBuilder where = new StringBuilder("t.valid_from >= :from AND t.valid_from < :to");
+        appendSeek(where, params, cursor);
+
+        // Filters are only emitted when supplied so the planner sees a concrete predicate
+        if (potentialFraud != null || signalType != null) {
+            where.append(" AND EXISTS (SELECT 1 FROM fraud_signal f WHERE f.transaction_id = t.transaction_id");
+            if (potentialFraud != null) {
+                where.append(" AND f.potential_fraud = :potentialFraud");
+                params.addValue("potentialFraud", potentialFraud);
+            }
+            if (signalType != null) {
+                where.append(" AND f.signal_type = :signalType");
+                params.addValue("signalType", signalType.name());
+            }
+            where.append(')');
+        }
+        return queryPage(where, params, limit);
+    }
+
+    private void appendSeek(StringBuilder where, MapSqlParameterSource params, TransactionCursor cursor) {
+        if (cursor == null) {
+            return;
+        }
+        where.append(" AND (t.valid_from, t.transaction_id) < (:cursorValidFrom, :cursorTransactionId)");
+        params.addValue("cursorValidFrom", Timestamp.from(cursor.validFrom()));
+        params.addValue("cursorTransactionId", cursor.transactionId());
+    }
+
+    private List<TransactionLookupDto> queryPage(StringBuilder where, MapSqlParameterSource params, int limit) {
+        String sql = "WITH page AS (SELECT " + TRANSACTION_COLUMNS
+                + " FROM transaction_current t WHERE " + where
+                + " ORDER BY t.valid_from DESC, t.transaction_id DESC LIMIT :limit) " + SIGNAL_JOIN;
+        params.addValue("limit", limit);
+        return query(sql, params);
+    }
+
+    private List<TransactionLookupDto> query(String sql, MapSqlParameterSource params) {
+        List<LookupRow> rows = jdbcTemplate.query(sql, params, new LookupExtractor());
+        if (rows == null || rows.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, String> names = dimensionDictionary.valuesOf(DictionaryDimension.PERSON_NAME, rows.stream()
+                .flatMap(row -> Stream.of(row.customerNameId(), row.nameOnCardId())).toList());
+        Map<Integer, String> cities = dimensionDictionary.valuesOf(DictionaryDimension.CITY, rows.stream()
+                .flatMap(row -> Stream.of(row.customerCityId(), row.merchantCityId())).toList());
+        Map<Integer, String> merchants = dimensionDictionary.valuesOf(DictionaryDimension.MERCHANT, rows.stream()
+                .map(LookupRow::merchantNameId).toList());
+
+        List<TransactionLookupDto> transactions = new ArrayList<>(rows.size());
+        for (LookupRow row : rows) {
+            TransactionLookupDto transaction = row.transaction();
+            transaction.setCustomerName(names.get(row.customerNameId()));
+            transaction.getLocation().setCity(cities.get(row.customerCityId()));
+            transaction.getPaymentDetails().setNameOnCard(names.get(row.nameOnCardId()));
+            transaction.getTransactionDetails().setMerchantName(merchants.get(row.merchantNameId()));
+            transaction.getTransactionDetails().getMerchantLocation().setCity(cities.get(row.merchantCityId()));
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    /**
+     * A transaction as read, before its dimension keys are resolved to values.
+     */
+    private record LookupRow(TransactionLookupDto transaction, int customerNameId, int customerCityId,
+                             int nameOnCardId, int merchantNameId, int merchantCityId) {
+    }
+
+    /**
+     * Folds the one-row-per-signal join back into one row per transaction, preserving row order.
+     */
+    private static final class LookupExtractor implements ResultSetExtractor<List<LookupRow>> {
+
+        @Override
+        public List<LookupRow> extractData(ResultSet rs) throws SQLException {
+            Map<UUID, LookupRow> transactions = new LinkedHashMap<>();
+            while (rs.next()) {
+                UUID transactionId = rs.getObject("transaction_id", UUID.class);
+                LookupRow row = transactions.get(transactionId);
+                if (row == null) {
+                    row = new LookupRow(mapTransaction(rs, transactionId), rs.getInt("customer_name_id"),
+                            rs.getInt("customer_city_id"), rs.getInt("name_on_card_id"),
+                            rs.getInt("merchant_name_id"), rs.getInt("merchant_city_id"));
+                    transactions.put(transactionId, row);
+                }
+                String signalType = rs.getString("signal_type");
+                if (signalType != null) {
+                    row.transaction().getFraudSignals().add(TransactionLookupDto.Signal.builder()
+                            .signalType(FraudSignal.SignalType.valueOf(signalType))
+                            .potentialFraud(rs.getBoolean("potential_fraud"))
+                            .score(rs.getObject("score", Double.class))
+                            .details(toList(rs.getArray("details")))
+                            .build());
+                }
+            }
+            return new ArrayList<>(transactions.values());
+        }
+
+        private static TransactionLookupDto mapTransaction(ResultSet rs, UUID transactionId) throws SQLException {
+            return TransactionLookupDto.builder()
+                    .transactionId(transactionId)
+                    .validFrom(rs.getTimestamp("valid_from").toInstant())
+                    .ipAddress(rs.getString("ip_address"))
+                    .location(TransactionResponseDto.Location.builder()
+                            .state(rs.getString("customer_state"))
+                            .build())
+                    .paymentDetails(TransactionResponseDto.PaymentDetails.builder()
+                            .cardLast4(rs.getString("card_last4"))
+                            .purchaseAmount(rs.getBigDecimal("purchase_amount"))
+                            .build())
+                    .transactionDetails(TransactionResponseDto.TransactionDetails.builder()
+                            .merchantLocation(TransactionResponseDto.Location.builder()
+                                    .state(rs.getString("merchant_state"))
+                                    .build())
+                            .purchasedItemCount(rs.getInt("purchased_item_count"))
+                            .build())
+                    .fraudSignals(new ArrayList<>())
+                    .build();
+        }
+
+        private static List<String> toList(Array array) throws SQLException {
+            if (array == null) {
+                return List.of();
+            }
+            try {
+                return Arrays.asList((String[]) array.getArray());
+            } finally {
+                array.free();
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.fiverty.frauddetection.repository.dictionary;
+
+import org.fiverty.frauddetection.config.DictionaryProperties;
+import org.fiverty.frauddetection.model.DictionaryDimension;
+import org.fiverty.frauddetection.model.Transaction;
+import org.fiverty.frauddetection.repository.DictionaryRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Maps the repeated free-text values of a transaction (merchant, cities, customer name and name on
+ * card) to the integer keys of their dimension tables, and back.
+ * <p>
+ * Lookups are served from an in-process cache per dimension. A value seen for the first time is
+ * inserted in the caller's transaction, so no second connection is needed on the scoring path, and it
+ * is only cached once that transaction commits; a rolled-back insert therefore never leaves behind a
+ * cached ID that does not exist.
+ * <p>
+ * An inserted row stays locked until the scoring transaction ends, and a concurrent insert of the same
+ * value waits for it. {@link #intern(Transaction)} therefore inserts a transaction's values in one
+ * global order, dimension by dimension and sorted within each. Two scorings that introduce the same
+ * new values in different roles (one's customer is the other's name on card) then wait on each other
+ * at most once, instead of deadlocking.
+ */
+@Component
+public class DimensionDictionary {
+
+    private final DictionaryRepository dictionaryRepository;
+    private final Map<DictionaryDimension, StringDictionary> dictionaries = new EnumMap<>(DictionaryDimension.class);
+
+    public DimensionDictionary(DictionaryRepository dictionaryRepository, DictionaryProperties dictionaryProperties) {
+        this.dictionaryRepository = dictionaryRepository;
+        for (DictionaryDimension dimension : DictionaryDimension.values()) {
+            dictionaries.put(dimension, new StringDictionary(dictionaryProperties.getMaxEntriesPerDimension()));
+        }
+    }
+
+    /**
+     * Sets the dimension keys of a transaction that is about to be saved, and swaps its values for the
+     * cached instances so that repeated values share one string. Must be called in the transaction
+     * that saves it.
+     *
+     * @param transaction the unsaved transaction
+     */
+    public void intern(Transaction transaction) {
+        // EnumMap and TreeMap iterate in a fixed order, which is the order the values are inserted in
+        Map<DictionaryDimension, Map<String, Integer>> ids = new EnumMap<>(DictionaryDimension.class);
+        addValue(ids, DictionaryDimension.PERSON_NAME, transaction.getCustomerName());
+        addValue(ids, DictionaryDimension.PERSON_NAME, transaction.getNameOnCard());
+        addValue(ids, DictionaryDimension.CITY, transaction.getCustomerCity());
+        addValue(ids, DictionaryDimension.MERCHANT, transaction.getMerchantName());
+        addValue(ids, DictionaryDimension.CITY, transaction.getMerchantCity());
+        ids.forEach((dimension, values) -> values.replaceAll((value, id) -> idOf(dimension, value)));
+
+        transaction.setCustomerNameId(idIn(ids, DictionaryDimension.PERSON_NAME, transaction.getCustomerName()));
+        transaction.setCustomerName(canonical(DictionaryDimension.PERSON_NAME, transaction.getCustomerName()));
+        transaction.setNameOnCardId(idIn(ids, DictionaryDimension.PERSON_NAME, transaction.getNameOnCard()));
+        transaction.setNameOnCard(canonical(DictionaryDimension.PERSON_NAME, transaction.getNameOnCard()));
+        transaction.setCustomerCityId(idIn(ids, DictionaryDimension.CITY, transaction.getCustomerCity()));
+        transaction.setCustomerCity(canonical(DictionaryDimension.CITY, transaction.getCustomerCity()));
+        transaction.setMerchantNameId(idIn(ids, DictionaryDimension.MERCHANT, transaction.getMerchantName()));
+        transaction.setMerchantName(canonical(DictionaryDimension.MERCHANT, transaction.getMerchantName()));
+        transaction.setMerchantCityId(idIn(ids, DictionaryDimension.CITY, transaction.getMerchantCity()));
+        transaction.setMerchantCity(canonical(DictionaryDimension.CITY, transaction.getMerchantCity()));
+    }
+
+    private static void addValue(Map<DictionaryDimension, Map<String, Integer>> ids, DictionaryDimension dimension,
+                                 String value) {
+        if (value != null) {
+            ids.computeIfAbsent(dimension, d -> new TreeMap<>()).put(value, null);
+        }
+    }
+
+    private static Integer idIn(Map<DictionaryDimension, Map<String, Integer>> ids, DictionaryDimension dimension,
+                                String value) {
+        return value == null ? null : ids.get(dimension).get(value);
+    }
+
+    /**
+     * Returns the key of a value, creating it if it is new.
+     *
+     * @param dimension the dimension of the value
+     * @param value     the value
+     * @return the value's key, or null for a null value
+     */
+    public Integer idOf(DictionaryDimension dimension, String value) {
+        if (value == null) {
+            return null;
+        }
+        StringDictionary dictionary = dictionaries.get(dimension);
+        Integer cached = dictionary.idOf(value);
+        if (cached != null) {
+            return cached;
+        }
+        int id = dictionaryRepository.insertIfAbsent(dimension, value);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dictionary.put(id, value);
+                }
+            });
+        } else {
+            dictionary.put(id, value);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the key of a value without creating it.
+     *
+     * @param dimension the dimension of the value
+     * @param value     the value
+     * @return the value's key, or null if the value has never been stored
+     */
+    public Integer findId(DictionaryDimension dimension, String value) {
+        if (value == null) {
+            return null;
+        }
+        StringDictionary dictionary = dictionaries.get(dimension);
+        Integer id = dictionary.idOf(value);
+        if (id == null) {
+            id = dictionaryRepository.findId(dimension, value);
+            if (id != null) {
+                dictionary.put(id, value);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Resolves keys back to their values, loading any that are not cached in a single query.
+     *
+     * @param dimension the dimension of the keys
+     * @param ids       the keys to resolve
+     * @return the values by key
+     */
+    public Map<Integer, String> valuesOf(DictionaryDimension dimension, Collection<Integer> ids) {
+        StringDictionary dictionary = dictionaries.get(dimension);
+        Map<Integer, String> values = new HashMap<>();
+        Set<Integer> missing = new HashSet<>();
+        for (Integer id : ids) {
+            String value = dictionary.valueOf(id);
+            if (value != null) {
+                values.put(id, value);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            dictionaryRepository.findValues(dimension, missing).forEach((id, value) -> {
+                dictionary.put(id, value);
+                values.put(id, value);
+            });
+        }
+        return values;
+    }
+
+    private String canonical(DictionaryDimension dimension, String value) {
+        return value == null ? null : dictionaries.get(dimension).canonical(value);
+    }
+}
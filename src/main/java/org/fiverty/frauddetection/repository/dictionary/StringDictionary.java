@@ -0,0 +1,51 @@
+package org.fiverty.frauddetection.repository.dictionary;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process, bidirectional cache of one dimension table: value to ID for writes and ID to value for
+ * reads. The value stored is the canonical instance handed back by {@link #canonical(String)}, so the
+ * many transactions carrying the same merchant or city share one string. Entries are never evicted;
+ * once {@code maxEntries} is reached, further values are not cached and are resolved in the database.
+ */
+final class StringDictionary {
+
+    private final ConcurrentHashMap<String, Integer> idsByValue = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, String> valuesById = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    StringDictionary(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    Integer idOf(String value) {
+        return idsByValue.get(value);
+    }
+
+    String valueOf(int id) {
+        return valuesById.get(id);
+    }
+
+    /**
+     * @return the cached instance equal to {@code value}, or {@code value} itself if it is not cached
+     */
+    String canonical(String value) {
+        Integer id = idsByValue.get(value);
+        if (id == null) {
+            return value;
+        }
+        String cached = valuesById.get(id);
+        return cached != null ? cached : value;
+    }
+
+    /**
+     * Caches a committed value and its ID, unless the dictionary is full.
+     */
+    void put(int id, String value) {
+        if (idsByValue.size() >= maxEntries) {
+            return;
+        }
+        String canonical = valuesById.putIfAbsent(id, value);
+        idsByValue.putIfAbsent(canonical != null ? canonical : value, id);
+    }
+}
@@ -0,0 +1,666 @@
+package org.fiverty.frauddetection.service;
+
+import org.fiverty.frauddetection.config.FraudRuleProperties;
+import org.fiverty.frauddetection.model.FraudSignal;
+import org.fiverty.frauddetection.model.Transaction;
+import org.fiverty.frauddetection.service.amount.AmountRanks;
+import org.fiverty.frauddetection.service.linkage.RingCluster;
+import org.fiverty.frauddetection.service.matching.NameMatcher;
+import org.fiverty.frauddetection.service.merchant.MerchantReputation;
+import org.fiverty.frauddetection.service.profiling.ScoringStage;
+import org.fiverty.frauddetection.service.profiling.ScoringStageEvent;
+import org.fiverty.frauddetection.service.screening.ScreeningResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Applies the fraud rules to a transaction. Evaluation has no side effects and takes its thresholds
+ * as an argument, so the same rules can be run with the production configuration by
+ * {@link FraudDetectionService} and with a candidate configuration in shadow mode.
+ */
+@Component
+public class FraudRuleEvaluator {
+    private static final Logger logger = LoggerFactory.getLogger(FraudRuleEvaluator.class);
+    private final NameMatcher nameMatcher;
+
+    // These items should be stored in a database to allow for more flexibility.
+    private static final String AMOUNT_ABOVE_CUSTOMER_QUANTILE = "Purchase amount is higher than %.1f%% of this customer's earlier purchases";
+    private static final String AMOUNT_ABOVE_MERCHANT_QUANTILE = "Purchase amount is higher than %.1f%% of this merchant's earlier purchases";
+    private static final String AMOUNT_INSUFFICIENT_HISTORY = "Too few earlier purchases to assess the amount";
+    private static final String AMOUNT_NORMAL = "Purchase amount is in line with earlier purchases";
+    private static final String CARD_DETAILS_FRAUD_UNEXPECTED = "Card details do not look fraudulent";
+    private static final String CARD_DETAILS_NAME_MISMATCH = "Name on card does not match the customer's name";
+    private static final String CARD_DETAILS_NAME_SIMILARITY = "Name similarity score: %.2f";
+    private static final String CARD_DETAILS_NULL_OR_EMPTY = "Transaction, customer name, or name on card cannot be null";
+    private static final String CARD_DETAILS_UNKNOWN_STATE = "Card details unknown";
+    private static final String COMPROMISED_CARD = "Card appears in a compromised card feed";
+    private static final String COMPROMISED_CUSTOMER_IDENTITY = "Customer and card appear in a compromised identity feed";
+    private static final String COMPROMISED_NOT_FOUND = "Card and identity do not appear in compromised feeds";
+    private static final String COMPROMISED_NOT_SCREENED = "Compromised feeds are not loaded";
+    private static final String CUSTOMER_AND_MERCHANT_LOCATION_DETAILS_MISSING = "Customer and merchant city/state cannot be null";
+    private static final String CUSTOMER_AND_MERCHANT_LOCATIONS_MATCH = "Customer and merchant locations match";
+    private static final String FRAUD_RING_HIGH_DENSITY = "Customers linked to this customer have a high rate of potentially fraudulent transactions";
+    private static final String FRAUD_RING_LARGE_CLUSTER = "Customer shares IP addresses or cards with %d other customers";
+    private static final String FRAUD_RING_NOT_LINKED = "Customer shares no identifiers with other customers";
+    private static final String FRAUD_RING_NORMAL = "Linked customers look normal";
+    private static final String FRAUD_SIGNAL_NULL_OR_EMPTY = "Fraud Signal cannot be null";
+    private static final String IP_ADDRESS_NOT_FRAUDULENT_MALICIOUS = "IP Address is not known to be fraudulent or malicious";
+    private static final String IP_ADDRESS_SUSPICIOUS_RANGE = "IP Address is in a private range and may use a VPN to mask its origin";
+    private static final String LOCATIONS_CUSTOMER_AND_MERCHANT_DIFFER = "Customer and merchant locations differ";
+    private static final String LOCATIONS_CUSTOMER_AND_MERCHANT_SAME_STATE = "Customer and merchant are in the same state";
+    private static final String LOCATIONS_INVALID_STATE = "Invalid customer or merchant state abbreviation";
+    private static final String MERCHANT_AMOUNT_OUTLIER = "Purchase amount is far above this merchant's usual amounts";
+    private static final String MERCHANT_CARD_TESTING = "Merchant is seeing many distinct cards with small purchase amounts";
+    private static final String MERCHANT_HIGH_FRAUD_RATE = "Merchant has a high rate of potentially fraudulent transactions";
+    private static final String MERCHANT_INSUFFICIENT_HISTORY = "Merchant has too little history to assess";
+    private static final String MERCHANT_REPUTATION_NORMAL = "Merchant activity looks normal";
+    private static final String POTENTIAL_FRAUD_RISK = "Potential risk of fraudulent activity";
+    private static final String SIGNAL_DETAILS_NULL_OR_EMPTY = "Signal details cannot be null or empty";
+    private static final String TRANSACTION_DETAILS_FRAUD_UNEXPECTED = "Transaction details do not look fraudulent";
+    private static final String TRANSACTION_DETAILS_NULL_OR_EMPTY = "Transaction cannot be null or empty";
+    private static final String TRANSACTION_DETAILS_PURCHASE_ITEM_COUNT = "Purchased item count is less than 1 while purchase amount is positive";
+
+    // Fraud Signals, should be stored in DB
+    private static final boolean FRAUD_RISK = true;
+    private static final boolean NO_FRAUD_RISK = false;
+
+    public FraudRuleEvaluator(NameMatcher nameMatcher) {
+        this.nameMatcher = nameMatcher;
+    }
+
+    /**
+     * Generates a list of fraud signals based on the provided transaction data.
+     *
+     * @param transaction the transaction object containing details to evaluate for potential fraud
+     * @param context     the in-memory state to evaluate against
+     * @param rules       the rule thresholds to evaluate with
+     * @return a list of FraudSignal objects representing potential fraud indicators
+     */
+    public List<FraudSignal> evaluate(Transaction transaction, ScoringContext context,
+                                      FraudRuleProperties rules) throws IllegalArgumentException {
+        List<FraudSignal> signals = new ArrayList<>();
+        signals.add(profiled(transaction, FraudSignal.SignalType.LOCATION, () -> checkLocation(transaction)));
+        logger.info("Checking location details for transaction ID: {} location details {}", transaction.getTransactionId(), signals.get(0).getDetails());
+        signals.add(profiled(transaction, FraudSignal.SignalType.IP_ADDRESS, () -> checkIpAddress(transaction)));
+        logger.info("Checking IP details for transaction ID: {} location details {}", transaction.getTransactionId(), signals.get(1).getDetails());
+        signals.add(profiled(transaction, FraudSignal.SignalType.TRANSACTION, () -> checkTransactionDetails(transaction)));
+        logger.info("Checking Transaction details for transaction ID: {} location details {}", transaction.getTransactionId(), signals.get(2).getDetails());
+        signals.add(profiled(transaction, FraudSignal.SignalType.CARD_DETAILS,
+                () -> checkCardDetails(transaction, rules.getCardDetails())));
+        logger.info("Checking Card details for transaction ID: {} location details {}", transaction.getTransactionId(), signals.get(3).getDetails());
+        signals.add(profiled(transaction, FraudSignal.SignalType.MERCHANT_RISK,
+                () -> checkMerchantReputation(transaction, context.merchantReputation(), rules.getMerchant())));
+        logger.info("Checking Merchant reputation for transaction ID: {} details {}", transaction.getTransactionId(), signals.get(4).getDetails());
+        signals.add(profiled(transaction, FraudSignal.SignalType.FRAUD_RING,
+                () -> checkFraudRing(transaction, context.ringCluster(), rules.getFraudRing())));
+        logger.info("Checking Fraud ring linkage for transaction ID: {} details {}", transaction.getTransactionId(), signals.get(5).getDetails());
+        signals.add(profiled(transaction, FraudSignal.SignalType.AMOUNT_OUTLIER,
+                () -> checkAmountOutlier(transaction, context.amountRanks(), rules.getAmountOutlier())));
+        logger.info("Checking Amount distribution for transaction ID: {} details {}", transaction.getTransactionId(), signals.get(6).getDetails());
+        signals.add(profiled(transaction, FraudSignal.SignalType.COMPROMISED_IDENTITY,
+                () -> checkCompromisedIdentity(transaction, context.screening())));
+        logger.info("Checking Compromised feeds for transaction ID: {} details {}", transaction.getTransactionId(), signals.get(7).getDetails());
+        return signals;
+    }
+
+    /**
+     * Decides whether a scored transaction counts as flagged as a whole. Only the configured feedback
+     * signal types count. Signals computed from the merchant and linkage aggregates are always excluded,
+     * so a flagged merchant or ring cannot keep its own fraud rate up.
+     *
+     * @param signals the transaction's fraud signals
+     * @param rules   the rules the signals were evaluated with
+     * @return true if any feedback signal marks the transaction as potential fraud
+     */
+    public boolean isFlagged(List<FraudSignal> signals, FraudRuleProperties rules) {
+        Set<FraudSignal.SignalType> feedbackSignalTypes = rules.getFeedbackSignalTypes();
+        return signals.stream()
+                .anyMatch(signal -> signal.getSignalType() != FraudSignal.SignalType.MERCHANT_RISK
+                        && signal.getSignalType() != FraudSignal.SignalType.FRAUD_RING
+                        && feedbackSignalTypes.contains(signal.getSignalType())
+                        && Boolean.TRUE.equals(signal.getPotentialFraud()));
+    }
+
+    /**
+     * Runs a single rule inside a {@link ScoringStageEvent}.
+     *
+     * @param transaction the transaction being evaluated
+     * @param ruleType    the rule's signal type
+     * @param rule        the rule
+     * @return the rule's signal
+     */
+    private FraudSignal profiled(Transaction transaction, FraudSignal.SignalType ruleType, Supplier<FraudSignal> rule) {
+        ScoringStageEvent event = new ScoringStageEvent();
+        event.begin();
+        FraudSignal signal;
+        try {
+            signal = rule.get();
+        } catch (RuntimeException ex) {
+            event.complete(ScoringStage.RULE, transaction.getTransactionId(), ruleType, ScoringStageEvent.OUTCOME_ERROR);
+            throw ex;
+        }
+        event.complete(ScoringStage.RULE, transaction.getTransactionId(), ruleType,
+                Boolean.TRUE.equals(signal.getPotentialFraud()) ? ScoringStageEvent.OUTCOME_FLAGGED : ScoringStageEvent.OUTCOME_CLEAR);
+        return signal;
+    }
+
+    /**
+     * Checks the location details of a given transaction and determines potential fraud signals
+     * based on the location data, such as city and state consistency.
+     *
+     * @param transaction the transaction object containing details to evaluate for potential fraud.
+     * @return a FraudSignal object containing the results of the location-based fraud evaluation.
+     * @throws IllegalArgumentException if the transaction is null or any required location details are missing.
+     */
+    private FraudSignal checkLocation(Transaction transaction) {
+        if (transaction == null) {
+            throw new IllegalArgumentException(TRANSACTION_DETAILS_NULL_OR_EMPTY);
+        }
+        if (transaction.getCustomerCity() == null || transaction.getMerchantCity() == null ||
+                transaction.getCustomerState() == null || transaction.getMerchantState() == null) {
+            throw new IllegalArgumentException();
+        }
+
+        FraudSignal signal = new FraudSignal();
+        signal.setTransaction(transaction);
+        signal.setSignalType(FraudSignal.SignalType.LOCATION);
+        signal.setDetails(List.of("Location Details"));
+
+        logger.info("Checking location details for transaction ID: {}", transaction.getTransactionId());
+        updateSignalDetailsBasedOnLocation(signal, isSameCity(transaction), isSameState(transaction));
+        logger.info("Signal details {}",signal.getDetails());
+
+        return signal;
+    }
+
+    /**
+     * Checks if the customer and merchant are in the same city.
+     *
+     * @param transaction the transaction to compare customer and merchant city
+     * @return true if the customer and merchant are in the same city, ignoring case; false otherwise
+     * @throws IllegalArgumentException if transaction, customer city, or merchant city is null
+     */
+    private boolean isSameCity(Transaction transaction) {
+        if (transaction == null || transaction.getCustomerCity() == null || transaction.getMerchantCity() == null) {
+            throw new IllegalArgumentException(CUSTOMER_AND_MERCHANT_LOCATION_DETAILS_MISSING);
+        }
+        return transaction.getCustomerCity().equalsIgnoreCase(transaction.getMerchantCity());
+    }
+
+    /**
+     * Checks if the customer and merchant are in the same state.
+     *
+     * @param transaction the transaction to compare customer and merchant state
+     * @return true if the customer and merchant are in the same state, ignoring case; false otherwise
+     * @throws IllegalArgumentException if transaction, customer state, or merchant state is null
+     */
+    private boolean isSameState(Transaction transaction) {
+        if (transaction == null || transaction.getCustomerState() == null || transaction.getMerchantState() == null) {
+            throw new IllegalArgumentException(CUSTOMER_AND_MERCHANT_LOCATION_DETAILS_MISSING);
+        }
+        return transaction.getCustomerState().equalsIgnoreCase(transaction.getMerchantState());
+    }
+
+    /**
+     * Updates the details of a fraud signal based on the transaction location comparison
+     * between the customer's location and the merchant's location.
+     *
+     * @param signal      the {@link FraudSignal} object containing the transaction data to evaluate
+     * @param isSameCity  a boolean indicating whether the customer and merchant are in the same city
+     * @param isSameState a boolean indicating whether the customer and merchant are in the same state
+     * @throws IllegalArgumentException if the {@code signal} is null or the transaction within it is null
+     */
+    private void updateSignalDetailsBasedOnLocation(FraudSignal signal,
+                                                    boolean isSameCity,
+                                                    boolean isSameState) {
+        if (signal == null) {
+            throw new IllegalArgumentException(FRAUD_SIGNAL_NULL_OR_EMPTY);
+        }
+        if (signal.getTransaction() == null) {
+            throw new IllegalArgumentException(TRANSACTION_DETAILS_NULL_OR_EMPTY);
+        }
+
+        if (!areStatesValid(signal)) {
+            markAsPotentialFraud(signal, List.of(LOCATIONS_INVALID_STATE, POTENTIAL_FRAUD_RISK));
+            return;
+        }
+
+        logger.info("isSameCity: {}, isSameState: {}", isSameCity, isSameState);
+
+        if (isSameCity && isSameState) {
+            markAsNoFraud(signal, List.of(CUSTOMER_AND_MERCHANT_LOCATIONS_MATCH));
+        } else if (isSameState) {
+            markAsNoFraud(signal, List.of(LOCATIONS_CUSTOMER_AND_MERCHANT_SAME_STATE));
+        } else {
+            markAsPotentialFraud(signal, List.of(
+                    LOCATIONS_CUSTOMER_AND_MERCHANT_DIFFER,
+                    POTENTIAL_FRAUD_RISK
+            ));
+        }
+    }
+
+    /**
+     * Determines if the states associated with the customer and merchant in the given fraud signal are valid US states.
+     *
+     * @param signal the fraud signal containing transaction details, including customer and merchant states
+     * @return true if both the customer state and merchant state are valid US states, false otherwise
+     */
+    private boolean areStatesValid(FraudSignal signal) {
+        return isValidUSState(signal.getTransaction().getCustomerState()) &&
+                isValidUSState(signal.getTransaction().getMerchantState());
+    }
+
+    /**
+     * Marks the given fraud signal with the specified fraud risk and associates additional details.
+     *
+     * @param signal    the FraudSignal object to update
+     * @param fraudRisk the fraud risk level to set (e.g., FRAUD_RISK or NO_FRAUD_RISK)
+     * @param details   a list of strings providing additional details about the signal
+     * @throws IllegalArgumentException if the signal or details are null or empty
+     */
+    private void markFraudSignal(FraudSignal signal, boolean fraudRisk, List<String> details) throws IllegalArgumentException {
+        if (signal == null) {
+            throw new IllegalArgumentException(FRAUD_SIGNAL_NULL_OR_EMPTY);
+        }
+        if (details == null || details.isEmpty()) {
+            throw new IllegalArgumentException(SIGNAL_DETAILS_NULL_OR_EMPTY);
+        }
+        logger.info("Setting fraud risk {} with details {}", fraudRisk, details);
+        signal.setPotentialFraud(fraudRisk);
+        signal.setDetails(details);
+    }
+
+
+    /**
+     * Marks the provided fraud signal as a potential fraud by associating it with the fraud risk category
+     * and including additional details if available.
+     *
+     * @param signal  the fraud signal object that is being marked as potential fraud
+     * @param details a list of details or reasons supporting the fraud classification
+     * @throws IllegalArgumentException if the signal or details are null
+     */
+    private void markAsPotentialFraud(FraudSignal signal, List<String> details) throws IllegalArgumentException {
+        if (signal == null) {
+            throw new IllegalArgumentException("FraudSignal cannot be null");
+        }
+        if (details == null || details.isEmpty()) {
+            throw new IllegalArgumentException("Details cannot be null or empty");
+        }
+        markFraudSignal(signal, FRAUD_RISK, details);
+    }
+
+    /**
+     * Marks the given fraud signal as no fraud detected and updates the details.
+     *
+     * @param signal  The fraud signal to update.
+     * @param details A list of details providing context or reason for marking the signal as no fraud.
+     * @throws IllegalArgumentException if the signal or details are null or empty
+     */
+    private void markAsNoFraud(FraudSignal signal, List<String> details) throws IllegalArgumentException {
+        if (signal == null) {
+            throw new IllegalArgumentException("FraudSignal cannot be null");
+        }
+        if (details == null || details.isEmpty()) {
+            throw new IllegalArgumentException("Details cannot be null or empty");
+        }
+        markFraudSignal(signal, NO_FRAUD_RISK, details);
+    }
+
+
+    /**
+     * Checks whether the provided string corresponds to a valid US state abbreviation.
+     *
+     * @param state the state abbreviation to validate. It should be a two-letter
+     *              state code (e.g., "CA" for California) and is case-insensitive.
+     * @return true if the provided string is a valid US state abbreviation,
+     * false otherwise.
+     */
+    private static boolean isValidUSState(String state) {
+        return List.of(
+                "AL", "AK", "AZ", "AR", "CA", "CO", "CT", "DE", "FL", "GA", "HI", "ID",
+                "IL", "IN", "IA", "KS", "KY", "LA", "ME", "MD", "MA", "MI", "MN", "MS",
+                "MO", "MT", "NE", "NV", "NH", "NJ", "NM", "NY", "NC", "ND", "OH", "OK",
+                "OR", "PA", "RI", "SC", "SD", "TN", "TX", "UT", "VT", "VA", "WA", "WV",
+                "WI", "WY"
+        ).contains(state.toUpperCase());
+    }
+
+
+    /**
+     * Checks the IP address of a given transaction for fraud potential.
+     * which could be used to mask a fraudulent action.
+     * Service can be enhanced with location tools like IP2Location.io. Allows for IPv4 and IPv6 lookups.
+     *
+     * @param transaction the transaction for which the IP address is checked
+     * @return a FraudSignal object indicating the result of the IP address check
+     * @throws IllegalArgumentException if the transaction or its IP address is null
+     */
+    private FraudSignal checkIpAddress(Transaction transaction) throws IllegalArgumentException {
+        if (transaction.getIpAddress() == null) {
+            throw new IllegalArgumentException("Transaction or IP address cannot be null");
+        }
+
+        logger.info("Checking IP address for transaction ID: {}", transaction.getTransactionId());
+
+        String ipAddress = transaction.getIpAddress();
+
+        FraudSignal signal = new FraudSignal();
+        signal.setTransaction(transaction);
+        signal.setSignalType(FraudSignal.SignalType.IP_ADDRESS);
+
+        if (isPrivateIp(ipAddress)) {
+            logger.info("IP address {} is private", ipAddress);
+            signal.setPotentialFraud(true);
+            signal.setDetails(List.of(IP_ADDRESS_SUSPICIOUS_RANGE));
+        } else {
+            signal.setPotentialFraud(false);
+            signal.setDetails(List.of(IP_ADDRESS_NOT_FRAUDULENT_MALICIOUS));
+        }
+        return signal;
+    }
+
+    /**
+     * Checks whether the given IP address falls within private IP ranges.
+     * Supports only IPv4 CIDR ranges 10.x.x.x, 192.168.x.x, and 172.16.x.x to 172.31.x.x.
+     *
+     * @param ipAddress the IP address to verify
+     * @return true if the IP address falls in a private range; false otherwise
+     * @throws IllegalArgumentException if the provided IP address is null or empty
+     */
+    private boolean isPrivateIp(String ipAddress) throws IllegalArgumentException {
+        logger.info("Checking if IP address is private: {}", ipAddress);
+        if (ipAddress == null || ipAddress.isEmpty()) {
+            throw new IllegalArgumentException("IP address cannot be null or empty");
+        }
+        return ipAddress.startsWith("10.") || ipAddress.startsWith("192.168.")
+                || (ipAddress.startsWith("172.") && isInRange(ipAddress, 16, 31));
+    }
+
+    /**
+     * Checks if the second octet of the provided IP address falls within the specified range.
+     *
+     * @param ipAddress The IP address in dotted-decimal notation.
+     * @param lower     The lower bound of the range (inclusive).
+     * @param upper     The upper bound of the range (inclusive).
+     * @return true if the second octet of the IP address is within the range [lower, upper]; false otherwise
+     * or if the input is invalid.
+     * @throws NumberFormatException          if the IP address contains a non-numeric second octet.
+     * @throws ArrayIndexOutOfBoundsException if the IP address is improperly formatted.
+     */
+    private boolean isInRange(String ipAddress, int lower, int upper) throws NumberFormatException, ArrayIndexOutOfBoundsException {
+        logger.info("Checking if IP address is in range: {}-{}", lower, upper);
+        try {
+            int secondOctet = Integer.parseInt(ipAddress.split("\\.")[1]);
+            return secondOctet >= lower && secondOctet <= upper;
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Analyzes the details of a given transaction to detect potential fraud risks, based on
+     * purchased item count and purchase amount, and returns a fraud signal object.
+     *
+     * @param transaction the transaction object containing details such as purchased item count
+     *                    and purchase amount
+     * @return FraudSignal object indicating the fraud risk assessment. It contains either a
+     * fraud risk or no fraud risk based on the transaction details.
+     * @throws IllegalArgumentException if the transaction is null or contains invalid details.
+     */
+    private FraudSignal checkTransactionDetails(Transaction transaction) throws IllegalArgumentException {
+        if (transaction == null) {
+            throw new IllegalArgumentException(TRANSACTION_DETAILS_NULL_OR_EMPTY);
+        }
+        logger.info("Checking transaction details for transaction ID: {}", transaction.getTransactionId());
+
+        FraudSignal signal = new FraudSignal();
+        signal.setTransaction(transaction);
+        signal.setSignalType(FraudSignal.SignalType.TRANSACTION);
+
+        if (transaction.getPurchasedItemCount() < 1 && transaction.getPurchaseAmount().compareTo(BigDecimal.ZERO) > 0) {
+            markFraudSignal(signal, FRAUD_RISK, List.of(TRANSACTION_DETAILS_PURCHASE_ITEM_COUNT, POTENTIAL_FRAUD_RISK));
+        } else {
+            markFraudSignal(signal, NO_FRAUD_RISK, List.of(TRANSACTION_DETAILS_FRAUD_UNEXPECTED));
+        }
+
+        return signal;
+    }
+
+    /**
+     * Checks the card details from a transaction to determine potential fraud signals. The customer's
+     * name and the name on the card are compared by similarity rather than exact equality, so
+     * abbreviations, initials, reordering and small typos do not raise a signal.
+     *
+     * @param transaction the transaction containing details such as customer name and name on the card
+     * @param rule        the card details thresholds
+     * @return a FraudSignal object indicating whether the card details suggest potential fraud,
+     * along with the signal type, the name similarity score and fraud details
+     * @throws IllegalArgumentException if the transaction or required transaction fields are null
+     */
+    private FraudSignal checkCardDetails(Transaction transaction, FraudRuleProperties.CardDetails rule) throws IllegalArgumentException {
+        if (transaction == null || transaction.getCustomerName() == null || transaction.getNameOnCard() == null) {
+            throw new IllegalArgumentException(CARD_DETAILS_NULL_OR_EMPTY);
+        }
+
+        logger.info("Checking card details for transaction ID: {}", transaction.getTransactionId());
+
+        FraudSignal signal = new FraudSignal();
+        signal.setTransaction(transaction);
+        signal.setSignalType(FraudSignal.SignalType.CARD_DETAILS);
+        signal.setDetails(List.of(CARD_DETAILS_UNKNOWN_STATE));
+
+        double similarity = nameMatcher.similarity(transaction.getCustomerName(), transaction.getNameOnCard());
+        signal.setScore(similarity);
+        String similarityDetail = String.format(Locale.ROOT, CARD_DETAILS_NAME_SIMILARITY, similarity);
+
+        if (similarity < rule.getNameMatchThreshold()) {
+            signal.setPotentialFraud(true);
+            signal.setDetails(List.of(CARD_DETAILS_NAME_MISMATCH, similarityDetail));
+        } else {
+            signal.setPotentialFraud(false);
+            signal.setDetails(List.of(CARD_DETAILS_FRAUD_UNEXPECTED, similarityDetail));
+        }
+
+        return signal;
+    }
+
+    /**
+     * Checks the transaction's merchant against its decayed reputation: a high share of flagged
+     * transactions, a purchase amount far above the merchant's usual amounts, or a card-testing
+     * pattern of many distinct cards with small amounts. Merchants with too little history are not flagged.
+     *
+     * @param transaction the transaction whose merchant is evaluated
+     * @param reputation  the merchant's reputation before this transaction, or null if it has none
+     * @param rule        the merchant thresholds
+     * @return a FraudSignal object indicating whether the merchant's reputation suggests potential fraud,
+     * with the merchant's fraud rate as its score
+     * @throws IllegalArgumentException if the transaction is null
+     */
+    private FraudSignal checkMerchantReputation(Transaction transaction, MerchantReputation reputation,
+                                                FraudRuleProperties.Merchant rule) throws IllegalArgumentException {
+        if (transaction == null) {
+            throw new IllegalArgumentException(TRANSACTION_DETAILS_NULL_OR_EMPTY);
+        }
+
+        logger.info("Checking merchant reputation for transaction ID: {}", transaction.getTransactionId());
+
+        FraudSignal signal = new FraudSignal();
+        signal.setTransaction(transaction);
+        signal.setSignalType(FraudSignal.SignalType.MERCHANT_RISK);
+
+        if (reputation == null || reputation.volume() < rule.getMinVolume()) {
+            markAsNoFraud(signal, List.of(MERCHANT_INSUFFICIENT_HISTORY));
+            return signal;
+        }
+        signal.setScore(reputation.fraudRate());
+
+        List<String> details = new ArrayList<>();
+        if (reputation.fraudRate() >= rule.getFraudRateThreshold()) {
+            details.add(MERCHANT_HIGH_FRAUD_RATE);
+        }
+        double amount = transaction.getPurchaseAmount() == null ? 0.0 : transaction.getPurchaseAmount().doubleValue();
+        if (reputation.amountZScore(amount) >= rule.getAmountZScoreThreshold()) {
+            details.add(MERCHANT_AMOUNT_OUTLIER);
+        }
+        if (reputation.distinctCards() >= rule.getCardTestingMinDistinctCards()
+                && reputation.amountMean() <= rule.getCardTestingMaxMeanAmount()) {
+            details.add(MERCHANT_CARD_TESTING);
+        }
+
+        if (details.isEmpty()) {
+            markAsNoFraud(signal, List.of(MERCHANT_REPUTATION_NORMAL));
+        } else {
+            details.add(POTENTIAL_FRAUD_RISK);
+            markAsPotentialFraud(signal, details);
+        }
+        return signal;
+    }
+
+    /**
+     * Checks the cluster of customers linked to the transaction's customer through shared IP addresses
+     * and cards. A cluster is flagged as a potential ring when it is large, or when enough of
+     * its transactions were flagged by the per-transaction rules.
+     *
+     * @param transaction the transaction whose customer's cluster is evaluated
+     * @param cluster     the customer's cluster including this transaction, or null if it is not tracked
+     * @param rule        the fraud ring thresholds
+     * @return a FraudSignal object indicating whether the cluster looks like a fraud ring, with the
+     * cluster's fraud density as its score
+     * @throws IllegalArgumentException if the transaction is null
+     */
+    private FraudSignal checkFraudRing(Transaction transaction, RingCluster cluster,
+                                       FraudRuleProperties.FraudRing rule) throws IllegalArgumentException {
+        if (transaction == null) {
+            throw new IllegalArgumentException(TRANSACTION_DETAILS_NULL_OR_EMPTY);
+        }
+
+        logger.info("Checking fraud ring linkage for transaction ID: {}", transaction.getTransactionId());
+
+        FraudSignal signal = new FraudSignal();
+        signal.setTransaction(transaction);
+        signal.setSignalType(FraudSignal.SignalType.FRAUD_RING);
+
+        if (cluster == null || cluster.customers() < 2) {
+            markAsNoFraud(signal, List.of(FRAUD_RING_NOT_LINKED));
+            return signal;
+        }
+        signal.setScore(cluster.fraudDensity());
+
+        List<String> details = new ArrayList<>();
+        if (cluster.customers() >= rule.getMaxClusterCustomers()) {
+            details.add(String.format(Locale.ROOT, FRAUD_RING_LARGE_CLUSTER, cluster.customers() - 1));
+        }
+        if (cluster.customers() >= rule.getMinDensityCustomers()
+                && cluster.fraudDensity() >= rule.getFraudDensityThreshold()) {
+            details.add(FRAUD_RING_HIGH_DENSITY);
+        }
+
+        if (details.isEmpty()) {
+            markAsNoFraud(signal, List.of(FRAUD_RING_NORMAL));
+        } else {
+            details.add(POTENTIAL_FRAUD_RISK);
+            markAsPotentialFraud(signal, details);
+        }
+        return signal;
+    }
+
+    /**
+     * Checks the purchase amount against the merchant's and the customer's earlier amounts. An amount
+     * above the configured quantile of either distribution is flagged, so a large purchase at a merchant
+     * that only sees small ones is caught even when the customer's own history is empty. Distributions
+     * with too few earlier purchases are not used.
+     *
+     * @param transaction the transaction whose amount is evaluated
+     * @param ranks       the amount's ranks among earlier amounts, or null if unknown
+     * @param rule        the amount outlier thresholds
+     * @return a FraudSignal object indicating whether the amount is an outlier, with the highest usable
+     * rank as its score
+     * @throws IllegalArgumentException if the transaction is null
+     */
+    private FraudSignal checkAmountOutlier(Transaction transaction, AmountRanks ranks,
+                                           FraudRuleProperties.AmountOutlier rule) throws IllegalArgumentException {
+        if (transaction == null) {
+            throw new IllegalArgumentException(TRANSACTION_DETAILS_NULL_OR_EMPTY);
+        }
+
+        logger.info("Checking amount distribution for transaction ID: {}", transaction.getTransactionId());
+
+        FraudSignal signal = new FraudSignal();
+        signal.setTransaction(transaction);
+        signal.setSignalType(FraudSignal.SignalType.AMOUNT_OUTLIER);
+
+        boolean merchantUsable = ranks != null && ranks.merchantSamples() >= rule.getMerchantMinSamples();
+        boolean customerUsable = ranks != null && ranks.customerSamples() >= rule.getCustomerMinSamples();
+        if (!merchantUsable && !customerUsable) {
+            markAsNoFraud(signal, List.of(AMOUNT_INSUFFICIENT_HISTORY));
+            return signal;
+        }
+        signal.setScore(Math.max(merchantUsable ? ranks.merchantRank() : 0.0, customerUsable ? ranks.customerRank() : 0.0));
+
+        List<String> details = new ArrayList<>();
+        if (merchantUsable && ranks.merchantRank() >= rule.getMerchantQuantile()) {
+            details.add(String.format(Locale.ROOT, AMOUNT_ABOVE_MERCHANT_QUANTILE, ranks.merchantRank() * 100));
+        }
+        if (customerUsable && ranks.customerRank() >= rule.getCustomerQuantile()) {
+            details.add(String.format(Locale.ROOT, AMOUNT_ABOVE_CUSTOMER_QUANTILE, ranks.customerRank() * 100));
+        }
+
+        if (details.isEmpty()) {
+            markAsNoFraud(signal, List.of(AMOUNT_NORMAL));
+        } else {
+            details.add(POTENTIAL_FRAUD_RISK);
+            markAsPotentialFraud(signal, details);
+        }
+        return signal;
+    }
+
+    /**
+     * Checks whether the transaction's card or customer identity was found in the compromised card and
+     * identity feeds. Screening itself happens before the rules run, so the rule only reads its result.
+     *
+     * @param transaction the transaction whose screening result is evaluated
+     * @param screening   the screening result, or null if the transaction was not screened
+     * @return a FraudSignal object indicating whether the card or identity is known to be compromised
+     * @throws IllegalArgumentException if the transaction is null
+     */
+    private FraudSignal checkCompromisedIdentity(Transaction transaction, ScreeningResult screening) throws IllegalArgumentException {
+        if (transaction == null) {
+            throw new IllegalArgumentException(TRANSACTION_DETAILS_NULL_OR_EMPTY);
+        }
+
+        logger.info("Checking compromised feeds for transaction ID: {}", transaction.getTransactionId());
+
+        FraudSignal signal = new FraudSignal();
+        signal.setTransaction(transaction);
+        signal.setSignalType(FraudSignal.SignalType.COMPROMISED_IDENTITY);
+
+        if (screening == null || !screening.screened()) {
+            markAsNoFraud(signal, List.of(COMPROMISED_NOT_SCREENED));
+            return signal;
+        }
+
+        List<String> details = new ArrayList<>();
+        if (screening.compromisedCard()) {
+            details.add(COMPROMISED_CARD);
+        }
+        if (screening.compromisedIdentity()) {
+            details.add(COMPROMISED_CUSTOMER_IDENTITY);
+        }
+
+        if (details.isEmpty()) {
+            markAsNoFraud(signal, List.of(COMPROMISED_NOT_FOUND));
+        } else {
+            details.add(POTENTIAL_FRAUD_RISK);
+            markAsPotentialFraud(signal, details);
+        }
+        return signal;
+    }
+}
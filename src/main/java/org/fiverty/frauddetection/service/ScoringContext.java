@@ -0,0 +1,19 @@
+package org.fiverty.frauddetection.service;
+
+import org.fiverty.frauddetection.service.amount.AmountRanks;
+import org.fiverty.frauddetection.service.linkage.RingCluster;
+import org.fiverty.frauddetection.service.merchant.MerchantReputation;
+import org.fiverty.frauddetection.service.screening.ScreeningResult;
+
+/**
+ * In-memory state a transaction is scored against, captured once before the rules run so that
+ * production and shadow rules see the same inputs.
+ *
+ * @param merchantReputation the merchant's reputation before this transaction, or null if it has none
+ * @param ringCluster        the customer's linked cluster including this transaction, or null if untracked
+ * @param amountRanks        the purchase amount's ranks among earlier amounts, or null if unknown
+ * @param screening          the compromised feed screening result, or null if not screened
+ */
+public record ScoringContext(MerchantReputation merchantReputation, RingCluster ringCluster,
+                             AmountRanks amountRanks, ScreeningResult screening) {
+}
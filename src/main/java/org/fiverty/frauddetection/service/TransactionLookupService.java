@@ -0,0 +1,131 @@
+package org.fiverty.frauddetection.service;
+
+import org.fiverty.frauddetection.config.LookupProperties;
+import org.fiverty.frauddetection.model.FraudSignal;
+import org.fiverty.frauddetection.model.TransactionCursor;
+import org.fiverty.frauddetection.model.dto.TransactionLookupDto;
+import org.fiverty.frauddetection.model.dto.TransactionPageDto;
+import org.fiverty.frauddetection.repository.TransactionLookupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class TransactionLookupService {
+
+    private static final String CUSTOMER_NAME_NULL_OR_EMPTY = "Customer name cannot be null or empty";
+    private static final String TIME_RANGE_INVALID = "Time range must have a 'from' before 'to'";
+    private static final String TRANSACTION_ID_NULL = "Transaction ID cannot be null";
+
+    private final TransactionLookupRepository transactionLookupRepository;
+    private final LookupProperties lookupProperties;
+
+    public TransactionLookupService(TransactionLookupRepository transactionLookupRepository,
+                                    LookupProperties lookupProperties) {
+        this.transactionLookupRepository = transactionLookupRepository;
+        this.lookupProperties = lookupProperties;
+    }
+
+    /**
+     * Finds a transaction and its fraud signals by ID.
+     *
+     * @param transactionId the transaction ID
+     * @return the transaction, or empty if it does not exist
+     * @throws IllegalArgumentException if the transaction ID is null
+     */
+    @Transactional(readOnly = true)
+    public Optional<TransactionLookupDto> findTransaction(UUID transactionId) throws IllegalArgumentException {
+        if (transactionId == null) {
+            throw new IllegalArgumentException(TRANSACTION_ID_NULL);
+        }
+        return Optional.ofNullable(transactionLookupRepository.findById(transactionId));
+    }
+
+    /**
+     * Finds a page of a customer's transactions, newest first.
+     *
+     * @param customerName the customer name
+     * @param cursor       the cursor from the previous page, or null for the first page
+     * @param limit        the requested page size, or null for the default
+     * @return the page of transactions and the cursor for the next page
+     * @throws IllegalArgumentException if the customer name or cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public TransactionPageDto findCustomerTransactions(String customerName, String cursor, Integer limit)
+            throws IllegalArgumentException {
+        if (customerName == null || customerName.isBlank()) {
+            throw new IllegalArgumentException(CUSTOMER_NAME_NULL_OR_EMPTY);
+        }
+        int pageSize = resolvePageSize(limit);
+        // One extra row tells us whether another page exists without a count query
+        List<TransactionLookupDto> rows = transactionLookupRepository.findByCustomer(
+                customerName, decodeCursor(cursor), pageSize + 1);
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * Finds a page of transactions in {@code [from, to)}, newest first, optionally restricted to
+     * transactions with a matching fraud signal.
+     *
+     * @param from           inclusive lower bound on valid_from
+     * @param to             exclusive upper bound on valid_from
+     * @param potentialFraud the potential fraud flag a signal must carry, or null for any
+     * @param signalType     the type a signal must have, or null for any
+     * @param cursor         the cursor from the previous page, or null for the first page
+     * @param limit          the requested page size, or null for the default
+     * @return the page of transactions and the cursor for the next page
+     * @throws IllegalArgumentException if the time range or cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public TransactionPageDto findTransactions(Instant from, Instant to, Boolean potentialFraud,
+                                               FraudSignal.SignalType signalType, String cursor, Integer limit)
+            throws IllegalArgumentException {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException(TIME_RANGE_INVALID);
+        }
+        int pageSize = resolvePageSize(limit);
+        List<TransactionLookupDto> rows = transactionLookupRepository.findByTimeRange(
+                from, to, potentialFraud, signalType, decodeCursor(cursor), pageSize + 1);
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * Clamps the requested page size to the configured bounds.
+     *
+     * @param limit the requested page size, or null for the default
+     * @return a page size between 1 and the configured maximum
+     */
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return lookupProperties.getDefaultPageSize();
+        }
+        return Math.max(1, Math.min(limit, lookupProperties.getMaxPageSize()));
+    }
+
+    private static TransactionCursor decodeCursor(String cursor) throws IllegalArgumentException {
+        return cursor == null || cursor.isEmpty() ? null : TransactionCursor.decode(cursor);
+    }
+
+    /**
+     * Trims the look-ahead row and derives the next cursor from the last row kept.
+     *
+     * @param rows     up to {@code pageSize + 1} rows in page order
+     * @param pageSize the page size requested
+     * @return the page
+     */
+    private static TransactionPageDto toPage(List<TransactionLookupDto> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return TransactionPageDto.builder().transactions(rows).build();
+        }
+        List<TransactionLookupDto> page = rows.subList(0, pageSize);
+        TransactionLookupDto last = page.get(page.size() - 1);
+        return TransactionPageDto.builder()
+                .transactions(page)
+                .nextCursor(new TransactionCursor(last.getValidFrom(), last.getTransactionId()).encode())
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package org.fiverty.frauddetection.service.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.fiverty.frauddetection.config.AdmissionProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Gradient-style adaptive concurrency limit for the scoring path.
+ * <p>
+ * Scoring latency is tracked by two exponential moving averages: a short one for recent latency and a
+ * long one as the no-load baseline. While recent latency stays within {@code latencyTolerance} of the
+ * baseline, the limit grows towards its current value plus its square root; as queueing pushes recent
+ * latency above it, the limit is pulled down in proportion, towards at most half its value. Each sample
+ * moves the limit by {@code smoothing} of the way to that target. A failed request (for example
+ * a database timeout) shrinks the limit by a tenth. The limit only grows while the service is using
+ * at least half of it, so an idle service does not talk itself into an unbounded limit.
+ * <p>
+ * Each {@link MerchantTier} may only fill its configured share of the limit, so as in-flight requests
+ * approach the limit lower tiers are rejected first and the remaining headroom is kept for priority
+ * merchants.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double FAILURE_BACKOFF = 0.9;
+
+    private final AdmissionProperties admissionProperties;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<MerchantTier, Counter> rejections = new EnumMap<>(MerchantTier.class);
+    private final double shortAlpha;
+    private final double longAlpha;
+
+    // Written under the monitor that guards the estimates, read lock-free by acquire and the gauge
+    private final AtomicInteger limit = new AtomicInteger();
+    private double estimatedLimit;
+    private double shortLatency;
+    private double longLatency;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(AdmissionProperties admissionProperties, MeterRegistry meterRegistry) {
+        this(admissionProperties, meterRegistry, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(AdmissionProperties admissionProperties, MeterRegistry meterRegistry,
+                               LongSupplier nanoClock) {
+        if (admissionProperties.getMinLimit() < 1 || admissionProperties.getMaxLimit() < admissionProperties.getMinLimit()) {
+            throw new IllegalArgumentException("Admission limits must satisfy 1 <= min-limit <= max-limit");
+        }
+        this.admissionProperties = admissionProperties;
+        this.nanoClock = nanoClock;
+        this.shortAlpha = 2.0 / (admissionProperties.getShortWindow() + 1);
+        this.longAlpha = 2.0 / (admissionProperties.getLongWindow() + 1);
+        this.estimatedLimit = clamp(admissionProperties.getInitialLimit());
+        this.limit.set((int) estimatedLimit);
+
+        Gauge.builder("fraud.admission.limit", limit, AtomicInteger::get)
+                .description("Current adaptive concurrency limit of the scoring endpoint")
+                .register(meterRegistry);
+        Gauge.builder("fraud.admission.in-flight", inFlight, AtomicInteger::get)
+                .description("Scoring requests currently admitted")
+                .register(meterRegistry);
+        for (MerchantTier tier : MerchantTier.values()) {
+            rejections.put(tier, Counter.builder("fraud.admission.rejected")
+                    .description("Scoring requests rejected by admission control")
+                    .tag("tier", tier.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Admits a request of the given tier if its share of the current limit has room.
+     *
+     * @param tier the tier of the request's merchant
+     * @return a permit that must be closed when the request completes
+     * @throws AdmissionRejectedException if the request is over the limit for its tier
+     */
+    public AdmissionPermit acquire(MerchantTier tier) {
+        if (!admissionProperties.isEnabled()) {
+            return AdmissionPermit.UNLIMITED;
+        }
+        AdmissionProperties.Tier tierProperties = admissionProperties.getTiers().get(tier);
+        double share = tierProperties == null ? 1.0 : tierProperties.getShare();
+        int allowed = Math.max(1, (int) (limit.get() * share));
+
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= allowed) {
+                rejections.get(tier).increment();
+                throw new AdmissionRejectedException(tier, admissionProperties.getRetryAfter());
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        return new AdmissionPermit(this, nanoClock.getAsLong(), current + 1);
+    }
+
+    /**
+     * @return the current concurrency limit
+     */
+    public int getLimit() {
+        return limit.get();
+    }
+
+    /**
+     * @return the number of requests currently admitted
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    void onSuccess(long startNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        long latency = Math.max(1, nanoClock.getAsLong() - startNanos);
+        synchronized (this) {
+            if (longLatency == 0.0) {
+                shortLatency = latency;
+                longLatency = latency;
+            } else {
+                shortLatency += shortAlpha * (latency - shortLatency);
+                longLatency += longAlpha * (latency - longLatency);
+            }
+            // After a lasting drop in latency, pull the baseline down quickly instead of over the long window
+            if (longLatency > 2 * shortLatency) {
+                longLatency *= 0.95;
+            }
+            if (inFlightAtStart < estimatedLimit / 2) {
+                return;
+            }
+            double gradient = Math.max(MIN_GRADIENT,
+                    Math.min(1.0, admissionProperties.getLatencyTolerance() * longLatency / shortLatency));
+            double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            updateLimit(estimatedLimit + admissionProperties.getSmoothing() * (target - estimatedLimit));
+        }
+    }
+
+    void onFailure() {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            updateLimit(estimatedLimit * FAILURE_BACKOFF);
+        }
+    }
+
+    void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    private void updateLimit(double newLimit) {
+        estimatedLimit = clamp(newLimit);
+        limit.set((int) estimatedLimit);
+    }
+
+    private double clamp(double value) {
+        return Math.max(admissionProperties.getMinLimit(), Math.min(admissionProperties.getMaxLimit(), value));
+    }
+}
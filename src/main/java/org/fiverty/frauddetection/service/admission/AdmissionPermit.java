@@ -0,0 +1,54 @@
+package org.fiverty.frauddetection.service.admission;
+
+/**
+ * A request's admission by {@link AdaptiveConcurrencyLimiter}. Mark the outcome with
+ * {@link #succeeded()} or {@link #failed()} before closing; a permit closed without an outcome is
+ * released without affecting the limit, which suits requests rejected as invalid.
+ */
+public final class AdmissionPermit implements AutoCloseable {
+
+    static final AdmissionPermit UNLIMITED = new AdmissionPermit(null, 0L, 0);
+
+    private enum Outcome {
+        IGNORED, SUCCEEDED, FAILED
+    }
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long startNanos;
+    private final int inFlightAtStart;
+    private Outcome outcome = Outcome.IGNORED;
+    private boolean released;
+
+    AdmissionPermit(AdaptiveConcurrencyLimiter limiter, long startNanos, int inFlightAtStart) {
+        this.limiter = limiter;
+        this.startNanos = startNanos;
+        this.inFlightAtStart = inFlightAtStart;
+    }
+
+    /**
+     * Marks the request as completed normally; its latency is used to adjust the limit.
+     */
+    public void succeeded() {
+        outcome = Outcome.SUCCEEDED;
+    }
+
+    /**
+     * Marks the request as failed for a reason that suggests overload, such as a timeout.
+     */
+    public void failed() {
+        outcome = Outcome.FAILED;
+    }
+
+    @Override
+    public void close() {
+        if (limiter == null || released) {
+            return;
+        }
+        released = true;
+        switch (outcome) {
+            case SUCCEEDED -> limiter.onSuccess(startNanos, inFlightAtStart);
+            case FAILED -> limiter.onFailure();
+            case IGNORED -> limiter.onIgnore();
+        }
+    }
+}
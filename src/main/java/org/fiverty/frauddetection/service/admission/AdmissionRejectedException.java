@@ -0,0 +1,26 @@
+package org.fiverty.frauddetection.service.admission;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a scoring request is over the admission limit for its merchant tier.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final MerchantTier tier;
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(MerchantTier tier, Duration retryAfter) {
+        super("Scoring capacity exceeded for " + tier + " merchants, retry after " + retryAfter.toSeconds() + "s");
+        this.tier = tier;
+        this.retryAfter = retryAfter;
+    }
+
+    public MerchantTier getTier() {
+        return tier;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
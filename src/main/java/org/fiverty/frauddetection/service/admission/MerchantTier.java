@@ -0,0 +1,10 @@
+package org.fiverty.frauddetection.service.admission;
+
+/**
+ * Admission priority of a merchant's scoring traffic. Under overload, lower tiers are shed first.
+ */
+public enum MerchantTier {
+    PRIORITY,
+    STANDARD,
+    BULK
+}
@@ -0,0 +1,42 @@
+package org.fiverty.frauddetection.service.admission;
+
+import org.fiverty.frauddetection.config.AdmissionProperties;
+import org.fiverty.frauddetection.model.dto.TransactionRequestDto;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps a scoring request to the admission tier of its merchant, as configured under
+ * {@code fraud.admission.tiers}.
+ */
+@Component
+public class MerchantTierResolver {
+
+    private final Map<String, MerchantTier> tiersByMerchant = new HashMap<>();
+    private final MerchantTier defaultTier;
+
+    public MerchantTierResolver(AdmissionProperties admissionProperties) {
+        this.defaultTier = admissionProperties.getDefaultTier();
+        admissionProperties.getTiers().forEach((tier, tierProperties) ->
+                tierProperties.getMerchants().forEach(merchant -> tiersByMerchant.put(normalize(merchant), tier)));
+    }
+
+    /**
+     * @param transaction the scoring request
+     * @return the tier of the request's merchant, or the default tier if it is not listed or missing
+     */
+    public MerchantTier resolve(TransactionRequestDto transaction) {
+        if (transaction == null || transaction.getTransactionDetails() == null
+                || transaction.getTransactionDetails().getMerchantName() == null) {
+            return defaultTier;
+        }
+        return tiersByMerchant.getOrDefault(normalize(transaction.getTransactionDetails().getMerchantName()), defaultTier);
+    }
+
+    private static String normalize(String merchantName) {
+        return merchantName.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,178 @@
+package org.fiverty.frauddetection.service.amount;
+
+import org.fiverty.frauddetection.config.AmountSketchProperties;
+import org.fiverty.frauddetection.model.Transaction;
+import org.fiverty.frauddetection.service.snapshot.SnapshotParticipant;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Purchase amount distribution of every merchant and customer seen by the scoring service, kept as
+ * one bounded {@link AmountSketch} each, so an unusual amount can be recognised without querying
+ * transaction history.
+ * <p>
+ * Each sketch has its own lock, held for an update or a rank query over at most about {@code 3k}
+ * amounts. Entries are only ever created, never removed; once a limit is reached, new merchants or
+ * customers are not tracked and read as unknown.
+ * <p>
+ * The index is carried across restarts by the state snapshots. Restoring a snapshot merges it into the
+ * sketches already held rather than replacing them, so snapshots taken on other instances can be
+ * folded in to combine what each instance has seen.
+ */
+@Component
+public class AmountDistributionIndex implements SnapshotParticipant {
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final ConcurrentHashMap<String, AmountSketch> merchants = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AmountSketch> customers = new ConcurrentHashMap<>();
+    private final AmountSketchProperties amountSketchProperties;
+
+    public AmountDistributionIndex(AmountSketchProperties amountSketchProperties) {
+        if (amountSketchProperties.getK() < 8) {
+            throw new IllegalArgumentException("fraud.amount-sketch.k must be at least 8");
+        }
+        this.amountSketchProperties = amountSketchProperties;
+    }
+
+    /**
+     * Ranks a transaction's purchase amount among its merchant's and customer's earlier amounts,
+     * before the transaction is recorded.
+     *
+     * @param transaction the transaction to rank
+     * @return the amount's ranks, or null if the transaction has no purchase amount
+     */
+    public AmountRanks lookup(Transaction transaction) {
+        if (transaction == null || transaction.getPurchaseAmount() == null) {
+            return null;
+        }
+        double amount = transaction.getPurchaseAmount().doubleValue();
+        AmountSketch merchant = sketchOf(merchants, merchantKey(transaction));
+        AmountSketch customer = sketchOf(customers, customerKey(transaction));
+        return new AmountRanks(
+                merchant == null ? Double.NaN : merchant.rank(amount), merchant == null ? 0L : merchant.count(),
+                customer == null ? Double.NaN : customer.rank(amount), customer == null ? 0L : customer.count());
+    }
+
+    /**
+     * Adds a scored transaction's purchase amount to its merchant's and customer's sketches. Callers
+     * add a transaction only once it has committed, so a rolled-back scoring never skews the ranks.
+     *
+     * @param transaction the scored transaction
+     */
+    public void record(Transaction transaction) {
+        if (transaction == null || transaction.getPurchaseAmount() == null) {
+            return;
+        }
+        double amount = transaction.getPurchaseAmount().doubleValue();
+        update(merchants, merchantKey(transaction), amountSketchProperties.getMaxMerchants(), amount);
+        update(customers, customerKey(transaction), amountSketchProperties.getMaxCustomers(), amount);
+    }
+
+    private void update(ConcurrentHashMap<String, AmountSketch> sketches, String key, int maxEntries, double amount) {
+        if (key == null) {
+            return;
+        }
+        AmountSketch sketch = sketches.get(key);
+        if (sketch == null) {
+            if (sketches.size() >= maxEntries) {
+                return;
+            }
+            sketch = sketches.computeIfAbsent(key, k -> new AmountSketch(amountSketchProperties.getK()));
+        }
+        sketch.update(amount);
+    }
+
+    private static AmountSketch sketchOf(Map<String, AmountSketch> sketches, String key) {
+        return key == null ? null : sketches.get(key);
+    }
+
+    @Override
+    public String snapshotName() {
+        return "amount-distribution";
+    }
+
+    @Override
+    public int snapshotVersion() {
+        return SNAPSHOT_VERSION;
+    }
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        writeSketches(out, merchants);
+        writeSketches(out, customers);
+    }
+
+    private static void writeSketches(DataOutput out, Map<String, AmountSketch> sketches) throws IOException {
+        // Copy first: the map keeps changing while it is written
+        Map<String, AmountSketch> entries = new HashMap<>(sketches);
+        out.writeInt(entries.size());
+        for (Map.Entry<String, AmountSketch> entry : entries.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    @Override
+    public void readSnapshot(DataInput in, int version) throws IOException {
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported amount distribution snapshot version " + version);
+        }
+        // Parse everything before merging, so a corrupt snapshot leaves the index untouched
+        Map<String, AmountSketch> restoredMerchants = readSketches(in);
+        Map<String, AmountSketch> restoredCustomers = readSketches(in);
+        mergeSketches(merchants, restoredMerchants, amountSketchProperties.getMaxMerchants());
+        mergeSketches(customers, restoredCustomers, amountSketchProperties.getMaxCustomers());
+    }
+
+    private Map<String, AmountSketch> readSketches(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid amount sketch count " + count);
+        }
+        Map<String, AmountSketch> restored = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            restored.put(key, AmountSketch.readFrom(in, amountSketchProperties.getK()));
+        }
+        return restored;
+    }
+
+    private static void mergeSketches(ConcurrentHashMap<String, AmountSketch> sketches,
+                                      Map<String, AmountSketch> restored, int maxEntries) {
+        for (Map.Entry<String, AmountSketch> entry : restored.entrySet()) {
+            AmountSketch existing = sketches.get(entry.getKey());
+            if (existing != null) {
+                existing.merge(entry.getValue());
+            } else if (sketches.size() < maxEntries) {
+                AmountSketch raced = sketches.putIfAbsent(entry.getKey(), entry.getValue());
+                if (raced != null) {
+                    raced.merge(entry.getValue());
+                }
+            }
+        }
+    }
+
+    private static String merchantKey(Transaction transaction) {
+        if (transaction.getMerchantName() == null) {
+            return null;
+        }
+        return normalize(transaction.getMerchantName()) + '\0' + normalize(transaction.getMerchantCity())
+                + '\0' + normalize(transaction.getMerchantState());
+    }
+
+    private static String customerKey(Transaction transaction) {
+        return transaction.getCustomerName() == null ? null : normalize(transaction.getCustomerName());
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+}
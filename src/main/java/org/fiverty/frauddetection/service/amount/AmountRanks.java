@@ -0,0 +1,12 @@
+package org.fiverty.frauddetection.service.amount;
+
+/**
+ * Where a purchase amount falls in its merchant's and its customer's earlier amounts.
+ *
+ * @param merchantRank     share of the merchant's earlier amounts below this one, or NaN if none
+ * @param merchantSamples  the merchant's earlier purchases
+ * @param customerRank     share of the customer's earlier amounts below this one, or NaN if none
+ * @param customerSamples  the customer's earlier purchases
+ */
+public record AmountRanks(double merchantRank, long merchantSamples, double customerRank, long customerSamples) {
+}
@@ -0,0 +1,233 @@
+package org.fiverty.frauddetection.service.amount;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Streaming quantile sketch of purchase amounts (KLL, Karnin, Lang and Liberty 2016).
+ * <p>
+ * Amounts are kept in a stack of compactors. Level {@code h} holds amounts that each stand for
+ * {@code 2^h} purchases; when a level exceeds its capacity it is sorted and every other amount, from a
+ * random offset, is promoted to the next level. Capacities shrink geometrically (by 2/3) below the top
+ * level, so the sketch never holds more than about {@code 3k} amounts however many it has seen, with a
+ * rank error of roughly {@code 1.7 / k}. Two sketches merge by concatenating their levels and
+ * compacting, which is how sketches from different instances are combined.
+ * <p>
+ * Amounts are stored as {@code float}; the precision lost is far below the sketch's rank error.
+ * Guarded by its own monitor, so different merchants and customers never contend.
+ */
+final class AmountSketch {
+
+    private static final int MIN_LEVEL_CAPACITY = 8;
+    private static final int MAX_LEVELS = 61;
+    private static final int MAX_SERIALIZED_LEVEL_SIZE = 1 << 16;
+
+    private final int k;
+    private long count;
+    private float[][] levels;
+    private int[] sizes;
+    private int levelCount;
+    private long coin;
+
+    AmountSketch(int k) {
+        if (k < MIN_LEVEL_CAPACITY) {
+            throw new IllegalArgumentException("Amount sketch k must be at least " + MIN_LEVEL_CAPACITY);
+        }
+        this.k = k;
+        this.levels = new float[4][];
+        this.sizes = new int[4];
+        this.levels[0] = new float[MIN_LEVEL_CAPACITY];
+        this.levelCount = 1;
+        this.coin = 0x9e3779b97f4a7c15L ^ System.nanoTime();
+    }
+
+    /**
+     * @return the number of amounts the sketch has seen
+     */
+    synchronized long count() {
+        return count;
+    }
+
+    synchronized void update(double amount) {
+        if (Double.isNaN(amount)) {
+            return;
+        }
+        append(0, (float) amount);
+        count++;
+        compress();
+    }
+
+    /**
+     * @param amount the amount to rank
+     * @return the estimated share, between 0 and 1, of amounts seen that are strictly below
+     *         {@code amount}, or NaN if the sketch is empty
+     */
+    synchronized double rank(double amount) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long below = 0;
+        for (int level = 0; level < levelCount; level++) {
+            float[] items = levels[level];
+            long weight = 1L << level;
+            for (int i = 0; i < sizes[level]; i++) {
+                if (items[i] < amount) {
+                    below += weight;
+                }
+            }
+        }
+        return (double) below / count;
+    }
+
+    /**
+     * Folds another sketch into this one. The other sketch must not be in use by any other thread.
+     *
+     * @param other the sketch to merge
+     */
+    synchronized void merge(AmountSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        for (int level = 0; level < other.levelCount; level++) {
+            while (levelCount <= level) {
+                addLevel();
+            }
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        compress();
+    }
+
+    /**
+     * @return the number of amounts held, at most about {@code 3k}
+     */
+    synchronized int retained() {
+        int retained = 0;
+        for (int level = 0; level < levelCount; level++) {
+            retained += sizes[level];
+        }
+        return retained;
+    }
+
+    synchronized void writeTo(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeByte(levelCount);
+        for (int level = 0; level < levelCount; level++) {
+            out.writeInt(sizes[level]);
+            for (int i = 0; i < sizes[level]; i++) {
+                out.writeFloat(levels[level][i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(DataOutput)}, possibly with a different {@code k};
+     * it is compacted to this {@code k} if needed.
+     */
+    static AmountSketch readFrom(DataInput in, int k) throws IOException {
+        AmountSketch sketch = new AmountSketch(k);
+        long count = in.readLong();
+        int levelCount = in.readUnsignedByte();
+        if (count < 0 || levelCount < 1 || levelCount > MAX_LEVELS) {
+            throw new IOException("Invalid amount sketch header");
+        }
+        long weight = 0;
+        for (int level = 0; level < levelCount; level++) {
+            int size = in.readInt();
+            if (size < 0 || size > MAX_SERIALIZED_LEVEL_SIZE) {
+                throw new IOException("Invalid amount sketch level size " + size);
+            }
+            while (sketch.levelCount <= level) {
+                sketch.addLevel();
+            }
+            for (int i = 0; i < size; i++) {
+                sketch.append(level, in.readFloat());
+            }
+            weight += (long) size << level;
+        }
+        if (weight != count) {
+            throw new IOException("Amount sketch weights do not add up to its count");
+        }
+        sketch.count = count;
+        sketch.compress();
+        return sketch;
+    }
+
+    private void append(int level, float amount) {
+        float[] items = levels[level];
+        if (sizes[level] == items.length) {
+            items = Arrays.copyOf(items, items.length * 2);
+            levels[level] = items;
+        }
+        items[sizes[level]++] = amount;
+    }
+
+    private void addLevel() {
+        if (levelCount == levels.length) {
+            levels = Arrays.copyOf(levels, levelCount * 2);
+            sizes = Arrays.copyOf(sizes, levelCount * 2);
+        }
+        levels[levelCount] = new float[MIN_LEVEL_CAPACITY];
+        levelCount++;
+    }
+
+    private int capacity(int level) {
+        int depth = levelCount - 1 - level;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3.0, depth)));
+    }
+
+    private void compress() {
+        while (true) {
+            int retained = 0;
+            int capacity = 0;
+            for (int level = 0; level < levelCount; level++) {
+                retained += sizes[level];
+                capacity += capacity(level);
+            }
+            if (retained <= capacity) {
+                return;
+            }
+            for (int level = 0; level < levelCount; level++) {
+                if (sizes[level] >= capacity(level)) {
+                    compact(level);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Halves a level: sorts it and promotes every other amount to the level above, keeping one amount
+     * back when the level has an odd size so the total weight is preserved.
+     */
+    private void compact(int level) {
+        if (level + 1 == levelCount) {
+            addLevel();
+        }
+        float[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        int start = size % 2;
+        int offset = nextCoin() ? 1 : 0;
+        for (int i = start + offset; i < size; i += 2) {
+            append(level + 1, items[i]);
+        }
+        // The odd amount, if any, is the smallest and stays at this level
+        sizes[level] = start;
+        if (items.length > capacity(level) * 2) {
+            levels[level] = Arrays.copyOf(items, Math.max(MIN_LEVEL_CAPACITY, capacity(level)));
+        }
+    }
+
+    private boolean nextCoin() {
+        // xorshift64; compaction offsets only need to be unbiased, not unpredictable
+        coin ^= coin << 13;
+        coin ^= coin >>> 7;
+        coin ^= coin << 17;
+        return (coin & 1L) != 0;
+    }
+}
@@ -0,0 +1,53 @@
+package org.fiverty.frauddetection.service.analytics;
+
+import org.fiverty.frauddetection.config.RollupProperties;
+import org.fiverty.frauddetection.model.FraudRollupDimension;
+import org.fiverty.frauddetection.model.dto.FraudRateDto;
+import org.fiverty.frauddetection.repository.FraudRollupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Service
+public class FraudAnalyticsService {
+
+    private static final String DIMENSION_NULL = "Rollup dimension cannot be null";
+    private static final String TIME_RANGE_INVALID = "Time range must have a 'from' before 'to'";
+
+    private final FraudRollupRepository fraudRollupRepository;
+    private final int maxRows;
+
+    public FraudAnalyticsService(FraudRollupRepository fraudRollupRepository, RollupProperties rollupProperties) {
+        this.fraudRollupRepository = fraudRollupRepository;
+        this.maxRows = rollupProperties.getMaxRows();
+    }
+
+    /**
+     * Reads fraud rates for a dimension over a time range from the hourly rollups. Rows written
+     * by the scoring path in the last flush interval are not visible yet.
+     *
+     * @param dimension the dimension to report on
+     * @param from      inclusive lower bound, truncated to the hour by the rollup buckets
+     * @param to        exclusive upper bound
+     * @param limit     the maximum number of rows, or null for the configured maximum
+     * @return fraud rates per dimension value, or per hour for {@link FraudRollupDimension#HOUR}
+     * @throws IllegalArgumentException if the dimension is null or the time range is invalid
+     */
+    @Transactional(readOnly = true)
+    public List<FraudRateDto> getFraudRates(FraudRollupDimension dimension, Instant from, Instant to, Integer limit)
+            throws IllegalArgumentException {
+        if (dimension == null) {
+            throw new IllegalArgumentException(DIMENSION_NULL);
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException(TIME_RANGE_INVALID);
+        }
+        int rows = limit == null ? maxRows : Math.max(1, Math.min(limit, maxRows));
+        if (dimension == FraudRollupDimension.HOUR) {
+            return fraudRollupRepository.findHourlyRates(from, to, rows);
+        }
+        return fraudRollupRepository.findRatesByKey(dimension, from, to, rows);
+    }
+}
@@ -0,0 +1,174 @@
+package org.fiverty.frauddetection.service.analytics;
+
+import jakarta.annotation.PreDestroy;
+import org.fiverty.frauddetection.model.FraudRollupDimension;
+import org.fiverty.frauddetection.model.FraudSignal;
+import org.fiverty.frauddetection.model.Transaction;
+import org.fiverty.frauddetection.repository.FraudRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Accumulates hourly fraud rollups in memory as transactions are scored and periodically flushes
+ * them to {@code fraud_rollup} as additive upserts. Dashboards then read a handful of pre-aggregated
+ * rows instead of grouping over the raw transaction and signal tables.
+ * <p>
+ * A transaction scored inside a database transaction is only counted once that transaction commits,
+ * so a rolled-back scoring never reaches the rollups. It is bucketed by the hour it was committed in.
+ * <p>
+ * Counters are only ever mutated inside {@link ConcurrentHashMap#compute}, and the flush detaches
+ * each entry with {@link ConcurrentHashMap#remove}. An increment therefore lands either in the entry
+ * being flushed or in a fresh entry picked up by the next flush, and is never lost between the two.
+ */
+@Component
+public class FraudRollupAccumulator {
+    private static final Logger logger = LoggerFactory.getLogger(FraudRollupAccumulator.class);
+
+    private static final String STATE_PAIR_SEPARATOR = "->";
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final FraudRollupRepository fraudRollupRepository;
+    private final ConcurrentHashMap<RollupKey, Counters> pending = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    @Autowired
+    public FraudRollupAccumulator(FraudRollupRepository fraudRollupRepository) {
+        this(fraudRollupRepository, System::currentTimeMillis);
+    }
+
+    FraudRollupAccumulator(FraudRollupRepository fraudRollupRepository, LongSupplier clock) {
+        this.fraudRollupRepository = fraudRollupRepository;
+        this.clock = clock;
+    }
+
+    private record RollupKey(FraudRollupDimension dimension, Instant bucketStart, String key) {
+    }
+
+    private static final class Counters {
+        private long events;
+        private long flagged;
+        private long amountCents;
+    }
+
+    /**
+     * Records a scored transaction against every rollup dimension. Inside a database transaction the
+     * increments are deferred until it commits and dropped if it rolls back.
+     *
+     * @param transaction the scored transaction
+     * @param signals     the fraud signals generated for it
+     * @param flagged     whether the transaction counts as flagged, as decided by the scoring service;
+     *                    the per-signal rollups use each signal's own verdict instead
+     */
+    public void record(Transaction transaction, List<FraudSignal> signals, boolean flagged) {
+        if (transaction == null || signals == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accumulate(transaction, signals, flagged);
+                }
+            });
+        } else {
+            accumulate(transaction, signals, flagged);
+        }
+    }
+
+    private void accumulate(Transaction transaction, List<FraudSignal> signals, boolean flagged) {
+        Instant bucketStart = Instant.ofEpochMilli(clock.getAsLong()).truncatedTo(ChronoUnit.HOURS);
+        long amountCents = toCents(transaction.getPurchaseAmount());
+
+        add(FraudRollupDimension.HOUR, bucketStart, "ALL", flagged, amountCents);
+        add(FraudRollupDimension.MERCHANT, bucketStart, valueOrUnknown(transaction.getMerchantName()), flagged, amountCents);
+        add(FraudRollupDimension.STATE_PAIR, bucketStart,
+                valueOrUnknown(transaction.getCustomerState()) + STATE_PAIR_SEPARATOR + valueOrUnknown(transaction.getMerchantState()),
+                flagged, amountCents);
+        for (FraudSignal signal : signals) {
+            if (signal.getSignalType() != null) {
+                add(FraudRollupDimension.SIGNAL_TYPE, bucketStart, signal.getSignalType().name(),
+                        Boolean.TRUE.equals(signal.getPotentialFraud()), amountCents);
+            }
+        }
+    }
+
+    private void add(FraudRollupDimension dimension, Instant bucketStart, String key, boolean flagged, long amountCents) {
+        pending.compute(new RollupKey(dimension, bucketStart, key), (rollupKey, counters) -> {
+            Counters target = counters != null ? counters : new Counters();
+            target.events++;
+            if (flagged) {
+                target.flagged++;
+            }
+            target.amountCents += amountCents;
+            return target;
+        });
+    }
+
+    /**
+     * Writes the accumulated increments to the database. If the write fails the increments are
+     * folded back into the accumulator and retried on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${fraud.rollup.flush-interval:PT10S}")
+    public synchronized void flush() {
+        List<FraudRollupRepository.Delta> deltas = new ArrayList<>();
+        for (RollupKey key : pending.keySet()) {
+            Counters counters = pending.remove(key);
+            if (counters != null) {
+                deltas.add(new FraudRollupRepository.Delta(key.dimension(), key.bucketStart(), key.key(),
+                        counters.events, counters.flagged, counters.amountCents));
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Consistent row order keeps concurrent flushes from several instances from deadlocking
+        deltas.sort(Comparator.comparing(FraudRollupRepository.Delta::dimension)
+                .thenComparing(FraudRollupRepository.Delta::bucketStart)
+                .thenComparing(FraudRollupRepository.Delta::key));
+        try {
+            fraudRollupRepository.applyDeltas(deltas);
+            logger.debug("Flushed {} fraud rollup increments", deltas.size());
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to flush {} fraud rollup increments, retrying on next flush", deltas.size(), ex);
+            deltas.forEach(this::restore);
+        }
+    }
+
+    private void restore(FraudRollupRepository.Delta delta) {
+        pending.compute(new RollupKey(delta.dimension(), delta.bucketStart(), delta.key()), (rollupKey, counters) -> {
+            Counters target = counters != null ? counters : new Counters();
+            target.events += delta.events();
+            target.flagged += delta.flagged();
+            target.amountCents += delta.amountCents();
+            return target;
+        });
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0L : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static String valueOrUnknown(String value) {
+        return value == null || value.isBlank() ? UNKNOWN : value;
+    }
+}
@@ -0,0 +1,190 @@
+package org.fiverty.frauddetection.service.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.fiverty.frauddetection.config.ArchiveProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.function.LongSupplier;
+
+/**
+ * Moves transactions older than {@code fraud.archive.max-age} out of {@code transaction_current} into
+ * the yearly partitions of {@code transaction_history}, taking their fraud signals along into
+ * {@code fraud_signal_history}. Nothing in the application marks rows non-current, so without this the
+ * V2 archive trigger never fires and the current table grows without bound.
+ * <p>
+ * Each batch is a single set-based statement in its own short transaction: it locks the oldest
+ * {@code batch-size} rows with {@code SKIP LOCKED}, deletes their signals and then the transactions, and
+ * inserts both into history. The {@code fraud_signal} foreign key is checked at the end of the statement,
+ * when both deletes have happened. Batches run under their own lock and statement timeouts with a pause
+ * in between, and a run stops after {@code max-batches-per-run}, so archival never holds locks or
+ * connections long enough to slow scoring. {@code SKIP LOCKED} also lets several instances archive at
+ * once without waiting on each other.
+ */
+@Component
+public class TransactionArchiver {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    private static final String TIMEOUTS_SQL = """
+            SELECT set_config('lock_timeout', ?, true), set_config('statement_timeout', ?, true)""";
+
+    private static final String ENSURE_PARTITIONS_SQL = """
+            SELECT ensure_history_partition(parent, partition_year)
+            FROM (VALUES ('transaction_history'), ('fraud_signal_history')) AS parents (parent),
+                 generate_series((SELECT EXTRACT(YEAR FROM MIN(valid_from))::INTEGER
+                                  FROM transaction_current WHERE valid_from < ?),
+                                 EXTRACT(YEAR FROM ?::TIMESTAMPTZ)::INTEGER) AS partition_year""";
+
+    private static final String ARCHIVE_BATCH_SQL = """
+            WITH batch AS (
+                SELECT transaction_id, valid_from
+                FROM transaction_current
+                WHERE valid_from < ?
+                ORDER BY valid_from
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED),
+            moved_signals AS (
+                DELETE FROM fraud_signal s USING batch b
+                WHERE s.transaction_id = b.transaction_id
+                RETURNING s.signal_id, s.transaction_id, s.signal_type, s.potential_fraud, s.score, s.details,
+                          b.valid_from),
+            archived_signals AS (
+                INSERT INTO fraud_signal_history (signal_id, transaction_id, signal_type, potential_fraud, score,
+                                                  details, valid_from)
+                SELECT signal_id, transaction_id, signal_type, potential_fraud, score, details, valid_from
+                FROM moved_signals
+                RETURNING 1),
+            moved_transactions AS (
+                DELETE FROM transaction_current t USING batch b
+                WHERE t.transaction_id = b.transaction_id
+                RETURNING t.*),
+            archived_transactions AS (
+                INSERT INTO transaction_history (transaction_id, customer_name_id, ip_address, customer_city_id,
+                                                 customer_state, card_last4, name_on_card_id, purchase_amount,
+                                                 merchant_name_id, merchant_city_id, merchant_state,
+                                                 purchased_item_count, valid_from, valid_to, version)
+                SELECT transaction_id, customer_name_id, ip_address, customer_city_id, customer_state, card_last4,
+                       name_on_card_id, purchase_amount, merchant_name_id, merchant_city_id, merchant_state,
+                       purchased_item_count, valid_from, COALESCE(valid_to, CURRENT_TIMESTAMP), version
+                FROM moved_transactions
+                RETURNING 1)
+            SELECT (SELECT COUNT(*) FROM archived_transactions) AS transactions,
+                   (SELECT COUNT(*) FROM archived_signals) AS signals""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArchiveProperties archiveProperties;
+    private final LongSupplier clock;
+    private final Counter archivedTransactions;
+    private final Counter archivedSignals;
+
+    @Autowired
+    public TransactionArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               ArchiveProperties archiveProperties, MeterRegistry meterRegistry) {
+        this(jdbcTemplate, transactionManager, archiveProperties, meterRegistry, System::currentTimeMillis);
+    }
+
+    TransactionArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                        ArchiveProperties archiveProperties, MeterRegistry meterRegistry, LongSupplier clock) {
+        if (archiveProperties.getBatchSize() < 1 || archiveProperties.getMaxBatchesPerRun() < 1) {
+            throw new IllegalArgumentException("fraud.archive.batch-size and max-batches-per-run must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiveProperties = archiveProperties;
+        this.clock = clock;
+        this.archivedTransactions = Counter.builder("fraud.archive.transactions")
+                .description("Transactions moved from transaction_current to transaction_history")
+                .register(meterRegistry);
+        this.archivedSignals = Counter.builder("fraud.archive.signals")
+                .description("Fraud signals moved from fraud_signal to fraud_signal_history")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rows moved by one batch.
+     */
+    record BatchResult(long transactions, long signals) {
+    }
+
+    /**
+     * Archives transactions older than the configured age, batch by batch, until none are left or the
+     * per-run batch limit is reached. A batch that fails (for example on a lock timeout) is rolled back
+     * and the run ends; its rows are picked up by the next run.
+     */
+    @Scheduled(initialDelayString = "${fraud.archive.interval:PT15M}", fixedDelayString = "${fraud.archive.interval:PT15M}")
+    public void archive() {
+        if (!archiveProperties.isEnabled()) {
+            return;
+        }
+        long started = clock.getAsLong();
+        Timestamp cutoff = Timestamp.from(Instant.ofEpochMilli(started).minus(archiveProperties.getMaxAge()));
+        long transactions = 0;
+        long signals = 0;
+        int batches = 0;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                applyTimeouts();
+                jdbcTemplate.queryForList(ENSURE_PARTITIONS_SQL, cutoff, cutoff);
+            });
+            while (batches < archiveProperties.getMaxBatchesPerRun()) {
+                BatchResult batch = transactionTemplate.execute(status -> {
+                    applyTimeouts();
+                    return jdbcTemplate.queryForObject(ARCHIVE_BATCH_SQL,
+                            (rs, rowNum) -> new BatchResult(rs.getLong("transactions"), rs.getLong("signals")),
+                            cutoff, archiveProperties.getBatchSize());
+                });
+                batches++;
+                if (batch == null) {
+                    break;
+                }
+                transactions += batch.transactions();
+                signals += batch.signals();
+                archivedTransactions.increment(batch.transactions());
+                archivedSignals.increment(batch.signals());
+                if (batch.transactions() < archiveProperties.getBatchSize() || !pause()) {
+                    break;
+                }
+            }
+        } catch (DataAccessException ex) {
+            logger.warn("Archival batch failed after moving {} transactions, resuming on the next run", transactions, ex);
+        }
+        if (transactions > 0) {
+            logger.info("Archived {} transactions and {} fraud signals older than {} in {} batches ({} ms)",
+                    transactions, signals, cutoff.toInstant(), batches, clock.getAsLong() - started);
+        }
+    }
+
+    private void applyTimeouts() {
+        jdbcTemplate.queryForList(TIMEOUTS_SQL,
+                archiveProperties.getLockTimeout().toMillis() + "ms",
+                archiveProperties.getStatementTimeout().toMillis() + "ms");
+    }
+
+    /**
+     * @return false if the thread was interrupted, e.g. on shutdown, and the run should stop
+     */
+    private boolean pause() {
+        long millis = archiveProperties.getBatchPause().toMillis();
+        if (millis <= 0) {
+            return !Thread.currentThread().isInterrupted();
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
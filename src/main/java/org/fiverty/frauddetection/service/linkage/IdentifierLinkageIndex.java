@@ -0,0 +1,330 @@
+package org.fiverty.frauddetection.service.linkage;
+
+import org.fiverty.frauddetection.config.LinkageProperties;
+import org.fiverty.frauddetection.model.Transaction;
+import org.fiverty.frauddetection.service.snapshot.SnapshotParticipant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Links customers that share an IP address or a card (last four digits and name on card), so that fraud
+ * rings spread across "different" customers can be scored as a group. Merchants do not link customers:
+ * ordinary customers share popular merchants all the time, so merchant edges would grow one giant
+ * cluster out of normal traffic. Merchant-level fraud is scored by the merchant reputation instead.
+ * <p>
+ * Customers and identifiers are nodes of an incremental union-find ({@link LinkageGeneration}); each
+ * transaction unions its customer with its identifiers and adds to the totals of the resulting cluster,
+ * in near-constant time. An identifier that has already joined {@code hubCap} separate clusters is
+ * treated as a hub and stops linking, so a carrier NAT or a shared card does not merge the whole
+ * population into one cluster.
+ * <p>
+ * Union-find cannot remove edges, so links age out by generation. Every transaction is added to two
+ * generations started half of {@code maxAge} apart, and clusters are read from the older one. When the
+ * newer generation is half of {@code maxAge} old, the older one is dropped and a fresh one started, so
+ * clusters always reflect between half of {@code maxAge} and {@code maxAge} of history.
+ * <p>
+ * Scoring reads a transaction's cluster with {@link #find(Transaction)}, which changes nothing; the
+ * transaction is only linked once it has committed, so a rolled-back scoring leaves no links behind.
+ * Updates take a single lock; the critical section is a handful of array operations per identifier.
+ * The index is carried across restarts by the state snapshots, which are written from the live arrays
+ * while updates are queued (see {@link #writeSnapshot(DataOutput)}), so scoring never waits for a
+ * snapshot.
+ */
+@Component
+public class IdentifierLinkageIndex implements SnapshotParticipant {
+
+    // Version 1 also linked customers through merchants; those clusters are not restored
+    private static final int SNAPSHOT_VERSION = 2;
+
+    private static final int CUSTOMER = 1;
+    private static final int IP_ADDRESS = 2;
+    private static final int CARD = 3;
+
+    private final LinkageProperties linkageProperties;
+    private final long generationMillis;
+    private final LongSupplier clock;
+
+    private LinkageGeneration older;
+    private LinkageGeneration newer;
+    // Links and flags made while a snapshot is being written, applied once it is done
+    private boolean snapshotInProgress;
+    private final List<Runnable> deferred = new ArrayList<>();
+
+    @Autowired
+    public IdentifierLinkageIndex(LinkageProperties linkageProperties) {
+        this(linkageProperties, System::currentTimeMillis);
+    }
+
+    IdentifierLinkageIndex(LinkageProperties linkageProperties, LongSupplier clock) {
+        if (linkageProperties.getMaxAge().toMillis() < 2 || linkageProperties.getMaxNodes() < 1) {
+            throw new IllegalArgumentException("Linkage max-age and max-nodes must be positive");
+        }
+        this.linkageProperties = linkageProperties;
+        this.generationMillis = linkageProperties.getMaxAge().toMillis() / 2;
+        this.clock = clock;
+        long now = clock.getAsLong();
+        this.older = new LinkageGeneration(now, linkageProperties.getMaxNodes());
+        this.newer = new LinkageGeneration(now, linkageProperties.getMaxNodes());
+    }
+
+    /**
+     * Reads the cluster a transaction's customer would be in once the transaction is linked, without
+     * linking or counting it, so a transaction that is being scored leaves no trace until it commits.
+     *
+     * @param transaction the transaction being scored
+     * @return the customer's cluster including this transaction, or null if the customer is unknown
+     *         or could not be tracked
+     */
+    public RingCluster find(Transaction transaction) {
+        if (transaction == null || isBlank(transaction.getCustomerName())) {
+            return null;
+        }
+        long customerKey = identifierHash(CUSTOMER, transaction.getCustomerName());
+        long ipKey = ipKeyOf(transaction);
+        long cardKey = cardKeyOf(transaction);
+
+        synchronized (this) {
+            rotateIfDue(clock.getAsLong());
+            return clusterOf(customerKey, ipKey, cardKey);
+        }
+    }
+
+    /**
+     * Links a scored transaction's customer with its identifiers and counts the transaction in the
+     * customer's cluster.
+     *
+     * @param transaction the scored transaction
+     * @return the customer's cluster including this transaction, or null if the customer is unknown
+     *         or could not be tracked
+     */
+    public RingCluster link(Transaction transaction) {
+        if (transaction == null || isBlank(transaction.getCustomerName())) {
+            return null;
+        }
+        long customerKey = identifierHash(CUSTOMER, transaction.getCustomerName());
+        long ipKey = ipKeyOf(transaction);
+        long cardKey = cardKeyOf(transaction);
+
+        synchronized (this) {
+            rotateIfDue(clock.getAsLong());
+            if (snapshotInProgress) {
+                deferred.add(() -> link(customerKey, ipKey, cardKey));
+                return clusterOf(customerKey, ipKey, cardKey);
+            }
+            return link(customerKey, ipKey, cardKey);
+        }
+    }
+
+    /**
+     * Counts a linked transaction as flagged in its customer's cluster.
+     *
+     * @param transaction the transaction previously passed to {@link #link(Transaction)}
+     */
+    public void recordFlagged(Transaction transaction) {
+        if (transaction == null || isBlank(transaction.getCustomerName())) {
+            return;
+        }
+        long customerKey = identifierHash(CUSTOMER, transaction.getCustomerName());
+        synchronized (this) {
+            if (snapshotInProgress) {
+                deferred.add(() -> recordFlagged(customerKey));
+            } else {
+                recordFlagged(customerKey);
+            }
+        }
+    }
+
+    private RingCluster link(long customerKey, long ipKey, long cardKey) {
+        link(newer, customerKey, ipKey, cardKey);
+        int customer = link(older, customerKey, ipKey, cardKey);
+        if (customer < 0) {
+            return null;
+        }
+        return new RingCluster(older.customers(customer), older.transactions(customer),
+                older.flaggedTransactions(customer));
+    }
+
+    private void recordFlagged(long customerKey) {
+        for (LinkageGeneration generation : new LinkageGeneration[]{older, newer}) {
+            int customer = generation.nodeOf(customerKey);
+            if (customer >= 0) {
+                generation.addFlaggedTransaction(customer);
+            }
+        }
+    }
+
+    /**
+     * Totals linking would produce, read without changing the generation; not even path halving, so
+     * it is safe while a snapshot is reading the arrays.
+     */
+    private RingCluster clusterOf(long customerKey, long ipKey, long cardKey) {
+        int customer = older.nodeOf(customerKey);
+        if (customer < 0 && older.nodeCount() == linkageProperties.getMaxNodes()) {
+            return null;
+        }
+        // Roots of the clusters that linking would merge; a new customer starts a cluster of its own
+        int customerRoot = customer < 0 ? -1 : older.root(customer);
+        int ipRoot = linkedRoot(older, customerRoot, ipKey, linkageProperties.getIpHubCap());
+        int cardRoot = linkedRoot(older, customerRoot, cardKey, linkageProperties.getCardHubCap());
+        if (cardRoot == ipRoot) {
+            cardRoot = -1;
+        }
+        int customers = customer < 0 ? 1 : 0;
+        int transactions = 1;
+        int flaggedTransactions = 0;
+        for (int root : new int[]{customerRoot, ipRoot, cardRoot}) {
+            if (root >= 0) {
+                customers += older.customers(root);
+                transactions += older.transactions(root);
+                flaggedTransactions += older.flaggedTransactions(root);
+            }
+        }
+        return new RingCluster(customers, transactions, flaggedTransactions);
+    }
+
+    private int link(LinkageGeneration generation, long customerKey, long ipKey, long cardKey) {
+        int customer = generation.nodeFor(customerKey, true);
+        if (customer < 0) {
+            return -1;
+        }
+        linkIdentifier(generation, customer, ipKey, linkageProperties.getIpHubCap());
+        linkIdentifier(generation, customer, cardKey, linkageProperties.getCardHubCap());
+        generation.addTransaction(customer);
+        return customer;
+    }
+
+    /**
+     * @return the root of the identifier's cluster if linking would merge it into the customer's, else -1
+     */
+    private static int linkedRoot(LinkageGeneration generation, int customerRoot, long key, int hubCap) {
+        int identifier = key == 0L ? -1 : generation.nodeOf(key);
+        if (identifier < 0) {
+            return -1;
+        }
+        int root = generation.root(identifier);
+        if (root == customerRoot || generation.links(identifier) >= hubCap) {
+            return -1;
+        }
+        return root;
+    }
+
+    private static void linkIdentifier(LinkageGeneration generation, int customer, long key, int hubCap) {
+        if (key == 0L) {
+            return;
+        }
+        int identifier = generation.nodeFor(key, false);
+        if (identifier < 0 || generation.links(identifier) >= hubCap) {
+            return;
+        }
+        if (generation.union(customer, identifier)) {
+            generation.addLink(identifier);
+        }
+    }
+
+    private void rotateIfDue(long now) {
+        long newerAge = now - newer.startMillis();
+        if (newerAge >= 2 * generationMillis) {
+            // Nothing was linked for a whole max-age, so both generations have aged out
+            older = new LinkageGeneration(now, linkageProperties.getMaxNodes());
+            newer = new LinkageGeneration(now, linkageProperties.getMaxNodes());
+        } else if (newerAge >= generationMillis) {
+            older = newer;
+            newer = new LinkageGeneration(now, linkageProperties.getMaxNodes());
+        }
+    }
+
+    @Override
+    public String snapshotName() {
+        return "identifier-linkage";
+    }
+
+    @Override
+    public int snapshotVersion() {
+        return SNAPSHOT_VERSION;
+    }
+
+    /**
+     * Writes the live generations without copying them. Until the write finishes, links and flags are
+     * queued instead of applied, and clusters are read without path halving, so nothing changes the
+     * arrays being written. The queue is replayed under the lock afterwards, which holds up scoring
+     * for a few array operations per transaction linked during the write rather than for a copy of
+     * both generations.
+     */
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        LinkageGeneration olderToWrite;
+        LinkageGeneration newerToWrite;
+        synchronized (this) {
+            if (snapshotInProgress) {
+                throw new IOException("An identifier linkage snapshot is already being written");
+            }
+            snapshotInProgress = true;
+            olderToWrite = older;
+            newerToWrite = newer;
+        }
+        try {
+            olderToWrite.writeTo(out);
+            newerToWrite.writeTo(out);
+        } finally {
+            synchronized (this) {
+                snapshotInProgress = false;
+                deferred.forEach(Runnable::run);
+                deferred.clear();
+            }
+        }
+    }
+
+    @Override
+    public void readSnapshot(DataInput in, int version) throws IOException {
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported identifier linkage snapshot version " + version);
+        }
+        LinkageGeneration restoredOlder = LinkageGeneration.readFrom(in, linkageProperties.getMaxNodes());
+        LinkageGeneration restoredNewer = LinkageGeneration.readFrom(in, linkageProperties.getMaxNodes());
+        synchronized (this) {
+            older = restoredOlder;
+            newer = restoredNewer;
+            rotateIfDue(clock.getAsLong());
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a hash of a normalized identifier, seeded with its kind and finished with the
+     * MurmurHash3 fmix64 mixer. Never 0, which marks an empty slot.
+     */
+    static long identifierHash(int kind, String value) {
+        String normalized = value.trim().toUpperCase(Locale.ROOT);
+        long h = 0xcbf29ce484222325L ^ kind;
+        for (int i = 0; i < normalized.length(); i++) {
+            h ^= normalized.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0L ? 1L : h;
+    }
+
+    private static long ipKeyOf(Transaction transaction) {
+        return isBlank(transaction.getIpAddress()) ? 0L : identifierHash(IP_ADDRESS, transaction.getIpAddress());
+    }
+
+    private static long cardKeyOf(Transaction transaction) {
+        return isBlank(transaction.getCardLast4()) || isBlank(transaction.getNameOnCard()) ? 0L
+                : identifierHash(CARD, transaction.getCardLast4() + '\0' + transaction.getNameOnCard());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,273 @@
+package org.fiverty.frauddetection.service.linkage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * One generation of the identifier linkage graph: a union-find over every customer and identifier
+ * seen since {@code startMillis}, stored entirely in primitive arrays.
+ * <p>
+ * Identifiers are addressed by a 64-bit hash and mapped to dense node numbers through an
+ * open-addressing table ({@code long} keys, {@code int} values, linear probing), so a node costs about
+ * 40 bytes and no objects. Union is by rank and find uses path halving, so every operation runs in
+ * near-constant amortized time. Cluster totals are kept on the root only. Arrays start small and double
+ * up to {@code maxNodes}; once full, new identifiers are not tracked.
+ * <p>
+ * Not thread-safe; {@link IdentifierLinkageIndex} serializes access.
+ */
+final class LinkageGeneration {
+
+    private static final int INITIAL_NODES = 1 << 12;
+    private static final long EMPTY_KEY = 0L;
+
+    private final long startMillis;
+    private final int maxNodes;
+
+    private long[] tableKeys;
+    private int[] tableNodes;
+    private int tableMask;
+
+    private int nodeCount;
+    private int[] parent;
+    private byte[] rank;
+    // Per root: totals of the cluster
+    private int[] customers;
+    private int[] transactions;
+    private int[] flaggedTransactions;
+    // Per node: how many separate clusters this identifier has joined, for the hub cap
+    private int[] links;
+
+    LinkageGeneration(long startMillis, int maxNodes) {
+        this(startMillis, maxNodes, Math.min(INITIAL_NODES, maxNodes));
+    }
+
+    private LinkageGeneration(long startMillis, int maxNodes, int nodeCapacity) {
+        this.startMillis = startMillis;
+        this.maxNodes = maxNodes;
+        int capacity = Math.max(1, nodeCapacity);
+        allocateTable(tableSizeFor(capacity * 2));
+        this.parent = new int[capacity];
+        this.rank = new byte[capacity];
+        this.customers = new int[capacity];
+        this.transactions = new int[capacity];
+        this.flaggedTransactions = new int[capacity];
+        this.links = new int[capacity];
+    }
+
+    long startMillis() {
+        return startMillis;
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @param key      the identifier's hash, never 0
+     * @param customer whether the identifier is a customer, counted in its cluster's size
+     * @return the identifier's node, created if new, or -1 if the generation is full
+     */
+    int nodeFor(long key, boolean customer) {
+        int slot = slotOf(key);
+        if (tableKeys[slot] == key) {
+            return tableNodes[slot];
+        }
+        if (nodeCount == maxNodes) {
+            return -1;
+        }
+        if (nodeCount == parent.length) {
+            growNodes();
+        }
+        int node = nodeCount++;
+        parent[node] = node;
+        customers[node] = customer ? 1 : 0;
+        tableKeys[slot] = key;
+        tableNodes[slot] = node;
+        // Keep the table at most half full
+        if (nodeCount * 2 > tableKeys.length) {
+            growTable();
+        }
+        return node;
+    }
+
+    /**
+     * @param key the identifier's hash
+     * @return the identifier's node, or -1 if it has not been seen
+     */
+    int nodeOf(long key) {
+        int slot = slotOf(key);
+        return tableKeys[slot] == key ? tableNodes[slot] : -1;
+    }
+
+    int find(int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    /**
+     * Finds a node's root without path halving, so it changes nothing; at most about log2 of the node
+     * count steps, since union is by rank.
+     */
+    int root(int node) {
+        while (parent[node] != node) {
+            node = parent[node];
+        }
+        return node;
+    }
+
+    /**
+     * Joins the clusters of two nodes.
+     *
+     * @return true if they were in different clusters
+     */
+    boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (rank[rootA] < rank[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        } else if (rank[rootA] == rank[rootB]) {
+            rank[rootA]++;
+        }
+        parent[rootB] = rootA;
+        customers[rootA] += customers[rootB];
+        transactions[rootA] += transactions[rootB];
+        flaggedTransactions[rootA] += flaggedTransactions[rootB];
+        return true;
+    }
+
+    int links(int node) {
+        return links[node];
+    }
+
+    void addLink(int node) {
+        links[node]++;
+    }
+
+    void addTransaction(int node) {
+        transactions[find(node)]++;
+    }
+
+    void addFlaggedTransaction(int node) {
+        flaggedTransactions[find(node)]++;
+    }
+
+    int customers(int node) {
+        return customers[find(node)];
+    }
+
+    int transactions(int node) {
+        return transactions[find(node)];
+    }
+
+    int flaggedTransactions(int node) {
+        return flaggedTransactions[find(node)];
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(startMillis);
+        out.writeInt(nodeCount);
+        for (int slot = 0; slot < tableKeys.length; slot++) {
+            if (tableKeys[slot] != EMPTY_KEY) {
+                out.writeLong(tableKeys[slot]);
+                out.writeInt(tableNodes[slot]);
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            out.writeInt(parent[node]);
+            out.writeByte(rank[node]);
+            out.writeInt(customers[node]);
+            out.writeInt(transactions[node]);
+            out.writeInt(flaggedTransactions[node]);
+            out.writeInt(links[node]);
+        }
+    }
+
+    static LinkageGeneration readFrom(DataInput in, int maxNodes) throws IOException {
+        long startMillis = in.readLong();
+        int nodeCount = in.readInt();
+        if (nodeCount < 0 || nodeCount > maxNodes) {
+            throw new IOException("Linkage generation has " + nodeCount + " nodes, more than the configured maximum of " + maxNodes);
+        }
+        LinkageGeneration generation = new LinkageGeneration(startMillis, maxNodes, Math.max(Math.min(INITIAL_NODES, maxNodes), nodeCount));
+        for (int i = 0; i < nodeCount; i++) {
+            long key = in.readLong();
+            int node = in.readInt();
+            if (key == EMPTY_KEY || node < 0 || node >= nodeCount) {
+                throw new IOException("Invalid linkage table entry");
+            }
+            int slot = generation.slotOf(key);
+            generation.tableKeys[slot] = key;
+            generation.tableNodes[slot] = node;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            int parentNode = in.readInt();
+            if (parentNode < 0 || parentNode >= nodeCount) {
+                throw new IOException("Invalid linkage parent " + parentNode);
+            }
+            generation.parent[node] = parentNode;
+            generation.rank[node] = in.readByte();
+            generation.customers[node] = in.readInt();
+            generation.transactions[node] = in.readInt();
+            generation.flaggedTransactions[node] = in.readInt();
+            generation.links[node] = in.readInt();
+        }
+        generation.nodeCount = nodeCount;
+        return generation;
+    }
+
+    private int slotOf(long key) {
+        int slot = (int) mix(key) & tableMask;
+        while (tableKeys[slot] != EMPTY_KEY && tableKeys[slot] != key) {
+            slot = (slot + 1) & tableMask;
+        }
+        return slot;
+    }
+
+    private void allocateTable(int size) {
+        tableKeys = new long[size];
+        tableNodes = new int[size];
+        tableMask = size - 1;
+    }
+
+    private void growTable() {
+        long[] oldKeys = tableKeys;
+        int[] oldNodes = tableNodes;
+        allocateTable(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = slotOf(oldKeys[i]);
+                tableKeys[slot] = oldKeys[i];
+                tableNodes[slot] = oldNodes[i];
+            }
+        }
+    }
+
+    private void growNodes() {
+        int capacity = (int) Math.min(maxNodes, parent.length * 2L);
+        parent = Arrays.copyOf(parent, capacity);
+        rank = Arrays.copyOf(rank, capacity);
+        customers = Arrays.copyOf(customers, capacity);
+        transactions = Arrays.copyOf(transactions, capacity);
+        flaggedTransactions = Arrays.copyOf(flaggedTransactions, capacity);
+        links = Arrays.copyOf(links, capacity);
+    }
+
+    private static int tableSizeFor(int slots) {
+        return Math.max(4, Integer.highestOneBit(Math.max(2, slots - 1)) << 1);
+    }
+
+    // Keys are already hashes, but the low bits pick the slot, so fold the high bits in
+    private static long mix(long key) {
+        return key ^ (key >>> 32) ^ (key >>> 17);
+    }
+}
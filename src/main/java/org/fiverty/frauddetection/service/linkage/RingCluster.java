@@ -0,0 +1,18 @@
+package org.fiverty.frauddetection.service.linkage;
+
+/**
+ * Totals of the cluster of customers a transaction's customer is linked to through shared identifiers.
+ *
+ * @param customers           distinct customers in the cluster, including the transaction's own
+ * @param transactions        transactions by those customers, including the one being scored
+ * @param flaggedTransactions transactions flagged by the per-transaction rules
+ */
+public record RingCluster(int customers, int transactions, int flaggedTransactions) {
+
+    /**
+     * @return the share of the cluster's transactions that were flagged
+     */
+    public double fraudDensity() {
+        return transactions <= 0 ? 0.0 : (double) flaggedTransactions / transactions;
+    }
+}
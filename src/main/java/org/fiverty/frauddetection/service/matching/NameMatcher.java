@@ -0,0 +1,204 @@
+package org.fiverty.frauddetection.service.matching;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Scores how likely two renderings of a person's name refer to the same person, from 0.0 (unrelated)
+ * to 1.0 (identical after normalization).
+ * <p>
+ * Names are normalized into tokens (see {@link NormalizedName}) and tokens are paired regardless of
+ * order, so "Smith, John" and "JOHN SMITH" are identical. Paired tokens score by Jaro-Winkler or
+ * Damerau-Levenshtein (optimal string alignment), whichever is higher, and a single letter matches
+ * any token with that initial. Unpaired tokens, such as a middle name present on only one side,
+ * lower the score in proportion to their length.
+ * <p>
+ * All comparisons work directly on code point arrays. Normalized forms are kept in a small
+ * direct-mapped cache so repeat customers are not re-normalized on every transaction.
+ */
+@Component
+public class NameMatcher {
+
+    private static final int CACHE_SIZE = 4096;
+    private static final double INITIAL_MATCH = 0.9;
+    private static final double WINKLER_SCALING = 0.1;
+    private static final int WINKLER_PREFIX_LIMIT = 4;
+    private static final double UNPAIRED_PENALTY = 0.25;
+
+    // Racy reads are safe: NormalizedName is immutable and published through final fields
+    private final NormalizedName[] cache = new NormalizedName[CACHE_SIZE];
+
+    /**
+     * Computes the similarity of two names.
+     *
+     * @param first  the first name, e.g. the customer's name
+     * @param second the second name, e.g. the name on the card
+     * @return a score between 0.0 and 1.0
+     * @throws IllegalArgumentException if either name is null
+     */
+    public double similarity(String first, String second) throws IllegalArgumentException {
+        if (first == null || second == null) {
+            throw new IllegalArgumentException("Names to compare cannot be null");
+        }
+        return similarity(normalize(first), normalize(second));
+    }
+
+    NormalizedName normalize(String raw) {
+        int slot = spread(raw.hashCode()) & (CACHE_SIZE - 1);
+        NormalizedName cached = cache[slot];
+        if (cached != null && cached.source().equals(raw)) {
+            return cached;
+        }
+        NormalizedName normalized = NormalizedName.of(raw);
+        cache[slot] = normalized;
+        return normalized;
+    }
+
+    static double similarity(NormalizedName first, NormalizedName second) {
+        int[][] a = first.tokens();
+        int[][] b = second.tokens();
+        if (a.length == 0 || b.length == 0) {
+            return 0.0;
+        }
+        // Pair from the side with fewer tokens; its tokens are all paired, the other side's may not be
+        int[][] shorter = a.length <= b.length ? a : b;
+        int[][] longer = shorter == a ? b : a;
+        int longerTotalLength = shorter == a ? second.totalLength() : first.totalLength();
+
+        double[] scores = new double[shorter.length * longer.length];
+        for (int i = 0; i < shorter.length; i++) {
+            for (int j = 0; j < longer.length; j++) {
+                scores[i * longer.length + j] = tokenSimilarity(shorter[i], longer[j]);
+            }
+        }
+
+        // Greedy best-pair assignment; names have few enough tokens that this is effectively optimal
+        long pairedShorter = 0L;
+        long pairedLonger = 0L;
+        double weightedScore = 0.0;
+        int shorterWeight = 0;
+        int pairedLongerLength = 0;
+        for (int pair = 0; pair < shorter.length; pair++) {
+            int bestI = -1;
+            int bestJ = -1;
+            double best = -1.0;
+            for (int i = 0; i < shorter.length; i++) {
+                if ((pairedShorter & (1L << i)) != 0) {
+                    continue;
+                }
+                for (int j = 0; j < longer.length; j++) {
+                    if ((pairedLonger & (1L << j)) == 0 && scores[i * longer.length + j] > best) {
+                        best = scores[i * longer.length + j];
+                        bestI = i;
+                        bestJ = j;
+                    }
+                }
+            }
+            pairedShorter |= 1L << bestI;
+            pairedLonger |= 1L << bestJ;
+            // Weight by the longer token of the pair so an initial does not outweigh a full name
+            int weight = Math.max(shorter[bestI].length, longer[bestJ].length);
+            weightedScore += best * weight;
+            shorterWeight += weight;
+            pairedLongerLength += longer[bestJ].length;
+        }
+
+        double coverage = (double) pairedLongerLength / longerTotalLength;
+        return (weightedScore / shorterWeight) * (1.0 - UNPAIRED_PENALTY * (1.0 - coverage));
+    }
+
+    static double tokenSimilarity(int[] a, int[] b) {
+        if (a.length == 1 || b.length == 1) {
+            return a[0] == b[0] ? (a.length == b.length ? 1.0 : INITIAL_MATCH) : 0.0;
+        }
+        double jaroWinkler = jaroWinkler(a, b);
+        if (jaroWinkler == 1.0) {
+            return 1.0;
+        }
+        int maxLength = Math.max(a.length, b.length);
+        double edit = 1.0 - (double) damerauLevenshtein(a, b) / maxLength;
+        return Math.max(jaroWinkler, edit);
+    }
+
+    /**
+     * Jaro-Winkler similarity. Tokens are at most 64 code points, so matched positions are
+     * tracked in a pair of bit masks instead of allocated flag arrays.
+     */
+    static double jaroWinkler(int[] a, int[] b) {
+        int window = Math.max(0, Math.max(a.length, b.length) / 2 - 1);
+        long matchedA = 0L;
+        long matchedB = 0L;
+        int matches = 0;
+        for (int i = 0; i < a.length; i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(b.length - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if ((matchedB & (1L << j)) == 0 && a[i] == b[j]) {
+                    matchedA |= 1L << i;
+                    matchedB |= 1L << j;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+
+        int halfTranspositions = 0;
+        int j = 0;
+        for (int i = 0; i < a.length; i++) {
+            if ((matchedA & (1L << i)) != 0) {
+                while ((matchedB & (1L << j)) == 0) {
+                    j++;
+                }
+                if (a[i] != b[j]) {
+                    halfTranspositions++;
+                }
+                j++;
+            }
+        }
+
+        double m = matches;
+        double jaro = (m / a.length + m / b.length + (m - halfTranspositions / 2.0) / m) / 3.0;
+
+        int prefix = 0;
+        int prefixLimit = Math.min(WINKLER_PREFIX_LIMIT, Math.min(a.length, b.length));
+        while (prefix < prefixLimit && a[prefix] == b[prefix]) {
+            prefix++;
+        }
+        return jaro + prefix * WINKLER_SCALING * (1.0 - jaro);
+    }
+
+    /**
+     * Damerau-Levenshtein distance in its optimal string alignment form: insertions, deletions,
+     * substitutions and transpositions of adjacent code points each cost one.
+     */
+    static int damerauLevenshtein(int[] a, int[] b) {
+        int[] previousPrevious = new int[b.length + 1];
+        int[] previous = new int[b.length + 1];
+        int[] current = new int[b.length + 1];
+        for (int j = 0; j <= b.length; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length; i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length; j++) {
+                int cost = a[i - 1] == b[j - 1] ? 0 : 1;
+                int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a[i - 1] == b[j - 2] && a[i - 2] == b[j - 1]) {
+                    distance = Math.min(distance, previousPrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length];
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
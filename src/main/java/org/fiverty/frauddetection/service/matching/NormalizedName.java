@@ -0,0 +1,123 @@
+package org.fiverty.frauddetection.service.matching;
+
+/**
+ * A person name reduced to lower-case tokens of code points. Punctuation and whitespace separate
+ * tokens, apostrophes are dropped ("O'Brien" becomes "obrien"), and honorifics and generational
+ * suffixes are removed. Instances are immutable so they can be shared through the normalization cache.
+ */
+final class NormalizedName {
+
+    // Longer tokens are truncated; no real name part comes close, and it bounds the matcher's work
+    static final int MAX_TOKEN_LENGTH = 64;
+    static final int MAX_TOKENS = 8;
+
+    private static final int[][] IGNORED_TOKENS = {
+            codePoints("mr"), codePoints("mrs"), codePoints("ms"), codePoints("miss"), codePoints("dr"),
+            codePoints("jr"), codePoints("sr"), codePoints("ii"), codePoints("iii"), codePoints("iv")
+    };
+
+    private final String source;
+    private final int[][] tokens;
+    private final int totalLength;
+
+    private NormalizedName(String source, int[][] tokens) {
+        this.source = source;
+        this.tokens = tokens;
+        int length = 0;
+        for (int[] token : tokens) {
+            length += token.length;
+        }
+        this.totalLength = length;
+    }
+
+    String source() {
+        return source;
+    }
+
+    int[][] tokens() {
+        return tokens;
+    }
+
+    int totalLength() {
+        return totalLength;
+    }
+
+    /**
+     * Normalizes a raw name in a single pass over its code points.
+     *
+     * @param raw the name as entered
+     * @return the normalized name; has no tokens if the input has no letters or digits
+     */
+    static NormalizedName of(String raw) {
+        int length = raw.length();
+        int[] buffer = new int[Math.min(length, MAX_TOKENS * MAX_TOKEN_LENGTH)];
+        int[] starts = new int[MAX_TOKENS];
+        int[] ends = new int[MAX_TOKENS];
+        int tokenCount = 0;
+        int size = 0;
+        int tokenStart = -1;
+
+        for (int i = 0; i < length && tokenCount < MAX_TOKENS; ) {
+            int cp = raw.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isLetterOrDigit(cp)) {
+                if (tokenStart < 0) {
+                    tokenStart = size;
+                }
+                if (size - tokenStart < MAX_TOKEN_LENGTH && size < buffer.length) {
+                    buffer[size++] = Character.toLowerCase(cp);
+                }
+            } else if (cp == '\'' || cp == '\u2019' || Character.getType(cp) == Character.NON_SPACING_MARK) {
+                // Apostrophes and combining marks stay inside the current token
+            } else if (tokenStart >= 0) {
+                tokenCount = endToken(buffer, tokenStart, size, starts, ends, tokenCount);
+                size = tokenCount == 0 ? 0 : ends[tokenCount - 1];
+                tokenStart = -1;
+            }
+        }
+        if (tokenStart >= 0 && tokenCount < MAX_TOKENS) {
+            tokenCount = endToken(buffer, tokenStart, size, starts, ends, tokenCount);
+        }
+
+        int[][] tokens = new int[tokenCount][];
+        for (int t = 0; t < tokenCount; t++) {
+            int[] token = new int[ends[t] - starts[t]];
+            System.arraycopy(buffer, starts[t], token, 0, token.length);
+            tokens[t] = token;
+        }
+        return new NormalizedName(raw, tokens);
+    }
+
+    /**
+     * Closes the token in {@code buffer[start, end)} unless it is an ignored honorific or suffix.
+     *
+     * @return the new token count
+     */
+    private static int endToken(int[] buffer, int start, int end, int[] starts, int[] ends, int tokenCount) {
+        if (end <= start || isIgnored(buffer, start, end)) {
+            return tokenCount;
+        }
+        starts[tokenCount] = start;
+        ends[tokenCount] = end;
+        return tokenCount + 1;
+    }
+
+    private static boolean isIgnored(int[] buffer, int start, int end) {
+        for (int[] ignored : IGNORED_TOKENS) {
+            if (ignored.length == end - start) {
+                int k = 0;
+                while (k < ignored.length && ignored[k] == buffer[start + k]) {
+                    k++;
+                }
+                if (k == ignored.length) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int[] codePoints(String value) {
+        return value.codePoints().toArray();
+    }
+}
@@ -0,0 +1,106 @@
+package org.fiverty.frauddetection.service.merchant;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Approximate count of distinct cards seen at one merchant over the last one to two windows.
+ * <p>
+ * Each window is a 64-register HyperLogLog (roughly 13% standard error) whose registers are raised
+ * with compare-and-set, so concurrent updates never block. When a window expires it becomes the
+ * previous window and a fresh one starts; the estimate is taken over the union of both, which
+ * lets old cards age out without tracking them individually.
+ */
+final class CardFanOut {
+
+    static final int REGISTER_BITS = 6;
+    static final int REGISTERS = 1 << REGISTER_BITS;
+    private static final double ALPHA = 0.709;
+
+    private final long windowMillis;
+    private final AtomicReference<Windows> windows;
+
+    CardFanOut(long windowMillis, long nowMillis) {
+        this.windowMillis = windowMillis;
+        this.windows = new AtomicReference<>(new Windows(nowMillis, new AtomicIntegerArray(REGISTERS), new AtomicIntegerArray(REGISTERS)));
+    }
+
+    private CardFanOut(long windowMillis, long windowStartMillis, int[] currentRegisters, int[] previousRegisters) {
+        this.windowMillis = windowMillis;
+        this.windows = new AtomicReference<>(new Windows(windowStartMillis,
+                new AtomicIntegerArray(currentRegisters), new AtomicIntegerArray(previousRegisters)));
+    }
+
+    private record Windows(long startMillis, AtomicIntegerArray current, AtomicIntegerArray previous) {
+    }
+
+    void record(long nowMillis, long cardHash) {
+        AtomicIntegerArray registers = currentWindows(nowMillis).current();
+        int index = (int) (cardHash >>> (Long.SIZE - REGISTER_BITS));
+        // Rank of the first set bit in the remaining bits; the sentinel caps it at 64 - REGISTER_BITS + 1
+        int rank = Long.numberOfLeadingZeros((cardHash << REGISTER_BITS) | (1L << (REGISTER_BITS - 1))) + 1;
+        int existing = registers.get(index);
+        while (existing < rank && !registers.compareAndSet(index, existing, rank)) {
+            existing = registers.get(index);
+        }
+    }
+
+    double estimate(long nowMillis) {
+        Windows current = currentWindows(nowMillis);
+        double sum = 0.0;
+        int zeros = 0;
+        for (int i = 0; i < REGISTERS; i++) {
+            int register = Math.max(current.current().get(i), current.previous().get(i));
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Linear counting is more accurate while many registers are still empty
+            return REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return estimate;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        Windows current = windows.get();
+        out.writeLong(current.startMillis());
+        // Registers never exceed 64 - REGISTER_BITS + 1, so each fits in a byte
+        for (int i = 0; i < REGISTERS; i++) {
+            out.writeByte(current.current().get(i));
+        }
+        for (int i = 0; i < REGISTERS; i++) {
+            out.writeByte(current.previous().get(i));
+        }
+    }
+
+    static CardFanOut readFrom(DataInput in, long windowMillis) throws IOException {
+        long windowStartMillis = in.readLong();
+        int[] currentRegisters = new int[REGISTERS];
+        int[] previousRegisters = new int[REGISTERS];
+        for (int i = 0; i < REGISTERS; i++) {
+            currentRegisters[i] = in.readUnsignedByte();
+        }
+        for (int i = 0; i < REGISTERS; i++) {
+            previousRegisters[i] = in.readUnsignedByte();
+        }
+        return new CardFanOut(windowMillis, windowStartMillis, currentRegisters, previousRegisters);
+    }
+
+    private Windows currentWindows(long nowMillis) {
+        Windows current = windows.get();
+        long elapsed = nowMillis - current.startMillis();
+        if (elapsed < windowMillis) {
+            return current;
+        }
+        // After two idle windows both the current and previous cards have aged out
+        AtomicIntegerArray previous = elapsed < 2 * windowMillis ? current.current() : new AtomicIntegerArray(REGISTERS);
+        Windows rotated = new Windows(nowMillis, new AtomicIntegerArray(REGISTERS), previous);
+        return windows.compareAndSet(current, rotated) ? rotated : windows.get();
+    }
+}
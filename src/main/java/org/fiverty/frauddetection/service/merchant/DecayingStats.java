@@ -0,0 +1,109 @@
+package org.fiverty.frauddetection.service.merchant;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Exponentially decaying transaction statistics for one merchant, updated without locks.
+ * <p>
+ * Uses forward decay: an event at time {@code t} is added with weight {@code e^(lambda * (t - landmark))},
+ * and the decayed total at {@code now} is the raw sum times {@code e^(-lambda * (now - landmark))}. Every
+ * update is then a plain addition, which {@link DoubleAdder} stripes across cells, so a merchant
+ * carrying a large share of the traffic does not serialize its callers on one memory location.
+ * <p>
+ * Weights grow with time, so once they approach the range where doubles lose headroom the sums are
+ * rescaled onto a new landmark. Increments racing with that swap may be dropped; it happens once
+ * every several dozen half-lives.
+ */
+final class DecayingStats {
+
+    // e^40 leaves ample double headroom for sums of squared purchase amounts
+    private static final double MAX_EXPONENT = 40.0;
+
+    private final double lambdaPerMilli;
+    private final AtomicReference<Generation> generation;
+
+    DecayingStats(double lambdaPerMilli, long nowMillis) {
+        this.lambdaPerMilli = lambdaPerMilli;
+        this.generation = new AtomicReference<>(new Generation(nowMillis));
+    }
+
+    private DecayingStats(double lambdaPerMilli, long landmarkMillis, double[] rawSums) {
+        this.lambdaPerMilli = lambdaPerMilli;
+        Generation restored = new Generation(landmarkMillis);
+        restored.volume.add(rawSums[0]);
+        restored.flagged.add(rawSums[1]);
+        restored.amount.add(rawSums[2]);
+        restored.amountSquared.add(rawSums[3]);
+        this.generation = new AtomicReference<>(restored);
+    }
+
+    private static final class Generation {
+        private final long landmarkMillis;
+        private final DoubleAdder volume = new DoubleAdder();
+        private final DoubleAdder flagged = new DoubleAdder();
+        private final DoubleAdder amount = new DoubleAdder();
+        private final DoubleAdder amountSquared = new DoubleAdder();
+
+        private Generation(long landmarkMillis) {
+            this.landmarkMillis = landmarkMillis;
+        }
+    }
+
+    void record(long nowMillis, boolean isFlagged, double purchaseAmount) {
+        Generation current = currentGeneration(nowMillis);
+        double weight = Math.exp(lambdaPerMilli * (nowMillis - current.landmarkMillis));
+        current.volume.add(weight);
+        if (isFlagged) {
+            current.flagged.add(weight);
+        }
+        current.amount.add(weight * purchaseAmount);
+        current.amountSquared.add(weight * purchaseAmount * purchaseAmount);
+    }
+
+    /**
+     * @return the decayed volume, flagged volume, amount sum and squared amount sum, in that order
+     */
+    double[] decayedSums(long nowMillis) {
+        Generation current = generation.get();
+        double scale = Math.exp(-lambdaPerMilli * (nowMillis - current.landmarkMillis));
+        return new double[]{
+                current.volume.sum() * scale,
+                current.flagged.sum() * scale,
+                current.amount.sum() * scale,
+                current.amountSquared.sum() * scale
+        };
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        Generation current = generation.get();
+        out.writeLong(current.landmarkMillis);
+        out.writeDouble(current.volume.sum());
+        out.writeDouble(current.flagged.sum());
+        out.writeDouble(current.amount.sum());
+        out.writeDouble(current.amountSquared.sum());
+    }
+
+    static DecayingStats readFrom(DataInput in, double lambdaPerMilli) throws IOException {
+        long landmarkMillis = in.readLong();
+        double[] rawSums = {in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble()};
+        return new DecayingStats(lambdaPerMilli, landmarkMillis, rawSums);
+    }
+
+    private Generation currentGeneration(long nowMillis) {
+        Generation current = generation.get();
+        if (lambdaPerMilli * (nowMillis - current.landmarkMillis) < MAX_EXPONENT) {
+            return current;
+        }
+        Generation rebased = new Generation(nowMillis);
+        double scale = Math.exp(-lambdaPerMilli * (nowMillis - current.landmarkMillis));
+        rebased.volume.add(current.volume.sum() * scale);
+        rebased.flagged.add(current.flagged.sum() * scale);
+        rebased.amount.add(current.amount.sum() * scale);
+        rebased.amountSquared.add(current.amountSquared.sum() * scale);
+        return generation.compareAndSet(current, rebased) ? rebased : generation.get();
+    }
+}
@@ -0,0 +1,24 @@
+package org.fiverty.frauddetection.service.merchant;
+
+/**
+ * Point-in-time view of a merchant's decayed activity.
+ *
+ * @param volume        decayed transaction count
+ * @param fraudRate     decayed share of transactions flagged as potential fraud
+ * @param amountMean    decayed mean purchase amount
+ * @param amountStdDev  decayed standard deviation of the purchase amount
+ * @param distinctCards approximate number of distinct cards over the recent fan-out window
+ */
+public record MerchantReputation(double volume, double fraudRate, double amountMean, double amountStdDev,
+                                 double distinctCards) {
+
+    /**
+     * How many standard deviations an amount lies above this merchant's mean.
+     *
+     * @param amount the purchase amount
+     * @return the z-score, or 0 when the merchant's amounts do not vary
+     */
+    public double amountZScore(double amount) {
+        return amountStdDev > 0.0 ? (amount - amountMean) / amountStdDev : 0.0;
+    }
+}
@@ -0,0 +1,183 @@
+package org.fiverty.frauddetection.service.merchant;
+
+import org.fiverty.frauddetection.config.MerchantIndexProperties;
+import org.fiverty.frauddetection.model.Transaction;
+import org.fiverty.frauddetection.service.snapshot.SnapshotParticipant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory reputation of every merchant seen by the scoring service: exponentially decaying volume,
+ * fraud-flag rate and purchase amount distribution, plus the recent distinct-card fan-out.
+ * <p>
+ * All updates are lock-free (see {@link DecayingStats} and {@link CardFanOut}), so the merchant that
+ * carries the largest share of traffic is updated concurrently by every request thread without a
+ * shared lock. Entries are only ever created, never removed; once {@code maxMerchants} is reached,
+ * new merchants are not tracked and read as unknown. The index is carried across restarts by the
+ * state snapshots.
+ */
+@Component
+public class MerchantReputationIndex implements SnapshotParticipant {
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final ConcurrentHashMap<MerchantKey, MerchantEntry> merchants = new ConcurrentHashMap<>();
+    private final double lambdaPerMilli;
+    private final long fanOutWindowMillis;
+    private final int maxMerchants;
+    private final LongSupplier clock;
+
+    @Autowired
+    public MerchantReputationIndex(MerchantIndexProperties merchantIndexProperties) {
+        this(merchantIndexProperties, System::currentTimeMillis);
+    }
+
+    MerchantReputationIndex(MerchantIndexProperties merchantIndexProperties, LongSupplier clock) {
+        Duration halfLife = merchantIndexProperties.getHalfLife();
+        Duration fanOutWindow = merchantIndexProperties.getFanOutWindow();
+        if (halfLife.isZero() || halfLife.isNegative() || fanOutWindow.isZero() || fanOutWindow.isNegative()) {
+            throw new IllegalArgumentException("Merchant index half-life and fan-out window must be positive");
+        }
+        this.lambdaPerMilli = Math.log(2) / halfLife.toMillis();
+        this.fanOutWindowMillis = fanOutWindow.toMillis();
+        this.maxMerchants = merchantIndexProperties.getMaxMerchants();
+        this.clock = clock;
+    }
+
+    private record MerchantKey(String name, String city, String state) {
+    }
+
+    private record MerchantEntry(DecayingStats stats, CardFanOut cardFanOut) {
+    }
+
+    /**
+     * Returns the merchant's current reputation, before the given transaction is recorded.
+     *
+     * @param transaction the transaction whose merchant to look up
+     * @return the merchant's reputation, or null if the merchant has not been seen
+     */
+    public MerchantReputation lookup(Transaction transaction) {
+        MerchantKey key = keyOf(transaction);
+        MerchantEntry entry = key == null ? null : merchants.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        double[] sums = entry.stats().decayedSums(now);
+        double volume = sums[0];
+        if (volume <= 0.0) {
+            return null;
+        }
+        double mean = sums[2] / volume;
+        double variance = Math.max(0.0, sums[3] / volume - mean * mean);
+        return new MerchantReputation(volume, sums[1] / volume, mean, Math.sqrt(variance),
+                entry.cardFanOut().estimate(now));
+    }
+
+    /**
+     * Records a scored transaction against its merchant. Callers record a transaction only once it has
+     * committed, so a rolled-back scoring never moves a merchant's reputation.
+     *
+     * @param transaction the scored transaction
+     * @param flagged     whether the transaction's other rules flagged it as potential fraud
+     */
+    public void record(Transaction transaction, boolean flagged) {
+        MerchantKey key = keyOf(transaction);
+        if (key == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        MerchantEntry entry = merchants.get(key);
+        if (entry == null) {
+            if (merchants.size() >= maxMerchants) {
+                return;
+            }
+            entry = merchants.computeIfAbsent(key, k ->
+                    new MerchantEntry(new DecayingStats(lambdaPerMilli, now), new CardFanOut(fanOutWindowMillis, now)));
+        }
+        double amount = transaction.getPurchaseAmount() == null ? 0.0 : transaction.getPurchaseAmount().doubleValue();
+        entry.stats().record(now, flagged, amount);
+        if (transaction.getCardLast4() != null && transaction.getNameOnCard() != null) {
+            entry.cardFanOut().record(now, cardHash(transaction.getCardLast4(), transaction.getNameOnCard()));
+        }
+    }
+
+    @Override
+    public String snapshotName() {
+        return "merchant-reputation";
+    }
+
+    @Override
+    public int snapshotVersion() {
+        return SNAPSHOT_VERSION;
+    }
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        // Copy first: the map keeps changing while it is written
+        Map<MerchantKey, MerchantEntry> entries = new HashMap<>(merchants);
+        out.writeInt(entries.size());
+        for (Map.Entry<MerchantKey, MerchantEntry> entry : entries.entrySet()) {
+            out.writeUTF(entry.getKey().name());
+            out.writeUTF(entry.getKey().city());
+            out.writeUTF(entry.getKey().state());
+            entry.getValue().stats().writeTo(out);
+            entry.getValue().cardFanOut().writeTo(out);
+        }
+    }
+
+    @Override
+    public void readSnapshot(DataInput in, int version) throws IOException {
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported merchant reputation snapshot version " + version);
+        }
+        int count = in.readInt();
+        Map<MerchantKey, MerchantEntry> restored = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            MerchantKey key = new MerchantKey(in.readUTF(), in.readUTF(), in.readUTF());
+            DecayingStats stats = DecayingStats.readFrom(in, lambdaPerMilli);
+            CardFanOut cardFanOut = CardFanOut.readFrom(in, fanOutWindowMillis);
+            if (restored.size() < maxMerchants) {
+                restored.put(key, new MerchantEntry(stats, cardFanOut));
+            }
+        }
+        merchants.clear();
+        merchants.putAll(restored);
+    }
+
+    private static MerchantKey keyOf(Transaction transaction) {
+        if (transaction == null || transaction.getMerchantName() == null) {
+            return null;
+        }
+        return new MerchantKey(normalize(transaction.getMerchantName()),
+                normalize(transaction.getMerchantCity()), normalize(transaction.getMerchantState()));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 64-bit hash of a card identity, finished with the MurmurHash3 fmix64 mixer so the
+     * HyperLogLog registers see well-distributed bits.
+     */
+    static long cardHash(String cardLast4, String nameOnCard) {
+        long h = ((long) cardLast4.hashCode() << 32) ^ (nameOnCard.toLowerCase(Locale.ROOT).hashCode() & 0xffffffffL);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
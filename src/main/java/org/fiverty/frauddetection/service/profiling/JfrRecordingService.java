@@ -0,0 +1,149 @@
+package org.fiverty.frauddetection.service.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.fiverty.frauddetection.config.JfrProperties;
+import org.fiverty.frauddetection.model.dto.JfrRecordingStatusDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * Starts, stops and dumps a single in-process flight recording. The recording keeps a bounded ring
+ * buffer ({@code fraud.diagnostics.jfr.max-age} and {@code max-size}), so it can run continuously and
+ * be dumped after an intermittent latency spike. {@link ScoringStageEvent}s are enabled with the
+ * configured stage threshold on top of the chosen JFR settings. The events holding environment
+ * variables, system properties and JVM arguments are disabled, since those carry credentials.
+ */
+@Service
+@ConditionalOnProperty(prefix = "fraud.diagnostics.jfr", name = "enabled", havingValue = "true")
+public class JfrRecordingService implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingService.class);
+
+    private static final String RECORDING_NAME = "fraud-detection";
+    private static final String NO_RECORDING = "NONE";
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation");
+
+    private final JfrProperties jfrProperties;
+    private Recording recording;
+
+    public JfrRecordingService(JfrProperties jfrProperties) {
+        this.jfrProperties = jfrProperties;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (jfrProperties.isStartOnStartup()) {
+            start();
+        }
+    }
+
+    /**
+     * Starts a new recording, discarding a stopped one.
+     *
+     * @return true if a recording was started, false if one is already running
+     * @throws IllegalArgumentException if the configured JFR settings do not exist
+     */
+    public synchronized boolean start() {
+        if (isRunning()) {
+            return false;
+        }
+        closeRecording();
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(jfrProperties.getSettings());
+        } catch (IOException | ParseException ex) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + jfrProperties.getSettings(), ex);
+        }
+        Recording newRecording = new Recording(configuration);
+        newRecording.setName(RECORDING_NAME);
+        newRecording.setToDisk(true);
+        newRecording.setMaxAge(jfrProperties.getMaxAge());
+        newRecording.setMaxSize(jfrProperties.getMaxSize().toBytes());
+        newRecording.enable(ScoringStageEvent.class).withThreshold(jfrProperties.getStageThreshold());
+        SENSITIVE_EVENTS.forEach(newRecording::disable);
+        newRecording.start();
+        recording = newRecording;
+        logger.info("Started flight recording with {} settings, keeping up to {} or {}",
+                jfrProperties.getSettings(), jfrProperties.getMaxAge(), jfrProperties.getMaxSize());
+        return true;
+    }
+
+    /**
+     * Stops the running recording. Its data stays available to {@link #dump()} until the next start.
+     *
+     * @return true if a recording was stopped, false if none was running
+     */
+    public synchronized boolean stop() {
+        if (!isRunning()) {
+            return false;
+        }
+        recording.stop();
+        logger.info("Stopped flight recording");
+        return true;
+    }
+
+    /**
+     * Writes the current recording's data to a temporary file. The caller deletes the file.
+     *
+     * @return the file, or null if no recording has been started
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized Path dump() throws IOException {
+        if (recording == null) {
+            return null;
+        }
+        Path file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+        return file;
+    }
+
+    /**
+     * @return the state of the current recording
+     */
+    public synchronized JfrRecordingStatusDto status() {
+        if (recording == null) {
+            return JfrRecordingStatusDto.builder().state(NO_RECORDING).build();
+        }
+        return JfrRecordingStatusDto.builder()
+                .state(recording.getState().name())
+                .settings(jfrProperties.getSettings())
+                .startTime(recording.getStartTime())
+                .stopTime(recording.getStopTime())
+                .sizeBytes(recording.getSize())
+                .build();
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        closeRecording();
+    }
+}
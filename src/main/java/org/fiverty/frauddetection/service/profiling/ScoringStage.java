@@ -0,0 +1,19 @@
+package org.fiverty.frauddetection.service.profiling;
+
+/**
+ * Stages of scoring a transaction, as recorded in {@link ScoringStageEvent}.
+ */
+public enum ScoringStage {
+    /** Request DTO to entity. */
+    MAPPING,
+    /** Resolving merchant, city and name values to their dimension keys. */
+    DICTIONARY,
+    /** Inserting the transaction row. */
+    PERSISTENCE,
+    /** One fraud rule; the event carries the rule type and outcome. */
+    RULE,
+    /** Queueing the signals for insert. The batched inserts themselves run at commit. */
+    SIGNAL_PERSISTENCE,
+    /** Writing the response body. */
+    SERIALIZATION
+}
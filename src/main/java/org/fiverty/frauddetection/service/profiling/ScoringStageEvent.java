@@ -0,0 +1,66 @@
+package org.fiverty.frauddetection.service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.fiverty.frauddetection.model.FraudSignal;
+
+import java.util.UUID;
+
+/**
+ * Java Flight Recorder event for one stage of scoring a transaction.
+ * <p>
+ * Usage is {@code new}, {@link #begin()}, the stage, then {@link #complete}. While no recording has the
+ * event enabled, {@code begin} and {@code complete} do nothing and the fields are never filled in. Only
+ * stages at or above the threshold (1 ms unless a recording overrides it) are written, so a continuous
+ * recording captures the slow paths without an event per rule per transaction.
+ */
+@Name(ScoringStageEvent.NAME)
+@Label("Scoring Stage")
+@Category({"Fraud Detection", "Scoring"})
+@Description("Time spent in one stage of scoring a transaction")
+@StackTrace(false)
+@Threshold("1 ms")
+public class ScoringStageEvent extends Event {
+
+    public static final String NAME = "org.fiverty.frauddetection.ScoringStage";
+
+    public static final String OUTCOME_FLAGGED = "FLAGGED";
+    public static final String OUTCOME_CLEAR = "CLEAR";
+    public static final String OUTCOME_ERROR = "ERROR";
+
+    @Label("Stage")
+    private String stage;
+
+    @Label("Transaction ID")
+    private String transactionId;
+
+    @Label("Rule Type")
+    private String ruleType;
+
+    @Label("Outcome")
+    private String outcome;
+
+    /**
+     * Ends the event and writes it if it is enabled and over its threshold.
+     *
+     * @param stage         the stage that was timed
+     * @param transactionId the transaction's ID, or null before it has one
+     * @param ruleType      the rule evaluated, or null outside the rule stage
+     * @param outcome       the stage's outcome, or null if it has none
+     */
+    public void complete(ScoringStage stage, UUID transactionId, FraudSignal.SignalType ruleType, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.stage = stage.name();
+            this.transactionId = transactionId == null ? null : transactionId.toString();
+            this.ruleType = ruleType == null ? null : ruleType.name();
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
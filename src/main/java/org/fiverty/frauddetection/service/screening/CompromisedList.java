@@ -0,0 +1,216 @@
+package org.fiverty.frauddetection.service.screening;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * One compromised feed, built into a single file and memory-mapped read-only, so tens of millions of
+ * entries live in the page cache rather than on the heap.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header:       magic(int) formatVersion(int) entries(long) blocks(int) hashes(int) reserved(long)
+ * bloom filter: blocks x 64 bytes
+ * fingerprints: entries x fingerprint(long), sorted and distinct
+ * </pre>
+ * The Bloom filter is blocked: all of an entry's bits fall in one 64-byte block, so a lookup costs a
+ * single cache line, and a definite miss (the common case) returns after it. A possible hit is
+ * confirmed by binary search over the exact fingerprints, which removes the filter's false positives.
+ * Fingerprints are 64-bit, so two different entries colliding is negligible at feed sizes.
+ * <p>
+ * Immutable once built, so lookups need no synchronization.
+ */
+final class CompromisedList {
+
+    private static final int MAGIC = 0x46444346; // "FDCF"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int BLOCK_BYTES = 64;
+    private static final int BLOCK_BITS = BLOCK_BYTES * Byte.SIZE;
+    private static final int BIT_INDEX_BITS = 9;
+    private static final int MAX_HASHES = Long.SIZE / BIT_INDEX_BITS;
+    // Each region must fit one mapping
+    private static final long MAX_ENTRIES = Integer.MAX_VALUE / Long.BYTES;
+
+    private final Path file;
+    private final long entries;
+    private final int blocks;
+    private final int hashes;
+    private final MappedByteBuffer bloom;
+    private final MappedByteBuffer fingerprints;
+
+    private CompromisedList(Path file, long entries, int blocks, int hashes, MappedByteBuffer bloom,
+                            MappedByteBuffer fingerprints) {
+        this.file = file;
+        this.entries = entries;
+        this.blocks = blocks;
+        this.hashes = hashes;
+        this.bloom = bloom;
+        this.fingerprints = fingerprints;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    long entries() {
+        return entries;
+    }
+
+    /**
+     * @param fingerprint the entry's fingerprint
+     * @return true if the entry may be in the list; false means it definitely is not
+     */
+    boolean mightContain(long fingerprint) {
+        long blockOffset = (long) blockOf(fingerprint) * BLOCK_BYTES;
+        long bits = mix(fingerprint);
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) (bits >>> (i * BIT_INDEX_BITS)) & (BLOCK_BITS - 1);
+            long word = bloom.getLong((int) (blockOffset + (bit >>> 6) * Long.BYTES));
+            if ((word & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param fingerprint the entry's fingerprint
+     * @return true if the entry is in the list
+     */
+    boolean containsExactly(long fingerprint) {
+        long low = 0;
+        long high = entries - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            long value = fingerprints.getLong((int) (middle * Long.BYTES));
+            if (value < fingerprint) {
+                low = middle + 1;
+            } else if (value > fingerprint) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes a list file for the given fingerprints and maps it.
+     *
+     * @param fingerprints  the feed's fingerprints, in any order and possibly repeated; sorted in place
+     * @param count         how many elements of {@code fingerprints} are used
+     * @param file          the file to write; replaced atomically if it exists
+     * @param bitsPerEntry  Bloom filter bits per distinct entry
+     * @return the mapped list
+     * @throws IOException if the file cannot be written or mapped
+     */
+    static CompromisedList build(long[] fingerprints, int count, Path file, int bitsPerEntry) throws IOException {
+        Arrays.parallelSort(fingerprints, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || fingerprints[i] != fingerprints[distinct - 1]) {
+                fingerprints[distinct++] = fingerprints[i];
+            }
+        }
+        if (distinct > MAX_ENTRIES) {
+            throw new IOException("Compromised feed has " + distinct + " entries, more than " + MAX_ENTRIES);
+        }
+
+        long bloomBits = Math.max(BLOCK_BITS, (long) distinct * bitsPerEntry);
+        int blocks = (int) Math.min(Integer.MAX_VALUE / BLOCK_BYTES, (bloomBits + BLOCK_BITS - 1) / BLOCK_BITS);
+        int hashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerEntry * Math.log(2))));
+        long bloomBytes = (long) blocks * BLOCK_BYTES;
+        long fingerprintBytes = (long) distinct * Long.BYTES;
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(distinct).putInt(blocks).putInt(hashes).putLong(0L);
+            header.force();
+
+            MappedByteBuffer bloom = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES, bloomBytes);
+            for (int i = 0; i < distinct; i++) {
+                long blockOffset = (long) blockOf(fingerprints[i], blocks) * BLOCK_BYTES;
+                long bits = mix(fingerprints[i]);
+                for (int h = 0; h < hashes; h++) {
+                    int bit = (int) (bits >>> (h * BIT_INDEX_BITS)) & (BLOCK_BITS - 1);
+                    int wordOffset = (int) (blockOffset + (bit >>> 6) * Long.BYTES);
+                    bloom.putLong(wordOffset, bloom.getLong(wordOffset) | (1L << bit));
+                }
+            }
+            bloom.force();
+
+            if (fingerprintBytes > 0) {
+                MappedByteBuffer exact = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + bloomBytes, fingerprintBytes);
+                for (int i = 0; i < distinct; i++) {
+                    exact.putLong(fingerprints[i]);
+                }
+                exact.force();
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return map(file);
+    }
+
+    /**
+     * Maps an existing list file read-only.
+     *
+     * @param file the list file
+     * @return the mapped list
+     * @throws IOException if the file cannot be read or is not a valid list file
+     */
+    static CompromisedList map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Compromised list file " + file + " is truncated");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            int magic = header.getInt();
+            int formatVersion = header.getInt();
+            long entries = header.getLong();
+            int blocks = header.getInt();
+            int hashes = header.getInt();
+            if (magic != MAGIC || formatVersion != FORMAT_VERSION || entries < 0 || entries > MAX_ENTRIES
+                    || blocks < 1 || hashes < 1 || hashes > MAX_HASHES) {
+                throw new IOException("Invalid compromised list file " + file);
+            }
+            long bloomBytes = (long) blocks * BLOCK_BYTES;
+            long fingerprintBytes = entries * Long.BYTES;
+            if (channel.size() != HEADER_BYTES + bloomBytes + fingerprintBytes) {
+                throw new IOException("Compromised list file " + file + " has the wrong size");
+            }
+            // Mappings stay valid after the channel is closed
+            MappedByteBuffer bloom = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, bloomBytes);
+            MappedByteBuffer fingerprints = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + bloomBytes, fingerprintBytes);
+            return new CompromisedList(file, entries, blocks, hashes, bloom, fingerprints);
+        }
+    }
+
+    private int blockOf(long fingerprint) {
+        return blockOf(fingerprint, blocks);
+    }
+
+    /**
+     * Maps the fingerprint's high 32 bits onto {@code [0, blocks)} by multiply-shift, avoiding a division.
+     */
+    private static int blockOf(long fingerprint, int blocks) {
+        return (int) (((fingerprint >>> 32) * blocks) >>> 32);
+    }
+
+    /**
+     * Bit positions inside the block come from a remix of the fingerprint, so they do not correlate
+     * with the bits that chose the block.
+     */
+    private static long mix(long fingerprint) {
+        long h = fingerprint * 0x9e3779b97f4a7c15L;
+        return h ^ (h >>> 29);
+    }
+}
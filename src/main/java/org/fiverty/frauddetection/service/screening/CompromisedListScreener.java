@@ -0,0 +1,281 @@
+package org.fiverty.frauddetection.service.screening;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.fiverty.frauddetection.config.ScreeningProperties;
+import org.fiverty.frauddetection.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Screens transactions against local feeds of compromised cards ({@code card_last4,name_on_card}) and
+ * identities ({@code customer_name,card_last4}) without touching the database.
+ * <p>
+ * Each feed is built into a memory-mapped {@link CompromisedList}: a blocked Bloom filter answers the
+ * common definite miss in one cache line, and only possible hits are confirmed against the exact
+ * fingerprints. Both lists are published together through one {@link AtomicReference}, so a refresh
+ * swaps them atomically and scoring threads never see a half-built list.
+ * <p>
+ * Feeds are loaded before the application takes traffic and checked for changes on
+ * {@code fraud.screening.refresh-interval}; only a feed whose size or modification time changed is
+ * rebuilt. A feed that has disappeared keeps its last loaded list.
+ */
+@Component
+public class CompromisedListScreener implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(CompromisedListScreener.class);
+
+    private static final int CARD = 1;
+    private static final int IDENTITY = 2;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ScreeningProperties screeningProperties;
+    private final AtomicReference<Lists> lists = new AtomicReference<>(new Lists(null, null, null, null));
+    private final Counter possibleHits;
+    private final Counter confirmedHits;
+
+    public CompromisedListScreener(ScreeningProperties screeningProperties, MeterRegistry meterRegistry) {
+        if (screeningProperties.getBitsPerEntry() < 1) {
+            throw new IllegalArgumentException("fraud.screening.bits-per-entry must be at least 1");
+        }
+        this.screeningProperties = screeningProperties;
+        this.possibleHits = Counter.builder("fraud.screening.possible-hits")
+                .description("Screening lookups the Bloom filters could not rule out")
+                .register(meterRegistry);
+        this.confirmedHits = Counter.builder("fraud.screening.confirmed-hits")
+                .description("Screening lookups confirmed against the exact fingerprints")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The published lists and the feed versions they were built from.
+     */
+    private record Lists(CompromisedList cards, FeedVersion cardVersion,
+                         CompromisedList identities, FeedVersion identityVersion) {
+    }
+
+    private record FeedVersion(long size, long lastModifiedMillis) {
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!screeningProperties.isEnabled()) {
+            return;
+        }
+        deleteStaleLists();
+        refresh();
+    }
+
+    /**
+     * Removes list files left by an earlier run; they are always rebuilt from the feeds at startup.
+     */
+    private void deleteStaleLists() {
+        Path workDirectory = screeningProperties.getWorkDirectory();
+        if (!Files.isDirectory(workDirectory)) {
+            return;
+        }
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(workDirectory, "*.{list,list.tmp}")) {
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ex) {
+            logger.warn("Failed to clean up screening work directory {}", workDirectory, ex);
+        }
+    }
+
+    /**
+     * Screens a transaction's card and identity.
+     *
+     * @param transaction the transaction to screen
+     * @return the screening result, {@link ScreeningResult#NOT_SCREENED} if no feed is loaded
+     */
+    public ScreeningResult screen(Transaction transaction) {
+        Lists current = lists.get();
+        if (transaction == null || (current.cards() == null && current.identities() == null)) {
+            return ScreeningResult.NOT_SCREENED;
+        }
+        boolean compromisedCard = current.cards() != null
+                && contains(current.cards(), cardFingerprint(transaction.getCardLast4(), transaction.getNameOnCard()));
+        boolean compromisedIdentity = current.identities() != null
+                && contains(current.identities(), identityFingerprint(transaction.getCustomerName(), transaction.getCardLast4()));
+        return new ScreeningResult(true, compromisedCard, compromisedIdentity);
+    }
+
+    private boolean contains(CompromisedList list, long fingerprint) {
+        if (fingerprint == 0L || !list.mightContain(fingerprint)) {
+            return false;
+        }
+        possibleHits.increment();
+        if (!list.containsExactly(fingerprint)) {
+            return false;
+        }
+        confirmedHits.increment();
+        return true;
+    }
+
+    /**
+     * Rebuilds the lists whose feeds have changed and publishes them.
+     */
+    @Scheduled(initialDelayString = "${fraud.screening.refresh-interval:PT1H}",
+            fixedDelayString = "${fraud.screening.refresh-interval:PT1H}")
+    public synchronized void refresh() {
+        if (!screeningProperties.isEnabled()) {
+            return;
+        }
+        Lists current = lists.get();
+        CompromisedList cards = current.cards();
+        FeedVersion cardVersion = current.cardVersion();
+        CompromisedList identities = current.identities();
+        FeedVersion identityVersion = current.identityVersion();
+        try {
+            Files.createDirectories(screeningProperties.getWorkDirectory());
+        } catch (IOException ex) {
+            logger.warn("Cannot create screening work directory {}", screeningProperties.getWorkDirectory(), ex);
+            return;
+        }
+
+        FeedVersion latestCardVersion = versionOf(screeningProperties.getCardFeed());
+        if (latestCardVersion != null && !latestCardVersion.equals(cardVersion)) {
+            CompromisedList rebuilt = build(screeningProperties.getCardFeed(), CARD, "cards");
+            if (rebuilt != null) {
+                cards = rebuilt;
+                cardVersion = latestCardVersion;
+            }
+        }
+        FeedVersion latestIdentityVersion = versionOf(screeningProperties.getIdentityFeed());
+        if (latestIdentityVersion != null && !latestIdentityVersion.equals(identityVersion)) {
+            CompromisedList rebuilt = build(screeningProperties.getIdentityFeed(), IDENTITY, "identities");
+            if (rebuilt != null) {
+                identities = rebuilt;
+                identityVersion = latestIdentityVersion;
+            }
+        }
+        if (cards == current.cards() && identities == current.identities()) {
+            return;
+        }
+
+        lists.set(new Lists(cards, cardVersion, identities, identityVersion));
+        // Mappings of the replaced files stay valid for any lookup still using them
+        deleteIfReplaced(current.cards(), cards);
+        deleteIfReplaced(current.identities(), identities);
+    }
+
+    private CompromisedList build(Path feed, int kind, String name) {
+        long started = System.nanoTime();
+        long[] fingerprints = new long[1024];
+        int count = 0;
+        int malformed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(feed, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = trimmed.split(",", -1);
+                long fingerprint = fields.length != 2 ? 0L
+                        : kind == CARD ? cardFingerprint(fields[0], fields[1]) : identityFingerprint(fields[0], fields[1]);
+                if (fingerprint == 0L) {
+                    malformed++;
+                    continue;
+                }
+                if (count == fingerprints.length) {
+                    fingerprints = Arrays.copyOf(fingerprints, count * 2);
+                }
+                fingerprints[count++] = fingerprint;
+            }
+            Path file = screeningProperties.getWorkDirectory().resolve(name + "-" + System.currentTimeMillis() + ".list");
+            CompromisedList list = CompromisedList.build(fingerprints, count, file, screeningProperties.getBitsPerEntry());
+            logger.info("Built compromised {} list of {} entries from {} in {} ms ({} malformed lines skipped)",
+                    name, list.entries(), feed, (System.nanoTime() - started) / 1_000_000, malformed);
+            return list;
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Failed to build compromised {} list from {}, keeping the current list", name, feed, ex);
+            return null;
+        }
+    }
+
+    private static FeedVersion versionOf(Path feed) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(feed, BasicFileAttributes.class);
+            return new FeedVersion(attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (IOException ex) {
+            logger.warn("Compromised feed {} is not readable", feed);
+            return null;
+        }
+    }
+
+    private static void deleteIfReplaced(CompromisedList previous, CompromisedList current) {
+        if (previous == null || previous == current) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(previous.file());
+        } catch (IOException ex) {
+            logger.warn("Failed to delete replaced compromised list {}", previous.file(), ex);
+        }
+    }
+
+    static long cardFingerprint(String cardLast4, String nameOnCard) {
+        return fingerprint(CARD, cardLast4, nameOnCard);
+    }
+
+    static long identityFingerprint(String customerName, String cardLast4) {
+        return fingerprint(IDENTITY, customerName, cardLast4);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of two normalized fields, seeded with the feed kind and finished with the
+     * MurmurHash3 fmix64 mixer. Fields are trimmed, inner whitespace collapsed and upper-cased while
+     * hashing, so feed entries match however they are spaced and no strings are allocated per lookup.
+     *
+     * @return the fingerprint, never 0; or 0 if a field is missing
+     */
+    private static long fingerprint(int kind, String first, String second) {
+        if (first == null || second == null || first.isBlank() || second.isBlank()) {
+            return 0L;
+        }
+        long h = 0xcbf29ce484222325L ^ kind;
+        h = hashNormalized(h, first);
+        // Field separator, so ("AB", "C") and ("A", "BC") differ
+        h = (h ^ 0x1f) * FNV_PRIME;
+        h = hashNormalized(h, second);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0L ? 1L : h;
+    }
+
+    private static long hashNormalized(long h, String value) {
+        boolean started = false;
+        boolean pendingSpace = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = started;
+                continue;
+            }
+            if (pendingSpace) {
+                h = (h ^ ' ') * FNV_PRIME;
+                pendingSpace = false;
+            }
+            h = (h ^ Character.toUpperCase(c)) * FNV_PRIME;
+            started = true;
+        }
+        return h;
+    }
+}
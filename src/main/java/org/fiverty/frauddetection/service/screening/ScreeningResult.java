@@ -0,0 +1,13 @@
+package org.fiverty.frauddetection.service.screening;
+
+/**
+ * Outcome of screening a transaction against the compromised card and identity feeds.
+ *
+ * @param screened            whether at least one feed was loaded to screen against
+ * @param compromisedCard     whether the card appears in the compromised card feed
+ * @param compromisedIdentity whether the customer and card appear in the compromised identity feed
+ */
+public record ScreeningResult(boolean screened, boolean compromisedCard, boolean compromisedIdentity) {
+
+    public static final ScreeningResult NOT_SCREENED = new ScreeningResult(false, false, false);
+}
@@ -0,0 +1,191 @@
+package org.fiverty.frauddetection.service.shadow;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.fiverty.frauddetection.config.ShadowProperties;
+import org.fiverty.frauddetection.model.FraudSignal;
+import org.fiverty.frauddetection.model.Transaction;
+import org.fiverty.frauddetection.service.FraudRuleEvaluator;
+import org.fiverty.frauddetection.service.ScoringContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a candidate rule configuration ({@code fraud.shadow.rules.*}) against live transactions and
+ * compares its decisions with production, so a rule change can be judged on real traffic before it
+ * is promoted.
+ * <p>
+ * The scoring path only hands the transaction to a bounded queue and returns. The queue is lossy: when
+ * the workers fall behind, new transactions are dropped from the comparison and counted rather than
+ * making the caller wait, so shadow mode adds no latency to the live response. Candidate signals are
+ * never persisted or returned.
+ * <p>
+ * Both configurations see the same {@link ScoringContext}, captured before the transaction was recorded,
+ * so only the thresholds can make them disagree. Disagreements are counted per signal type and for the
+ * overall decision in {@code fraud.shadow.disagreements}, tagged with the candidate's outcome; a
+ * sample of them is logged with both sets of details. The overall decision is the one production
+ * feeds back into its aggregates ({@link FraudRuleEvaluator#isFlagged}), taken with each side's rules.
+ */
+@Component
+public class ShadowEvaluationService {
+    private static final Logger logger = LoggerFactory.getLogger(ShadowEvaluationService.class);
+
+    private static final String OVERALL = "OVERALL";
+    private static final String CANDIDATE_FLAGGED = "flagged";
+    private static final String CANDIDATE_CLEARED = "cleared";
+
+    private final FraudRuleEvaluator fraudRuleEvaluator;
+    private final ShadowProperties shadowProperties;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final Counter evaluated;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Map<FraudSignal.SignalType, Counter> signalFlagged = new EnumMap<>(FraudSignal.SignalType.class);
+    private final Map<FraudSignal.SignalType, Counter> signalCleared = new EnumMap<>(FraudSignal.SignalType.class);
+    private final Counter overallFlagged;
+    private final Counter overallCleared;
+
+    public ShadowEvaluationService(FraudRuleEvaluator fraudRuleEvaluator, ShadowProperties shadowProperties,
+                                   MeterRegistry meterRegistry) {
+        if (shadowProperties.getThreads() < 1 || shadowProperties.getQueueCapacity() < 1) {
+            throw new IllegalArgumentException("fraud.shadow.threads and fraud.shadow.queue-capacity must be at least 1");
+        }
+        this.fraudRuleEvaluator = fraudRuleEvaluator;
+        this.shadowProperties = shadowProperties;
+        this.meterRegistry = meterRegistry;
+
+        this.evaluated = Counter.builder("fraud.shadow.evaluated")
+                .description("Transactions evaluated by the candidate rules")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("fraud.shadow.dropped")
+                .description("Transactions dropped from shadow evaluation because the queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("fraud.shadow.failed")
+                .description("Transactions the candidate rules failed to evaluate")
+                .register(meterRegistry);
+        for (FraudSignal.SignalType signalType : FraudSignal.SignalType.values()) {
+            signalFlagged.put(signalType, disagreementCounter(signalType.name(), CANDIDATE_FLAGGED));
+            signalCleared.put(signalType, disagreementCounter(signalType.name(), CANDIDATE_CLEARED));
+        }
+        this.overallFlagged = disagreementCounter(OVERALL, CANDIDATE_FLAGGED);
+        this.overallCleared = disagreementCounter(OVERALL, CANDIDATE_CLEARED);
+
+        if (!shadowProperties.isEnabled()) {
+            this.executor = null;
+            return;
+        }
+        // The rejection handler runs on the caller's thread, so dropping must stay this cheap
+        this.executor = new ThreadPoolExecutor(shadowProperties.getThreads(), shadowProperties.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(shadowProperties.getQueueCapacity()),
+                Thread.ofPlatform().name("shadow-rules-", 0).daemon(true).priority(Thread.MIN_PRIORITY).factory(),
+                (task, pool) -> dropped.increment());
+        Gauge.builder("fraud.shadow.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Transactions waiting for shadow evaluation")
+                .register(meterRegistry);
+        logger.info("Shadow rule evaluation enabled with candidate rules {}", shadowProperties.getRules());
+    }
+
+    private Counter disagreementCounter(String signal, String candidate) {
+        return Counter.builder("fraud.shadow.disagreements")
+                .description("Decisions on which the candidate rules disagree with production")
+                .tag("signal", signal)
+                .tag("candidate", candidate)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a scored transaction for evaluation by the candidate rules. Never blocks: if the queue is
+     * full the transaction is dropped from the comparison.
+     *
+     * @param transaction       the scored transaction
+     * @param context           the state production was scored against
+     * @param productionSignals the signals production generated for the transaction
+     * @param productionFlagged whether production counted the transaction as flagged
+     */
+    public void submit(Transaction transaction, ScoringContext context, List<FraudSignal> productionSignals,
+                       boolean productionFlagged) {
+        if (executor == null || transaction == null || context == null || productionSignals == null) {
+            return;
+        }
+        executor.execute(() -> evaluate(transaction, context, productionSignals, productionFlagged));
+    }
+
+    void evaluate(Transaction transaction, ScoringContext context, List<FraudSignal> productionSignals,
+                  boolean productionFlagged) {
+        List<FraudSignal> candidateSignals;
+        try {
+            candidateSignals = fraudRuleEvaluator.evaluate(transaction, context, shadowProperties.getRules());
+        } catch (RuntimeException ex) {
+            failed.increment();
+            logger.warn("Candidate rules failed on transaction {}", transaction.getTransactionId(), ex);
+            return;
+        }
+        evaluated.increment();
+        compare(transaction, productionSignals, productionFlagged, candidateSignals,
+                fraudRuleEvaluator.isFlagged(candidateSignals, shadowProperties.getRules()));
+    }
+
+    private void compare(Transaction transaction, List<FraudSignal> productionSignals, boolean productionFlagged,
+                         List<FraudSignal> candidateSignals, boolean candidateFlagged) {
+        Map<FraudSignal.SignalType, FraudSignal> production = bySignalType(productionSignals);
+        List<String> diffs = new ArrayList<>();
+        for (FraudSignal candidate : candidateSignals) {
+            FraudSignal current = production.get(candidate.getSignalType());
+            boolean productionSignalFlagged = current != null && isFlagged(current);
+            boolean candidateSignalFlagged = isFlagged(candidate);
+            if (productionSignalFlagged == candidateSignalFlagged) {
+                continue;
+            }
+            (candidateSignalFlagged ? signalFlagged : signalCleared).get(candidate.getSignalType()).increment();
+            diffs.add(candidate.getSignalType() + ": production " + productionSignalFlagged + " " + detailsOf(current)
+                    + ", candidate " + candidateSignalFlagged + " " + candidate.getDetails());
+        }
+
+        if (productionFlagged != candidateFlagged) {
+            (candidateFlagged ? overallFlagged : overallCleared).increment();
+        }
+
+        if (!diffs.isEmpty() && ThreadLocalRandom.current().nextDouble() < shadowProperties.getDiffLogSampleRate()) {
+            logger.info("Candidate rules disagree on transaction {} (overall production {}, candidate {}): {}",
+                    transaction.getTransactionId(), productionFlagged, candidateFlagged, diffs);
+        }
+    }
+
+    private static Map<FraudSignal.SignalType, FraudSignal> bySignalType(List<FraudSignal> signals) {
+        Map<FraudSignal.SignalType, FraudSignal> bySignalType = new EnumMap<>(FraudSignal.SignalType.class);
+        for (FraudSignal signal : signals) {
+            if (signal.getSignalType() != null) {
+                bySignalType.put(signal.getSignalType(), signal);
+            }
+        }
+        return bySignalType;
+    }
+
+    private static boolean isFlagged(FraudSignal signal) {
+        return Boolean.TRUE.equals(signal.getPotentialFraud());
+    }
+
+    private static List<String> detailsOf(FraudSignal signal) {
+        return signal == null ? List.of() : signal.getDetails();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
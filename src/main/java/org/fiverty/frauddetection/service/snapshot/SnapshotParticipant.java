@@ -0,0 +1,44 @@
+package org.fiverty.frauddetection.service.snapshot;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * In-memory detection state that survives restarts through {@link StateSnapshotService}.
+ * <p>
+ * Implementations are discovered as Spring beans. Each writes its own section of the snapshot file
+ * under a unique name and format version, and must tolerate being written while it is being
+ * updated. A snapshot is a best-effort warm start, not an exact copy.
+ */
+public interface SnapshotParticipant {
+
+    /**
+     * @return the unique, stable name of this participant's section in the snapshot file
+     */
+    String snapshotName();
+
+    /**
+     * @return the format version written by {@link #writeSnapshot(DataOutput)}; bump it when the format changes
+     */
+    int snapshotVersion();
+
+    /**
+     * Writes the participant's current state.
+     *
+     * @param out the section to write to
+     * @throws IOException if writing fails
+     */
+    void writeSnapshot(DataOutput out) throws IOException;
+
+    /**
+     * Restores state written by {@link #writeSnapshot(DataOutput)}. Called once at startup, before the
+     * application accepts traffic. Implementations should parse the whole section before replacing any
+     * live state, so a failure leaves them cold rather than half-loaded.
+     *
+     * @param in      the section to read from
+     * @param version the format version the section was written with
+     * @throws IOException if the section cannot be read or its version is not supported
+     */
+    void readSnapshot(DataInput in, int version) throws IOException;
+}
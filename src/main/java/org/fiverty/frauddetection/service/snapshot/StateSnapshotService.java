@@ -0,0 +1,377 @@
+package org.fiverty.frauddetection.service.snapshot;
+
+import jakarta.annotation.PreDestroy;
+import org.fiverty.frauddetection.config.SnapshotProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Periodically snapshots every {@link SnapshotParticipant} to a compact binary file and restores them
+ * at startup, so a restarted instance scores with warm state instead of rebuilding it from traffic.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header:  magic(int) formatVersion(int) createdAtMillis(long) sectionCount(int) headerCrc32(int)
+ * section: nameLength(short) name(UTF-8) version(int) payloadLength(long) payloadCrc32(int) payload
+ * </pre>
+ * Each participant is streamed straight into a temporary file, with its checksum computed on the way;
+ * its length and checksum are patched in once it is written, so no section is ever held in memory and a
+ * section may exceed 2 GB. The file is forced to disk and then moved into place atomically; the snapshot
+ * it replaces is kept as {@code <path>.prev}. On load every section is verified against its checksum
+ * before any participant reads it. A section that is missing, corrupt or of an unsupported version is
+ * taken from the previous snapshot instead, and a participant with no usable section in either file
+ * simply starts cold. Files of format version 1, which had an int payload length, are still read.
+ * <p>
+ * Restoring runs from {@link #afterSingletonsInstantiated()}, which completes before the embedded web
+ * server starts, so the application does not report ready or take traffic until state is loaded.
+ */
+@Component
+public class StateSnapshotService implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(StateSnapshotService.class);
+
+    private static final int MAGIC = 0x46445353; // "FDSS"
+    private static final int FORMAT_VERSION = 2;
+    private static final int INT_LENGTH_FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES * 3 + Long.BYTES;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final String PREVIOUS_SUFFIX = ".prev";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final List<SnapshotParticipant> participants;
+    private final SnapshotProperties snapshotProperties;
+
+    public StateSnapshotService(List<SnapshotParticipant> participants, SnapshotProperties snapshotProperties) {
+        this.participants = participants;
+        this.snapshotProperties = snapshotProperties;
+    }
+
+    /**
+     * A verified section, located by its payload's offset in the file.
+     */
+    private record Section(int version, long offset, long length) {
+    }
+
+    /**
+     * An open snapshot file and its verified sections.
+     */
+    private record SnapshotFile(Path path, FileChannel channel, Map<String, Section> sections) implements Closeable {
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!snapshotProperties.isEnabled() || participants.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        Path path = snapshotProperties.getPath();
+        SnapshotFile previous = null;
+        int restored = 0;
+        try (SnapshotFile current = openSnapshot(path)) {
+            for (SnapshotParticipant participant : participants) {
+                if (restore(participant, current)) {
+                    restored++;
+                    continue;
+                }
+                if (previous == null) {
+                    previous = openSnapshot(siblingPath(path, PREVIOUS_SUFFIX));
+                }
+                if (restore(participant, previous)) {
+                    restored++;
+                } else {
+                    logger.info("No usable snapshot for {}, starting cold", participant.snapshotName());
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("Failed to close detection state snapshot {}", path, ex);
+        } finally {
+            closeQuietly(previous);
+        }
+        logger.info("Restored {} of {} snapshot participants in {} ms", restored, participants.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Writes a new snapshot of all participants.
+     */
+    @Scheduled(initialDelayString = "${fraud.snapshot.interval:PT5M}", fixedDelayString = "${fraud.snapshot.interval:PT5M}")
+    public synchronized void writeSnapshot() {
+        if (!snapshotProperties.isEnabled() || participants.isEmpty()) {
+            return;
+        }
+        Path path = snapshotProperties.getPath();
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + Integer.BYTES)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(System.currentTimeMillis())
+                    .putInt(participants.size());
+            CRC32 headerCrc = new CRC32();
+            headerCrc.update(header.array(), 0, HEADER_BYTES);
+            header.putInt((int) headerCrc.getValue()).flip();
+
+            Path directory = path.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            Path temporary = siblingPath(path, TEMPORARY_SUFFIX);
+            long totalBytes;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeFully(channel, header, channel.position());
+                channel.position(header.limit());
+                for (SnapshotParticipant participant : participants) {
+                    writeSection(channel, participant);
+                }
+                channel.force(true);
+                totalBytes = channel.size();
+            }
+
+            if (Files.exists(path)) {
+                Files.move(path, siblingPath(path, PREVIOUS_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Wrote {} byte detection state snapshot to {}", totalBytes, path);
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Failed to write detection state snapshot to {}", path, ex);
+        }
+    }
+
+    @PreDestroy
+    void writeSnapshotOnShutdown() {
+        writeSnapshot();
+    }
+
+    /**
+     * Streams one participant into the file at the channel's position, then goes back to fill in the
+     * payload's length and checksum.
+     */
+    private static void writeSection(FileChannel channel, SnapshotParticipant participant) throws IOException {
+        byte[] name = participant.snapshotName().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer sectionHeader = ByteBuffer.allocate(Short.BYTES + name.length + Integer.BYTES)
+                .putShort((short) name.length)
+                .put(name)
+                .putInt(participant.snapshotVersion())
+                .flip();
+        long lengthPosition = channel.position() + sectionHeader.remaining();
+        writeFully(channel, sectionHeader, channel.position());
+        long payloadStart = lengthPosition + Long.BYTES + Integer.BYTES;
+        channel.position(payloadStart);
+
+        CRC32 crc = new CRC32();
+        // Not closed: closing would close the channel
+        DataOutputStream payload = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(Channels.newOutputStream(channel), crc), BUFFER_BYTES));
+        participant.writeSnapshot(payload);
+        payload.flush();
+
+        ByteBuffer lengthAndCrc = ByteBuffer.allocate(Long.BYTES + Integer.BYTES)
+                .putLong(channel.position() - payloadStart)
+                .putInt((int) crc.getValue())
+                .flip();
+        writeFully(channel, lengthAndCrc, lengthPosition);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Opens a snapshot file and verifies its sections against their checksums without keeping any
+     * payload in memory. A file that is missing or has a bad header yields no sections; a corrupt
+     * section also ends verification, since the offsets of the sections after it cannot be trusted.
+     *
+     * @param path the snapshot file
+     * @return the open file and its verified sections by participant name
+     */
+    private SnapshotFile openSnapshot(Path path) {
+        Map<String, Section> sections = new HashMap<>();
+        if (!Files.isRegularFile(path)) {
+            return new SnapshotFile(path, null, sections);
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException ex) {
+            logger.warn("Snapshot {} is unreadable", path, ex);
+            return new SnapshotFile(path, null, sections);
+        }
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_BYTES));
+            byte[] header = new byte[HEADER_BYTES];
+            in.readFully(header);
+            CRC32 crc = new CRC32();
+            crc.update(header);
+            ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+            int magic = headerBuffer.getInt();
+            int formatVersion = headerBuffer.getInt();
+            headerBuffer.getLong();
+            int sectionCount = headerBuffer.getInt();
+            if (magic != MAGIC || (formatVersion != FORMAT_VERSION && formatVersion != INT_LENGTH_FORMAT_VERSION)
+                    || in.readInt() != (int) crc.getValue()) {
+                logger.warn("Ignoring snapshot {} with an invalid header", path);
+                return new SnapshotFile(path, channel, sections);
+            }
+
+            long position = HEADER_BYTES + Integer.BYTES;
+            byte[] buffer = new byte[BUFFER_BYTES];
+            for (int i = 0; i < sectionCount; i++) {
+                byte[] name = new byte[in.readUnsignedShort()];
+                in.readFully(name);
+                int version = in.readInt();
+                long length = formatVersion == INT_LENGTH_FORMAT_VERSION ? in.readInt() : in.readLong();
+                int expectedCrc = in.readInt();
+                position += Short.BYTES + name.length + Integer.BYTES
+                        + (formatVersion == INT_LENGTH_FORMAT_VERSION ? Integer.BYTES : Long.BYTES) + Integer.BYTES;
+                if (length < 0) {
+                    throw new EOFException("Negative section length " + length);
+                }
+                crc.reset();
+                for (long remaining = length; remaining > 0; ) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read < 0) {
+                        throw new EOFException();
+                    }
+                    crc.update(buffer, 0, read);
+                    remaining -= read;
+                }
+                String sectionName = new String(name, StandardCharsets.UTF_8);
+                if ((int) crc.getValue() != expectedCrc) {
+                    logger.warn("Snapshot {} has a corrupt section '{}', ignoring it and any that follow",
+                            path, sectionName);
+                    break;
+                }
+                sections.put(sectionName, new Section(version, position, length));
+                position += length;
+            }
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Snapshot {} is truncated or unreadable, using the sections read so far", path, ex);
+        }
+        return new SnapshotFile(path, channel, sections);
+    }
+
+    private static boolean restore(SnapshotParticipant participant, SnapshotFile file) {
+        Section section = file.sections().get(participant.snapshotName());
+        if (section == null) {
+            return false;
+        }
+        try {
+            file.channel().position(section.offset());
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new SectionInputStream(Channels.newInputStream(file.channel()), section.length()), BUFFER_BYTES));
+            participant.readSnapshot(in, section.version());
+            logger.info("Restored {} from snapshot {}", participant.snapshotName(), file.path());
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Could not restore {} from snapshot {}", participant.snapshotName(), file.path(), ex);
+            return false;
+        }
+    }
+
+    private static void closeQuietly(SnapshotFile file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.close();
+        } catch (IOException ex) {
+            logger.warn("Failed to close detection state snapshot {}", file.path(), ex);
+        }
+    }
+
+    private static Path siblingPath(Path path, String suffix) {
+        return path.resolveSibling(path.getFileName() + suffix);
+    }
+
+    /**
+     * Reads no further than the end of one section, so a participant cannot run into the next one.
+     * Closing it leaves the file open.
+     */
+    private static final class SectionInputStream extends FilterInputStream {
+        private long remaining;
+
+        private SectionInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read();
+            if (read >= 0) {
+                remaining--;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
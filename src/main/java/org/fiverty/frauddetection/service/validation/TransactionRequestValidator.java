@@ -0,0 +1,172 @@
+package org.fiverty.frauddetection.service.validation;
+
+import org.fiverty.frauddetection.model.dto.TransactionRequestDto;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Validates scoring requests before any database or rule work, so a malformed request costs a few
+ * field checks instead of an insert attempt and a constraint violation.
+ * <p>
+ * The checks are built once into a fixed list of field rules with precompiled patterns. Every rule
+ * runs on every request and all failures are reported together, so a misconfigured client sees
+ * everything it has to fix in one response. Only the shape of the input is checked: values the fraud
+ * rules themselves judge, such as an unknown state code or a zero item count, are accepted.
+ */
+@Component
+public class TransactionRequestValidator {
+
+    static final int MAX_TEXT_LENGTH = 200;
+    // purchase_amount is NUMERIC(19, 2)
+    private static final int MAX_AMOUNT_SCALE = 2;
+    private static final int MAX_AMOUNT_INTEGER_DIGITS = 17;
+
+    private static final Pattern STATE = Pattern.compile("[A-Za-z]{2}");
+    private static final Pattern CARD_LAST4 = Pattern.compile("[0-9]{4}");
+    private static final Pattern IPV4 = Pattern.compile(
+            "((25[0-5]|2[0-4][0-9]|1[0-9]{2}|[1-9]?[0-9])\\.){3}(25[0-5]|2[0-4][0-9]|1[0-9]{2}|[1-9]?[0-9])");
+    private static final Pattern IPV6_CHARACTERS = Pattern.compile("[0-9A-Fa-f:][0-9A-Fa-f:.]*");
+
+    private static final String REQUIRED = "is required";
+    private static final String BLANK = "must not be blank";
+    private static final String TOO_LONG = "must be at most " + MAX_TEXT_LENGTH + " characters";
+
+    private final List<FieldRule<?>> rules = List.of(
+            new FieldRule<>("customerName", TransactionRequestDto::getCustomerName, TransactionRequestValidator::checkText),
+            new FieldRule<>("ipAddress", TransactionRequestDto::getIpAddress, TransactionRequestValidator::checkIpAddress),
+            new FieldRule<>("location.city",
+                    dto -> dto.getLocation() == null ? null : dto.getLocation().getCity(),
+                    TransactionRequestValidator::checkText),
+            new FieldRule<>("location.state",
+                    dto -> dto.getLocation() == null ? null : dto.getLocation().getState(),
+                    TransactionRequestValidator::checkState),
+            new FieldRule<>("paymentDetails.cardLast4",
+                    dto -> dto.getPaymentDetails() == null ? null : dto.getPaymentDetails().getCardLast4(),
+                    TransactionRequestValidator::checkCardLast4),
+            new FieldRule<>("paymentDetails.nameOnCard",
+                    dto -> dto.getPaymentDetails() == null ? null : dto.getPaymentDetails().getNameOnCard(),
+                    TransactionRequestValidator::checkText),
+            new FieldRule<>("paymentDetails.purchaseAmount",
+                    dto -> dto.getPaymentDetails() == null ? null : dto.getPaymentDetails().getPurchaseAmount(),
+                    TransactionRequestValidator::checkAmount),
+            new FieldRule<>("transactionDetails.merchantName",
+                    dto -> dto.getTransactionDetails() == null ? null : dto.getTransactionDetails().getMerchantName(),
+                    TransactionRequestValidator::checkText),
+            new FieldRule<>("transactionDetails.merchantLocation.city",
+                    dto -> merchantLocation(dto) == null ? null : merchantLocation(dto).getCity(),
+                    TransactionRequestValidator::checkText),
+            new FieldRule<>("transactionDetails.merchantLocation.state",
+                    dto -> merchantLocation(dto) == null ? null : merchantLocation(dto).getState(),
+                    TransactionRequestValidator::checkState),
+            new FieldRule<>("transactionDetails.purchasedItemCount",
+                    dto -> dto.getTransactionDetails() == null ? null : dto.getTransactionDetails().getPurchasedItemCount(),
+                    TransactionRequestValidator::checkItemCount));
+
+    /**
+     * One field's accessor and check. The check returns the error message, or null if the value is valid.
+     */
+    private record FieldRule<T>(String field, Function<TransactionRequestDto, T> accessor, Function<T, String> check) {
+
+        String apply(TransactionRequestDto request) {
+            return check.apply(accessor.apply(request));
+        }
+    }
+
+    /**
+     * Checks every field of the request.
+     *
+     * @param request the scoring request, not null
+     * @throws TransactionValidationException listing every invalid field, if any
+     */
+    public void validate(TransactionRequestDto request) throws TransactionValidationException {
+        List<TransactionValidationException.FieldError> errors = null;
+        for (FieldRule<?> rule : rules) {
+            String message = rule.apply(request);
+            if (message != null) {
+                if (errors == null) {
+                    errors = new ArrayList<>();
+                }
+                errors.add(new TransactionValidationException.FieldError(rule.field(), message));
+            }
+        }
+        if (errors != null) {
+            throw new TransactionValidationException(errors);
+        }
+    }
+
+    private static TransactionRequestDto.TransactionDetailsDto.MerchantLocationDto merchantLocation(TransactionRequestDto dto) {
+        return dto.getTransactionDetails() == null ? null : dto.getTransactionDetails().getMerchantLocation();
+    }
+
+    private static String checkText(String value) {
+        if (value == null) {
+            return REQUIRED;
+        }
+        if (value.isBlank()) {
+            return BLANK;
+        }
+        return value.length() > MAX_TEXT_LENGTH ? TOO_LONG : null;
+    }
+
+    private static String checkState(String value) {
+        if (value == null) {
+            return REQUIRED;
+        }
+        return STATE.matcher(value).matches() ? null : "must be a two-letter state code";
+    }
+
+    private static String checkCardLast4(String value) {
+        if (value == null) {
+            return REQUIRED;
+        }
+        return CARD_LAST4.matcher(value).matches() ? null : "must be exactly four digits";
+    }
+
+    private static String checkIpAddress(String value) {
+        if (value == null) {
+            return REQUIRED;
+        }
+        if (IPV4.matcher(value).matches()) {
+            return null;
+        }
+        // Starting with a hex digit or ':' and containing ':', it is parsed as an IPv6 literal, never looked up
+        if (value.indexOf(':') >= 0 && IPV6_CHARACTERS.matcher(value).matches()) {
+            try {
+                InetAddress.getByName(value);
+                return null;
+            } catch (UnknownHostException ex) {
+                // Not a valid IPv6 literal
+            }
+        }
+        return "must be an IPv4 or IPv6 address";
+    }
+
+    private static String checkAmount(BigDecimal value) {
+        if (value == null) {
+            return REQUIRED;
+        }
+        if (value.signum() < 0) {
+            return "must not be negative";
+        }
+        BigDecimal stripped = value.stripTrailingZeros();
+        if (stripped.scale() > MAX_AMOUNT_SCALE) {
+            return "must have at most " + MAX_AMOUNT_SCALE + " decimal places";
+        }
+        return stripped.precision() - stripped.scale() > MAX_AMOUNT_INTEGER_DIGITS
+                ? "must have at most " + MAX_AMOUNT_INTEGER_DIGITS + " digits before the decimal point" : null;
+    }
+
+    private static String checkItemCount(Integer value) {
+        if (value == null) {
+            return REQUIRED;
+        }
+        return value < 0 ? "must not be negative" : null;
+    }
+}
@@ -0,0 +1,32 @@
+package org.fiverty.frauddetection.service.validation;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Thrown when a scoring request fails validation, carrying every field error found rather than only
+ * the first. It is an {@link IllegalArgumentException}, so callers that treat invalid input as a client
+ * error keep doing so.
+ */
+public class TransactionValidationException extends IllegalArgumentException {
+
+    private final List<FieldError> errors;
+
+    public TransactionValidationException(List<FieldError> errors) {
+        super("Invalid transaction request: " + errors.stream()
+                .map(error -> error.field() + " " + error.message())
+                .collect(Collectors.joining("; ")));
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<FieldError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @param field   the JSON path of the offending field, e.g. {@code paymentDetails.cardLast4}
+     * @param message what is wrong with it
+     */
+    public record FieldError(String field, String message) {
+    }
+}
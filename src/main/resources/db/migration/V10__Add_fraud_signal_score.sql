@@ -0,0 +1,2 @@
+-- Graded score for rules that produce one (e.g. name similarity for CARD_DETAILS); NULL otherwise
+ALTER TABLE fraud_signal ADD COLUMN score DOUBLE PRECISION;
@@ -0,0 +1,143 @@
+-- Repeated free-text values move to dimension tables keyed by compact integer surrogates
+CREATE TABLE dim_merchant
+(
+    merchant_id   INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    merchant_name TEXT NOT NULL UNIQUE
+);
+
+CREATE TABLE dim_city
+(
+    city_id   INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    city_name TEXT NOT NULL UNIQUE
+);
+
+-- Customer names and names on cards share one dimension
+CREATE TABLE dim_person_name
+(
+    person_name_id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    person_name    TEXT NOT NULL UNIQUE
+);
+
+INSERT INTO dim_merchant (merchant_name)
+SELECT merchant_name FROM transaction_current
+UNION
+SELECT merchant_name FROM transaction_history;
+
+INSERT INTO dim_city (city_name)
+SELECT customer_city FROM transaction_current
+UNION
+SELECT merchant_city FROM transaction_current
+UNION
+SELECT customer_city FROM transaction_history
+UNION
+SELECT merchant_city FROM transaction_history;
+
+INSERT INTO dim_person_name (person_name)
+SELECT customer_name FROM transaction_current
+UNION
+SELECT name_on_card FROM transaction_current
+UNION
+SELECT customer_name FROM transaction_history
+UNION
+SELECT name_on_card FROM transaction_history;
+
+ALTER TABLE transaction_current
+    ADD COLUMN customer_name_id INTEGER,
+    ADD COLUMN customer_city_id INTEGER,
+    ADD COLUMN name_on_card_id  INTEGER,
+    ADD COLUMN merchant_name_id INTEGER,
+    ADD COLUMN merchant_city_id INTEGER;
+
+ALTER TABLE transaction_history
+    ADD COLUMN customer_name_id INTEGER,
+    ADD COLUMN customer_city_id INTEGER,
+    ADD COLUMN name_on_card_id  INTEGER,
+    ADD COLUMN merchant_name_id INTEGER,
+    ADD COLUMN merchant_city_id INTEGER;
+
+-- The backfill must not archive rows that are already non-current
+ALTER TABLE transaction_current DISABLE TRIGGER transaction_history_trigger;
+
+UPDATE transaction_current t
+SET customer_name_id = cn.person_name_id,
+    customer_city_id = cc.city_id,
+    name_on_card_id  = nc.person_name_id,
+    merchant_name_id = m.merchant_id,
+    merchant_city_id = mc.city_id
+FROM dim_person_name cn, dim_city cc, dim_person_name nc, dim_merchant m, dim_city mc
+WHERE cn.person_name = t.customer_name
+  AND cc.city_name = t.customer_city
+  AND nc.person_name = t.name_on_card
+  AND m.merchant_name = t.merchant_name
+  AND mc.city_name = t.merchant_city;
+
+UPDATE transaction_history t
+SET customer_name_id = cn.person_name_id,
+    customer_city_id = cc.city_id,
+    name_on_card_id  = nc.person_name_id,
+    merchant_name_id = m.merchant_id,
+    merchant_city_id = mc.city_id
+FROM dim_person_name cn, dim_city cc, dim_person_name nc, dim_merchant m, dim_city mc
+WHERE cn.person_name = t.customer_name
+  AND cc.city_name = t.customer_city
+  AND nc.person_name = t.name_on_card
+  AND m.merchant_name = t.merchant_name
+  AND mc.city_name = t.merchant_city;
+
+ALTER TABLE transaction_current ENABLE TRIGGER transaction_history_trigger;
+
+DROP INDEX idx_transaction_customer_seek;
+
+-- The space held by the dropped columns is reclaimed as rows are rewritten; run VACUUM FULL or
+-- pg_repack on both tables in a maintenance window to reclaim it at once
+ALTER TABLE transaction_current
+    DROP COLUMN customer_name,
+    DROP COLUMN customer_city,
+    DROP COLUMN name_on_card,
+    DROP COLUMN merchant_name,
+    DROP COLUMN merchant_city,
+    ALTER COLUMN customer_name_id SET NOT NULL,
+    ALTER COLUMN customer_city_id SET NOT NULL,
+    ALTER COLUMN name_on_card_id SET NOT NULL,
+    ALTER COLUMN merchant_name_id SET NOT NULL,
+    ALTER COLUMN merchant_city_id SET NOT NULL,
+    ADD CONSTRAINT fk_transaction_customer_name FOREIGN KEY (customer_name_id) REFERENCES dim_person_name (person_name_id),
+    ADD CONSTRAINT fk_transaction_customer_city FOREIGN KEY (customer_city_id) REFERENCES dim_city (city_id),
+    ADD CONSTRAINT fk_transaction_name_on_card FOREIGN KEY (name_on_card_id) REFERENCES dim_person_name (person_name_id),
+    ADD CONSTRAINT fk_transaction_merchant_name FOREIGN KEY (merchant_name_id) REFERENCES dim_merchant (merchant_id),
+    ADD CONSTRAINT fk_transaction_merchant_city FOREIGN KEY (merchant_city_id) REFERENCES dim_city (city_id);
+
+-- History rows are copies of current rows, so their keys were already checked on the way in
+ALTER TABLE transaction_history
+    DROP COLUMN customer_name,
+    DROP COLUMN customer_city,
+    DROP COLUMN name_on_card,
+    DROP COLUMN merchant_name,
+    DROP COLUMN merchant_city,
+    ALTER COLUMN customer_name_id SET NOT NULL,
+    ALTER COLUMN customer_city_id SET NOT NULL,
+    ALTER COLUMN name_on_card_id SET NOT NULL,
+    ALTER COLUMN merchant_name_id SET NOT NULL,
+    ALTER COLUMN merchant_city_id SET NOT NULL;
+
+-- Customer lookups seek within a single customer's transactions
+CREATE INDEX idx_transaction_customer_seek ON transaction_current (customer_name_id, valid_from, transaction_id);
+
+-- Column order changed, so the archive trigger names its columns instead of relying on position
+CREATE OR REPLACE FUNCTION archive_transaction()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    IF NEW.is_current = FALSE THEN
+        INSERT INTO transaction_history (transaction_id, customer_name_id, ip_address, customer_city_id,
+                                         customer_state, card_last4, name_on_card_id, purchase_amount,
+                                         merchant_name_id, merchant_city_id, merchant_state,
+                                         purchased_item_count, valid_from, valid_to, version)
+        VALUES (OLD.transaction_id, OLD.customer_name_id, OLD.ip_address, OLD.customer_city_id,
+                OLD.customer_state, OLD.card_last4, OLD.name_on_card_id, OLD.purchase_amount,
+                OLD.merchant_name_id, OLD.merchant_city_id, OLD.merchant_state,
+                OLD.purchased_item_count, OLD.valid_from, NEW.valid_from, OLD.version);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,3 @@
+ALTER TABLE fraud_signal DROP CONSTRAINT fraud_signal_signal_type_check;
+ALTER TABLE fraud_signal ADD CONSTRAINT fraud_signal_signal_type_check
+    CHECK (signal_type IN ('LOCATION', 'IP_ADDRESS', 'TRANSACTION', 'CARD_DETAILS', 'MERCHANT_RISK', 'FRAUD_RING'));
@@ -0,0 +1,4 @@
+ALTER TABLE fraud_signal DROP CONSTRAINT fraud_signal_signal_type_check;
+ALTER TABLE fraud_signal ADD CONSTRAINT fraud_signal_signal_type_check
+    CHECK (signal_type IN ('LOCATION', 'IP_ADDRESS', 'TRANSACTION', 'CARD_DETAILS', 'MERCHANT_RISK', 'FRAUD_RING',
+                           'AMOUNT_OUTLIER', 'COMPROMISED_IDENTITY'));
@@ -0,0 +1,49 @@
+-- Signals move to history together with their transaction, partitioned by the transaction's valid_from
+-- so a year of transactions and its signals can be detached or dropped together
+CREATE TABLE fraud_signal_history
+(
+    signal_id       BIGINT           NOT NULL,
+    transaction_id  UUID             NOT NULL,
+    signal_type     TEXT             NOT NULL,
+    potential_fraud BOOLEAN          NOT NULL,
+    score           DOUBLE PRECISION,
+    details         TEXT[]           NOT NULL,
+    valid_from      TIMESTAMPTZ      NOT NULL
+) PARTITION BY RANGE (valid_from);
+
+CREATE INDEX idx_fraud_signal_history_transaction ON fraud_signal_history (transaction_id, signal_type, potential_fraud);
+
+CREATE TABLE fraud_signal_history_default PARTITION OF fraud_signal_history DEFAULT;
+
+-- Creates the yearly partition <parent>_<year> if it is missing. Rows of that year already sitting in the
+-- default partition are moved into it first, since a partition cannot be attached while the default holds
+-- rows in its range. Serialized with an advisory lock so several instances can call it at once.
+CREATE OR REPLACE FUNCTION ensure_history_partition(parent TEXT, partition_year INTEGER)
+    RETURNS VOID AS
+$$
+DECLARE
+    partition_name TEXT := parent || '_' || partition_year;
+    range_start    TEXT := partition_year || '-01-01';
+    range_end      TEXT := (partition_year + 1) || '-01-01';
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+    PERFORM pg_advisory_xact_lock(hashtext('ensure_history_partition'));
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name, parent);
+    EXECUTE format('WITH moved AS (DELETE FROM %I WHERE valid_from >= %L AND valid_from < %L RETURNING *) '
+                       || 'INSERT INTO %I SELECT * FROM moved',
+                   parent || '_default', range_start, range_end, partition_name);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent, partition_name, range_start, range_end);
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT ensure_history_partition(parent, partition_year)
+FROM (VALUES ('transaction_history'), ('fraud_signal_history')) AS parents (parent),
+     generate_series(2025, EXTRACT(YEAR FROM CURRENT_DATE)::INTEGER + 1) AS partition_year;
+
@@ -0,0 +1,21 @@
+-- Align the signal_type constraint with the values written by the FraudSignal entity
+ALTER TABLE fraud_signal DROP CONSTRAINT fraud_signal_signal_type_check;
+ALTER TABLE fraud_signal ADD CONSTRAINT fraud_signal_signal_type_check
+    CHECK (signal_type IN ('LOCATION', 'IP_ADDRESS', 'TRANSACTION', 'CARD_DETAILS'));
+
+-- Hand out signal ids in blocks so Hibernate can batch the per-transaction signal inserts
+ALTER SEQUENCE fraud_signal_signal_id_seq INCREMENT BY 50;
+
+-- Keyset pagination over (valid_from, transaction_id), newest first
+CREATE INDEX idx_transaction_current_seek ON transaction_current (valid_from, transaction_id);
+
+-- Customer lookups seek within a single customer's transactions; supersedes idx_transaction_customer
+CREATE INDEX idx_transaction_customer_seek ON transaction_current (customer_name, valid_from, transaction_id);
+DROP INDEX idx_transaction_customer;
+
+-- Signal joins and potential_fraud/signal_type filters; supersedes idx_fraud_signal_temporal
+CREATE INDEX idx_fraud_signal_transaction_type ON fraud_signal (transaction_id, signal_type, potential_fraud);
+DROP INDEX idx_fraud_signal_temporal;
+
+-- Investigators mostly filter on flagged signals
+CREATE INDEX idx_fraud_signal_flagged ON fraud_signal (transaction_id, signal_type) WHERE potential_fraud;
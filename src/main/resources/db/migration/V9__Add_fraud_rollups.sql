@@ -0,0 +1,12 @@
+-- Hourly fraud rollups, maintained incrementally by the scoring service.
+-- Dashboards read these instead of aggregating transaction_current and fraud_signal.
+CREATE TABLE fraud_rollup
+(
+    dimension     TEXT           NOT NULL CHECK (dimension IN ('HOUR', 'MERCHANT', 'STATE_PAIR', 'SIGNAL_TYPE')),
+    bucket_start  TIMESTAMPTZ    NOT NULL,
+    dimension_key TEXT           NOT NULL,
+    event_count   BIGINT         NOT NULL DEFAULT 0,
+    flagged_count BIGINT         NOT NULL DEFAULT 0,
+    amount_total  NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (dimension, bucket_start, dimension_key)
+);
@@ -0,0 +1,84 @@
+package org.fiverty.frauddetection.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaFallbackDataSourceTest {
+
+    private final DataSource replica = mock(DataSource.class);
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private long now;
+
+    private final ReplicaFallbackDataSource dataSource =
+            new ReplicaFallbackDataSource(replica, primary, Duration.ofSeconds(30), () -> now);
+
+    @Test
+    void getConnection_ReplicaAvailable_UsesReplica() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        assertSame(replicaConnection, dataSource.getConnection());
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void getConnection_ReplicaFails_FallsBackAndSkipsReplicaUntilRetry() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("replica down")).thenReturn(replicaConnection);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        now += Duration.ofSeconds(10).toNanos();
+        assertSame(primaryConnection, dataSource.getConnection());
+        verify(replica, times(1)).getConnection();
+
+        now += Duration.ofSeconds(30).toNanos();
+        assertSame(replicaConnection, dataSource.getConnection());
+        verify(replica, times(2)).getConnection();
+    }
+
+    @Test
+    void getConnectionWithCredentials_ReplicaFails_FallsBackToPrimary() throws SQLException {
+        when(replica.getConnection("analyst", "secret")).thenThrow(new SQLException("replica down"));
+        when(primary.getConnection("analyst", "secret")).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, dataSource.getConnection("analyst", "secret"));
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void getConnectionWithCredentials_ReplicaAvailable_UsesReplica() throws SQLException {
+        when(replica.getConnection("analyst", "secret")).thenReturn(replicaConnection);
+
+        assertSame(replicaConnection, dataSource.getConnection("analyst", "secret"));
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void getConnection_ReplicaPoolExhausted_RethrowsWithoutFallingBack() throws SQLException {
+        SQLTransientConnectionException poolTimeout =
+                new SQLTransientConnectionException("replica - Connection is not available, request timed out after 2000ms");
+        when(replica.getConnection()).thenThrow(poolTimeout).thenReturn(replicaConnection);
+
+        assertSame(poolTimeout, assertThrows(SQLTransientConnectionException.class, dataSource::getConnection));
+        assertSame(replicaConnection, dataSource.getConnection());
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void getConnection_ReplicaUnreachableBehindPoolTimeout_FallsBack() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException(
+                "replica - Connection is not available", "08001", new SQLException("Connection refused")));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+}
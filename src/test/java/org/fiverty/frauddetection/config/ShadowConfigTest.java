@@ -0,0 +1,65 @@
+package org.fiverty.frauddetection.config;
+
+import org.fiverty.frauddetection.model.FraudSignal;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShadowConfigTest {
+
+    @Configuration
+    @EnableConfigurationProperties(FraudRuleProperties.class)
+    static class RulesConfig {
+    }
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(RulesConfig.class, ShadowConfig.class);
+
+    @Test
+    void shadowProperties_UnsetCandidateThresholds_TakeProductionValues() {
+        contextRunner.withPropertyValues(
+                        "fraud.rules.merchant.fraud-rate-threshold=0.2",
+                        "fraud.rules.fraud-ring.max-cluster-customers=12",
+                        "fraud.shadow.rules.card-details.name-match-threshold=0.85")
+                .run(context -> {
+                    FraudRuleProperties candidate = context.getBean(ShadowProperties.class).getRules();
+                    assertEquals(0.85, candidate.getCardDetails().getNameMatchThreshold());
+                    assertEquals(0.2, candidate.getMerchant().getFraudRateThreshold());
+                    assertEquals(12, candidate.getFraudRing().getMaxClusterCustomers());
+                    assertEquals(4.0, candidate.getMerchant().getAmountZScoreThreshold());
+                });
+    }
+
+    @Test
+    void shadowProperties_CandidateOverride_ProductionRulesUnchanged() {
+        contextRunner.withPropertyValues(
+                        "fraud.rules.card-details.name-match-threshold=0.95",
+                        "fraud.shadow.rules.card-details.name-match-threshold=0.85",
+                        "fraud.shadow.rules.feedback-signal-types=IP_ADDRESS")
+                .run(context -> {
+                    FraudRuleProperties production = context.getBean(FraudRuleProperties.class);
+                    FraudRuleProperties candidate = context.getBean(ShadowProperties.class).getRules();
+                    assertNotSame(production.getCardDetails(), candidate.getCardDetails());
+                    assertEquals(0.95, production.getCardDetails().getNameMatchThreshold());
+                    assertEquals(0.85, candidate.getCardDetails().getNameMatchThreshold());
+                    assertEquals(Set.of(FraudSignal.SignalType.IP_ADDRESS), candidate.getFeedbackSignalTypes());
+                    assertEquals(new FraudRuleProperties().getFeedbackSignalTypes(), production.getFeedbackSignalTypes());
+                });
+    }
+
+    @Test
+    void shadowProperties_ShadowSettings_Bound() {
+        contextRunner.withPropertyValues("fraud.shadow.enabled=true", "fraud.shadow.threads=4")
+                .run(context -> {
+                    ShadowProperties shadowProperties = context.getBean(ShadowProperties.class);
+                    assertTrue(shadowProperties.isEnabled());
+                    assertEquals(4, shadowProperties.getThreads());
+                    assertEquals(0.90, shadowProperties.getRules().getCardDetails().getNameMatchThreshold());
+                });
+    }
+}
@@ -0,0 +1,145 @@
+package org.fiverty.frauddetection.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fiverty.frauddetection.controller.FraudDetectionController;
+import org.fiverty.frauddetection.model.dto.TransactionRequestDto;
+import org.fiverty.frauddetection.model.dto.TransactionResponseDto;
+import org.fiverty.frauddetection.service.FraudDetectionService;
+import org.fiverty.frauddetection.service.admission.AdaptiveConcurrencyLimiter;
+import org.fiverty.frauddetection.service.admission.MerchantTierResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(FraudDetectionController.class)
+@Import({AdaptiveConcurrencyLimiter.class, MerchantTierResolver.class, WireFormatConfigTest.AdmissionConfig.class})
+class WireFormatConfigTest {
+
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @TestConfiguration
+    @EnableConfigurationProperties(AdmissionProperties.class)
+    static class AdmissionConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @MockitoBean
+    private FraudDetectionService fraudDetectionService;
+
+    @Test
+    void scoreTransaction_CborRequest_AnsweredInCbor() throws Exception {
+        assertRoundTrip(new ObjectMapper(new CBORFactory()), MediaType.APPLICATION_CBOR);
+    }
+
+    @Test
+    void scoreTransaction_SmileRequest_AnsweredInSmile() throws Exception {
+        assertRoundTrip(new ObjectMapper(new SmileFactory()), APPLICATION_SMILE);
+    }
+
+    @Test
+    void scoreTransaction_NoAcceptHeader_AnsweredInJson() throws Exception {
+        when(fraudDetectionService.scoreTransaction(any())).thenReturn(createTransactionResponseDto());
+
+        mockMvc.perform(post("/api/v1/score-transaction")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(new ObjectMapper(new CBORFactory()).writeValueAsBytes(createTransactionRequestDto())))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void extendMessageConverters_DefaultBinaryConverters_ReplacedInPlace() {
+        List<HttpMessageConverter<?>> converters = handlerAdapter.getMessageConverters();
+
+        for (MediaType mediaType : List.of(MediaType.APPLICATION_CBOR, APPLICATION_SMILE)) {
+            List<HttpMessageConverter<?>> writers = converters.stream()
+                    .filter(converter -> converter.canWrite(TransactionResponseDto.class, mediaType))
+                    .toList();
+            assertEquals(1, writers.size(), mediaType.toString());
+            assertInstanceOf(ProfiledBinaryJackson2HttpMessageConverter.class, writers.get(0));
+        }
+    }
+
+    private void assertRoundTrip(ObjectMapper mapper, MediaType mediaType) throws Exception {
+        when(fraudDetectionService.scoreTransaction(any())).thenReturn(createTransactionResponseDto());
+
+        MvcResult result = mockMvc.perform(post("/api/v1/score-transaction")
+                        .contentType(mediaType)
+                        .accept(mediaType)
+                        .content(mapper.writeValueAsBytes(createTransactionRequestDto())))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(mediaType))
+                .andReturn();
+
+        JsonNode response = mapper.readTree(result.getResponse().getContentAsByteArray());
+        assertEquals("John Doe", response.get("customerName").asText());
+        assertEquals(0, new BigDecimal("100.00").compareTo(response.get("paymentDetails").get("purchaseAmount").decimalValue()));
+    }
+
+    private TransactionRequestDto createTransactionRequestDto() {
+        return TransactionRequestDto.builder()
+                .customerName("John Doe")
+                .ipAddress("11.168.1.1")
+                .location(new TransactionRequestDto.LocationDto("Springfield", "IL"))
+                .paymentDetails(new TransactionRequestDto.PaymentDetailsDto("1234", "John Doe", new BigDecimal("100.00")))
+                .transactionDetails(
+                        new TransactionRequestDto.TransactionDetailsDto(
+                                "Merchant Name",
+                                new TransactionRequestDto.TransactionDetailsDto.MerchantLocationDto("Chicago", "IL"),
+                                1
+                        )
+                )
+                .build();
+    }
+
+    private TransactionResponseDto createTransactionResponseDto() {
+        return TransactionResponseDto.builder()
+                .customerName("John Doe")
+                .ipAddress("11.168.1.1")
+                .location(TransactionResponseDto.Location.builder().city("Springfield").state("IL").build())
+                .paymentDetails(TransactionResponseDto.PaymentDetails.builder()
+                        .cardLast4("1234").nameOnCard("John Doe").purchaseAmount(new BigDecimal("100.00")).build())
+                .transactionDetails(TransactionResponseDto.TransactionDetails.builder()
+                        .merchantName("Merchant Name")
+                        .merchantLocation(TransactionResponseDto.Location.builder().city("Chicago").state("IL").build())
+                        .purchasedItemCount(1)
+                        .build())
+                .fraudSignals(List.of())
+                .build();
+    }
+}
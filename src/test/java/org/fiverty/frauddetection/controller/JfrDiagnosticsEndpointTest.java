@@ -0,0 +1,68 @@
+package org.fiverty.frauddetection.controller;
+
+import org.fiverty.frauddetection.config.JfrProperties;
+import org.fiverty.frauddetection.model.dto.JfrRecordingStatusDto;
+import org.fiverty.frauddetection.service.profiling.JfrRecordingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrDiagnosticsEndpointTest {
+
+    private final JfrRecordingService jfrRecordingService = new JfrRecordingService(new JfrProperties());
+    private final JfrDiagnosticsEndpoint endpoint = new JfrDiagnosticsEndpoint(jfrRecordingService);
+
+    @AfterEach
+    void stopRecording() {
+        jfrRecordingService.stop();
+    }
+
+    @Test
+    void control_StartTwice_ConflictOnSecond() {
+        WebEndpointResponse<JfrRecordingStatusDto> started = endpoint.control("start");
+        WebEndpointResponse<JfrRecordingStatusDto> again = endpoint.control("start");
+
+        assertEquals(WebEndpointResponse.STATUS_OK, started.getStatus());
+        assertEquals("RUNNING", started.getBody().getState());
+        assertEquals(HttpStatus.CONFLICT.value(), again.getStatus());
+    }
+
+    @Test
+    void control_StopWithoutRecording_Conflict() {
+        assertEquals(HttpStatus.CONFLICT.value(), endpoint.control("stop").getStatus());
+    }
+
+    @Test
+    void control_UnknownAction_NotFound() {
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.control("restart").getStatus());
+        assertEquals("NONE", endpoint.getStatus().getState());
+    }
+
+    @Test
+    void dump_NoRecording_NotFound() throws IOException {
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.dump("dump").getStatus());
+    }
+
+    @Test
+    void dump_RecordingStarted_FileDeletedOnceRead() throws IOException {
+        endpoint.control("start");
+
+        WebEndpointResponse<Resource> response = endpoint.dump("dump");
+
+        assertEquals(WebEndpointResponse.STATUS_OK, response.getStatus());
+        Resource resource = response.getBody();
+        assertTrue(resource.contentLength() > 0);
+        try (InputStream in = resource.getInputStream()) {
+            assertTrue(in.readAllBytes().length > 0);
+        }
+        assertFalse(Files.exists(resource.getFile().toPath()));
+    }
+}
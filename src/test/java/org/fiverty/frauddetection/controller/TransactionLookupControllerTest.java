@@ -0,0 +1,65 @@
+package org.fiverty.frauddetection.controller;
+
+import org.fiverty.frauddetection.config.LookupProperties;
+import org.fiverty.frauddetection.repository.TransactionLookupRepository;
+import org.fiverty.frauddetection.service.TransactionLookupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TransactionLookupController.class)
+@Import({TransactionLookupService.class, TransactionLookupControllerTest.LookupConfig.class})
+class TransactionLookupControllerTest {
+
+    @TestConfiguration
+    @EnableConfigurationProperties(LookupProperties.class)
+    static class LookupConfig {
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TransactionLookupRepository transactionLookupRepository;
+
+    @Test
+    void getCustomerTransactions_MalformedCursor_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/customers/John Doe/transactions").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid pagination cursor"));
+
+        verify(transactionLookupRepository, never()).findByCustomer(anyString(), any(), anyInt());
+    }
+
+    @Test
+    void getTransactions_MalformedCursor_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/transactions")
+                        .param("from", "2026-03-01T00:00:00Z")
+                        .param("to", "2026-03-14T00:00:00Z")
+                        .param("cursor", "bm90LWEtY3Vyc29y"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid pagination cursor"));
+    }
+
+    @Test
+    void getCustomerTransactions_NoCursor_FirstPage() throws Exception {
+        mockMvc.perform(get("/api/v1/customers/John Doe/transactions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions").isEmpty());
+    }
+}
@@ -0,0 +1,76 @@
+package org.fiverty.frauddetection.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCursorTest {
+
+    private static final UUID TRANSACTION_ID = UUID.fromString("0f8fad5b-d9cb-469f-a165-70867728950e");
+
+    @Test
+    void decode_EncodedCursor_RoundTrips() {
+        TransactionCursor cursor = new TransactionCursor(Instant.parse("2026-03-14T10:15:30.123456Z"), TRANSACTION_ID);
+
+        assertEquals(cursor, TransactionCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void decode_BeforeEpoch_RoundTrips() {
+        TransactionCursor cursor = new TransactionCursor(Instant.parse("1969-12-31T23:59:59.999999Z"), TRANSACTION_ID);
+
+        assertEquals(cursor, TransactionCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void encode_Nanoseconds_TruncatedToMicroseconds() {
+        TransactionCursor cursor = new TransactionCursor(Instant.parse("2026-03-14T10:15:30.123456789Z"), TRANSACTION_ID);
+
+        assertEquals(Instant.parse("2026-03-14T10:15:30.123456Z"), TransactionCursor.decode(cursor.encode()).validFrom());
+    }
+
+    @Test
+    void encode_AnyCursor_UrlSafeWithoutPadding() {
+        String token = new TransactionCursor(Instant.parse("2026-03-14T10:15:30.123456Z"), TRANSACTION_ID).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void decode_NotBase64_Throws() {
+        assertInvalid("not a cursor!");
+    }
+
+    @Test
+    void decode_BlankOrNull_Throws() {
+        assertInvalid("");
+        assertInvalid("   ");
+        assertInvalid(null);
+    }
+
+    @Test
+    void decode_MissingSeparator_Throws() {
+        assertInvalid(encodeRaw("1773483330123456"));
+        assertInvalid(encodeRaw("_" + TRANSACTION_ID));
+    }
+
+    @Test
+    void decode_MalformedParts_Throws() {
+        assertInvalid(encodeRaw("yesterday_" + TRANSACTION_ID));
+        assertInvalid(encodeRaw("1773483330123456_not-a-uuid"));
+    }
+
+    private static void assertInvalid(String token) {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode(token));
+        assertEquals("Invalid pagination cursor", ex.getMessage());
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,56 @@
+package org.fiverty.frauddetection.repository;
+
+import org.fiverty.frauddetection.model.DictionaryDimension;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class DictionaryRepositoryTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final DictionaryRepository dictionaryRepository = new DictionaryRepository(jdbcTemplate);
+
+    @Test
+    void insertIfAbsent_NewValue_ReturnsInsertedId() {
+        when(jdbcTemplate.queryForList(startsWith("INSERT INTO dim_merchant"), eq(Integer.class), eq("Coffee Shop")))
+                .thenReturn(List.of(7));
+
+        assertEquals(7, dictionaryRepository.insertIfAbsent(DictionaryDimension.MERCHANT, "Coffee Shop"));
+
+        verify(jdbcTemplate, never()).queryForList(startsWith("SELECT"), eq(Integer.class), any());
+    }
+
+    @Test
+    void insertIfAbsent_LosesConflictRace_ReturnsWinningId() {
+        // ON CONFLICT DO NOTHING returns no row when another transaction inserted the value first
+        when(jdbcTemplate.queryForList(startsWith("INSERT INTO dim_merchant"), eq(Integer.class), eq("Coffee Shop")))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForList(startsWith("SELECT merchant_id FROM dim_merchant"), eq(Integer.class),
+                eq("Coffee Shop"))).thenReturn(List.of(9));
+
+        assertEquals(9, dictionaryRepository.insertIfAbsent(DictionaryDimension.MERCHANT, "Coffee Shop"));
+    }
+
+    @Test
+    void insertIfAbsent_ConflictingRowVanished_Throws() {
+        when(jdbcTemplate.queryForList(startsWith("INSERT INTO dim_city"), eq(Integer.class), eq("Springfield")))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForList(startsWith("SELECT city_id FROM dim_city"), eq(Integer.class), eq("Springfield")))
+                .thenReturn(List.of());
+
+        assertThrows(IllegalStateException.class,
+                () -> dictionaryRepository.insertIfAbsent(DictionaryDimension.CITY, "Springfield"));
+    }
+
+    @Test
+    void findValues_NoIds_NoQuery() {
+        assertTrue(dictionaryRepository.findValues(DictionaryDimension.CITY, List.of()).isEmpty());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
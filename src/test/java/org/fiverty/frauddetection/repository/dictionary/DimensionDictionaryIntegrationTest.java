@@ -0,0 +1,103 @@
+package org.fiverty.frauddetection.repository.dictionary;
+
+import org.fiverty.frauddetection.config.DictionaryProperties;
+import org.fiverty.frauddetection.model.DictionaryDimension;
+import org.fiverty.frauddetection.model.Transaction;
+import org.fiverty.frauddetection.repository.DictionaryRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Interns transactions concurrently against a real Postgres with the Flyway migrations applied, where
+ * uncommitted dictionary rows are locked until their transaction ends. Skipped when Docker is not
+ * available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class DimensionDictionaryIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void migrate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void intern_NewNamesInOppositeRolesConcurrently_BothCommitWithSameIds() throws Exception {
+        // Each scoring pauses after its first insert until the other has made its own, the interleaving
+        // that deadlocks when the two insert the same new names in opposite orders
+        CountDownLatch firstInserts = new CountDownLatch(2);
+        ThreadLocal<Boolean> inserted = ThreadLocal.withInitial(() -> false);
+        DictionaryRepository dictionaryRepository = new DictionaryRepository(jdbcTemplate) {
+            @Override
+            public int insertIfAbsent(DictionaryDimension dimension, String value) {
+                int id = super.insertIfAbsent(dimension, value);
+                if (!inserted.get()) {
+                    inserted.set(true);
+                    firstInserts.countDown();
+                    try {
+                        // Times out when the other scoring is already waiting on this one's row
+                        firstInserts.await(2, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return id;
+            }
+        };
+        DimensionDictionary dimensionDictionary = new DimensionDictionary(dictionaryRepository, new DictionaryProperties());
+        Transaction first = createTransaction("Olivia Opposite", "Rafael Reverse");
+        Transaction second = createTransaction("Rafael Reverse", "Olivia Opposite");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> firstScoring = executor.submit(() ->
+                    transactionTemplate.executeWithoutResult(status -> dimensionDictionary.intern(first)));
+            Future<?> secondScoring = executor.submit(() ->
+                    transactionTemplate.executeWithoutResult(status -> dimensionDictionary.intern(second)));
+            firstScoring.get(30, TimeUnit.SECONDS);
+            secondScoring.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(first.getCustomerNameId(), second.getNameOnCardId());
+        assertEquals(first.getNameOnCardId(), second.getCustomerNameId());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM dim_person_name WHERE person_name = 'Olivia Opposite'", Integer.class));
+    }
+
+    private static Transaction createTransaction(String customerName, String nameOnCard) {
+        Transaction transaction = new Transaction();
+        transaction.setCustomerName(customerName);
+        transaction.setNameOnCard(nameOnCard);
+        transaction.setCustomerCity("Springfield");
+        transaction.setMerchantName("Coffee Shop");
+        transaction.setMerchantCity("Springfield");
+        return transaction;
+    }
+}
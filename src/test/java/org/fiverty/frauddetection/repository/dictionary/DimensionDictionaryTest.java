@@ -0,0 +1,211 @@
+package org.fiverty.frauddetection.repository.dictionary;
+
+import org.fiverty.frauddetection.config.DictionaryProperties;
+import org.fiverty.frauddetection.model.DictionaryDimension;
+import org.fiverty.frauddetection.model.Transaction;
+import org.fiverty.frauddetection.repository.DictionaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class DimensionDictionaryTest {
+
+    private final DictionaryRepository dictionaryRepository = mock(DictionaryRepository.class);
+    private final DimensionDictionary dimensionDictionary = new DimensionDictionary(dictionaryRepository, maxEntries(100));
+
+    private static DictionaryProperties maxEntries(int maxEntriesPerDimension) {
+        DictionaryProperties dictionaryProperties = new DictionaryProperties();
+        dictionaryProperties.setMaxEntriesPerDimension(maxEntriesPerDimension);
+        return dictionaryProperties;
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void idOf_InsideTransaction_CachedOnlyAfterCommit() {
+        when(dictionaryRepository.insertIfAbsent(DictionaryDimension.MERCHANT, "Coffee Shop")).thenReturn(7);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertEquals(7, dimensionDictionary.idOf(DictionaryDimension.MERCHANT, "Coffee Shop"));
+        assertEquals(7, dimensionDictionary.idOf(DictionaryDimension.MERCHANT, "Coffee Shop"));
+        verify(dictionaryRepository, times(2)).insertIfAbsent(DictionaryDimension.MERCHANT, "Coffee Shop");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(7, dimensionDictionary.idOf(DictionaryDimension.MERCHANT, "Coffee Shop"));
+        verify(dictionaryRepository, times(2)).insertIfAbsent(DictionaryDimension.MERCHANT, "Coffee Shop");
+    }
+
+    @Test
+    void idOf_TransactionRolledBack_NotCached() {
+        when(dictionaryRepository.insertIfAbsent(DictionaryDimension.MERCHANT, "Coffee Shop")).thenReturn(7, 8);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertEquals(7, dimensionDictionary.idOf(DictionaryDimension.MERCHANT, "Coffee Shop"));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // The rolled-back ID 7 was never cached, so the value is inserted again
+        assertEquals(8, dimensionDictionary.idOf(DictionaryDimension.MERCHANT, "Coffee Shop"));
+        assertEquals(Map.of(8, "Coffee Shop"), dimensionDictionary.valuesOf(DictionaryDimension.MERCHANT, List.of(8)));
+        verify(dictionaryRepository, never()).findValues(any(), anyCollection());
+    }
+
+    @Test
+    void idOf_NoTransaction_CachedImmediately() {
+        when(dictionaryRepository.insertIfAbsent(DictionaryDimension.CITY, "Springfield")).thenReturn(3);
+
+        dimensionDictionary.idOf(DictionaryDimension.CITY, "Springfield");
+        dimensionDictionary.idOf(DictionaryDimension.CITY, "Springfield");
+
+        verify(dictionaryRepository, times(1)).insertIfAbsent(DictionaryDimension.CITY, "Springfield");
+        // Dimensions are cached separately
+        dimensionDictionary.idOf(DictionaryDimension.MERCHANT, "Springfield");
+        verify(dictionaryRepository).insertIfAbsent(DictionaryDimension.MERCHANT, "Springfield");
+    }
+
+    @Test
+    void idOf_NullValue_ReturnsNull() {
+        assertNull(dimensionDictionary.idOf(DictionaryDimension.CITY, null));
+
+        verifyNoInteractions(dictionaryRepository);
+    }
+
+    @Test
+    void idOf_MaxEntriesReached_FurtherValuesResolvedInDatabase() {
+        DimensionDictionary bounded = new DimensionDictionary(dictionaryRepository, maxEntries(2));
+        for (int i = 1; i <= 3; i++) {
+            when(dictionaryRepository.insertIfAbsent(DictionaryDimension.MERCHANT, "Merchant " + i)).thenReturn(i);
+            bounded.idOf(DictionaryDimension.MERCHANT, "Merchant " + i);
+        }
+
+        assertEquals(1, bounded.idOf(DictionaryDimension.MERCHANT, "Merchant 1"));
+        assertEquals(3, bounded.idOf(DictionaryDimension.MERCHANT, "Merchant 3"));
+
+        verify(dictionaryRepository, times(1)).insertIfAbsent(DictionaryDimension.MERCHANT, "Merchant 1");
+        verify(dictionaryRepository, times(2)).insertIfAbsent(DictionaryDimension.MERCHANT, "Merchant 3");
+        assertEquals(Map.of(1, "Merchant 1", 2, "Merchant 2"),
+                bounded.valuesOf(DictionaryDimension.MERCHANT, List.of(1, 2)));
+    }
+
+    @Test
+    void findId_UnknownValue_NotInsertedOrCached() {
+        when(dictionaryRepository.findId(DictionaryDimension.CITY, "Nowhere")).thenReturn(null);
+        when(dictionaryRepository.findId(DictionaryDimension.CITY, "Springfield")).thenReturn(3);
+
+        assertNull(dimensionDictionary.findId(DictionaryDimension.CITY, "Nowhere"));
+        assertEquals(3, dimensionDictionary.findId(DictionaryDimension.CITY, "Springfield"));
+        assertEquals(3, dimensionDictionary.findId(DictionaryDimension.CITY, "Springfield"));
+
+        verify(dictionaryRepository, times(1)).findId(DictionaryDimension.CITY, "Springfield");
+        verify(dictionaryRepository, never()).insertIfAbsent(any(), anyString());
+    }
+
+    @Test
+    void valuesOf_SomeCached_MissesLoadedInOneQuery() {
+        when(dictionaryRepository.insertIfAbsent(DictionaryDimension.CITY, "Springfield")).thenReturn(1);
+        when(dictionaryRepository.insertIfAbsent(DictionaryDimension.CITY, "St. Louis")).thenReturn(2);
+        dimensionDictionary.idOf(DictionaryDimension.CITY, "Springfield");
+        dimensionDictionary.idOf(DictionaryDimension.CITY, "St. Louis");
+        when(dictionaryRepository.findValues(DictionaryDimension.CITY, Set.of(3, 4, 5)))
+                .thenReturn(Map.of(3, "Chicago", 4, "Peoria"));
+
+        Map<Integer, String> values = dimensionDictionary.valuesOf(DictionaryDimension.CITY, List.of(1, 2, 3, 4, 5));
+
+        assertEquals(Map.of(1, "Springfield", 2, "St. Louis", 3, "Chicago", 4, "Peoria"), values);
+        verify(dictionaryRepository, times(1)).findValues(eq(DictionaryDimension.CITY), anyCollection());
+
+        // Loaded values are cached; the unknown ID is looked up again
+        when(dictionaryRepository.findValues(DictionaryDimension.CITY, Set.of(5))).thenReturn(Map.of());
+        assertEquals(Map.of(3, "Chicago"), dimensionDictionary.valuesOf(DictionaryDimension.CITY, List.of(3, 5)));
+        verify(dictionaryRepository).findValues(DictionaryDimension.CITY, Set.of(5));
+    }
+
+    @Test
+    void valuesOf_AllCached_NoQuery() {
+        when(dictionaryRepository.insertIfAbsent(DictionaryDimension.CITY, "Springfield")).thenReturn(1);
+        dimensionDictionary.idOf(DictionaryDimension.CITY, "Springfield");
+
+        assertEquals(Map.of(1, "Springfield"), dimensionDictionary.valuesOf(DictionaryDimension.CITY, List.of(1)));
+
+        verify(dictionaryRepository, never()).findValues(any(), anyCollection());
+    }
+
+    @Test
+    void intern_RepeatedValues_ShareCachedInstance() {
+        when(dictionaryRepository.insertIfAbsent(DictionaryDimension.PERSON_NAME, "John Doe")).thenReturn(1);
+        when(dictionaryRepository.insertIfAbsent(DictionaryDimension.CITY, "Springfield")).thenReturn(2);
+        when(dictionaryRepository.insertIfAbsent(DictionaryDimension.MERCHANT, "Coffee Shop")).thenReturn(3);
+        Transaction first = createTransaction();
+        Transaction second = createTransaction();
+
+        dimensionDictionary.intern(first);
+        dimensionDictionary.intern(second);
+
+        assertEquals(1, second.getCustomerNameId());
+        assertEquals(1, second.getNameOnCardId());
+        assertEquals(2, second.getCustomerCityId());
+        assertEquals(2, second.getMerchantCityId());
+        assertEquals(3, second.getMerchantNameId());
+        assertSame(first.getMerchantName(), second.getMerchantName());
+        assertSame(first.getCustomerCity(), second.getMerchantCity());
+        verify(dictionaryRepository, times(1)).insertIfAbsent(DictionaryDimension.PERSON_NAME, "John Doe");
+    }
+
+    @Test
+    void intern_NewValuesInOppositeRoles_InsertedInSameOrder() {
+        when(dictionaryRepository.insertIfAbsent(any(), anyString())).thenReturn(1);
+        Transaction first = createTransaction();
+        first.setCustomerName("Mary Major");
+        first.setMerchantCity("Chicago");
+        Transaction second = createTransaction();
+        second.setNameOnCard("Mary Major");
+        second.setCustomerCity("Chicago");
+        // Neither has committed, so nothing is cached and every value is inserted
+        TransactionSynchronizationManager.initSynchronization();
+
+        dimensionDictionary.intern(first);
+        InOrder firstOrder = inOrder(dictionaryRepository);
+        verifyInsertOrder(firstOrder);
+        clearInvocations(dictionaryRepository);
+        dimensionDictionary.intern(second);
+        InOrder secondOrder = inOrder(dictionaryRepository);
+        verifyInsertOrder(secondOrder);
+    }
+
+    private void verifyInsertOrder(InOrder inOrder) {
+        inOrder.verify(dictionaryRepository).insertIfAbsent(DictionaryDimension.MERCHANT, "Coffee Shop");
+        inOrder.verify(dictionaryRepository).insertIfAbsent(DictionaryDimension.CITY, "Chicago");
+        inOrder.verify(dictionaryRepository).insertIfAbsent(DictionaryDimension.CITY, "Springfield");
+        inOrder.verify(dictionaryRepository).insertIfAbsent(DictionaryDimension.PERSON_NAME, "John Doe");
+        inOrder.verify(dictionaryRepository).insertIfAbsent(DictionaryDimension.PERSON_NAME, "Mary Major");
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    private static Transaction createTransaction() {
+        Transaction transaction = new Transaction();
+        transaction.setCustomerName(new String("John Doe"));
+        transaction.setNameOnCard(new String("John Doe"));
+        transaction.setCustomerCity(new String("Springfield"));
+        transaction.setMerchantName(new String("Coffee Shop"));
+        transaction.setMerchantCity(new String("Springfield"));
+        return transaction;
+    }
+}
@@ -1,14 +1,33 @@
 package org.fiverty.frauddetection.service;
 
+import org.fiverty.frauddetection.config.AmountSketchProperties;
+import org.fiverty.frauddetection.config.FraudRuleProperties;
+import org.fiverty.frauddetection.config.LinkageProperties;
+import org.fiverty.frauddetection.config.MerchantIndexProperties;
 import org.fiverty.frauddetection.model.FraudSignal;
 import org.fiverty.frauddetection.model.Transaction;
 import org.fiverty.frauddetection.model.dto.TransactionRequestDto;
 import org.fiverty.frauddetection.model.dto.TransactionResponseDto;
+import org.fiverty.frauddetection.repository.FraudSignalRepository;
 import org.fiverty.frauddetection.repository.TransactionRepository;
+import org.fiverty.frauddetection.repository.dictionary.DimensionDictionary;
+import org.fiverty.frauddetection.service.amount.AmountDistributionIndex;
+import org.fiverty.frauddetection.service.analytics.FraudRollupAccumulator;
+import org.fiverty.frauddetection.service.linkage.IdentifierLinkageIndex;
+import org.fiverty.frauddetection.service.matching.NameMatcher;
+import org.fiverty.frauddetection.service.merchant.MerchantReputationIndex;
+import org.fiverty.frauddetection.service.screening.CompromisedListScreener;
+import org.fiverty.frauddetection.service.shadow.ShadowEvaluationService;
+import org.fiverty.frauddetection.service.validation.TransactionRequestValidator;
+import org.fiverty.frauddetection.service.validation.TransactionValidationException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -21,6 +40,40 @@ class FraudDetectionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private FraudSignalRepository fraudSignalRepository;
+
+    @Mock
+    private FraudRollupAccumulator fraudRollupAccumulator;
+
+    @Mock
+    private DimensionDictionary dimensionDictionary;
+
+    @Mock
+    private ShadowEvaluationService shadowEvaluationService;
+
+    @Mock
+    private CompromisedListScreener compromisedListScreener;
+
+    @Spy
+    private FraudRuleEvaluator fraudRuleEvaluator = new FraudRuleEvaluator(new NameMatcher());
+
+    @Spy
+    private MerchantReputationIndex merchantReputationIndex =
+            new MerchantReputationIndex(new MerchantIndexProperties());
+
+    @Spy
+    private IdentifierLinkageIndex identifierLinkageIndex = new IdentifierLinkageIndex(new LinkageProperties());
+
+    @Spy
+    private AmountDistributionIndex amountDistributionIndex = new AmountDistributionIndex(new AmountSketchProperties());
+
+    @Spy
+    private FraudRuleProperties fraudRuleProperties = new FraudRuleProperties();
+
+    @Spy
+    private TransactionRequestValidator transactionRequestValidator = new TransactionRequestValidator();
+
     @InjectMocks
     private FraudDetectionService fraudDetectionService;
 
@@ -28,6 +81,13 @@ class FraudDetectionServiceTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void scoreTransaction_ValidTransaction_NoFraudSignals() {
         TransactionRequestDto transaction = createValidTransactionRequestDto();
@@ -39,12 +99,93 @@ class FraudDetectionServiceTest {
 
         assertNotNull(response);
         assertNotNull(response.getFraudSignals());
-        assertEquals(4, response.getFraudSignals().size());
+        assertEquals(8, response.getFraudSignals().size());
         assertFalse(response.getFraudSignals().stream().allMatch(FraudSignal::getPotentialFraud));
 
+        verify(dimensionDictionary, times(1)).intern(any(Transaction.class));
         verify(transactionRepository, times(1)).saveAndFlush(any(Transaction.class));
+        verify(fraudSignalRepository, times(1)).saveAll(response.getFraudSignals());
+        verify(fraudRollupAccumulator, times(1)).record(any(Transaction.class), eq(response.getFraudSignals()), eq(false));
+        verify(shadowEvaluationService, times(1)).submit(any(Transaction.class), any(), eq(response.getFraudSignals()), eq(false));
+    }
+
+
+    @Test
+    void scoreTransaction_InsideTransaction_LinkedOnlyAfterCommit() {
+        TransactionRequestDto transaction = createValidTransactionRequestDto();
+        Transaction mappedTransaction = fraudDetectionService.mapTransactionRequestToTransaction(transaction);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(mappedTransaction);
+        TransactionSynchronizationManager.initSynchronization();
+
+        fraudDetectionService.scoreTransaction(transaction);
+
+        verify(identifierLinkageIndex).find(mappedTransaction);
+        verify(identifierLinkageIndex, never()).link(any());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(identifierLinkageIndex).link(mappedTransaction);
     }
 
+    @Test
+    void scoreTransaction_InsideTransaction_MerchantReputationRecordedOnlyAfterCommit() {
+        TransactionRequestDto transaction = createValidTransactionRequestDto();
+        transaction.setIpAddress("10.0.0.1");
+        Transaction mappedTransaction = fraudDetectionService.mapTransactionRequestToTransaction(transaction);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(mappedTransaction);
+        TransactionSynchronizationManager.initSynchronization();
+
+        fraudDetectionService.scoreTransaction(transaction);
+
+        verify(merchantReputationIndex, never()).record(any(), anyBoolean());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(merchantReputationIndex).record(mappedTransaction, true);
+    }
+
+    @Test
+    void scoreTransaction_InsideTransaction_AmountRecordedOnlyAfterCommit() {
+        TransactionRequestDto transaction = createValidTransactionRequestDto();
+        Transaction mappedTransaction = fraudDetectionService.mapTransactionRequestToTransaction(transaction);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(mappedTransaction);
+        TransactionSynchronizationManager.initSynchronization();
+
+        fraudDetectionService.scoreTransaction(transaction);
+
+        verify(amountDistributionIndex, never()).record(any());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(amountDistributionIndex).record(mappedTransaction);
+    }
+
+    @Test
+    void scoreTransaction_InsideTransaction_ShadowSubmittedOnlyAfterCommit() {
+        TransactionRequestDto transaction = createValidTransactionRequestDto();
+        transaction.setIpAddress("10.0.0.1");
+        Transaction mappedTransaction = fraudDetectionService.mapTransactionRequestToTransaction(transaction);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(mappedTransaction);
+        TransactionSynchronizationManager.initSynchronization();
+
+        TransactionResponseDto response = fraudDetectionService.scoreTransaction(transaction);
+
+        verifyNoInteractions(shadowEvaluationService);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(shadowEvaluationService).submit(eq(mappedTransaction), any(), eq(response.getFraudSignals()), eq(true));
+    }
+
+    @Test
+    void scoreTransaction_TransactionRolledBack_AggregatesUnchanged() {
+        TransactionRequestDto transaction = createValidTransactionRequestDto();
+        Transaction mappedTransaction = fraudDetectionService.mapTransactionRequestToTransaction(transaction);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(mappedTransaction);
+        TransactionSynchronizationManager.initSynchronization();
+
+        fraudDetectionService.scoreTransaction(transaction);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(identifierLinkageIndex, never()).link(any());
+        verify(identifierLinkageIndex, never()).recordFlagged(any());
+        verify(merchantReputationIndex, never()).record(any(), anyBoolean());
+        verify(amountDistributionIndex, never()).record(any());
+        verifyNoInteractions(shadowEvaluationService);
+    }
 
     @Test
     void scoreTransaction_InvalidTransaction_ThrowsException() {
@@ -56,6 +197,19 @@ class FraudDetectionServiceTest {
         assertEquals("Transaction cannot be null or empty", exception.getMessage());
     }
 
+    @Test
+    void scoreTransaction_MissingDetails_RejectedBeforeAnyDatabaseWork() {
+        TransactionRequestDto transaction = createValidTransactionRequestDto();
+        transaction.setLocation(null);
+        transaction.getPaymentDetails().setCardLast4("12a4");
+
+        TransactionValidationException exception = assertThrows(TransactionValidationException.class,
+                () -> fraudDetectionService.scoreTransaction(transaction));
+
+        assertEquals(3, exception.getErrors().size());
+        verifyNoInteractions(dimensionDictionary, transactionRepository, fraudSignalRepository, fraudRollupAccumulator);
+    }
+
     @Test
     void scoreTransaction_FraudulentIpAddress_FraudSignalRaised() {
         TransactionRequestDto transaction = createValidTransactionRequestDto();
@@ -68,7 +222,7 @@ class FraudDetectionServiceTest {
 
         assertNotNull(response);
         assertNotNull(response.getFraudSignals());
-        assertEquals(4, response.getFraudSignals().size());
+        assertEquals(8, response.getFraudSignals().size());
         assertTrue(response.getFraudSignals().stream().anyMatch(FraudSignal::getPotentialFraud));
 
         verify(transactionRepository, times(1)).saveAndFlush(any(Transaction.class));
@@ -129,11 +283,134 @@ class FraudDetectionServiceTest {
 
         assertNotNull(response);
         assertNotNull(response.getFraudSignals());
-        assertEquals(4, response.getFraudSignals().size());
+        assertEquals(8, response.getFraudSignals().size());
         assertTrue(response.getFraudSignals().stream().anyMatch(FraudSignal::getPotentialFraud));
 
     }
 
+    @Test
+    void scoreTransaction_NameVariantOnCard_NoCardDetailsFraudSignal() {
+        TransactionRequestDto transaction = createValidTransactionRequestDto();
+        transaction.setCustomerName("Jon Smith");
+        transaction.setPaymentDetails(new TransactionRequestDto.PaymentDetailsDto("1234", "SMITH, JOHN", new BigDecimal("100.00")));
+        Transaction mappedTransaction = fraudDetectionService.mapTransactionRequestToTransaction(transaction);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(mappedTransaction);
+
+        TransactionResponseDto response = fraudDetectionService.scoreTransaction(transaction);
+
+        FraudSignal cardDetails = response.getFraudSignals().stream()
+                .filter(signal -> signal.getSignalType() == FraudSignal.SignalType.CARD_DETAILS)
+                .findFirst()
+                .orElseThrow();
+        assertFalse(cardDetails.getPotentialFraud());
+        assertTrue(cardDetails.getScore() >= fraudRuleProperties.getCardDetails().getNameMatchThreshold());
+    }
+
+    @Test
+    void scoreTransaction_MerchantWithHighFraudRate_MerchantRiskSignalRaised() {
+        TransactionRequestDto flaggedTransaction = createValidTransactionRequestDto();
+        flaggedTransaction.setIpAddress("10.0.0.1");
+        Transaction mappedFlaggedTransaction = fraudDetectionService.mapTransactionRequestToTransaction(flaggedTransaction);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(mappedFlaggedTransaction);
+        // A little more than the minimum volume, since the counts start decaying immediately
+        for (int i = 0; i < fraudRuleProperties.getMerchant().getMinVolume() + 10; i++) {
+            fraudDetectionService.scoreTransaction(flaggedTransaction);
+        }
+
+        TransactionRequestDto transaction = createValidTransactionRequestDto();
+        Transaction mappedTransaction = fraudDetectionService.mapTransactionRequestToTransaction(transaction);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(mappedTransaction);
+
+        TransactionResponseDto response = fraudDetectionService.scoreTransaction(transaction);
+
+        FraudSignal merchantRisk = response.getFraudSignals().stream()
+                .filter(signal -> signal.getSignalType() == FraudSignal.SignalType.MERCHANT_RISK)
+                .findFirst()
+                .orElseThrow();
+        assertTrue(merchantRisk.getPotentialFraud());
+        assertTrue(merchantRisk.getDetails().contains("Merchant has a high rate of potentially fraudulent transactions"));
+    }
+
+    @Test
+    void scoreTransaction_NationalMerchantWithCrossStatePurchases_NoMerchantRiskSignal() {
+        TransactionRequestDto crossStateTransaction = createValidTransactionRequestDto();
+        crossStateTransaction.setLocation(new TransactionRequestDto.LocationDto("Denver", "CO"));
+        Transaction mappedCrossStateTransaction = fraudDetectionService.mapTransactionRequestToTransaction(crossStateTransaction);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(mappedCrossStateTransaction);
+        for (int i = 0; i < fraudRuleProperties.getMerchant().getMinVolume() + 10; i++) {
+            TransactionResponseDto response = fraudDetectionService.scoreTransaction(crossStateTransaction);
+            assertTrue(response.getFraudSignals().stream()
+                    .anyMatch(signal -> signal.getSignalType() == FraudSignal.SignalType.LOCATION && signal.getPotentialFraud()));
+        }
+
+        TransactionRequestDto transaction = createValidTransactionRequestDto();
+        Transaction mappedTransaction = fraudDetectionService.mapTransactionRequestToTransaction(transaction);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(mappedTransaction);
+
+        TransactionResponseDto response = fraudDetectionService.scoreTransaction(transaction);
+
+        FraudSignal merchantRisk = response.getFraudSignals().stream()
+                .filter(signal -> signal.getSignalType() == FraudSignal.SignalType.MERCHANT_RISK)
+                .findFirst()
+                .orElseThrow();
+        assertFalse(merchantRisk.getPotentialFraud());
+    }
+
+    @Test
+    void scoreTransaction_UnrelatedCustomersAtSharedMerchants_NoFraudRingSignal() {
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        int customers = 10 * fraudRuleProperties.getFraudRing().getMaxClusterCustomers();
+
+        // Each merchant sees a few customers per round, well under the hub cap, and the groups shift by
+        // one customer from round to round, so merchant links alone would chain everyone together
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < customers; i++) {
+                TransactionRequestDto transaction = createValidTransactionRequestDto();
+                transaction.setCustomerName("Customer " + i);
+                transaction.setIpAddress("11.168." + (i / 200) + "." + (i % 200 + 1));
+                // Every other customer shops across the state line, which flags LOCATION
+                transaction.setLocation(new TransactionRequestDto.LocationDto("Springfield", i % 2 == 0 ? "IL" : "MO"));
+                transaction.setPaymentDetails(new TransactionRequestDto.PaymentDetailsDto(
+                        String.format("%04d", i), "Customer " + i, new BigDecimal("25.00")));
+                transaction.getTransactionDetails().setMerchantName("Merchant " + (i + round) / 3);
+
+                TransactionResponseDto response = fraudDetectionService.scoreTransaction(transaction);
+
+                FraudSignal fraudRing = response.getFraudSignals().stream()
+                        .filter(signal -> signal.getSignalType() == FraudSignal.SignalType.FRAUD_RING)
+                        .findFirst()
+                        .orElseThrow();
+                assertFalse(fraudRing.getPotentialFraud(), "Customer " + i + " flagged as a fraud ring");
+            }
+        }
+    }
+
+    @Test
+    void scoreTransaction_AmountFarAboveMerchantHistory_AmountOutlierSignalRaised() {
+        TransactionRequestDto usualTransaction = createValidTransactionRequestDto();
+        usualTransaction.setCustomerName("Mary Major");
+        usualTransaction.setPaymentDetails(new TransactionRequestDto.PaymentDetailsDto("5678", "Mary Major", new BigDecimal("4.50")));
+        Transaction mappedUsualTransaction = fraudDetectionService.mapTransactionRequestToTransaction(usualTransaction);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(mappedUsualTransaction);
+        for (int i = 0; i < fraudRuleProperties.getAmountOutlier().getMerchantMinSamples(); i++) {
+            fraudDetectionService.scoreTransaction(usualTransaction);
+        }
+
+        TransactionRequestDto transaction = createValidTransactionRequestDto();
+        transaction.setPaymentDetails(new TransactionRequestDto.PaymentDetailsDto("1234", "John Doe", new BigDecimal("9000.00")));
+        Transaction mappedTransaction = fraudDetectionService.mapTransactionRequestToTransaction(transaction);
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(mappedTransaction);
+
+        TransactionResponseDto response = fraudDetectionService.scoreTransaction(transaction);
+
+        FraudSignal amountOutlier = response.getFraudSignals().stream()
+                .filter(signal -> signal.getSignalType() == FraudSignal.SignalType.AMOUNT_OUTLIER)
+                .findFirst()
+                .orElseThrow();
+        assertTrue(amountOutlier.getPotentialFraud());
+        assertEquals(1.0, amountOutlier.getScore());
+    }
+
     @Test
     void scoreTransaction_InvalidState_FraudSignalRaised() {
         TransactionRequestDto transaction = createValidTransactionRequestDto();
@@ -145,7 +422,7 @@ class FraudDetectionServiceTest {
 
         assertNotNull(response);
         assertNotNull(response.getFraudSignals());
-        assertEquals(4, response.getFraudSignals().size());
+        assertEquals(8, response.getFraudSignals().size());
         assertTrue(response.getFraudSignals().stream().anyMatch(FraudSignal::getPotentialFraud));
 
         verify(transactionRepository, times(1)).saveAndFlush(any(Transaction.class));
@@ -164,7 +441,7 @@ class FraudDetectionServiceTest {
 
         assertNotNull(response);
         assertNotNull(response.getFraudSignals());
-        assertEquals(4, response.getFraudSignals().size());
+        assertEquals(8, response.getFraudSignals().size());
         assertTrue(response.getFraudSignals().stream().anyMatch(FraudSignal::getPotentialFraud));
 
         verify(transactionRepository, times(1)).saveAndFlush(any(Transaction.class));
@@ -0,0 +1,139 @@
+package org.fiverty.frauddetection.service;
+
+import org.fiverty.frauddetection.config.LookupProperties;
+import org.fiverty.frauddetection.model.FraudSignal;
+import org.fiverty.frauddetection.model.TransactionCursor;
+import org.fiverty.frauddetection.model.dto.TransactionLookupDto;
+import org.fiverty.frauddetection.model.dto.TransactionPageDto;
+import org.fiverty.frauddetection.repository.TransactionLookupRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class TransactionLookupServiceTest {
+
+    private static final Instant FROM = Instant.parse("2026-03-01T00:00:00Z");
+    private static final Instant TO = Instant.parse("2026-03-14T00:00:00Z");
+
+    private final TransactionLookupRepository transactionLookupRepository = mock(TransactionLookupRepository.class);
+    private final LookupProperties lookupProperties = new LookupProperties();
+    private final TransactionLookupService transactionLookupService =
+            new TransactionLookupService(transactionLookupRepository, lookupProperties);
+
+    @Test
+    void findCustomerTransactions_NoLimit_DefaultPageSizePlusLookAhead() {
+        transactionLookupService.findCustomerTransactions("John Doe", null, null);
+
+        verify(transactionLookupRepository).findByCustomer("John Doe", null, lookupProperties.getDefaultPageSize() + 1);
+    }
+
+    @Test
+    void findCustomerTransactions_LimitOutOfBounds_Clamped() {
+        transactionLookupService.findCustomerTransactions("John Doe", null, 10_000);
+        transactionLookupService.findCustomerTransactions("John Doe", null, 0);
+        transactionLookupService.findCustomerTransactions("John Doe", null, -5);
+        transactionLookupService.findCustomerTransactions("John Doe", null, 25);
+
+        verify(transactionLookupRepository).findByCustomer("John Doe", null, lookupProperties.getMaxPageSize() + 1);
+        verify(transactionLookupRepository, times(2)).findByCustomer("John Doe", null, 2);
+        verify(transactionLookupRepository).findByCustomer("John Doe", null, 26);
+    }
+
+    @Test
+    void findCustomerTransactions_LookAheadRowReturned_TrimmedWithNextCursorFromLastKept() {
+        List<TransactionLookupDto> rows = createRows(4);
+        when(transactionLookupRepository.findByCustomer("John Doe", null, 4)).thenReturn(rows);
+
+        TransactionPageDto page = transactionLookupService.findCustomerTransactions("John Doe", null, 3);
+
+        assertEquals(rows.subList(0, 3), page.getTransactions());
+        TransactionLookupDto last = rows.get(2);
+        assertEquals(new TransactionCursor(last.getValidFrom(), last.getTransactionId()),
+                TransactionCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void findCustomerTransactions_LastPage_NoNextCursor() {
+        List<TransactionLookupDto> rows = createRows(3);
+        when(transactionLookupRepository.findByCustomer("John Doe", null, 4)).thenReturn(rows);
+
+        TransactionPageDto page = transactionLookupService.findCustomerTransactions("John Doe", null, 3);
+
+        assertEquals(rows, page.getTransactions());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void findCustomerTransactions_NextCursor_DecodedForRepository() {
+        TransactionCursor cursor = new TransactionCursor(Instant.parse("2026-03-10T12:00:00Z"), UUID.randomUUID());
+
+        transactionLookupService.findCustomerTransactions("John Doe", cursor.encode(), 3);
+
+        verify(transactionLookupRepository).findByCustomer("John Doe", cursor, 4);
+    }
+
+    @Test
+    void findCustomerTransactions_EmptyCursor_FirstPage() {
+        transactionLookupService.findCustomerTransactions("John Doe", "", 3);
+
+        verify(transactionLookupRepository).findByCustomer("John Doe", null, 4);
+    }
+
+    @Test
+    void findCustomerTransactions_MalformedCursor_Throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionLookupService.findCustomerTransactions("John Doe", "bogus", 3));
+
+        verifyNoInteractions(transactionLookupRepository);
+    }
+
+    @Test
+    void findCustomerTransactions_BlankCustomer_Throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionLookupService.findCustomerTransactions(" ", null, null));
+    }
+
+    @Test
+    void findTransactions_LookAheadRowReturned_NextCursorFromLastKept() {
+        List<TransactionLookupDto> rows = createRows(3);
+        when(transactionLookupRepository.findByTimeRange(FROM, TO, true, FraudSignal.SignalType.LOCATION, null, 3))
+                .thenReturn(rows);
+
+        TransactionPageDto page = transactionLookupService.findTransactions(FROM, TO, true,
+                FraudSignal.SignalType.LOCATION, null, 2);
+
+        assertEquals(2, page.getTransactions().size());
+        assertEquals(rows.get(1).getTransactionId(), TransactionCursor.decode(page.getNextCursor()).transactionId());
+    }
+
+    @Test
+    void findTransactions_InvalidTimeRange_Throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionLookupService.findTransactions(TO, FROM, null, null, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionLookupService.findTransactions(FROM, FROM, null, null, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionLookupService.findTransactions(null, TO, null, null, null, null));
+
+        verify(transactionLookupRepository, never()).findByTimeRange(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    private static List<TransactionLookupDto> createRows(int count) {
+        List<TransactionLookupDto> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(TransactionLookupDto.builder()
+                    .transactionId(UUID.randomUUID())
+                    .validFrom(TO.minusSeconds(60L * (i + 1)))
+                    .build());
+        }
+        return rows;
+    }
+}
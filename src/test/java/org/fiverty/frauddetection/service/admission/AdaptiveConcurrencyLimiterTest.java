@@ -0,0 +1,118 @@
+package org.fiverty.frauddetection.service.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fiverty.frauddetection.config.AdmissionProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AdmissionProperties admissionProperties = new AdmissionProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private long now;
+
+    private AdaptiveConcurrencyLimiter newLimiter(int initialLimit) {
+        admissionProperties.setInitialLimit(initialLimit);
+        return new AdaptiveConcurrencyLimiter(admissionProperties, meterRegistry, () -> now);
+    }
+
+    /**
+     * Fills the limit with requests that each take the given latency, then completes them.
+     */
+    private void runRound(AdaptiveConcurrencyLimiter limiter, long latencyMillis) {
+        List<AdmissionPermit> permits = new ArrayList<>();
+        for (int i = 0; i < limiter.getLimit(); i++) {
+            permits.add(limiter.acquire(MerchantTier.PRIORITY));
+        }
+        now += TimeUnit.MILLISECONDS.toNanos(latencyMillis);
+        for (AdmissionPermit permit : permits) {
+            permit.succeeded();
+            permit.close();
+        }
+    }
+
+    @Test
+    void acquire_AtLimit_RejectedWithRetryAfter() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(4);
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire(MerchantTier.PRIORITY);
+        }
+
+        AdmissionRejectedException ex = assertThrows(AdmissionRejectedException.class,
+                () -> limiter.acquire(MerchantTier.PRIORITY));
+        assertEquals(admissionProperties.getRetryAfter(), ex.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get("fraud.admission.rejected").tag("tier", "PRIORITY").counter().count());
+    }
+
+    @Test
+    void acquire_LowerTierOverShare_RejectedWhilePriorityAdmitted() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(10);
+        for (int i = 0; i < 6; i++) {
+            limiter.acquire(MerchantTier.STANDARD);
+        }
+
+        assertThrows(AdmissionRejectedException.class, () -> limiter.acquire(MerchantTier.BULK));
+        assertDoesNotThrow(() -> limiter.acquire(MerchantTier.PRIORITY));
+    }
+
+    @Test
+    void close_WithoutOutcome_ReleasesPermit() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(4);
+        try (AdmissionPermit permit = limiter.acquire(MerchantTier.STANDARD)) {
+            assertEquals(1, limiter.getInFlight());
+        }
+
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void close_SteadyLatency_LimitGrows() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(10);
+        for (int round = 0; round < 5; round++) {
+            runRound(limiter, 20);
+        }
+
+        assertTrue(limiter.getLimit() > 10);
+        assertEquals(limiter.getLimit(), meterRegistry.get("fraud.admission.limit").gauge().value());
+    }
+
+    @Test
+    void close_LatencyRisesUnderLoad_LimitShrinks() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(50);
+        for (int round = 0; round < 20; round++) {
+            runRound(limiter, 20);
+        }
+        int limitBeforeOverload = limiter.getLimit();
+
+        runRound(limiter, 200);
+
+        assertTrue(limiter.getLimit() < limitBeforeOverload / 2);
+    }
+
+    @Test
+    void close_Failed_LimitBacksOff() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(20);
+        AdmissionPermit permit = limiter.acquire(MerchantTier.STANDARD);
+        permit.failed();
+        permit.close();
+
+        assertEquals(18, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void acquire_Disabled_NeverRejects() {
+        admissionProperties.setEnabled(false);
+        AdaptiveConcurrencyLimiter limiter = newLimiter(4);
+
+        for (int i = 0; i < 100; i++) {
+            assertDoesNotThrow(() -> limiter.acquire(MerchantTier.BULK));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.fiverty.frauddetection.service.amount;
+
+import org.fiverty.frauddetection.config.AmountSketchProperties;
+import org.fiverty.frauddetection.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmountDistributionIndexTest {
+
+    private final AmountSketchProperties amountSketchProperties = new AmountSketchProperties();
+
+    @Test
+    void lookup_UnknownMerchantAndCustomer_NoSamples() {
+        AmountDistributionIndex index = new AmountDistributionIndex(amountSketchProperties);
+
+        AmountRanks ranks = index.lookup(createTransaction("John Doe", "Coffee Shop", "4.50"));
+
+        assertEquals(0, ranks.merchantSamples());
+        assertEquals(0, ranks.customerSamples());
+        assertTrue(Double.isNaN(ranks.merchantRank()));
+    }
+
+    @Test
+    void lookup_RecordedAmounts_RankedPerMerchantAndCustomer() {
+        AmountDistributionIndex index = new AmountDistributionIndex(amountSketchProperties);
+        for (int i = 0; i < 10; i++) {
+            index.record(createTransaction("Mary Major", "Coffee Shop", "4.50"));
+            index.record(createTransaction("John Doe", "Furniture Store", "9500.00"));
+        }
+
+        AmountRanks ranks = index.lookup(createTransaction("John Doe", "Coffee Shop", "9000.00"));
+
+        assertEquals(10, ranks.merchantSamples());
+        assertEquals(1.0, ranks.merchantRank());
+        assertEquals(10, ranks.customerSamples());
+        assertEquals(0.0, ranks.customerRank());
+    }
+
+    @Test
+    void record_MerchantLimitReached_NewMerchantNotTracked() {
+        amountSketchProperties.setMaxMerchants(1);
+        AmountDistributionIndex index = new AmountDistributionIndex(amountSketchProperties);
+        index.record(createTransaction("John Doe", "Coffee Shop", "4.50"));
+
+        index.record(createTransaction("John Doe", "Furniture Store", "9500.00"));
+
+        assertEquals(0, index.lookup(createTransaction("John Doe", "Furniture Store", "9500.00")).merchantSamples());
+    }
+
+    @Test
+    void readSnapshot_SnapshotFromAnotherInstance_MergedIntoExisting() throws IOException {
+        AmountDistributionIndex other = new AmountDistributionIndex(amountSketchProperties);
+        for (int i = 0; i < 5; i++) {
+            other.record(createTransaction("Mary Major", "Coffee Shop", "4.50"));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        other.writeSnapshot(new DataOutputStream(bytes));
+        AmountDistributionIndex index = new AmountDistributionIndex(amountSketchProperties);
+        for (int i = 0; i < 5; i++) {
+            index.record(createTransaction("John Doe", "Coffee Shop", "3.00"));
+        }
+
+        index.readSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), index.snapshotVersion());
+        AmountRanks ranks = index.lookup(createTransaction("Mary Major", "Coffee Shop", "4.00"));
+
+        assertEquals(10, ranks.merchantSamples());
+        assertEquals(0.5, ranks.merchantRank());
+        assertEquals(5, ranks.customerSamples());
+    }
+
+    private Transaction createTransaction(String customerName, String merchantName, String amount) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(UUID.randomUUID());
+        transaction.setCustomerName(customerName);
+        transaction.setMerchantName(merchantName);
+        transaction.setMerchantCity("Springfield");
+        transaction.setMerchantState("IL");
+        transaction.setPurchaseAmount(new BigDecimal(amount));
+        return transaction;
+    }
+}
@@ -0,0 +1,95 @@
+package org.fiverty.frauddetection.service.amount;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmountSketchTest {
+
+    private static final int K = 200;
+
+    @Test
+    void rank_FewAmounts_Exact() {
+        AmountSketch sketch = new AmountSketch(K);
+        for (int amount = 1; amount <= 100; amount++) {
+            sketch.update(amount);
+        }
+
+        assertEquals(100, sketch.count());
+        assertEquals(0.0, sketch.rank(1.0));
+        assertEquals(0.5, sketch.rank(51.0));
+        assertEquals(1.0, sketch.rank(9000.0));
+    }
+
+    @Test
+    void rank_ManyAmounts_WithinErrorAndBounded() {
+        AmountSketch sketch = new AmountSketch(K);
+        for (int amount = 0; amount < 1_000_000; amount++) {
+            sketch.update(amount);
+        }
+
+        assertEquals(0.5, sketch.rank(500_000), 0.02);
+        assertEquals(0.99, sketch.rank(990_000), 0.02);
+        assertTrue(sketch.retained() <= 4 * K, "retained " + sketch.retained());
+    }
+
+    @Test
+    void rank_EmptySketch_NaN() {
+        assertTrue(Double.isNaN(new AmountSketch(K).rank(10.0)));
+    }
+
+    @Test
+    void merge_TwoSketches_RanksCombinedStream() {
+        AmountSketch small = new AmountSketch(K);
+        AmountSketch large = new AmountSketch(K);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            small.update(random.nextDouble() * 10);
+            large.update(1_000 + random.nextDouble() * 10);
+        }
+
+        small.merge(large);
+
+        assertEquals(200_000, small.count());
+        assertEquals(0.5, small.rank(500.0), 0.02);
+        assertEquals(0.75, small.rank(1_005.0), 0.02);
+    }
+
+    @Test
+    void readFrom_WrittenSketch_SameRanks() throws IOException {
+        AmountSketch sketch = new AmountSketch(K);
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            sketch.update(random.nextGaussian() * 20 + 100);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+
+        AmountSketch restored = AmountSketch.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), K);
+
+        assertEquals(sketch.count(), restored.count());
+        assertEquals(sketch.rank(140.0), restored.rank(140.0));
+    }
+
+    @Test
+    void readFrom_CorruptSketch_Rejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(10);
+        out.writeByte(1);
+        out.writeInt(3);
+        for (int i = 0; i < 3; i++) {
+            out.writeFloat(i);
+        }
+
+        assertThrows(IOException.class, () -> AmountSketch.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), K));
+    }
+}
@@ -0,0 +1,174 @@
+package org.fiverty.frauddetection.service.analytics;
+
+import org.fiverty.frauddetection.model.FraudRollupDimension;
+import org.fiverty.frauddetection.model.FraudSignal;
+import org.fiverty.frauddetection.model.Transaction;
+import org.fiverty.frauddetection.repository.FraudRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class FraudRollupAccumulatorTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-14T10:59:59.999Z");
+    private static final Instant HOUR = Instant.parse("2026-03-14T10:00:00Z");
+
+    private final FraudRollupRepository fraudRollupRepository = mock(FraudRollupRepository.class);
+    private final AtomicLong clock = new AtomicLong(NOW.toEpochMilli());
+    private final FraudRollupAccumulator accumulator = new FraudRollupAccumulator(fraudRollupRepository, clock::get);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void record_TransactionValidFromEarlier_BucketedOnRecordTime() {
+        Transaction transaction = createTransaction("Coffee Shop", "4.50");
+        transaction.setValidFrom(NOW.minusSeconds(3600));
+
+        accumulator.record(transaction, List.of(createSignal(FraudSignal.SignalType.LOCATION, false)), false);
+        accumulator.flush();
+
+        FraudRollupRepository.Delta hour = deltaOf(flushedDeltas(), FraudRollupDimension.HOUR, "ALL");
+        assertEquals(HOUR, hour.bucketStart());
+    }
+
+    @Test
+    void record_SameHourAndKey_Merged() {
+        accumulator.record(createTransaction("Coffee Shop", "4.50"),
+                List.of(createSignal(FraudSignal.SignalType.LOCATION, true)), true);
+        accumulator.record(createTransaction("Coffee Shop", "10.25"),
+                List.of(createSignal(FraudSignal.SignalType.LOCATION, false)), false);
+        accumulator.flush();
+
+        List<FraudRollupRepository.Delta> deltas = flushedDeltas();
+        assertEquals(new FraudRollupRepository.Delta(FraudRollupDimension.MERCHANT, HOUR, "Coffee Shop", 2, 1, 1475),
+                deltaOf(deltas, FraudRollupDimension.MERCHANT, "Coffee Shop"));
+        assertEquals(new FraudRollupRepository.Delta(FraudRollupDimension.STATE_PAIR, HOUR, "IL->MO", 2, 1, 1475),
+                deltaOf(deltas, FraudRollupDimension.STATE_PAIR, "IL->MO"));
+        assertEquals(2, deltaOf(deltas, FraudRollupDimension.SIGNAL_TYPE, "LOCATION").events());
+        assertEquals(4, deltas.size());
+    }
+
+    @Test
+    void record_SignalNotCountedAsFlagged_OnlySignalTypeRowFlagged() {
+        // LOCATION is not a feedback signal by default, so the scoring service passes flagged=false
+        accumulator.record(createTransaction("Coffee Shop", "4.50"),
+                List.of(createSignal(FraudSignal.SignalType.LOCATION, true)), false);
+        accumulator.flush();
+
+        List<FraudRollupRepository.Delta> deltas = flushedDeltas();
+        assertEquals(0, deltaOf(deltas, FraudRollupDimension.HOUR, "ALL").flagged());
+        assertEquals(0, deltaOf(deltas, FraudRollupDimension.MERCHANT, "Coffee Shop").flagged());
+        assertEquals(1, deltaOf(deltas, FraudRollupDimension.SIGNAL_TYPE, "LOCATION").flagged());
+    }
+
+    @Test
+    void record_DifferentHours_SeparateBuckets() {
+        accumulator.record(createTransaction("Coffee Shop", "4.50"), List.of(), false);
+        clock.addAndGet(1);
+        accumulator.record(createTransaction("Coffee Shop", "4.50"), List.of(), false);
+        accumulator.flush();
+
+        List<FraudRollupRepository.Delta> hours = flushedDeltas().stream()
+                .filter(delta -> delta.dimension() == FraudRollupDimension.HOUR)
+                .toList();
+        assertEquals(List.of(HOUR, HOUR.plusSeconds(3600)),
+                hours.stream().map(FraudRollupRepository.Delta::bucketStart).toList());
+    }
+
+    @Test
+    void record_InsideTransaction_CountedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        accumulator.record(createTransaction("Coffee Shop", "4.50"), List.of(), false);
+
+        accumulator.flush();
+        verify(fraudRollupRepository, never()).applyDeltas(anyList());
+
+        // Committed in the next hour, so counted in the next hour
+        clock.addAndGet(1);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        accumulator.flush();
+
+        assertEquals(HOUR.plusSeconds(3600),
+                deltaOf(flushedDeltas(), FraudRollupDimension.HOUR, "ALL").bucketStart());
+    }
+
+    @Test
+    void record_TransactionRolledBack_NotCounted() {
+        TransactionSynchronizationManager.initSynchronization();
+        accumulator.record(createTransaction("Coffee Shop", "4.50"), List.of(), false);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        accumulator.flush();
+
+        verify(fraudRollupRepository, never()).applyDeltas(anyList());
+    }
+
+    @Test
+    void flush_RepositoryFails_IncrementsRestoredForNextFlush() {
+        accumulator.record(createTransaction("Coffee Shop", "4.50"), List.of(), false);
+        doThrow(new QueryTimeoutException("timeout")).doNothing().when(fraudRollupRepository).applyDeltas(anyList());
+
+        accumulator.flush();
+        accumulator.record(createTransaction("Coffee Shop", "10.25"), List.of(), false);
+        accumulator.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<FraudRollupRepository.Delta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(fraudRollupRepository, times(2)).applyDeltas(captor.capture());
+        assertEquals(1, deltaOf(captor.getAllValues().get(0), FraudRollupDimension.MERCHANT, "Coffee Shop").events());
+        assertEquals(new FraudRollupRepository.Delta(FraudRollupDimension.MERCHANT, HOUR, "Coffee Shop", 2, 0, 1475),
+                deltaOf(captor.getAllValues().get(1), FraudRollupDimension.MERCHANT, "Coffee Shop"));
+
+        accumulator.flush();
+        verifyNoMoreInteractions(fraudRollupRepository);
+    }
+
+    private List<FraudRollupRepository.Delta> flushedDeltas() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<FraudRollupRepository.Delta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(fraudRollupRepository).applyDeltas(captor.capture());
+        return captor.getValue();
+    }
+
+    private static FraudRollupRepository.Delta deltaOf(List<FraudRollupRepository.Delta> deltas,
+                                                       FraudRollupDimension dimension, String key) {
+        return deltas.stream()
+                .filter(delta -> delta.dimension() == dimension && delta.key().equals(key))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Transaction createTransaction(String merchantName, String amount) {
+        Transaction transaction = new Transaction();
+        transaction.setCustomerState("IL");
+        transaction.setMerchantName(merchantName);
+        transaction.setMerchantState("MO");
+        transaction.setPurchaseAmount(new BigDecimal(amount));
+        return transaction;
+    }
+
+    private static FraudSignal createSignal(FraudSignal.SignalType signalType, boolean potentialFraud) {
+        FraudSignal signal = new FraudSignal();
+        signal.setSignalType(signalType);
+        signal.setPotentialFraud(potentialFraud);
+        return signal;
+    }
+}
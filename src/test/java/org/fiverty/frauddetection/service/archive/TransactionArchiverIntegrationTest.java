@@ -0,0 +1,148 @@
+package org.fiverty.frauddetection.service.archive;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fiverty.frauddetection.config.ArchiveProperties;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the archive statement and {@code ensure_history_partition} against a real Postgres with the
+ * Flyway migrations applied. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TransactionArchiverIntegrationTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-14T10:00:00Z");
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static DataSourceTransactionManager transactionManager;
+
+    private final ArchiveProperties archiveProperties = new ArchiveProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeAll
+    static void migrate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @BeforeEach
+    void clearTables() {
+        jdbcTemplate.execute("TRUNCATE fraud_signal, transaction_current, transaction_history, fraud_signal_history");
+        archiveProperties.setEnabled(true);
+        archiveProperties.setMaxAge(Duration.ofDays(90));
+        archiveProperties.setBatchSize(2);
+        archiveProperties.setBatchPause(Duration.ZERO);
+    }
+
+    @Test
+    void archive_AgedTransactions_MovedWithSignalsIntoYearlyPartitions() {
+        UUID[] aged = {
+                insertTransaction(Instant.parse("2023-06-01T12:00:00Z")),
+                insertTransaction(Instant.parse("2024-02-01T12:00:00Z")),
+                insertTransaction(Instant.parse("2025-11-30T12:00:00Z"))
+        };
+        UUID recent = insertTransaction(NOW.minus(Duration.ofDays(1)));
+
+        createArchiver().archive();
+
+        assertEquals(1, count("SELECT COUNT(*) FROM transaction_current"));
+        assertEquals(1, count("SELECT COUNT(*) FROM transaction_current WHERE transaction_id = ?", recent));
+        assertEquals(2, count("SELECT COUNT(*) FROM fraud_signal WHERE transaction_id = ?", recent));
+        for (UUID transactionId : aged) {
+            assertEquals(1, count("SELECT COUNT(*) FROM transaction_history WHERE transaction_id = ?", transactionId));
+            assertEquals(2, count("SELECT COUNT(*) FROM fraud_signal_history WHERE transaction_id = ?", transactionId));
+        }
+        // Partitions for the aged years were created, so nothing landed in the default partitions
+        assertEquals(1, count("SELECT COUNT(*) FROM transaction_history_2023"));
+        assertEquals(2, count("SELECT COUNT(*) FROM fraud_signal_history_2024"));
+        assertEquals(0, count("SELECT COUNT(*) FROM transaction_history_default"));
+        assertEquals(0, count("SELECT COUNT(*) FROM fraud_signal_history_default"));
+        assertEquals(3.0, meterRegistry.counter("fraud.archive.transactions").count());
+        assertEquals(6.0, meterRegistry.counter("fraud.archive.signals").count());
+    }
+
+    @Test
+    void archive_NothingAged_NothingMoved() {
+        insertTransaction(NOW.minus(Duration.ofDays(1)));
+
+        createArchiver().archive();
+
+        assertEquals(1, count("SELECT COUNT(*) FROM transaction_current"));
+        assertEquals(0, count("SELECT COUNT(*) FROM transaction_history"));
+    }
+
+    @Test
+    void ensureHistoryPartition_RowsInDefaultPartition_MovedIntoNewPartition() {
+        jdbcTemplate.update("""
+                INSERT INTO fraud_signal_history (signal_id, transaction_id, signal_type, potential_fraud, details, valid_from)
+                VALUES (1, ?, 'LOCATION', FALSE, ARRAY['Location Details'], ?)""",
+                UUID.randomUUID(), Timestamp.from(Instant.parse("2019-05-01T00:00:00Z")));
+
+        jdbcTemplate.queryForList("SELECT ensure_history_partition('fraud_signal_history', 2019)");
+        jdbcTemplate.queryForList("SELECT ensure_history_partition('fraud_signal_history', 2019)");
+
+        assertEquals(1, count("SELECT COUNT(*) FROM fraud_signal_history_2019"));
+        assertEquals(0, count("SELECT COUNT(*) FROM fraud_signal_history_default"));
+    }
+
+    private TransactionArchiver createArchiver() {
+        return new TransactionArchiver(jdbcTemplate, transactionManager, archiveProperties, meterRegistry,
+                NOW::toEpochMilli);
+    }
+
+    private UUID insertTransaction(Instant validFrom) {
+        int personId = dimensionId("INSERT INTO dim_person_name (person_name) VALUES ('John Doe') "
+                + "ON CONFLICT (person_name) DO UPDATE SET person_name = EXCLUDED.person_name RETURNING person_name_id");
+        int cityId = dimensionId("INSERT INTO dim_city (city_name) VALUES ('Springfield') "
+                + "ON CONFLICT (city_name) DO UPDATE SET city_name = EXCLUDED.city_name RETURNING city_id");
+        int merchantId = dimensionId("INSERT INTO dim_merchant (merchant_name) VALUES ('Coffee Shop') "
+                + "ON CONFLICT (merchant_name) DO UPDATE SET merchant_name = EXCLUDED.merchant_name RETURNING merchant_id");
+        UUID transactionId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO transaction_current (transaction_id, customer_name_id, ip_address, customer_city_id,
+                                                 customer_state, card_last4, name_on_card_id, purchase_amount,
+                                                 merchant_name_id, merchant_city_id, merchant_state,
+                                                 purchased_item_count, valid_from)
+                VALUES (?, ?, '11.168.1.1'::INET, ?, 'IL', '1234', ?, 4.50, ?, ?, 'IL', 1, ?)""",
+                transactionId, personId, cityId, personId, merchantId, cityId, Timestamp.from(validFrom));
+        for (String signalType : new String[]{"LOCATION", "IP_ADDRESS"}) {
+            jdbcTemplate.update("""
+                    INSERT INTO fraud_signal (transaction_id, signal_type, potential_fraud, details)
+                    VALUES (?, ?, FALSE, ARRAY['Checked'])""", transactionId, signalType);
+        }
+        return transactionId;
+    }
+
+    private int dimensionId(String upsert) {
+        Integer id = jdbcTemplate.queryForObject(upsert, Integer.class);
+        assertNotNull(id);
+        return id;
+    }
+
+    private long count(String sql, Object... args) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return count == null ? 0 : count;
+    }
+}
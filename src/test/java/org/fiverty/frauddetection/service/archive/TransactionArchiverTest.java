@@ -0,0 +1,133 @@
+package org.fiverty.frauddetection.service.archive;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fiverty.frauddetection.config.ArchiveProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransactionArchiverTest {
+
+    private static final int BATCH_SIZE = 10;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ArchiveProperties archiveProperties = new ArchiveProperties();
+
+    TransactionArchiverTest() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        archiveProperties.setEnabled(true);
+        archiveProperties.setBatchSize(BATCH_SIZE);
+        archiveProperties.setBatchPause(Duration.ZERO);
+    }
+
+    @Test
+    void archive_Disabled_NothingQueried() {
+        archiveProperties.setEnabled(false);
+
+        createArchiver().archive();
+
+        verifyNoInteractions(jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void archive_ShortBatch_StopsAfterIt() {
+        when(jdbcTemplate.queryForObject(anyString(), batchMapper(), any(), any()))
+                .thenReturn(new TransactionArchiver.BatchResult(BATCH_SIZE, 25))
+                .thenReturn(new TransactionArchiver.BatchResult(4, 6));
+
+        createArchiver().archive();
+
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), batchMapper(), any(), any());
+        assertEquals(14.0, meterRegistry.counter("fraud.archive.transactions").count());
+        assertEquals(31.0, meterRegistry.counter("fraud.archive.signals").count());
+        // One transaction for the partitions, one per batch
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void archive_FullBatches_StopsAtMaxBatchesPerRun() {
+        archiveProperties.setMaxBatchesPerRun(3);
+        when(jdbcTemplate.queryForObject(anyString(), batchMapper(), any(), any()))
+                .thenReturn(new TransactionArchiver.BatchResult(BATCH_SIZE, 0));
+
+        createArchiver().archive();
+
+        verify(jdbcTemplate, times(3)).queryForObject(anyString(), batchMapper(), any(), any());
+        assertEquals(30.0, meterRegistry.counter("fraud.archive.transactions").count());
+    }
+
+    @Test
+    void archive_BatchFails_RolledBackAndRunEnds() {
+        when(jdbcTemplate.queryForObject(anyString(), batchMapper(), any(), any()))
+                .thenReturn(new TransactionArchiver.BatchResult(BATCH_SIZE, 0))
+                .thenThrow(new QueryTimeoutException("canceling statement due to lock timeout"));
+
+        assertDoesNotThrow(() -> createArchiver().archive());
+
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), batchMapper(), any(), any());
+        verify(transactionManager).rollback(any());
+        assertEquals(10.0, meterRegistry.counter("fraud.archive.transactions").count());
+    }
+
+    @Test
+    void archive_InterruptedDuringPause_StopsAndKeepsInterruptFlag() {
+        archiveProperties.setBatchPause(Duration.ofMinutes(1));
+        when(jdbcTemplate.queryForObject(anyString(), batchMapper(), any(), any()))
+                .thenReturn(new TransactionArchiver.BatchResult(BATCH_SIZE, 0));
+
+        Thread.currentThread().interrupt();
+        try {
+            createArchiver().archive();
+
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), batchMapper(), any(), any());
+    }
+
+    @Test
+    void archive_CutoffFromMaxAge_PassedToEveryStatement() {
+        archiveProperties.setMaxAge(Duration.ofDays(30));
+        Instant now = Instant.parse("2026-03-14T10:00:00Z");
+        when(jdbcTemplate.queryForObject(anyString(), batchMapper(), any(), any()))
+                .thenReturn(new TransactionArchiver.BatchResult(0, 0));
+
+        new TransactionArchiver(jdbcTemplate, transactionManager, archiveProperties, meterRegistry, now::toEpochMilli)
+                .archive();
+
+        Timestamp cutoff = Timestamp.from(Instant.parse("2026-02-12T10:00:00Z"));
+        verify(jdbcTemplate).queryForObject(anyString(), batchMapper(), eq(cutoff), eq(BATCH_SIZE));
+        verify(jdbcTemplate).queryForList(contains("ensure_history_partition"), eq(cutoff), eq(cutoff));
+    }
+
+    @Test
+    void constructor_ZeroBatchSize_Rejected() {
+        archiveProperties.setBatchSize(0);
+
+        assertThrows(IllegalArgumentException.class, this::createArchiver);
+    }
+
+    private TransactionArchiver createArchiver() {
+        return new TransactionArchiver(jdbcTemplate, transactionManager, archiveProperties, meterRegistry,
+                System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RowMapper<TransactionArchiver.BatchResult> batchMapper() {
+        return any(RowMapper.class);
+    }
+}
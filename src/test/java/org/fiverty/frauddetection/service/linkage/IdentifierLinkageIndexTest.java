@@ -0,0 +1,236 @@
+package org.fiverty.frauddetection.service.linkage;
+
+import org.fiverty.frauddetection.config.LinkageProperties;
+import org.fiverty.frauddetection.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentifierLinkageIndexTest {
+
+    private final LinkageProperties linkageProperties = new LinkageProperties();
+    private final AtomicLong clock = new AtomicLong(0L);
+
+    @Test
+    void link_SharedIpAddress_CustomersClustered() {
+        IdentifierLinkageIndex index = new IdentifierLinkageIndex(linkageProperties, clock::get);
+
+        index.link(createTransaction("John Doe", "11.168.1.1", "1111", "Merchant A"));
+        RingCluster cluster = index.link(createTransaction("Mary Major", "11.168.1.1", "2222", "Merchant B"));
+
+        assertEquals(2, cluster.customers());
+        assertEquals(2, cluster.transactions());
+        assertEquals(0, cluster.flaggedTransactions());
+    }
+
+    @Test
+    void link_UnrelatedCustomers_NotClustered() {
+        IdentifierLinkageIndex index = new IdentifierLinkageIndex(linkageProperties, clock::get);
+
+        index.link(createTransaction("John Doe", "11.168.1.1", "1111", "Merchant A"));
+        RingCluster cluster = index.link(createTransaction("Mary Major", "11.168.1.2", "2222", "Merchant B"));
+
+        assertEquals(1, cluster.customers());
+    }
+
+    @Test
+    void link_SharedMerchantOnly_NotClustered() {
+        IdentifierLinkageIndex index = new IdentifierLinkageIndex(linkageProperties, clock::get);
+        for (int i = 0; i < 100; i++) {
+            index.link(createTransaction("Customer " + i, "11.168.1." + i, String.format("%04d", i), "Merchant A"));
+        }
+
+        RingCluster cluster = index.link(createTransaction("John Doe", "11.168.2.1", "9999", "Merchant A"));
+
+        assertEquals(1, cluster.customers());
+    }
+
+    @Test
+    void find_SharedIdentifiers_SameClusterAsLinkWithoutLinking() {
+        IdentifierLinkageIndex index = new IdentifierLinkageIndex(linkageProperties, clock::get);
+        Transaction flagged = createTransaction("John Doe", "11.168.1.1", "1111", "Merchant A");
+        index.link(flagged);
+        index.recordFlagged(flagged);
+        index.link(createTransaction("Mary Major", "11.168.1.2", "2222", "Merchant B"));
+        // Shares the IP address with John Doe and the card with Mary Major
+        Transaction transaction = createTransaction("Richard Roe", "11.168.1.1", "2222", "Merchant C");
+        transaction.setNameOnCard("Mary Major");
+
+        RingCluster found = index.find(transaction);
+        RingCluster foundAgain = index.find(transaction);
+        RingCluster linked = index.link(transaction);
+
+        assertEquals(new RingCluster(3, 3, 1), found);
+        assertEquals(found, foundAgain);
+        assertEquals(linked, found);
+    }
+
+    @Test
+    void find_KnownCustomer_CountsTransactionOnce() {
+        IdentifierLinkageIndex index = new IdentifierLinkageIndex(linkageProperties, clock::get);
+        Transaction transaction = createTransaction("John Doe", "11.168.1.1", "1111", "Merchant A");
+        index.link(transaction);
+
+        RingCluster found = index.find(transaction);
+
+        assertEquals(new RingCluster(1, 2, 0), found);
+        assertEquals(index.link(transaction), found);
+    }
+
+    @Test
+    void find_IdentifierOverHubCap_NotMerged() {
+        linkageProperties.setIpHubCap(2);
+        IdentifierLinkageIndex index = new IdentifierLinkageIndex(linkageProperties, clock::get);
+        index.link(createTransaction("Customer 1", "11.168.1.1", "1111", "Merchant 1"));
+        index.link(createTransaction("Customer 2", "11.168.1.1", "2222", "Merchant 2"));
+
+        RingCluster cluster = index.find(createTransaction("Customer 3", "11.168.1.1", "3333", "Merchant 3"));
+
+        assertEquals(1, cluster.customers());
+    }
+
+    @Test
+    void recordFlagged_LinkedCustomer_CountedInCluster() {
+        IdentifierLinkageIndex index = new IdentifierLinkageIndex(linkageProperties, clock::get);
+        Transaction flagged = createTransaction("John Doe", "11.168.1.1", "1111", "Merchant A");
+
+        index.link(flagged);
+        index.recordFlagged(flagged);
+        RingCluster cluster = index.link(createTransaction("Mary Major", "11.168.1.1", "2222", "Merchant B"));
+
+        assertEquals(1, cluster.flaggedTransactions());
+        assertEquals(0.5, cluster.fraudDensity(), 1e-9);
+    }
+
+    @Test
+    void link_IdentifierOverHubCap_StopsLinking() {
+        linkageProperties.setIpHubCap(2);
+        IdentifierLinkageIndex index = new IdentifierLinkageIndex(linkageProperties, clock::get);
+
+        index.link(createTransaction("Customer 1", "11.168.1.1", "1111", "Merchant 1"));
+        index.link(createTransaction("Customer 2", "11.168.1.1", "2222", "Merchant 2"));
+        RingCluster cluster = index.link(createTransaction("Customer 3", "11.168.1.1", "3333", "Merchant 3"));
+
+        assertEquals(1, cluster.customers());
+    }
+
+    @Test
+    void link_AfterMaxAge_OldLinksForgotten() {
+        linkageProperties.setMaxAge(Duration.ofHours(2));
+        IdentifierLinkageIndex index = new IdentifierLinkageIndex(linkageProperties, clock::get);
+        index.link(createTransaction("John Doe", "11.168.1.1", "1111", "Merchant A"));
+
+        clock.set(Duration.ofHours(1).toMillis());
+        RingCluster withinAge = index.link(createTransaction("Mary Major", "11.168.1.1", "2222", "Merchant B"));
+        clock.set(Duration.ofHours(2).toMillis());
+        RingCluster afterRotation = index.link(createTransaction("Richard Roe", "11.168.1.1", "3333", "Merchant C"));
+
+        assertEquals(2, withinAge.customers());
+        // John Doe was only linked into the generation that has now been dropped
+        assertEquals(2, afterRotation.customers());
+    }
+
+    @Test
+    void link_NoTrafficForMaxAge_AllLinksForgotten() {
+        linkageProperties.setMaxAge(Duration.ofHours(2));
+        IdentifierLinkageIndex index = new IdentifierLinkageIndex(linkageProperties, clock::get);
+        index.link(createTransaction("John Doe", "11.168.1.1", "1111", "Merchant A"));
+
+        clock.set(Duration.ofHours(2).toMillis());
+        RingCluster cluster = index.link(createTransaction("Mary Major", "11.168.1.1", "2222", "Merchant B"));
+
+        assertEquals(1, cluster.customers());
+    }
+
+    @Test
+    void readSnapshot_WrittenSnapshot_ClustersRestored() throws IOException {
+        IdentifierLinkageIndex index = new IdentifierLinkageIndex(linkageProperties, clock::get);
+        Transaction flagged = createTransaction("John Doe", "11.168.1.1", "1111", "Merchant A");
+        index.link(flagged);
+        index.recordFlagged(flagged);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeSnapshot(new DataOutputStream(bytes));
+
+        IdentifierLinkageIndex restored = new IdentifierLinkageIndex(linkageProperties, clock::get);
+        restored.readSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                restored.snapshotVersion());
+        RingCluster cluster = restored.link(createTransaction("Mary Major", "11.168.1.1", "2222", "Merchant B"));
+
+        assertEquals(2, cluster.customers());
+        assertEquals(1, cluster.flaggedTransactions());
+    }
+
+    @Test
+    void writeSnapshot_LinkedWhileWriting_LeftOutOfSnapshotAndAppliedAfterwards() throws IOException {
+        IdentifierLinkageIndex index = new IdentifierLinkageIndex(linkageProperties, clock::get);
+        index.link(createTransaction("John Doe", "11.168.1.1", "1111", "Merchant A"));
+        Transaction duringWrite = createTransaction("Mary Major", "11.168.1.1", "2222", "Merchant B");
+        RingCluster[] linkedDuringWrite = new RingCluster[1];
+        // Links from inside the write, as a scoring thread would while the snapshot is being written
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                linkOnce();
+                super.write(b, off, len);
+            }
+
+            @Override
+            public synchronized void write(int b) {
+                linkOnce();
+                super.write(b);
+            }
+
+            private void linkOnce() {
+                if (linkedDuringWrite[0] == null) {
+                    linkedDuringWrite[0] = index.link(duringWrite);
+                    index.recordFlagged(duringWrite);
+                }
+            }
+        };
+
+        index.writeSnapshot(new DataOutputStream(bytes));
+
+        assertEquals(new RingCluster(2, 2, 0), linkedDuringWrite[0]);
+        // Applied once the write finished
+        assertEquals(new RingCluster(2, 3, 1), index.find(createTransaction("John Doe", "11.168.1.1", "1111", "Merchant A")));
+        IdentifierLinkageIndex restored = new IdentifierLinkageIndex(linkageProperties, clock::get);
+        restored.readSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                restored.snapshotVersion());
+        assertEquals(new RingCluster(1, 2, 0), restored.find(createTransaction("John Doe", "11.168.1.1", "1111", "Merchant A")));
+    }
+
+    @Test
+    void readSnapshot_UnsupportedVersion_Rejected() {
+        IdentifierLinkageIndex index = new IdentifierLinkageIndex(linkageProperties, clock::get);
+
+        assertThrows(IOException.class, () -> index.readSnapshot(
+                new DataInputStream(new ByteArrayInputStream(new byte[0])), index.snapshotVersion() + 1));
+    }
+
+    private Transaction createTransaction(String customerName, String ipAddress, String cardLast4, String merchantName) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(UUID.randomUUID());
+        transaction.setCustomerName(customerName);
+        transaction.setNameOnCard(customerName);
+        transaction.setIpAddress(ipAddress);
+        transaction.setCustomerCity("Springfield");
+        transaction.setCustomerState("IL");
+        transaction.setMerchantName(merchantName);
+        transaction.setMerchantCity("Springfield");
+        transaction.setMerchantState("IL");
+        transaction.setCardLast4(cardLast4);
+        transaction.setPurchaseAmount(new BigDecimal("100.00"));
+        transaction.setPurchasedItemCount(1);
+        return transaction;
+    }
+}
@@ -0,0 +1,70 @@
+package org.fiverty.frauddetection.service.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameMatcherTest {
+
+    private static final double MATCH_THRESHOLD = 0.90;
+
+    private final NameMatcher nameMatcher = new NameMatcher();
+
+    @Test
+    void similarity_SameNameDifferentCase_ExactMatch() {
+        assertEquals(1.0, nameMatcher.similarity("John Smith", "JOHN SMITH"));
+    }
+
+    @Test
+    void similarity_SurnameFirstWithComma_ExactMatch() {
+        assertEquals(1.0, nameMatcher.similarity("Smith, John", "John Smith"));
+    }
+
+    @Test
+    void similarity_HonorificsAndSuffixes_Ignored() {
+        assertEquals(1.0, nameMatcher.similarity("Mr. John Smith Jr.", "john smith"));
+    }
+
+    @Test
+    void similarity_SpellingVariant_AboveThreshold() {
+        assertTrue(nameMatcher.similarity("Jon Smith", "JOHN SMITH") >= MATCH_THRESHOLD);
+        assertTrue(nameMatcher.similarity("Katherine O'Brien", "Kathrine OBrien") >= MATCH_THRESHOLD);
+    }
+
+    @Test
+    void similarity_InitialForFirstName_AboveThreshold() {
+        assertTrue(nameMatcher.similarity("J Smith", "John Smith") >= MATCH_THRESHOLD);
+    }
+
+    @Test
+    void similarity_MissingMiddleName_AboveThreshold() {
+        assertTrue(nameMatcher.similarity("James Earl Jones", "James Jones") >= MATCH_THRESHOLD);
+    }
+
+    @Test
+    void similarity_DifferentPeople_BelowThreshold() {
+        assertTrue(nameMatcher.similarity("James Earl Jones", "Mismatched Name") < MATCH_THRESHOLD);
+        assertTrue(nameMatcher.similarity("John Doe", "James") < MATCH_THRESHOLD);
+        assertTrue(nameMatcher.similarity("Jane Smith", "John Smith") < MATCH_THRESHOLD);
+    }
+
+    @Test
+    void similarity_SurnameOnly_BelowThreshold() {
+        assertTrue(nameMatcher.similarity("Smith", "John Smith") < MATCH_THRESHOLD);
+    }
+
+    @Test
+    void similarity_NoLetters_Zero() {
+        assertEquals(0.0, nameMatcher.similarity("--", "John Smith"));
+    }
+
+    @Test
+    void similarity_NullName_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> nameMatcher.similarity(null, "John Smith"));
+    }
+
+    @Test
+    void damerauLevenshtein_AdjacentTransposition_CostsOne() {
+        assertEquals(1, NameMatcher.damerauLevenshtein("smtih".codePoints().toArray(), "smith".codePoints().toArray()));
+    }
+}
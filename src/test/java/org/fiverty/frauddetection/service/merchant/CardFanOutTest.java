@@ -0,0 +1,105 @@
+package org.fiverty.frauddetection.service.merchant;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardFanOutTest {
+
+    private static final long WINDOW_MILLIS = 60_000;
+
+    @Test
+    void estimate_NoCards_Zero() {
+        CardFanOut fanOut = new CardFanOut(WINDOW_MILLIS, 0);
+
+        assertEquals(0.0, fanOut.estimate(0));
+    }
+
+    @Test
+    void estimate_FewDistinctCards_CloseToExactCount() {
+        CardFanOut fanOut = new CardFanOut(WINDOW_MILLIS, 0);
+        recordCards(fanOut, 0, 0, 20);
+
+        assertEquals(20.0, fanOut.estimate(0), 20.0 * 0.25);
+    }
+
+    @Test
+    void estimate_ManyDistinctCards_WithinErrorBound() {
+        CardFanOut fanOut = new CardFanOut(WINDOW_MILLIS, 0);
+        recordCards(fanOut, 0, 0, 5_000);
+
+        // About 2.5 standard errors for 64 registers
+        assertEquals(5_000.0, fanOut.estimate(0), 5_000.0 * 0.33);
+    }
+
+    @Test
+    void estimate_RepeatedCard_CountedOnce() {
+        CardFanOut fanOut = new CardFanOut(WINDOW_MILLIS, 0);
+        for (int i = 0; i < 500; i++) {
+            fanOut.record(i, MerchantReputationIndex.cardHash("1234", "John Doe"));
+        }
+
+        assertEquals(1.0, fanOut.estimate(500), 0.1);
+    }
+
+    @Test
+    void estimate_AfterOneWindow_UnionOfBothWindows() {
+        CardFanOut fanOut = new CardFanOut(WINDOW_MILLIS, 0);
+        recordCards(fanOut, 0, 0, 100);
+
+        recordCards(fanOut, WINDOW_MILLIS + 1, 100, 100);
+
+        assertEquals(200.0, fanOut.estimate(WINDOW_MILLIS + 1), 200.0 * 0.33);
+    }
+
+    @Test
+    void estimate_AfterTwoWindows_OldestWindowAgedOut() {
+        CardFanOut fanOut = new CardFanOut(WINDOW_MILLIS, 0);
+        recordCards(fanOut, 0, 0, 100);
+        recordCards(fanOut, WINDOW_MILLIS + 1, 100, 100);
+
+        assertEquals(100.0, fanOut.estimate(2 * WINDOW_MILLIS + 2), 100.0 * 0.33);
+    }
+
+    @Test
+    void estimate_WindowRolledTwiceWithoutNewCards_Zero() {
+        CardFanOut fanOut = new CardFanOut(WINDOW_MILLIS, 0);
+        recordCards(fanOut, 0, 0, 100);
+
+        assertEquals(100.0, fanOut.estimate(WINDOW_MILLIS), 100.0 * 0.33);
+        assertEquals(0.0, fanOut.estimate(2 * WINDOW_MILLIS + 1));
+    }
+
+    @Test
+    void estimate_IdleForTwoWindows_BothWindowsCleared() {
+        CardFanOut fanOut = new CardFanOut(WINDOW_MILLIS, 0);
+        recordCards(fanOut, 0, 0, 100);
+
+        assertEquals(0.0, fanOut.estimate(2 * WINDOW_MILLIS));
+    }
+
+    @Test
+    void readFrom_WrittenFanOut_SameEstimate() throws IOException {
+        CardFanOut fanOut = new CardFanOut(WINDOW_MILLIS, 0);
+        recordCards(fanOut, 0, 0, 300);
+        recordCards(fanOut, WINDOW_MILLIS, 300, 50);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        fanOut.writeTo(new DataOutputStream(bytes));
+
+        CardFanOut restored = CardFanOut.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), WINDOW_MILLIS);
+
+        assertEquals(fanOut.estimate(WINDOW_MILLIS + 1), restored.estimate(WINDOW_MILLIS + 1));
+    }
+
+    private static void recordCards(CardFanOut fanOut, long nowMillis, int first, int count) {
+        for (int i = first; i < first + count; i++) {
+            fanOut.record(nowMillis, MerchantReputationIndex.cardHash(String.format("%04d", i % 10_000), "Customer " + i));
+        }
+    }
+}
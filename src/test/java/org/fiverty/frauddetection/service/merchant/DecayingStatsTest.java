@@ -0,0 +1,71 @@
+package org.fiverty.frauddetection.service.merchant;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecayingStatsTest {
+
+    private static final long HALF_LIFE_MILLIS = 1_000;
+    private static final double LAMBDA_PER_MILLI = Math.log(2) / HALF_LIFE_MILLIS;
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    void decayedSums_OneHalfLifeLater_AllSumsHalved() {
+        DecayingStats stats = new DecayingStats(LAMBDA_PER_MILLI, 0);
+        stats.record(0, true, 10.0);
+
+        assertArrayEquals(new double[]{1.0, 1.0, 10.0, 100.0}, stats.decayedSums(0), TOLERANCE);
+        assertArrayEquals(new double[]{0.5, 0.5, 5.0, 50.0}, stats.decayedSums(HALF_LIFE_MILLIS), TOLERANCE);
+        assertArrayEquals(new double[]{0.25, 0.25, 2.5, 25.0}, stats.decayedSums(2 * HALF_LIFE_MILLIS), TOLERANCE);
+    }
+
+    @Test
+    void record_EventsAtDifferentTimes_WeightedByAge() {
+        DecayingStats stats = new DecayingStats(LAMBDA_PER_MILLI, 0);
+        stats.record(0, true, 4.0);
+        stats.record(HALF_LIFE_MILLIS, false, 8.0);
+
+        double[] sums = stats.decayedSums(HALF_LIFE_MILLIS);
+
+        assertEquals(1.5, sums[0], TOLERANCE);
+        assertEquals(0.5, sums[1], TOLERANCE);
+        assertEquals(0.5 * 4.0 + 8.0, sums[2], TOLERANCE);
+        assertEquals(0.5 * 16.0 + 64.0, sums[3], TOLERANCE);
+    }
+
+    @Test
+    void record_PastRescaleHorizon_SumsCarriedOntoNewLandmark() {
+        DecayingStats stats = new DecayingStats(LAMBDA_PER_MILLI, 0);
+        stats.record(0, true, 1.0);
+        stats.record(30 * HALF_LIFE_MILLIS, true, 1.0);
+
+        // e^40 is reached after about 58 half-lives, so this record rescales onto a new landmark
+        stats.record(60 * HALF_LIFE_MILLIS, false, 1.0);
+
+        double[] sums = stats.decayedSums(60 * HALF_LIFE_MILLIS);
+        assertEquals(1.0 + Math.scalb(1.0, -30) + Math.scalb(1.0, -60), sums[0], TOLERANCE);
+        assertEquals(Math.scalb(1.0, -30) + Math.scalb(1.0, -60), sums[1], TOLERANCE);
+        assertTrue(Double.isFinite(stats.decayedSums(61 * HALF_LIFE_MILLIS)[3]));
+    }
+
+    @Test
+    void readFrom_WrittenStats_SameDecayedSums() throws IOException {
+        DecayingStats stats = new DecayingStats(LAMBDA_PER_MILLI, 0);
+        stats.record(0, true, 12.5);
+        stats.record(HALF_LIFE_MILLIS / 2, false, 3.0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        stats.writeTo(new DataOutputStream(bytes));
+
+        DecayingStats restored = DecayingStats.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), LAMBDA_PER_MILLI);
+
+        assertArrayEquals(stats.decayedSums(3 * HALF_LIFE_MILLIS), restored.decayedSums(3 * HALF_LIFE_MILLIS), TOLERANCE);
+    }
+}
@@ -0,0 +1,143 @@
+package org.fiverty.frauddetection.service.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.fiverty.frauddetection.config.FraudRuleProperties;
+import org.fiverty.frauddetection.config.JfrProperties;
+import org.fiverty.frauddetection.model.FraudSignal;
+import org.fiverty.frauddetection.model.Transaction;
+import org.fiverty.frauddetection.service.FraudRuleEvaluator;
+import org.fiverty.frauddetection.service.ScoringContext;
+import org.fiverty.frauddetection.service.matching.NameMatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrRecordingServiceTest {
+
+    private final JfrProperties jfrProperties = new JfrProperties();
+    private final JfrRecordingService jfrRecordingService = new JfrRecordingService(jfrProperties);
+    private final FraudRuleEvaluator fraudRuleEvaluator = new FraudRuleEvaluator(new NameMatcher());
+    private final ScoringContext context = new ScoringContext(null, null, null, null);
+
+    JfrRecordingServiceTest() {
+        jfrProperties.setStageThreshold(Duration.ZERO);
+    }
+
+    @AfterEach
+    void closeRecording() {
+        jfrRecordingService.close();
+    }
+
+    @Test
+    void dump_RulesEvaluated_ScoringStageEventPerRuleWithOutcome() throws IOException {
+        Transaction transaction = createTransaction();
+        assertTrue(jfrRecordingService.start());
+
+        List<FraudSignal> signals = fraudRuleEvaluator.evaluate(transaction, context, new FraudRuleProperties());
+
+        Map<String, RecordedEvent> events = readScoringStageEvents().stream()
+                .filter(event -> transaction.getTransactionId().toString().equals(event.getString("transactionId")))
+                .collect(Collectors.toMap(event -> event.getString("ruleType"), Function.identity()));
+        assertEquals(signals.size(), events.size());
+        for (FraudSignal signal : signals) {
+            RecordedEvent event = events.get(signal.getSignalType().name());
+            assertNotNull(event, signal.getSignalType().name());
+            assertEquals(ScoringStage.RULE.name(), event.getString("stage"));
+            assertEquals(signal.getPotentialFraud() ? ScoringStageEvent.OUTCOME_FLAGGED : ScoringStageEvent.OUTCOME_CLEAR,
+                    event.getString("outcome"));
+        }
+    }
+
+    @Test
+    void dump_RuleThrows_ScoringStageEventWithErrorOutcome() throws IOException {
+        Transaction transaction = createTransaction();
+        transaction.setMerchantCity(null);
+        assertTrue(jfrRecordingService.start());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> fraudRuleEvaluator.evaluate(transaction, context, new FraudRuleProperties()));
+
+        RecordedEvent event = readScoringStageEvents().stream()
+                .filter(recorded -> transaction.getTransactionId().toString().equals(recorded.getString("transactionId")))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(ScoringStage.RULE.name(), event.getString("stage"));
+        assertEquals(FraudSignal.SignalType.LOCATION.name(), event.getString("ruleType"));
+        assertEquals(ScoringStageEvent.OUTCOME_ERROR, event.getString("outcome"));
+    }
+
+    @Test
+    void dump_RecordingRunning_LeavesOutEnvironmentAndSystemProperties() throws IOException {
+        assertTrue(jfrRecordingService.start());
+
+        List<String> eventNames = readEvents().stream()
+                .map(event -> event.getEventType().getName())
+                .distinct()
+                .toList();
+
+        assertFalse(eventNames.isEmpty());
+        assertFalse(eventNames.contains("jdk.InitialEnvironmentVariable"));
+        assertFalse(eventNames.contains("jdk.InitialSystemProperty"));
+        assertFalse(eventNames.contains("jdk.JVMInformation"));
+    }
+
+    @Test
+    void dump_NoRecordingStarted_ReturnsNull() throws IOException {
+        assertNull(jfrRecordingService.dump());
+    }
+
+    @Test
+    void start_AlreadyRunning_ReturnsFalse() {
+        assertTrue(jfrRecordingService.start());
+
+        assertFalse(jfrRecordingService.start());
+        assertTrue(jfrRecordingService.stop());
+        assertFalse(jfrRecordingService.stop());
+    }
+
+    private List<RecordedEvent> readScoringStageEvents() throws IOException {
+        return readEvents().stream()
+                .filter(event -> event.getEventType().getName().equals(ScoringStageEvent.NAME))
+                .toList();
+    }
+
+    private List<RecordedEvent> readEvents() throws IOException {
+        Path file = jfrRecordingService.dump();
+        assertNotNull(file);
+        try {
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static Transaction createTransaction() {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(UUID.randomUUID());
+        transaction.setCustomerName("John Doe");
+        transaction.setNameOnCard("John Doe");
+        transaction.setCardLast4("1234");
+        transaction.setIpAddress("11.168.1.1");
+        transaction.setCustomerCity("Springfield");
+        transaction.setCustomerState("IL");
+        transaction.setMerchantName("Coffee Shop");
+        transaction.setMerchantCity("St. Louis");
+        transaction.setMerchantState("MO");
+        transaction.setPurchaseAmount(new BigDecimal("4.50"));
+        transaction.setPurchasedItemCount(1);
+        return transaction;
+    }
+}
@@ -0,0 +1,130 @@
+package org.fiverty.frauddetection.service.screening;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fiverty.frauddetection.config.ScreeningProperties;
+import org.fiverty.frauddetection.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompromisedListScreenerTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CompromisedListScreener createScreener() {
+        ScreeningProperties screeningProperties = new ScreeningProperties();
+        screeningProperties.setEnabled(true);
+        screeningProperties.setCardFeed(directory.resolve("cards.csv"));
+        screeningProperties.setIdentityFeed(directory.resolve("identities.csv"));
+        screeningProperties.setWorkDirectory(directory.resolve("work"));
+        return new CompromisedListScreener(screeningProperties, meterRegistry);
+    }
+
+    @Test
+    void screen_CardInFeed_CompromisedCard() throws IOException {
+        Files.writeString(directory.resolve("cards.csv"), "# breach feed\n1234,John Doe\n5678,Mary Major\n");
+        CompromisedListScreener screener = createScreener();
+        screener.afterSingletonsInstantiated();
+
+        ScreeningResult result = screener.screen(createTransaction("John Doe", "1234", "  john   DOE "));
+
+        assertTrue(result.screened());
+        assertTrue(result.compromisedCard());
+        assertFalse(result.compromisedIdentity());
+        assertEquals(1.0, meterRegistry.get("fraud.screening.confirmed-hits").counter().count());
+    }
+
+    @Test
+    void screen_IdentityInFeed_CompromisedIdentity() throws IOException {
+        Files.writeString(directory.resolve("identities.csv"), "Mary Major,5678\n");
+        CompromisedListScreener screener = createScreener();
+        screener.afterSingletonsInstantiated();
+
+        ScreeningResult result = screener.screen(createTransaction("Mary Major", "5678", "M Major"));
+
+        assertTrue(result.compromisedIdentity());
+        assertFalse(result.compromisedCard());
+    }
+
+    @Test
+    void screen_NotInFeed_Clear() throws IOException {
+        Files.writeString(directory.resolve("cards.csv"), "1234,John Doe\n");
+        CompromisedListScreener screener = createScreener();
+        screener.afterSingletonsInstantiated();
+
+        ScreeningResult result = screener.screen(createTransaction("John Doe", "4321", "John Doe"));
+
+        assertTrue(result.screened());
+        assertFalse(result.compromisedCard());
+    }
+
+    @Test
+    void screen_NoFeeds_NotScreened() {
+        CompromisedListScreener screener = createScreener();
+        screener.afterSingletonsInstantiated();
+
+        assertEquals(ScreeningResult.NOT_SCREENED, screener.screen(createTransaction("John Doe", "1234", "John Doe")));
+    }
+
+    @Test
+    void refresh_FeedReplaced_NewListSwappedIn() throws IOException {
+        Path feed = directory.resolve("cards.csv");
+        Files.writeString(feed, "1234,John Doe\n");
+        CompromisedListScreener screener = createScreener();
+        screener.afterSingletonsInstantiated();
+
+        Files.writeString(feed, "5678,Mary Major\n");
+        Files.setLastModifiedTime(feed, FileTime.from(Instant.now().plusSeconds(60)));
+        screener.refresh();
+
+        assertFalse(screener.screen(createTransaction("John Doe", "1234", "John Doe")).compromisedCard());
+        assertTrue(screener.screen(createTransaction("Mary Major", "5678", "Mary Major")).compromisedCard());
+        try (var files = Files.list(directory.resolve("work"))) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void mightContain_ManyEntries_FewFalsePositivesAndNoFalseNegatives() throws IOException {
+        Random random = new Random(42);
+        long[] fingerprints = new long[100_000];
+        for (int i = 0; i < fingerprints.length; i++) {
+            fingerprints[i] = random.nextLong();
+        }
+        long[] members = fingerprints.clone();
+        CompromisedList list = CompromisedList.build(fingerprints, fingerprints.length, directory.resolve("test.list"), 10);
+
+        for (long member : members) {
+            assertTrue(list.mightContain(member));
+            assertTrue(list.containsExactly(member));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long other = random.nextLong();
+            if (list.mightContain(other)) {
+                falsePositives++;
+                assertFalse(list.containsExactly(other));
+            }
+        }
+        assertTrue(falsePositives < 3_000, "false positives " + falsePositives);
+    }
+
+    private Transaction createTransaction(String customerName, String cardLast4, String nameOnCard) {
+        Transaction transaction = new Transaction();
+        transaction.setCustomerName(customerName);
+        transaction.setCardLast4(cardLast4);
+        transaction.setNameOnCard(nameOnCard);
+        return transaction;
+    }
+}
@@ -0,0 +1,140 @@
+package org.fiverty.frauddetection.service.shadow;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fiverty.frauddetection.config.FraudRuleProperties;
+import org.fiverty.frauddetection.config.ShadowProperties;
+import org.fiverty.frauddetection.model.FraudSignal;
+import org.fiverty.frauddetection.model.Transaction;
+import org.fiverty.frauddetection.service.FraudRuleEvaluator;
+import org.fiverty.frauddetection.service.ScoringContext;
+import org.fiverty.frauddetection.service.linkage.RingCluster;
+import org.fiverty.frauddetection.service.matching.NameMatcher;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ShadowEvaluationServiceTest {
+
+    private final FraudRuleEvaluator fraudRuleEvaluator = new FraudRuleEvaluator(new NameMatcher());
+    private final ShadowProperties shadowProperties = new ShadowProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ScoringContext context = new ScoringContext(null, null, null, null);
+
+    private double disagreements(String signal, String candidate) {
+        return meterRegistry.get("fraud.shadow.disagreements")
+                .tag("signal", signal)
+                .tag("candidate", candidate)
+                .counter()
+                .count();
+    }
+
+    @Test
+    void evaluate_CandidateClearsNameMismatch_DisagreementCounted() {
+        shadowProperties.getRules().getCardDetails().setNameMatchThreshold(0.0);
+        ShadowEvaluationService service = new ShadowEvaluationService(fraudRuleEvaluator, shadowProperties, meterRegistry);
+        Transaction transaction = createTransaction("John Doe", "Mary Major");
+        List<FraudSignal> productionSignals = fraudRuleEvaluator.evaluate(transaction, context, new FraudRuleProperties());
+
+        service.evaluate(transaction, context, productionSignals,
+                fraudRuleEvaluator.isFlagged(productionSignals, new FraudRuleProperties()));
+
+        assertEquals(1.0, meterRegistry.get("fraud.shadow.evaluated").counter().count());
+        assertEquals(1.0, disagreements("CARD_DETAILS", "cleared"));
+        assertEquals(1.0, disagreements("OVERALL", "cleared"));
+        assertEquals(0.0, disagreements("LOCATION", "flagged"));
+    }
+
+    @Test
+    void evaluate_SameRules_NoDisagreement() {
+        ShadowEvaluationService service = new ShadowEvaluationService(fraudRuleEvaluator, shadowProperties, meterRegistry);
+        Transaction transaction = createTransaction("John Doe", "Mary Major");
+        List<FraudSignal> productionSignals = fraudRuleEvaluator.evaluate(transaction, context, new FraudRuleProperties());
+
+        service.evaluate(transaction, context, productionSignals,
+                fraudRuleEvaluator.isFlagged(productionSignals, new FraudRuleProperties()));
+
+        assertEquals(0.0, disagreements("CARD_DETAILS", "cleared"));
+        assertEquals(0.0, disagreements("OVERALL", "cleared"));
+    }
+
+    @Test
+    void evaluate_CandidateFlagsDerivedSignalOnly_NoOverallDisagreement() {
+        shadowProperties.getRules().getFraudRing().setMaxClusterCustomers(2);
+        ShadowEvaluationService service = new ShadowEvaluationService(fraudRuleEvaluator, shadowProperties, meterRegistry);
+        ScoringContext linked = new ScoringContext(null, new RingCluster(2, 2, 0), null, null);
+        Transaction transaction = createTransaction("John Doe", "John Doe");
+        List<FraudSignal> productionSignals = fraudRuleEvaluator.evaluate(transaction, linked, new FraudRuleProperties());
+
+        service.evaluate(transaction, linked, productionSignals,
+                fraudRuleEvaluator.isFlagged(productionSignals, new FraudRuleProperties()));
+
+        // FRAUD_RING is derived from the aggregates, so it never decides the overall outcome
+        assertEquals(1.0, disagreements("FRAUD_RING", "flagged"));
+        assertEquals(0.0, disagreements("OVERALL", "flagged"));
+    }
+
+    @Test
+    void submit_QueueFull_TransactionDropped() throws InterruptedException {
+        shadowProperties.setEnabled(true);
+        shadowProperties.setThreads(1);
+        shadowProperties.setQueueCapacity(1);
+        FraudRuleEvaluator blockingEvaluator = mock(FraudRuleEvaluator.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(blockingEvaluator.evaluate(any(), any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return List.of();
+        });
+        ShadowEvaluationService service = new ShadowEvaluationService(blockingEvaluator, shadowProperties, meterRegistry);
+        Transaction transaction = createTransaction("John Doe", "John Doe");
+
+        try {
+            service.submit(transaction, context, List.of(), false);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            service.submit(transaction, context, List.of(), false);
+            service.submit(transaction, context, List.of(), false);
+
+            assertEquals(1.0, meterRegistry.get("fraud.shadow.dropped").counter().count());
+            assertEquals(1.0, meterRegistry.get("fraud.shadow.queue.size").gauge().value());
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void submit_Disabled_NotEvaluated() {
+        FraudRuleEvaluator evaluator = mock(FraudRuleEvaluator.class);
+        ShadowEvaluationService service = new ShadowEvaluationService(evaluator, shadowProperties, meterRegistry);
+
+        service.submit(createTransaction("John Doe", "John Doe"), context, List.of(), false);
+
+        verifyNoInteractions(evaluator);
+    }
+
+    private Transaction createTransaction(String customerName, String nameOnCard) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(UUID.randomUUID());
+        transaction.setCustomerName(customerName);
+        transaction.setNameOnCard(nameOnCard);
+        transaction.setIpAddress("11.168.1.1");
+        transaction.setCustomerCity("Springfield");
+        transaction.setCustomerState("IL");
+        transaction.setMerchantName("Merchant Name");
+        transaction.setMerchantCity("Springfield");
+        transaction.setMerchantState("IL");
+        transaction.setCardLast4("1234");
+        transaction.setPurchaseAmount(new BigDecimal("100.00"));
+        transaction.setPurchasedItemCount(1);
+        return transaction;
+    }
+}
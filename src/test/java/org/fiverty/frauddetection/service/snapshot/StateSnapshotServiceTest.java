@@ -0,0 +1,223 @@
+package org.fiverty.frauddetection.service.snapshot;
+
+import org.fiverty.frauddetection.config.SnapshotProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateSnapshotServiceTest {
+
+    @TempDir
+    private Path directory;
+
+    /**
+     * Participant holding a single value, reading only the version it writes.
+     */
+    private static final class ValueParticipant implements SnapshotParticipant {
+        private final String name;
+        private final int version;
+        private long value;
+        private int reads;
+
+        private ValueParticipant(String name, int version, long value) {
+            this.name = name;
+            this.version = version;
+            this.value = value;
+        }
+
+        @Override
+        public String snapshotName() {
+            return name;
+        }
+
+        @Override
+        public int snapshotVersion() {
+            return version;
+        }
+
+        @Override
+        public void writeSnapshot(DataOutput out) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        public void readSnapshot(DataInput in, int version) throws IOException {
+            reads++;
+            if (version != this.version) {
+                throw new IOException("Unsupported version " + version);
+            }
+            value = in.readLong();
+        }
+    }
+
+    /**
+     * Participant streaming {@code size} bytes of a repeating pattern, far more than fits in a byte array.
+     */
+    private static final class LargeParticipant implements SnapshotParticipant {
+        private static final int CHUNK_BYTES = 1 << 16;
+
+        private final long size;
+        private long bytesRead;
+        private boolean boundedAtSectionEnd;
+
+        private LargeParticipant(long size) {
+            this.size = size;
+        }
+
+        @Override
+        public String snapshotName() {
+            return "large";
+        }
+
+        @Override
+        public int snapshotVersion() {
+            return 1;
+        }
+
+        @Override
+        public void writeSnapshot(DataOutput out) throws IOException {
+            byte[] chunk = chunk();
+            for (long remaining = size; remaining > 0; remaining -= chunk.length) {
+                out.write(chunk, 0, (int) Math.min(chunk.length, remaining));
+            }
+        }
+
+        @Override
+        public void readSnapshot(DataInput in, int version) throws IOException {
+            byte[] expected = chunk();
+            byte[] actual = new byte[CHUNK_BYTES];
+            for (long remaining = size; remaining > 0; remaining -= actual.length) {
+                int length = (int) Math.min(actual.length, remaining);
+                in.readFully(actual, 0, length);
+                if (!Arrays.equals(expected, 0, length, actual, 0, length)) {
+                    throw new IOException("Unexpected payload at " + bytesRead);
+                }
+                bytesRead += length;
+            }
+            try {
+                in.readByte();
+            } catch (EOFException ex) {
+                boundedAtSectionEnd = true;
+            }
+        }
+
+        private static byte[] chunk() {
+            byte[] chunk = new byte[CHUNK_BYTES];
+            for (int i = 0; i < chunk.length; i++) {
+                chunk[i] = (byte) (i % 251);
+            }
+            return chunk;
+        }
+    }
+
+    @Test
+    void writeSnapshot_SectionLargerThanTwoGigabytes_StreamedAndRestored() throws IOException {
+        long size = Integer.MAX_VALUE + (1L << 20);
+        writeSnapshot(new LargeParticipant(size), new ValueParticipant("merchants", 1, 42L));
+        LargeParticipant large = new LargeParticipant(size);
+        ValueParticipant merchants = new ValueParticipant("merchants", 1, 0L);
+
+        createService(large, merchants).afterSingletonsInstantiated();
+
+        assertTrue(Files.size(snapshotPath()) > size);
+        assertEquals(size, large.bytesRead);
+        assertTrue(large.boundedAtSectionEnd);
+        // The section after the large one is found at its long offset
+        assertEquals(42L, merchants.value);
+    }
+
+    @Test
+    void afterSingletonsInstantiated_WrittenSnapshot_AllParticipantsRestored() {
+        writeSnapshot(new ValueParticipant("merchants", 1, 42L), new ValueParticipant("linkage", 3, -7L));
+        ValueParticipant merchants = new ValueParticipant("merchants", 1, 0L);
+        ValueParticipant linkage = new ValueParticipant("linkage", 3, 0L);
+
+        createService(merchants, linkage).afterSingletonsInstantiated();
+
+        assertEquals(42L, merchants.value);
+        assertEquals(-7L, linkage.value);
+    }
+
+    @Test
+    void afterSingletonsInstantiated_CorruptSection_RestoredFromPrevious() throws IOException {
+        writeSnapshot(new ValueParticipant("merchants", 1, 1L));
+        writeSnapshot(new ValueParticipant("merchants", 1, 2L));
+        Path path = snapshotPath();
+        byte[] bytes = Files.readAllBytes(path);
+        // The payload is the last thing in the file
+        bytes[bytes.length - 1] ^= 0x01;
+        Files.write(path, bytes);
+        ValueParticipant merchants = new ValueParticipant("merchants", 1, 0L);
+
+        createService(merchants).afterSingletonsInstantiated();
+
+        assertEquals(1L, merchants.value);
+    }
+
+    @Test
+    void afterSingletonsInstantiated_UnsupportedSectionVersion_RestoredFromPrevious() {
+        writeSnapshot(new ValueParticipant("merchants", 1, 1L));
+        writeSnapshot(new ValueParticipant("merchants", 2, 2L));
+        ValueParticipant merchants = new ValueParticipant("merchants", 1, 0L);
+
+        createService(merchants).afterSingletonsInstantiated();
+
+        assertEquals(1L, merchants.value);
+        assertEquals(2, merchants.reads);
+    }
+
+    @Test
+    void afterSingletonsInstantiated_NoUsableSectionInEitherFile_StartsCold() {
+        writeSnapshot(new ValueParticipant("merchants", 2, 1L));
+        ValueParticipant merchants = new ValueParticipant("merchants", 1, 5L);
+
+        createService(merchants).afterSingletonsInstantiated();
+
+        assertEquals(5L, merchants.value);
+    }
+
+    @Test
+    void afterSingletonsInstantiated_MissingFile_StartsCold() {
+        ValueParticipant merchants = new ValueParticipant("merchants", 1, 5L);
+
+        assertDoesNotThrow(() -> createService(merchants).afterSingletonsInstantiated());
+
+        assertEquals(5L, merchants.value);
+        assertEquals(0, merchants.reads);
+    }
+
+    @Test
+    void writeSnapshot_ExistingSnapshot_KeptAsPrevious() {
+        writeSnapshot(new ValueParticipant("merchants", 1, 1L));
+
+        writeSnapshot(new ValueParticipant("merchants", 1, 2L));
+
+        assertTrue(Files.isRegularFile(snapshotPath()));
+        assertTrue(Files.isRegularFile(directory.resolve("detection-state.snapshot.prev")));
+        assertFalse(Files.exists(directory.resolve("detection-state.snapshot.tmp")));
+    }
+
+    private void writeSnapshot(SnapshotParticipant... participants) {
+        createService(participants).writeSnapshot();
+    }
+
+    private StateSnapshotService createService(SnapshotParticipant... participants) {
+        SnapshotProperties snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setPath(snapshotPath());
+        return new StateSnapshotService(List.of(participants), snapshotProperties);
+    }
+
+    private Path snapshotPath() {
+        return directory.resolve("detection-state.snapshot");
+    }
+}
@@ -0,0 +1,83 @@
+package org.fiverty.frauddetection.service.validation;
+
+import org.fiverty.frauddetection.model.dto.TransactionRequestDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionRequestValidatorTest {
+
+    private final TransactionRequestValidator validator = new TransactionRequestValidator();
+
+    @Test
+    void validate_ValidRequest_Accepted() {
+        assertDoesNotThrow(() -> validator.validate(createValidTransactionRequestDto()));
+    }
+
+    @Test
+    void validate_ValuesJudgedByRules_Accepted() {
+        TransactionRequestDto transaction = createValidTransactionRequestDto();
+        transaction.setIpAddress("2001:db8::1");
+        transaction.getLocation().setState("XX");
+        transaction.getTransactionDetails().setPurchasedItemCount(0);
+
+        assertDoesNotThrow(() -> validator.validate(transaction));
+    }
+
+    @Test
+    void validate_EmptyRequest_EveryFieldReported() {
+        TransactionValidationException exception = assertThrows(TransactionValidationException.class,
+                () -> validator.validate(new TransactionRequestDto()));
+
+        assertEquals(11, exception.getErrors().size());
+        assertTrue(exception.getErrors().stream().allMatch(error -> error.message().equals("is required")));
+    }
+
+    @Test
+    void validate_MalformedFields_AllReportedTogether() {
+        TransactionRequestDto transaction = createValidTransactionRequestDto();
+        transaction.setCustomerName("  ");
+        transaction.setIpAddress("999.1.1.1");
+        transaction.getPaymentDetails().setCardLast4("12345");
+        transaction.getPaymentDetails().setPurchaseAmount(new BigDecimal("10.005"));
+        transaction.getTransactionDetails().getMerchantLocation().setState("Illinois");
+
+        TransactionValidationException exception = assertThrows(TransactionValidationException.class,
+                () -> validator.validate(transaction));
+
+        assertEquals(List.of("customerName", "ipAddress", "paymentDetails.cardLast4", "paymentDetails.purchaseAmount",
+                        "transactionDetails.merchantLocation.state"),
+                exception.getErrors().stream().map(TransactionValidationException.FieldError::field).toList());
+    }
+
+    @Test
+    void validate_HostNameAsIpAddress_Rejected() {
+        TransactionRequestDto transaction = createValidTransactionRequestDto();
+        transaction.setIpAddress("example.com");
+
+        TransactionValidationException exception = assertThrows(TransactionValidationException.class,
+                () -> validator.validate(transaction));
+
+        assertEquals(List.of(new TransactionValidationException.FieldError("ipAddress", "must be an IPv4 or IPv6 address")),
+                exception.getErrors());
+    }
+
+    private TransactionRequestDto createValidTransactionRequestDto() {
+        return TransactionRequestDto.builder()
+                .customerName("John Doe")
+                .ipAddress("11.168.1.1")
+                .location(new TransactionRequestDto.LocationDto("Springfield", "IL"))
+                .paymentDetails(new TransactionRequestDto.PaymentDetailsDto("1234", "John Doe", new BigDecimal("100.00")))
+                .transactionDetails(
+                        new TransactionRequestDto.TransactionDetailsDto(
+                                "Merchant Name",
+                                new TransactionRequestDto.TransactionDetailsDto.MerchantLocationDto("Chicago", "IL"),
+                                1
+                        )
+                )
+                .build();
+    }
+}